@@ -12,8 +12,7 @@ public interface AlertingEngine {
 
     default AlertingResult evaluate(String event) {
         try {
-            Map<String, Object> eventMap = JSON_READER.readValue(event);
-            return evaluate(eventMap);
+            return evaluate(new LazyEventMap(event));
         } catch (Exception e) {
             return AlertingResult.fromException(e);
         }
@@ -23,5 +22,12 @@ public interface AlertingEngine {
 
     AlertingEngineType getAlertingEngineType();
 
-    default void clean() {}
+    /**
+     * Cleans the state of the engine that is not needed for further evaluation.
+     *
+     * @return the number of removed keys of the engine state
+     */
+    default int clean() {
+        return 0;
+    }
 }
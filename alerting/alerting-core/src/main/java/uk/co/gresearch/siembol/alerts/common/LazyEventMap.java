@@ -0,0 +1,207 @@
+package uk.co.gresearch.siembol.alerts.common;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Map view of a json event that decodes field values only when they are requested.
+ * The constructor validates the event and indexes offsets of values of its top level fields.
+ * The map is materialised into a LinkedHashMap on iteration or on modification.
+ */
+public class LazyEventMap extends AbstractMap<String, Object> {
+    private static final ObjectMapper JSON_MAPPER = new ObjectMapper();
+    private static final ObjectReader JSON_VALUE_READER = JSON_MAPPER.readerFor(Object.class);
+    private static final String NOT_JSON_OBJECT_MSG = "The event is not a json object";
+    private static final String DECODING_EXCEPTION_MSG = "Exception during decoding the field: %s";
+    private static final Object NOT_DECODED = new Object();
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int EMPTY_SLOT = 0;
+    private static final char QUOTE = '"';
+    private static final char ESCAPE = '\\';
+    private static final char NAME_SEPARATOR = ':';
+    private static final String NUMBER_START_CHARACTERS = "-0123456789";
+    private static final String NUMBER_CHARACTERS = "+-.0123456789eE";
+
+    private final char[] json;
+    private String[] fieldNames = new String[INITIAL_CAPACITY];
+    private int[] valueOffsets = new int[INITIAL_CAPACITY];
+    private int[] hashTable = new int[INITIAL_CAPACITY * 2];
+    private Object[] values;
+    private int size = 0;
+    private Map<String, Object> materialized;
+
+    public LazyEventMap(String event) throws IOException {
+        json = event.toCharArray();
+        try (JsonParser parser = JSON_MAPPER.getFactory().createParser(json, 0, json.length)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalArgumentException(NOT_JSON_OBJECT_MSG);
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String fieldName = parser.getCurrentName();
+                int fieldNameOffset = (int) parser.getTokenLocation().getCharOffset();
+                parser.nextToken();
+                addField(fieldName, getValueOffset(fieldNameOffset));
+                parser.skipChildren();
+            }
+        }
+
+        values = new Object[size];
+        Arrays.fill(values, NOT_DECODED);
+    }
+
+    @Override
+    public Object get(Object key) {
+        if (materialized != null) {
+            return materialized.get(key);
+        }
+
+        int index = indexOf(key);
+        if (index < 0) {
+            return null;
+        }
+
+        if (values[index] == NOT_DECODED) {
+            values[index] = decodeValue(index);
+        }
+        return values[index];
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return materialized != null ? materialized.containsKey(key) : indexOf(key) >= 0;
+    }
+
+    @Override
+    public int size() {
+        return materialized != null ? materialized.size() : size;
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        return materialize().put(key, value);
+    }
+
+    @Override
+    public Object remove(Object key) {
+        return materialize().remove(key);
+    }
+
+    @Override
+    public void clear() {
+        materialize().clear();
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return materialize().entrySet();
+    }
+
+    private Map<String, Object> materialize() {
+        if (materialized == null) {
+            Map<String, Object> current = new LinkedHashMap<>(size * 4 / 3 + 1);
+            for (int i = 0; i < size; i++) {
+                current.put(fieldNames[i], get(fieldNames[i]));
+            }
+            materialized = current;
+        }
+        return materialized;
+    }
+
+    private int getValueOffset(int fieldNameOffset) {
+        //NOTE: the field name and the separator have been already validated by the parser
+        int offset = fieldNameOffset + 1;
+        while (json[offset] != QUOTE) {
+            offset += json[offset] == ESCAPE ? 2 : 1;
+        }
+
+        offset++;
+        while (json[offset] != NAME_SEPARATOR) {
+            offset++;
+        }
+
+        offset++;
+        while (Character.isWhitespace(json[offset])) {
+            offset++;
+        }
+        return offset;
+    }
+
+    private int getValueLength(int valueOffset) {
+        if (NUMBER_START_CHARACTERS.indexOf(json[valueOffset]) < 0) {
+            return json.length - valueOffset;
+        }
+
+        //NOTE: a root level number needs to be followed by a white space or by the end of the input
+        int end = valueOffset + 1;
+        while (end < json.length && NUMBER_CHARACTERS.indexOf(json[end]) >= 0) {
+            end++;
+        }
+        return end - valueOffset;
+    }
+
+    private Object decodeValue(int index) {
+        try (JsonParser parser = JSON_MAPPER.getFactory()
+                .createParser(json, valueOffsets[index], getValueLength(valueOffsets[index]))) {
+            return JSON_VALUE_READER.readValue(parser);
+        } catch (IOException e) {
+            throw new IllegalStateException(String.format(DECODING_EXCEPTION_MSG, fieldNames[index]), e);
+        }
+    }
+
+    private int indexOf(Object key) {
+        if (!(key instanceof String)) {
+            return -1;
+        }
+
+        int mask = hashTable.length - 1;
+        for (int slot = key.hashCode() & mask; hashTable[slot] != EMPTY_SLOT; slot = (slot + 1) & mask) {
+            int index = hashTable[slot] - 1;
+            if (fieldNames[index].equals(key)) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    private void addField(String fieldName, int valueOffset) {
+        int index = indexOf(fieldName);
+        if (index >= 0) {
+            //NOTE: the last value of a duplicate field is used as in the json deserialization
+            valueOffsets[index] = valueOffset;
+            return;
+        }
+
+        if (size == fieldNames.length) {
+            fieldNames = Arrays.copyOf(fieldNames, size * 2);
+            valueOffsets = Arrays.copyOf(valueOffsets, size * 2);
+            rehash(hashTable.length * 2);
+        }
+
+        fieldNames[size] = fieldName;
+        valueOffsets[size] = valueOffset;
+        insertIntoHashTable(size);
+        size++;
+    }
+
+    private void rehash(int capacity) {
+        hashTable = new int[capacity];
+        for (int i = 0; i < size; i++) {
+            insertIntoHashTable(i);
+        }
+    }
+
+    private void insertIntoHashTable(int index) {
+        int mask = hashTable.length - 1;
+        int slot = fieldNames[index].hashCode() & mask;
+        while (hashTable[slot] != EMPTY_SLOT) {
+            slot = (slot + 1) & mask;
+        }
+        hashTable[slot] = index + 1;
+    }
+}
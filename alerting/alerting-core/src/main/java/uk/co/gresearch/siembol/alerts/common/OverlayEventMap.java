@@ -0,0 +1,148 @@
+package uk.co.gresearch.siembol.alerts.common;
+
+import java.util.*;
+
+/**
+ * Copy-on-write view of an event that stores its modifications in a small overlay map
+ * while reading all other fields from a shared base event.
+ * The base event should not be modified after creating the view.
+ */
+public class OverlayEventMap extends AbstractMap<String, Object> {
+    private static final Object REMOVED = new Object();
+    private final Map<String, Object> base;
+    private final Map<String, Object> overlay;
+
+    public OverlayEventMap(Map<String, Object> event) {
+        if (event instanceof OverlayEventMap) {
+            //NOTE: we share the base event of the overlay in order to avoid chains of overlays
+            OverlayEventMap overlayEvent = (OverlayEventMap) event;
+            this.base = overlayEvent.base;
+            this.overlay = new HashMap<>(overlayEvent.overlay);
+        } else {
+            this.base = event;
+            this.overlay = new HashMap<>();
+        }
+    }
+
+    @Override
+    public Object get(Object key) {
+        Object value = overlay.get(key);
+        if (value == null && !overlay.containsKey(key)) {
+            return base.get(key);
+        }
+        return value == REMOVED ? null : value;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        Object value = overlay.get(key);
+        if (value == null && !overlay.containsKey(key)) {
+            return base.containsKey(key);
+        }
+        return value != REMOVED;
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        Object previous = get(key);
+        overlay.put(key, value);
+        return previous;
+    }
+
+    @Override
+    public Object remove(Object key) {
+        if (!(key instanceof String)) {
+            return null;
+        }
+
+        Object previous = get(key);
+        if (base.containsKey(key)) {
+            overlay.put((String) key, REMOVED);
+        } else {
+            overlay.remove(key);
+        }
+        return previous;
+    }
+
+    @Override
+    public void clear() {
+        overlay.clear();
+        base.keySet().forEach(x -> overlay.put(x, REMOVED));
+    }
+
+    @Override
+    public int size() {
+        int size = base.size();
+        for (Entry<String, Object> entry : overlay.entrySet()) {
+            boolean inBase = base.containsKey(entry.getKey());
+            if (entry.getValue() == REMOVED) {
+                size -= inBase ? 1 : 0;
+            } else {
+                size += inBase ? 0 : 1;
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return new AbstractSet<Entry<String, Object>>() {
+            @Override
+            public Iterator<Entry<String, Object>> iterator() {
+                return new OverlayIterator();
+            }
+
+            @Override
+            public int size() {
+                return OverlayEventMap.this.size();
+            }
+        };
+    }
+
+    private class OverlayIterator implements Iterator<Entry<String, Object>> {
+        private final Iterator<Entry<String, Object>> baseIterator = base.entrySet().iterator();
+        private final Iterator<Entry<String, Object>> overlayIterator = overlay.entrySet().iterator();
+        private Entry<String, Object> next;
+
+        OverlayIterator() {
+            next = findNext();
+        }
+
+        private Entry<String, Object> findNext() {
+            while (baseIterator.hasNext()) {
+                Entry<String, Object> entry = baseIterator.next();
+                Object value = overlay.get(entry.getKey());
+                if (value == null && !overlay.containsKey(entry.getKey())) {
+                    //NOTE: entries of the base event are shared so they should not be modified
+                    return new SimpleImmutableEntry<>(entry);
+                }
+                if (value != REMOVED) {
+                    return new SimpleImmutableEntry<>(entry.getKey(), value);
+                }
+            }
+
+            while (overlayIterator.hasNext()) {
+                Entry<String, Object> entry = overlayIterator.next();
+                if (entry.getValue() != REMOVED && !base.containsKey(entry.getKey())) {
+                    return entry;
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Entry<String, Object> next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            Entry<String, Object> ret = next;
+            next = findNext();
+            return ret;
+        }
+    }
+}
@@ -11,6 +11,7 @@ import uk.co.gresearch.siembol.alerts.common.*;
 import uk.co.gresearch.siembol.alerts.correlationengine.AlertCounterMetadata;
 import uk.co.gresearch.siembol.alerts.correlationengine.CorrelationEngineImpl;
 import uk.co.gresearch.siembol.alerts.correlationengine.CorrelationRule;
+import uk.co.gresearch.siembol.alerts.correlationengine.CorrelationStateStore;
 import uk.co.gresearch.siembol.alerts.model.*;
 
 import java.io.IOException;
@@ -18,6 +19,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import static uk.co.gresearch.siembol.alerts.common.AlertingResult.StatusCode.OK;
@@ -33,9 +35,15 @@ public class AlertingCorrelationRulesCompiler implements AlertingCompiler {
             new ObjectMapper().readerFor(CorrelationRuleDto.class);
     private static final String NOT_IMPLEMENTED_YET_MSG = "Not implememented yet";
     private final JsonSchemaValidator jsonSchemaValidator;
+    private final CorrelationStateStore stateStore;
 
-    AlertingCorrelationRulesCompiler(JsonSchemaValidator jsonSchemaValidator) {
+    AlertingCorrelationRulesCompiler(JsonSchemaValidator jsonSchemaValidator, CorrelationStateStore stateStore) {
         this.jsonSchemaValidator = jsonSchemaValidator;
+        this.stateStore = stateStore;
+    }
+
+    AlertingCorrelationRulesCompiler(JsonSchemaValidator jsonSchemaValidator) {
+        this(jsonSchemaValidator, null);
     }
 
     @Override
@@ -89,6 +97,7 @@ public class AlertingCorrelationRulesCompiler implements AlertingCompiler {
                         .timeWindowInMs(attr.getTimeUnit().convertToMs(attr.getTimeWindow()))
                         .flags(ruleFlags)
                         .maxLagTimeInSec(attr.getMaxTimeLagInSec())
+                        .stateStore(stateStore)
                         .name(ruleDto.getRuleName())
                         .tags(tags)
                         .protections(protections)
@@ -109,6 +118,14 @@ public class AlertingCorrelationRulesCompiler implements AlertingCompiler {
                     .correlationRules(rulesList)
                     .build();
 
+            if (stateStore != null) {
+                //NOTE: counters of unchanged rules are carried over, the counters of other rules are removed
+                Set<String> ruleNames = rulesList.stream()
+                        .map(CorrelationRule::getFullRuleName)
+                        .collect(Collectors.toSet());
+                stateStore.retainRules(ruleNames);
+            }
+
             AlertingAttributes attributes = new AlertingAttributes();
             attributes.setEngine(engine);
             return new AlertingResult(OK, attributes);
@@ -137,6 +154,12 @@ public class AlertingCorrelationRulesCompiler implements AlertingCompiler {
         return new AlertingCorrelationRulesCompiler(validator);
     }
 
+    public static AlertingCompiler createAlertingCorrelationRulesCompiler(
+            CorrelationStateStore stateStore) throws Exception {
+        JsonSchemaValidator validator = new SiembolJsonSchemaValidator(CorrelationRulesDto.class);
+        return new AlertingCorrelationRulesCompiler(validator, stateStore);
+    }
+
     @Override
     public String wrapRuleToRules(String ruleStr) throws IOException {
         CorrelationRuleDto rule = JSON_RULE_READER.readValue(ruleStr);
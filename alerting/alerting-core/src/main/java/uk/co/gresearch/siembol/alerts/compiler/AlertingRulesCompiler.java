@@ -144,6 +144,7 @@ public class AlertingRulesCompiler implements AlertingCompiler {
                     .constants(generalConstants)
                     .protections(generalProtections)
                     .rules(rulesList)
+                    .rulesPrefilter(true)
                     .build();
 
             AlertingAttributes attributes = new AlertingAttributes();
@@ -1,50 +1,101 @@
 package uk.co.gresearch.siembol.alerts.correlationengine;
-import java.util.PriorityQueue;
+import java.util.Arrays;
 
+/**
+ * Counter of alert timestamps bounded by the threshold of the counter.
+ * Timestamps are stored sorted in a primitive ring buffer that grows up to the threshold on demand,
+ * so that adding an in order timestamp and removing the oldest timestamp are constant time operations.
+ */
 public class AlertCounter {
+    private static final long[] EMPTY_TIMESTAMPS = new long[0];
+    private static final int INITIAL_CAPACITY = 4;
     private final AlertCounterMetadata counterMetadata;
-    private final PriorityQueue<Long> timestampsHeap = new PriorityQueue<>();
+    private long[] timestamps = EMPTY_TIMESTAMPS;
+    private int head = 0;
+    private int size = 0;
 
     public AlertCounter(AlertCounterMetadata counterMetadata) {
         this.counterMetadata = counterMetadata;
     }
 
     public void update(long eventTime) {
-        if (getSize() == counterMetadata.getThreshold()) {
-            timestampsHeap.poll();
+        if (size == counterMetadata.getThreshold()) {
+            removeOldest();
+        } else if (size == timestamps.length) {
+            grow();
         }
 
-        timestampsHeap.add(eventTime);
+        //NOTE: timestamps are usually in order, so we insert from the newest one
+        int index = size;
+        while (index > 0 && get(index - 1) > eventTime) {
+            set(index, get(index - 1));
+            index--;
+        }
+        set(index, eventTime);
+        size++;
     }
 
     public void clean(long waterMark) {
-        if (!timestampsHeap.isEmpty() && timestampsHeap.peek() < waterMark - counterMetadata.getExtendedWindowSize()) {
-            timestampsHeap.clear();
+        if (size > 0 && get(0) < waterMark - counterMetadata.getExtendedWindowSize()) {
+            clear();
             return;
         }
 
-        while (!timestampsHeap.isEmpty() && timestampsHeap.peek() < waterMark) {
-            timestampsHeap.poll();
+        while (size > 0 && get(0) < waterMark) {
+            removeOldest();
         }
     }
 
     public boolean isEmpty() {
-        return timestampsHeap.isEmpty();
+        return size == 0;
     }
 
     public int getSize() {
-        return timestampsHeap.size();
+        return size;
     }
 
     public Long getOldest() {
-        return timestampsHeap.peek();
+        return size > 0 ? get(0) : null;
+    }
+
+    public long[] getTimestamps() {
+        long[] ret = new long[size];
+        for (int i = 0; i < size; i++) {
+            ret[i] = get(i);
+        }
+        return ret;
     }
 
     public boolean matchThreshold() {
-        return timestampsHeap.size() >= counterMetadata.getThreshold();
+        return size >= counterMetadata.getThreshold();
     }
 
     public boolean isMandatory() {
         return counterMetadata.isMandatory();
     }
+
+    private long get(int index) {
+        return timestamps[(head + index) % timestamps.length];
+    }
+
+    private void set(int index, long timestamp) {
+        timestamps[(head + index) % timestamps.length] = timestamp;
+    }
+
+    private void removeOldest() {
+        head = (head + 1) % timestamps.length;
+        size--;
+    }
+
+    private void clear() {
+        head = 0;
+        size = 0;
+    }
+
+    private void grow() {
+        int capacity = Math.min(counterMetadata.getThreshold(), Math.max(INITIAL_CAPACITY, timestamps.length * 2));
+        long[] current = Arrays.copyOf(getTimestamps(), capacity);
+        timestamps = current;
+        head = 0;
+    }
 }
@@ -74,11 +74,13 @@ public class CorrelationEngineImpl implements AlertingEngine {
     }
 
     @Override
-    public void clean() {
+    public int clean() {
         long currentTime = timeProvider.getCurrentTimeInMs();
+        int numExpiredKeys = 0;
         for (CorrelationRule rule : correlationRules) {
-            rule.clean(currentTime);
+            numExpiredKeys += rule.clean(currentTime);
         }
+        return numExpiredKeys;
     }
 
     public static class Builder {
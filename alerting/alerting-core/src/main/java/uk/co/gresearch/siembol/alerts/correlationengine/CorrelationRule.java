@@ -4,6 +4,7 @@ import uk.co.gresearch.siembol.alerts.common.EvaluationResult;
 import uk.co.gresearch.siembol.alerts.common.AlertingAttributes;
 import uk.co.gresearch.siembol.alerts.common.AlertingFields;
 import uk.co.gresearch.siembol.alerts.common.AlertingResult;
+import uk.co.gresearch.siembol.alerts.common.OverlayEventMap;
 import uk.co.gresearch.siembol.alerts.engine.AbstractRule;
 
 import java.util.*;
@@ -23,7 +24,11 @@ public class CorrelationRule extends AbstractRule {
 
     private final ArrayList<AlertCounterMetadata> alertCountersMetadata;
     private final Map<String, Integer> alertToCounterIndex;
-    private final Map<String, ArrayList<AlertCounter>> alertCounters = new HashMap<>();
+    private final Map<String, ArrayList<AlertCounter>> alertCounters;
+    private final PriorityQueue<ExpiryEntry> expiryQueue =
+            new PriorityQueue<>(Comparator.comparingLong(x -> x.oldestTimestamp));
+    private final Map<String, ExpiryEntry> expiryEntries = new HashMap<>();
+    private boolean expiryQueueInitialised = false;
 
     protected CorrelationRule(Builder<?> builder) {
         super(builder);
@@ -33,6 +38,9 @@ public class CorrelationRule extends AbstractRule {
         this.flags = builder.flags;
         this.alertCountersMetadata = builder.alertCountersMetadata;
         this.alertToCounterIndex = builder.alertToCounterIndex;
+        this.alertCounters = builder.stateStore != null
+                ? builder.stateStore.getAlertCounters(getFullRuleName(), alertCountersMetadata)
+                : new HashMap<>();
     }
     @Override
     public AlertingResult match(Map<String, Object> alert) {
@@ -50,6 +58,7 @@ public class CorrelationRule extends AbstractRule {
 
             Map<String, Object> outAlert = createOutputAlert(alert);
             alertCounters.remove(key);
+            expiryEntries.remove(key);
             return AlertingResult.fromEvaluationResult(EvaluationResult.MATCH, outAlert);
         } catch (Exception e) {
             AlertingAttributes attr = new AlertingAttributes();
@@ -60,9 +69,31 @@ public class CorrelationRule extends AbstractRule {
         }
     }
 
-    public void clean(long currentTime) {
+    public int clean(long currentTime) {
         long waterMark = currentTime - timeWindowInMs - maxLagTimeInMs;
-        alertCounters.keySet().removeIf(x -> cleanAlertCounters(alertCounters.get(x), waterMark));
+        if (!expiryQueueInitialised) {
+            //NOTE: counters carried over from a state store are scheduled during the first cleaning
+            alertCounters.forEach(this::scheduleExpiry);
+            expiryQueueInitialised = true;
+        }
+
+        int numExpiredKeys = 0;
+        while (!expiryQueue.isEmpty() && expiryQueue.peek().oldestTimestamp < waterMark) {
+            ExpiryEntry entry = expiryQueue.poll();
+            if (expiryEntries.get(entry.key) != entry) {
+                //NOTE: the counters have been removed after matching the rule or the key has been rescheduled
+                continue;
+            }
+
+            if (cleanAlertCounters(entry.counters, waterMark)) {
+                alertCounters.remove(entry.key);
+                expiryEntries.remove(entry.key);
+                numExpiredKeys++;
+            } else {
+                scheduleExpiry(entry.key, entry.counters);
+            }
+        }
+        return numExpiredKeys;
     }
 
     public List<String> getAlertNames() {
@@ -78,8 +109,16 @@ public class CorrelationRule extends AbstractRule {
         if (currentCounterList == null) {
             currentCounterList = createAlertCounters();
             alertCounters.put(key, currentCounterList);
+            if (expiryQueueInitialised) {
+                scheduleExpiry(key, currentCounterList, eventTime);
+            }
         } else {
             cleanAlertCounters(currentCounterList, processingTime - timeWindowInMs - maxLagTimeInMs);
+            ExpiryEntry entry = expiryEntries.get(key);
+            if (expiryQueueInitialised && (entry == null || eventTime < entry.oldestTimestamp)) {
+                //NOTE: an out of order event time is older than the scheduled one so the key is rescheduled
+                scheduleExpiry(key, currentCounterList, eventTime);
+            }
         }
 
         int index = alertToCounterIndex.get(ruleName);
@@ -93,7 +132,7 @@ public class CorrelationRule extends AbstractRule {
     }
 
     private Map<String, Object> createOutputAlert(Map<String, Object> alert) {
-        Map<String, Object> ret = new HashMap<>(alert);
+        Map<String, Object> ret = new OverlayEventMap(alert);
         ret.put(AlertingFields.RULE_NAME.getCorrelationAlertingName(), getRuleName());
         ret.put(AlertingFields.FULL_RULE_NAME.getCorrelationAlertingName(), getFullRuleName());
         return ret;
@@ -122,6 +161,24 @@ public class CorrelationRule extends AbstractRule {
         return empty;
     }
 
+    private void scheduleExpiry(String key, ArrayList<AlertCounter> counters) {
+        long oldestTimestamp = Long.MAX_VALUE;
+        boolean empty = true;
+        for (AlertCounter counter : counters) {
+            if (!counter.isEmpty()) {
+                oldestTimestamp = Math.min(oldestTimestamp, counter.getOldest());
+                empty = false;
+            }
+        }
+        scheduleExpiry(key, counters, empty ? Long.MIN_VALUE : oldestTimestamp);
+    }
+
+    private void scheduleExpiry(String key, ArrayList<AlertCounter> counters, long oldestTimestamp) {
+        ExpiryEntry entry = new ExpiryEntry(key, counters, oldestTimestamp);
+        expiryEntries.put(key, entry);
+        expiryQueue.add(entry);
+    }
+
     private ArrayList<AlertCounter> createAlertCounters() {
         ArrayList<AlertCounter> ret = new ArrayList<>(alertCountersMetadata.size());
         for (AlertCounterMetadata counterMetadata : alertCountersMetadata) {
@@ -130,6 +187,24 @@ public class CorrelationRule extends AbstractRule {
         return ret;
     }
 
+    /**
+     * Entry of the expiry queue ordered by the oldest timestamp of the counters of a key.
+     * Cleaning inspects only the keys with the oldest timestamp below the water mark
+     * and it schedules the keys with remaining timestamps again.
+     * Only the latest entry of a key is valid, the previous ones are skipped when polled.
+     */
+    private static class ExpiryEntry {
+        private final String key;
+        private final ArrayList<AlertCounter> counters;
+        private final long oldestTimestamp;
+
+        ExpiryEntry(String key, ArrayList<AlertCounter> counters, long oldestTimestamp) {
+            this.key = key;
+            this.counters = counters;
+            this.oldestTimestamp = oldestTimestamp;
+        }
+    }
+
     public static abstract class Builder<T extends CorrelationRule> extends AbstractRule.Builder<T>{
         protected static final String ALERT_ALREADY_EXISTS_MSG = "Duplicate alert names for correlation";
         protected static final String INVALID_ALERT_COUNTER = "Invalid alert counter specification";
@@ -147,6 +222,7 @@ public class CorrelationRule extends AbstractRule {
         protected ArrayList<AlertCounterMetadata> alertCountersMetadata = new ArrayList<>();
         protected Map<String, Integer> alertToCounterIndex = new HashMap<>();
         protected EnumSet<Flags> flags = EnumSet.noneOf(Flags.class);
+        protected CorrelationStateStore stateStore;
 
         public Builder<T> alertsThresholds(Integer alertThresholds) {
             this.alertsThresholds = alertThresholds;
@@ -168,6 +244,11 @@ public class CorrelationRule extends AbstractRule {
             return this;
         }
 
+        public Builder<T> stateStore(CorrelationStateStore stateStore) {
+            this.stateStore = stateStore;
+            return this;
+        }
+
         public Builder<T> addAlertCounter(String alertName, int threshold, EnumSet<AlertCounterMetadata.Flags> flags) {
             if (threshold <= 0 || threshold > MAX_ALERT_THRESHOLD || alertName == null) {
                 throw new IllegalArgumentException(INVALID_ALERT_COUNTER);
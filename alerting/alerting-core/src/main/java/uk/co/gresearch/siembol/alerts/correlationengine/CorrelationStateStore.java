@@ -0,0 +1,25 @@
+package uk.co.gresearch.siembol.alerts.correlationengine;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Store of alert counters of correlation rules identified by their full rule names.
+ * The store outlives correlation engines so that the counters of unchanged rules
+ * are carried over when the rules are recompiled.
+ */
+public interface CorrelationStateStore extends Closeable {
+    Map<String, ArrayList<AlertCounter>> getAlertCounters(String fullRuleName,
+                                                          List<AlertCounterMetadata> countersMetadata);
+
+    void retainRules(Set<String> fullRuleNames);
+
+    default void checkpoint() throws IOException {}
+
+    @Override
+    default void close() throws IOException {}
+}
@@ -0,0 +1,168 @@
+package uk.co.gresearch.siembol.alerts.correlationengine;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Correlation state store that keeps the alert counters in memory and writes their snapshot into a file
+ * on each checkpoint. The snapshot is loaded on creation of the store and the counters of a rule
+ * are restored when the rule requests its alert counters.
+ * A checkpoint copies the timestamps of the counters and the copy is serialised and written by a background
+ * thread. A checkpoint is skipped while the previous snapshot is being written and a failure of writing
+ * is reported by the next checkpoint.
+ */
+public class FileCorrelationStateStore extends InMemoryCorrelationStateStore {
+    private static final ObjectMapper JSON_MAPPER = new ObjectMapper();
+    private static final TypeReference<Map<String, Map<String, List<long[]>>>> SNAPSHOT_TYPE =
+            new TypeReference<Map<String, Map<String, List<long[]>>>>() { };
+    private static final ObjectReader JSON_SNAPSHOT_READER = JSON_MAPPER.readerFor(SNAPSHOT_TYPE);
+    private static final ObjectWriter JSON_SNAPSHOT_WRITER = JSON_MAPPER.writerFor(SNAPSHOT_TYPE);
+    private static final String TEMPORARY_FILE_SUFFIX = ".tmp";
+    private static final String WRITER_THREAD_NAME = "correlation-state-writer";
+
+    private final Path snapshotPath;
+    private final Path temporaryPath;
+    private final Map<String, Map<String, List<long[]>>> restoredState;
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(x -> {
+        Thread thread = new Thread(x, WRITER_THREAD_NAME);
+        thread.setDaemon(true);
+        return thread;
+    });
+    private Future<?> pendingWrite;
+
+    public FileCorrelationStateStore(Path snapshotPath) throws IOException {
+        this.snapshotPath = snapshotPath;
+        this.temporaryPath = Paths.get(snapshotPath.toString() + TEMPORARY_FILE_SUFFIX);
+        restoredState = Files.exists(snapshotPath)
+                ? new ConcurrentHashMap<>(JSON_SNAPSHOT_READER.<Map<String, Map<String, List<long[]>>>>readValue(
+                        snapshotPath.toFile()))
+                : new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public Map<String, ArrayList<AlertCounter>> getAlertCounters(String fullRuleName,
+                                                                 List<AlertCounterMetadata> countersMetadata) {
+        return rulesState.computeIfAbsent(fullRuleName,
+                x -> restoreAlertCounters(restoredState.remove(x), countersMetadata));
+    }
+
+    @Override
+    public void retainRules(Set<String> fullRuleNames) {
+        super.retainRules(fullRuleNames);
+        restoredState.keySet().retainAll(fullRuleNames);
+    }
+
+    @Override
+    public void checkpoint() throws IOException {
+        if (pendingWrite != null && !pendingWrite.isDone()) {
+            return;
+        }
+
+        Future<?> previousWrite = pendingWrite;
+        //NOTE: the counters are updated only by the caller thread so the copy is consistent without locking
+        Map<String, Map<String, List<long[]>>> snapshot = createSnapshot();
+        pendingWrite = writer.submit(() -> {
+            writeSnapshot(snapshot);
+            return null;
+        });
+
+        if (previousWrite != null) {
+            waitForWrite(previousWrite);
+        }
+    }
+
+    /**
+     * Waits until the snapshot of the last checkpoint is written
+     * @throws IOException if writing of the snapshot failed
+     */
+    public void awaitCheckpoint() throws IOException {
+        if (pendingWrite != null) {
+            waitForWrite(pendingWrite);
+        }
+    }
+
+    /**
+     * Waits for the pending checkpoint and writes the current snapshot synchronously
+     * @throws IOException if writing of a snapshot failed
+     */
+    @Override
+    public void close() throws IOException {
+        writer.shutdown();
+        try {
+            awaitCheckpoint();
+        } finally {
+            pendingWrite = null;
+            writeSnapshot(createSnapshot());
+        }
+    }
+
+    private Map<String, Map<String, List<long[]>>> createSnapshot() {
+        Map<String, Map<String, List<long[]>>> snapshot = new HashMap<>(restoredState);
+        rulesState.forEach((rule, counters) -> {
+            Map<String, List<long[]>> ruleSnapshot = new HashMap<>();
+            counters.forEach((key, keyCounters) -> {
+                List<long[]> timestamps = new ArrayList<>(keyCounters.size());
+                keyCounters.forEach(x -> timestamps.add(x.getTimestamps()));
+                ruleSnapshot.put(key, timestamps);
+            });
+            snapshot.put(rule, ruleSnapshot);
+        });
+        return snapshot;
+    }
+
+    private void writeSnapshot(Map<String, Map<String, List<long[]>>> snapshot) throws IOException {
+        //NOTE: the snapshot is replaced atomically in order to avoid reading a partially written file
+        JSON_SNAPSHOT_WRITER.writeValue(temporaryPath.toFile(), snapshot);
+        Files.move(temporaryPath, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void waitForWrite(Future<?> write) throws IOException {
+        try {
+            write.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+        }
+    }
+
+    private static Map<String, ArrayList<AlertCounter>> restoreAlertCounters(
+            Map<String, List<long[]>> ruleSnapshot, List<AlertCounterMetadata> countersMetadata) {
+        Map<String, ArrayList<AlertCounter>> ret = new HashMap<>();
+        if (ruleSnapshot == null) {
+            return ret;
+        }
+
+        ruleSnapshot.forEach((key, timestamps) -> {
+            if (timestamps.size() != countersMetadata.size()) {
+                return;
+            }
+
+            ArrayList<AlertCounter> counters = new ArrayList<>(countersMetadata.size());
+            for (int i = 0; i < countersMetadata.size(); i++) {
+                AlertCounter counter = new AlertCounter(countersMetadata.get(i));
+                for (long timestamp : timestamps.get(i)) {
+                    counter.update(timestamp);
+                }
+                counters.add(counter);
+            }
+            ret.put(key, counters);
+        });
+        return ret;
+    }
+}
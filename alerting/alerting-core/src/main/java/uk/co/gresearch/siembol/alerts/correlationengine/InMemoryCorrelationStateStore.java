@@ -0,0 +1,19 @@
+package uk.co.gresearch.siembol.alerts.correlationengine;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class InMemoryCorrelationStateStore implements CorrelationStateStore {
+    protected final Map<String, Map<String, ArrayList<AlertCounter>>> rulesState = new ConcurrentHashMap<>();
+
+    @Override
+    public Map<String, ArrayList<AlertCounter>> getAlertCounters(String fullRuleName,
+                                                                 List<AlertCounterMetadata> countersMetadata) {
+        return rulesState.computeIfAbsent(fullRuleName, x -> new HashMap<>());
+    }
+
+    @Override
+    public void retainRules(Set<String> fullRuleNames) {
+        rulesState.keySet().retainAll(fullRuleNames);
+    }
+}
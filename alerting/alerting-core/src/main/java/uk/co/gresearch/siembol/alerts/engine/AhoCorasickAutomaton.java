@@ -0,0 +1,128 @@
+package uk.co.gresearch.siembol.alerts.engine;
+
+import java.util.*;
+
+/**
+ * Aho-Corasick automaton that finds all occurrences of a set of literals in a single pass over a text.
+ * Literals are identified by their index in the list provided to the builder.
+ */
+public class AhoCorasickAutomaton {
+    private static final int ROOT = 0;
+    private static final int NO_TRANSITION = -1;
+
+    private final char[][] transitionChars;
+    private final int[][] transitionStates;
+    private final int[] failures;
+    private final int[][] outputs;
+
+    private AhoCorasickAutomaton(Builder builder) {
+        this.transitionChars = builder.transitionChars;
+        this.transitionStates = builder.transitionStates;
+        this.failures = builder.failures;
+        this.outputs = builder.outputs;
+    }
+
+    public void search(CharSequence text, BitSet foundLiterals) {
+        int state = ROOT;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            int next = getTransition(state, c);
+            while (next == NO_TRANSITION && state != ROOT) {
+                state = failures[state];
+                next = getTransition(state, c);
+            }
+
+            state = next == NO_TRANSITION ? ROOT : next;
+            for (int literal : outputs[state]) {
+                foundLiterals.set(literal);
+            }
+        }
+    }
+
+    private int getTransition(int state, char c) {
+        int index = Arrays.binarySearch(transitionChars[state], c);
+        return index < 0 ? NO_TRANSITION : transitionStates[state][index];
+    }
+
+    public static class Builder {
+        private static final String MISSING_LITERALS = "Missing literals in Aho-Corasick automaton builder";
+        private static final String EMPTY_LITERAL = "Empty literal in Aho-Corasick automaton builder";
+        private List<String> literals;
+        private char[][] transitionChars;
+        private int[][] transitionStates;
+        private int[] failures;
+        private int[][] outputs;
+
+        public Builder literals(List<String> literals) {
+            this.literals = literals;
+            return this;
+        }
+
+        public AhoCorasickAutomaton build() {
+            if (literals == null || literals.isEmpty()) {
+                throw new IllegalArgumentException(MISSING_LITERALS);
+            }
+
+            List<TreeMap<Character, Integer>> goTo = new ArrayList<>();
+            List<Set<Integer>> stateOutputs = new ArrayList<>();
+            goTo.add(new TreeMap<>());
+            stateOutputs.add(new TreeSet<>());
+
+            for (int i = 0; i < literals.size(); i++) {
+                String literal = literals.get(i);
+                if (literal == null || literal.isEmpty()) {
+                    throw new IllegalArgumentException(EMPTY_LITERAL);
+                }
+
+                int state = ROOT;
+                for (char c : literal.toCharArray()) {
+                    Integer next = goTo.get(state).get(c);
+                    if (next == null) {
+                        next = goTo.size();
+                        goTo.get(state).put(c, next);
+                        goTo.add(new TreeMap<>());
+                        stateOutputs.add(new TreeSet<>());
+                    }
+                    state = next;
+                }
+                stateOutputs.get(state).add(i);
+            }
+
+            failures = new int[goTo.size()];
+            Deque<Integer> queue = new ArrayDeque<>(goTo.get(ROOT).values());
+            while (!queue.isEmpty()) {
+                int state = queue.poll();
+                for (Map.Entry<Character, Integer> transition : goTo.get(state).entrySet()) {
+                    int next = transition.getValue();
+                    queue.add(next);
+
+                    int failure = failures[state];
+                    while (failure != ROOT && !goTo.get(failure).containsKey(transition.getKey())) {
+                        failure = failures[failure];
+                    }
+
+                    Integer failureNext = goTo.get(failure).get(transition.getKey());
+                    failures[next] = failureNext == null ? ROOT : failureNext;
+                    stateOutputs.get(next).addAll(stateOutputs.get(failures[next]));
+                }
+            }
+
+            transitionChars = new char[goTo.size()][];
+            transitionStates = new int[goTo.size()][];
+            outputs = new int[goTo.size()][];
+            for (int state = 0; state < goTo.size(); state++) {
+                TreeMap<Character, Integer> transitions = goTo.get(state);
+                transitionChars[state] = new char[transitions.size()];
+                transitionStates[state] = new int[transitions.size()];
+                int index = 0;
+                for (Map.Entry<Character, Integer> transition : transitions.entrySet()) {
+                    transitionChars[state][index] = transition.getKey();
+                    transitionStates[state][index++] = transition.getValue();
+                }
+                outputs[state] = stateOutputs.get(state).stream().mapToInt(Integer::intValue).toArray();
+            }
+
+            return new AhoCorasickAutomaton(this);
+        }
+    }
+}
@@ -12,6 +12,8 @@ public class AlertingEngineImpl implements AlertingEngine {
     private final String sourceField;
     private final Map<String, List<Rule>> sourceToRulesTable;
     private final List<Rule> allSourceRules;
+    private final Map<String, RulesPrefilter> sourceToPrefilterTable;
+    private final RulesPrefilter allSourceRulesPrefilter;
     private final List<Pair<String, Object>> outputFields;
 
     private AlertingEngineImpl(Builder builder) {
@@ -19,6 +21,8 @@ public class AlertingEngineImpl implements AlertingEngine {
         this.outputFields = builder.outputFields;
         this.sourceField = builder.sourceField;
         this.allSourceRules = builder.allSourceRules;
+        this.sourceToPrefilterTable = builder.sourceToPrefilterTable;
+        this.allSourceRulesPrefilter = builder.allSourceRulesPrefilter;
     }
 
     @Override
@@ -33,10 +37,10 @@ public class AlertingEngineImpl implements AlertingEngine {
 
         List<Rule> sourceRules = sourceToRulesTable.get(sensor);
         if (sourceRules != null) {
-            sourceRules.forEach(x -> evaluateRuleInternally(x, event, outputEvents, exceptionsEvents));
+            evaluateRules(sourceRules, sourceToPrefilterTable.get(sensor), event, outputEvents, exceptionsEvents);
         }
 
-        allSourceRules.forEach(x -> evaluateRuleInternally(x, event, outputEvents, exceptionsEvents));
+        evaluateRules(allSourceRules, allSourceRulesPrefilter, event, outputEvents, exceptionsEvents);
 
         AlertingAttributes attributes = new AlertingAttributes();
         attributes.setEvaluationResult(outputEvents.isEmpty()
@@ -60,12 +64,28 @@ public class AlertingEngineImpl implements AlertingEngine {
     }
 
     private Map<String, Object> createEventFromRule(Rule rule, Map<String, Object> event) {
-        Map<String, Object> ret = new HashMap<>(event);
+        Map<String, Object> ret = new OverlayEventMap(event);
         ret.put(AlertingFields.RULE_NAME.getAlertingName(), rule.getRuleName());
         ret.put(AlertingFields.FULL_RULE_NAME.getAlertingName(), rule.getFullRuleName());
         return ret;
     }
 
+    private void evaluateRules(List<Rule> rules,
+                               RulesPrefilter prefilter,
+                               Map<String, Object> event,
+                               List<Map<String, Object>> outputEvents,
+                               List<Map<String, Object>> exceptionsEvents) {
+        if (prefilter == null) {
+            rules.forEach(x -> evaluateRuleInternally(x, event, outputEvents, exceptionsEvents));
+            return;
+        }
+
+        BitSet candidates = prefilter.getCandidates(event);
+        for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+            evaluateRuleInternally(rules.get(i), event, outputEvents, exceptionsEvents);
+        }
+    }
+
     private void evaluateRuleInternally(Rule rule,
                                         Map<String, Object> event,
                                         List<Map<String, Object>> outputEvents,
@@ -98,6 +118,9 @@ public class AlertingEngineImpl implements AlertingEngine {
         private List<Pair<String, String>> constants;
         private List<Pair<String, Object>> protections;
         private List<Pair<String, Object>> outputFields = new ArrayList<>();
+        private boolean rulesPrefilter = false;
+        private Map<String, RulesPrefilter> sourceToPrefilterTable = new HashMap<>();
+        private RulesPrefilter allSourceRulesPrefilter;
 
         public Builder sourceField(String sourceField) {
             this.sourceField = sourceField;
@@ -124,6 +147,11 @@ public class AlertingEngineImpl implements AlertingEngine {
             return this;
         }
 
+        public Builder rulesPrefilter(boolean rulesPrefilter) {
+            this.rulesPrefilter = rulesPrefilter;
+            return this;
+        }
+
         public AlertingEngine build() {
             if (rules == null
                     || rules.isEmpty()
@@ -150,6 +178,12 @@ public class AlertingEngineImpl implements AlertingEngine {
                 sourceToRulesTable.remove(wildcardSource);
             }
 
+            if (rulesPrefilter) {
+                sourceToRulesTable.forEach((x, y) -> sourceToPrefilterTable.put(x,
+                        new RulesPrefilter.Builder().rules(y).build()));
+                allSourceRulesPrefilter = new RulesPrefilter.Builder().rules(allSourceRules).build();
+            }
+
             return new AlertingEngineImpl(this);
         }
     }
@@ -19,6 +19,18 @@ public class IsInSetMatcher extends BasicMatcher {
         this.caseInsensitiveCompare = builder.caseInsensitiveCompare;
     }
 
+    public Set<String> getConstantStrings() {
+        return constantStrings;
+    }
+
+    public boolean hasVariableStrings() {
+        return !variableStrings.isEmpty();
+    }
+
+    public boolean isCaseInsensitiveCompare() {
+        return caseInsensitiveCompare;
+    }
+
     @Override
     protected EvaluationResult matchInternally(Map<String, Object> map, String fieldValue) {
         String stringToMatch = caseInsensitiveCompare && fieldValue != null
@@ -58,7 +70,7 @@ public class IsInSetMatcher extends BasicMatcher {
                         .collect(Collectors.toCollection(HashSet::new));
 
                 variableStrings = words.stream()
-                        .filter(x -> !constantStrings.contains(x))
+                        .filter(EvaluationLibrary::containsVariables)
                         .collect(Collectors.toList());
 
                 return new IsInSetMatcher(this);
@@ -0,0 +1,167 @@
+package uk.co.gresearch.siembol.alerts.engine;
+
+import java.util.Optional;
+
+/**
+ * Extracts a literal string that has to be present in every string matched by a regular expression.
+ * The extraction is conservative - it returns an empty result if the pattern contains constructs
+ * that are not understood such as a top level alternation, inline flags or quoting.
+ */
+public class RegexLiteralExtractor {
+    private static final String SPECIAL_CHARACTERS = "\\^$.|?*+()[]{}";
+    private static final String SUPPORTED_ESCAPED_LETTERS = "dDsSwWbBAGZzhHvVRXntrfae";
+    private static final char ESCAPE = '\\';
+    private static final char ALTERNATION = '|';
+    private static final char GROUP_START = '(';
+    private static final char GROUP_END = ')';
+    private static final char GROUP_SPECIAL = '?';
+    private static final char CLASS_START = '[';
+    private static final char CLASS_END = ']';
+    private static final char CLASS_NEGATION = '^';
+    private static final char REPETITION_START = '{';
+    private static final char REPETITION_END = '}';
+    private static final char QUOTING_START = 'Q';
+    private static final char OPTIONAL = '?';
+    private static final char ZERO_OR_MORE = '*';
+    private static final char ONE_OR_MORE = '+';
+    private static final int NOT_SUPPORTED = -1;
+
+    public static Optional<String> getLongestRequiredLiteral(String pattern) {
+        String longest = "";
+        StringBuilder current = new StringBuilder();
+        int index = 0;
+
+        while (index < pattern.length()) {
+            char c = pattern.charAt(index);
+            char literal;
+            if (c == ALTERNATION) {
+                return Optional.empty();
+            } else if (c == GROUP_START || c == CLASS_START || c == REPETITION_START) {
+                int end = c == GROUP_START
+                        ? skipGroup(pattern, index)
+                        : c == CLASS_START ? skipCharacterClass(pattern, index) : skipRepetition(pattern, index);
+                if (end == NOT_SUPPORTED) {
+                    return Optional.empty();
+                }
+
+                longest = finishLiteral(longest, current);
+                index = end;
+                continue;
+            } else if (c == ESCAPE) {
+                if (index + 1 >= pattern.length()) {
+                    return Optional.empty();
+                }
+
+                char escaped = pattern.charAt(index + 1);
+                index += 2;
+                if (Character.isLetterOrDigit(escaped)) {
+                    if (SUPPORTED_ESCAPED_LETTERS.indexOf(escaped) < 0) {
+                        return Optional.empty();
+                    }
+                    longest = finishLiteral(longest, current);
+                    continue;
+                }
+                literal = escaped;
+            } else if (SPECIAL_CHARACTERS.indexOf(c) >= 0 || Character.isSurrogate(c)) {
+                longest = finishLiteral(longest, current);
+                index++;
+                continue;
+            } else {
+                literal = c;
+                index++;
+            }
+
+            char quantifier = index < pattern.length() ? pattern.charAt(index) : 0;
+            if (quantifier == OPTIONAL || quantifier == ZERO_OR_MORE || quantifier == REPETITION_START) {
+                longest = finishLiteral(longest, current);
+                continue;
+            }
+
+            current.append(literal);
+            if (quantifier == ONE_OR_MORE) {
+                longest = finishLiteral(longest, current);
+            }
+        }
+
+        longest = finishLiteral(longest, current);
+        return longest.isEmpty() ? Optional.empty() : Optional.of(longest);
+    }
+
+    private static String finishLiteral(String longest, StringBuilder current) {
+        String ret = current.length() > longest.length() ? current.toString() : longest;
+        current.setLength(0);
+        return ret;
+    }
+
+    private static boolean isQuoting(String pattern, int escapeIndex) {
+        return escapeIndex + 1 < pattern.length() && pattern.charAt(escapeIndex + 1) == QUOTING_START;
+    }
+
+    private static int skipGroup(String pattern, int start) {
+        if (start + 2 < pattern.length()
+                && pattern.charAt(start + 1) == GROUP_SPECIAL
+                && (Character.isLetter(pattern.charAt(start + 2)) || pattern.charAt(start + 2) == '-')) {
+            //NOTE: inline flags can change the meaning of the following literals
+            return NOT_SUPPORTED;
+        }
+
+        int depth = 0;
+        int index = start;
+        while (index < pattern.length()) {
+            char c = pattern.charAt(index);
+            if (c == ESCAPE) {
+                if (isQuoting(pattern, index)) {
+                    return NOT_SUPPORTED;
+                }
+                index += 2;
+            } else if (c == CLASS_START) {
+                index = skipCharacterClass(pattern, index);
+                if (index == NOT_SUPPORTED) {
+                    return NOT_SUPPORTED;
+                }
+            } else {
+                if (c == GROUP_START) {
+                    depth++;
+                } else if (c == GROUP_END && --depth == 0) {
+                    return index + 1;
+                }
+                index++;
+            }
+        }
+        return NOT_SUPPORTED;
+    }
+
+    private static int skipCharacterClass(String pattern, int start) {
+        int depth = 0;
+        int index = start;
+        while (index < pattern.length()) {
+            char c = pattern.charAt(index);
+            if (c == ESCAPE) {
+                if (isQuoting(pattern, index)) {
+                    return NOT_SUPPORTED;
+                }
+                index += 2;
+            } else if (c == CLASS_START) {
+                depth++;
+                index++;
+                if (index < pattern.length() && pattern.charAt(index) == CLASS_NEGATION) {
+                    index++;
+                }
+                if (index < pattern.length() && pattern.charAt(index) == CLASS_END) {
+                    //NOTE: ']' at the beginning of a character class is a literal
+                    index++;
+                }
+            } else if (c == CLASS_END && --depth == 0) {
+                return index + 1;
+            } else {
+                index++;
+            }
+        }
+        return NOT_SUPPORTED;
+    }
+
+    private static int skipRepetition(String pattern, int start) {
+        int end = pattern.indexOf(REPETITION_END, start);
+        return end < 0 ? NOT_SUPPORTED : end + 1;
+    }
+}
@@ -14,11 +14,13 @@ public class RegexMatcher extends BasicMatcher {
 
     private final Pattern pattern;
     private final List<String> variableNames;
+    private final Optional<String> requiredLiteral;
 
     private RegexMatcher(Builder<?> builder) {
         super(builder);
         this.pattern = builder.pattern;
         this.variableNames = builder.variableNames;
+        this.requiredLiteral = builder.requiredLiteral;
     }
 
     @Override
@@ -26,6 +28,10 @@ public class RegexMatcher extends BasicMatcher {
         return !variableNames.isEmpty();
     }
 
+    public Optional<String> getRequiredLiteral() {
+        return requiredLiteral;
+    }
+
     @Override
     protected EvaluationResult matchInternally(Map<String, Object> map, String fieldValue) {
         Matcher matcher = pattern.matcher(fieldValue);
@@ -58,6 +64,7 @@ public class RegexMatcher extends BasicMatcher {
             extends BasicMatcher.Builder<T> {
         protected Pattern pattern;
         protected List<String> variableNames;
+        protected Optional<String> requiredLiteral;
 
         public RegexMatcher.Builder<T> pattern(String patternStr) {
             //NOTE: java regex does not support : _ in variable names but we want it
@@ -85,6 +92,7 @@ public class RegexMatcher extends BasicMatcher {
             String finalPatternStr = sb.length() == 0 ? patternStr
                     : sb.append(patternStr, lastIndex, patternStr.length()).toString();
             pattern = Pattern.compile(finalPatternStr, Pattern.DOTALL);
+            requiredLiteral = RegexLiteralExtractor.getLongestRequiredLiteral(patternStr);
             return this;
         }
     }
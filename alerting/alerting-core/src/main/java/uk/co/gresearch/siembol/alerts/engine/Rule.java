@@ -2,6 +2,7 @@ package uk.co.gresearch.siembol.alerts.engine;
 
 import uk.co.gresearch.siembol.alerts.common.EvaluationResult;
 import uk.co.gresearch.siembol.alerts.common.AlertingResult;
+import uk.co.gresearch.siembol.alerts.common.OverlayEventMap;
 import java.util.*;
 
 public class Rule extends AbstractRule {
@@ -21,7 +22,7 @@ public class Rule extends AbstractRule {
 
     @Override
     public AlertingResult match(Map<String, Object> log) {
-        Map<String, Object> current = canModifyEvent() ? new HashMap<>(log) : log;
+        Map<String, Object> current = canModifyEvent() ? new OverlayEventMap(log) : log;
         for (Matcher matcher : matchers) {
             EvaluationResult result = matcher.match(current);
             if (result == EvaluationResult.NO_MATCH) {
@@ -42,6 +43,10 @@ public class Rule extends AbstractRule {
         return flags.contains(RuleFlags.CAN_MODIFY_EVENT);
     }
 
+    public List<Matcher> getMatchers() {
+        return matchers;
+    }
+
     public static abstract class Builder<T extends Rule> extends AbstractRule.Builder<T>{
         protected static final String MISSING_MATCHERS = "Missing matchers in alerts rule builder";
         protected List<Matcher> matchers;
@@ -0,0 +1,207 @@
+package uk.co.gresearch.siembol.alerts.engine;
+
+import java.util.*;
+
+/**
+ * Prefilter that selects candidate rules from a list of rules for an event.
+ * Rules with an is in set matcher of constant strings are indexed by the field name and the constant strings
+ * so that one hash lookup per indexed field selects the rules that can match.
+ * Regex matchers that require a literal are grouped by the field name and the literals of each field
+ * are searched by a single Aho-Corasick automaton. A rule is not a candidate if a literal of its regex matcher
+ * is not found in the field value since the rule can not match the event.
+ * Other rules are always candidates.
+ */
+public class RulesPrefilter {
+    private final BitSet alwaysCandidates;
+    private final List<FieldIndex> fieldIndexes;
+    private final List<FieldPrefilter> fieldPrefilters;
+
+    private RulesPrefilter(Builder builder) {
+        this.alwaysCandidates = builder.alwaysCandidates;
+        this.fieldIndexes = builder.fieldIndexes;
+        this.fieldPrefilters = builder.fieldPrefilters;
+    }
+
+    public BitSet getCandidates(Map<String, Object> event) {
+        BitSet candidates = (BitSet) alwaysCandidates.clone();
+        for (FieldIndex fieldIndex : fieldIndexes) {
+            Object fieldValue = event.get(fieldIndex.fieldName);
+            if (fieldValue != null) {
+                fieldIndex.addCandidates(fieldValue.toString(), candidates);
+            }
+        }
+
+        if (fieldPrefilters.isEmpty()) {
+            return candidates;
+        }
+
+        BitSet foundLiterals = new BitSet();
+        for (FieldPrefilter fieldPrefilter : fieldPrefilters) {
+            Object fieldValue = event.get(fieldPrefilter.fieldName);
+            if (fieldValue == null) {
+                continue;
+            }
+
+            foundLiterals.clear();
+            fieldPrefilter.automaton.search(fieldValue.toString(), foundLiterals);
+            for (int literal = foundLiterals.nextSetBit(0);
+                 literal >= 0;
+                 literal = foundLiterals.nextSetBit(literal + 1)) {
+                for (int ruleIndex : fieldPrefilter.literalToRules[literal]) {
+                    candidates.set(ruleIndex);
+                }
+            }
+        }
+
+        return candidates;
+    }
+
+    private static int[] toArray(List<Integer> list) {
+        return list.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static class FieldIndex {
+        private final String fieldName;
+        private final Map<String, List<Integer>> valuesToRulesList = new HashMap<>();
+        private final Map<String, List<Integer>> lowerCaseValuesToRulesList = new HashMap<>();
+        private Map<String, int[]> valuesToRules;
+        private Map<String, int[]> lowerCaseValuesToRules;
+
+        FieldIndex(String fieldName) {
+            this.fieldName = fieldName;
+        }
+
+        void addRule(IsInSetMatcher matcher, int ruleIndex) {
+            Map<String, List<Integer>> current = matcher.isCaseInsensitiveCompare()
+                    ? lowerCaseValuesToRulesList
+                    : valuesToRulesList;
+            matcher.getConstantStrings().forEach(
+                    x -> current.computeIfAbsent(x, y -> new ArrayList<>()).add(ruleIndex));
+        }
+
+        void build() {
+            valuesToRules = new HashMap<>();
+            valuesToRulesList.forEach((x, y) -> valuesToRules.put(x, toArray(y)));
+            lowerCaseValuesToRules = new HashMap<>();
+            lowerCaseValuesToRulesList.forEach((x, y) -> lowerCaseValuesToRules.put(x, toArray(y)));
+        }
+
+        void addCandidates(String fieldValue, BitSet candidates) {
+            addCandidates(valuesToRules.get(fieldValue), candidates);
+            if (!lowerCaseValuesToRules.isEmpty()) {
+                addCandidates(lowerCaseValuesToRules.get(fieldValue.toLowerCase()), candidates);
+            }
+        }
+
+        private static void addCandidates(int[] rules, BitSet candidates) {
+            if (rules != null) {
+                for (int ruleIndex : rules) {
+                    candidates.set(ruleIndex);
+                }
+            }
+        }
+    }
+
+    private static class FieldPrefilter {
+        private final String fieldName;
+        private final AhoCorasickAutomaton automaton;
+        private final int[][] literalToRules;
+
+        FieldPrefilter(String fieldName, Map<String, List<Integer>> literalsToRules) {
+            this.fieldName = fieldName;
+            List<String> literals = new ArrayList<>(literalsToRules.keySet());
+            this.automaton = new AhoCorasickAutomaton.Builder()
+                    .literals(literals)
+                    .build();
+            this.literalToRules = literals.stream()
+                    .map(x -> toArray(literalsToRules.get(x)))
+                    .toArray(int[][]::new);
+        }
+    }
+
+    public static class Builder {
+        private static final String MISSING_RULES = "Missing rules in rules prefilter builder";
+        private List<Rule> rules;
+        private BitSet alwaysCandidates;
+        private List<FieldIndex> fieldIndexes;
+        private List<FieldPrefilter> fieldPrefilters;
+
+        public Builder rules(List<Rule> rules) {
+            this.rules = rules;
+            return this;
+        }
+
+        private static Optional<IsInSetMatcher> getIndexMatcher(Rule rule) {
+            for (Matcher matcher : rule.getMatchers()) {
+                if (matcher instanceof IsInSetMatcher
+                        && !((IsInSetMatcher) matcher).isNegated()
+                        && !((IsInSetMatcher) matcher).hasVariableStrings()) {
+                    return Optional.of((IsInSetMatcher) matcher);
+                }
+
+                if (matcher.canModifyEvent()) {
+                    //NOTE: the following matchers can evaluate fields modified by the rule
+                    break;
+                }
+            }
+            return Optional.empty();
+        }
+
+        private static Optional<RegexMatcher> getPrefilterMatcher(Rule rule) {
+            RegexMatcher ret = null;
+            for (Matcher matcher : rule.getMatchers()) {
+                if (matcher instanceof RegexMatcher
+                        && !((RegexMatcher) matcher).isNegated()
+                        && ((RegexMatcher) matcher).getRequiredLiteral().isPresent()) {
+                    RegexMatcher current = (RegexMatcher) matcher;
+                    if (ret == null || current.getRequiredLiteral().get().length()
+                            > ret.getRequiredLiteral().get().length()) {
+                        ret = current;
+                    }
+                }
+
+                if (matcher.canModifyEvent()) {
+                    //NOTE: the following matchers can evaluate fields modified by the rule
+                    break;
+                }
+            }
+            return Optional.ofNullable(ret);
+        }
+
+        public RulesPrefilter build() {
+            if (rules == null) {
+                throw new IllegalArgumentException(MISSING_RULES);
+            }
+
+            alwaysCandidates = new BitSet(rules.size());
+            Map<String, FieldIndex> fieldsToIndex = new LinkedHashMap<>();
+            Map<String, Map<String, List<Integer>>> fieldsToLiterals = new LinkedHashMap<>();
+            for (int i = 0; i < rules.size(); i++) {
+                Optional<IsInSetMatcher> indexMatcher = getIndexMatcher(rules.get(i));
+                if (indexMatcher.isPresent()) {
+                    fieldsToIndex
+                            .computeIfAbsent(indexMatcher.get().getFieldName(), FieldIndex::new)
+                            .addRule(indexMatcher.get(), i);
+                    continue;
+                }
+
+                Optional<RegexMatcher> prefilterMatcher = getPrefilterMatcher(rules.get(i));
+                if (!prefilterMatcher.isPresent()) {
+                    alwaysCandidates.set(i);
+                    continue;
+                }
+
+                fieldsToLiterals
+                        .computeIfAbsent(prefilterMatcher.get().getFieldName(), x -> new LinkedHashMap<>())
+                        .computeIfAbsent(prefilterMatcher.get().getRequiredLiteral().get(), x -> new ArrayList<>())
+                        .add(i);
+            }
+
+            fieldIndexes = new ArrayList<>(fieldsToIndex.values());
+            fieldIndexes.forEach(FieldIndex::build);
+            fieldPrefilters = new ArrayList<>();
+            fieldsToLiterals.forEach((x, y) -> fieldPrefilters.add(new FieldPrefilter(x, y)));
+            return new RulesPrefilter(this);
+        }
+    }
+}
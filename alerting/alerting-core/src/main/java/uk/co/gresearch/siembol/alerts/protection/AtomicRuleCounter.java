@@ -0,0 +1,61 @@
+package uk.co.gresearch.siembol.alerts.protection;
+
+import uk.co.gresearch.siembol.common.utils.TimeProvider;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Thread safe counter of hourly and daily rule matches.
+ * The current day, the current hour and both counts are packed into one long that is updated by compare and set,
+ * so that concurrent writers do not need a lock and they never observe counts from different time windows.
+ * The counts saturate at the maximum value that fits into the packed state.
+ */
+public class AtomicRuleCounter {
+    private static final int COUNT_BITS = 25;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+    private static final int DAILY_SHIFT = COUNT_BITS;
+    private static final int WINDOW_SHIFT = 2 * COUNT_BITS;
+    private static final int HOURS_IN_DAY = 24;
+
+    private final TimeProvider timeProvider;
+    private final AtomicLong state = new AtomicLong();
+
+    public AtomicRuleCounter() {
+        this(new TimeProvider());
+    }
+
+    AtomicRuleCounter(TimeProvider timeProvider) {
+        this.timeProvider = timeProvider;
+    }
+
+    public long updateAndIncrement() {
+        //NOTE: the day of the year starts from 1 so the initial state does not match any time window
+        long window = (long) timeProvider.getDays() * HOURS_IN_DAY + timeProvider.getHour();
+        long day = window / HOURS_IN_DAY;
+        while (true) {
+            long current = state.get();
+            long currentWindow = current >>> WINDOW_SHIFT;
+            long hourly = currentWindow == window ? getHourlyMatches(current) : 0;
+            long daily = currentWindow / HOURS_IN_DAY == day ? getDailyMatches(current) : 0;
+
+            long updated = (window << WINDOW_SHIFT)
+                    | (Math.min(daily + 1, COUNT_MASK) << DAILY_SHIFT)
+                    | Math.min(hourly + 1, COUNT_MASK);
+            if (state.compareAndSet(current, updated)) {
+                return updated;
+            }
+        }
+    }
+
+    public long getState() {
+        return state.get();
+    }
+
+    public static int getHourlyMatches(long state) {
+        return (int) (state & COUNT_MASK);
+    }
+
+    public static int getDailyMatches(long state) {
+        return (int) ((state >>> DAILY_SHIFT) & COUNT_MASK);
+    }
+}
@@ -0,0 +1,57 @@
+package uk.co.gresearch.siembol.alerts.protection;
+
+import uk.co.gresearch.siembol.alerts.common.AlertingAttributes;
+import uk.co.gresearch.siembol.alerts.common.AlertingResult;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Rule protection system that can be shared by several threads.
+ * The worker instance is shared by all bolts in a worker so that the limits of a rule
+ * are enforced on all matches of the worker instead of on the matches of one executor.
+ */
+public class SharedRuleProtectionSystem implements RuleProtectionSystem {
+    private static final String UNKNOWN_RULE = "No matches of the rule %s";
+    private static final SharedRuleProtectionSystem WORKER_INSTANCE =
+            new SharedRuleProtectionSystem(x -> new AtomicRuleCounter());
+
+    private final Map<String, AtomicRuleCounter> ruleCounters = new ConcurrentHashMap<>();
+    private final Function<String, AtomicRuleCounter> counterFactory;
+
+    SharedRuleProtectionSystem(Function<String, AtomicRuleCounter> counterFactory) {
+        this.counterFactory = counterFactory;
+    }
+
+    public SharedRuleProtectionSystem() {
+        this(x -> new AtomicRuleCounter());
+    }
+
+    public static SharedRuleProtectionSystem getWorkerInstance() {
+        return WORKER_INSTANCE;
+    }
+
+    @Override
+    public AlertingResult incrementRuleMatches(String fullRuleName) {
+        long state = ruleCounters.computeIfAbsent(fullRuleName, counterFactory).updateAndIncrement();
+        return createResult(state);
+    }
+
+    @Override
+    public AlertingResult getRuleMatches(String fullRuleName) {
+        AtomicRuleCounter counter = ruleCounters.get(fullRuleName);
+        if (counter == null) {
+            return AlertingResult.fromErrorMessage(String.format(UNKNOWN_RULE, fullRuleName));
+        }
+
+        return createResult(counter.getState());
+    }
+
+    private static AlertingResult createResult(long state) {
+        AlertingAttributes attr = new AlertingAttributes();
+        attr.setHourlyMatches(AtomicRuleCounter.getHourlyMatches(state));
+        attr.setDailyMatches(AtomicRuleCounter.getDailyMatches(state));
+        return new AlertingResult(AlertingResult.StatusCode.OK, attr);
+    }
+}
@@ -0,0 +1,94 @@
+package uk.co.gresearch.siembol.alerts.common;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.adrianwalker.multilinestring.Multiline;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.*;
+
+public class LazyEventMapTest {
+    private static final ObjectReader JSON_READER = new ObjectMapper()
+            .readerFor(new TypeReference<Map<String, Object>>() { });
+
+    /**
+     *{"source_type" : "secret", "is_alert" : true, "num" : 1, "big" : 12345678901, "float" : 1.5,
+     * "nested" : { "a" : [1, "b", {"c" : null}] }, "array" : [], "escaped" : "a\"b\n", "empty" : null,
+     * "dup" : 1, "dup" : 2 }
+     */
+    @Multiline
+    public static String event;
+
+    @Test
+    public void testGetFields() throws IOException {
+        LazyEventMap map = new LazyEventMap(event);
+        Map<String, Object> expected = JSON_READER.readValue(event);
+
+        Assert.assertEquals(expected.size(), map.size());
+        for (String key : expected.keySet()) {
+            Assert.assertTrue(map.containsKey(key));
+            Assert.assertEquals(expected.get(key), map.get(key));
+        }
+        Assert.assertEquals(2, map.get("dup"));
+        Assert.assertEquals("a\"b\n", map.get("escaped"));
+        Assert.assertNull(map.get("unknown"));
+        Assert.assertFalse(map.containsKey("unknown"));
+        Assert.assertTrue(map.containsKey("empty"));
+    }
+
+    @Test
+    public void testMaterialize() throws IOException {
+        LazyEventMap map = new LazyEventMap(event);
+        Map<String, Object> expected = JSON_READER.readValue(event);
+
+        Assert.assertEquals(expected, new HashMap<>(map));
+        Assert.assertEquals(new ArrayList<>(expected.keySet()), new ArrayList<>(map.keySet()));
+    }
+
+    @Test
+    public void testModify() throws IOException {
+        LazyEventMap map = new LazyEventMap(event);
+        Assert.assertEquals("secret", map.get("source_type"));
+
+        map.put("source_type", "changed");
+        map.put("new_field", 1);
+        map.remove("num");
+
+        Assert.assertEquals("changed", map.get("source_type"));
+        Assert.assertEquals(1, map.get("new_field"));
+        Assert.assertFalse(map.containsKey("num"));
+        Assert.assertEquals(10, map.size());
+    }
+
+    @Test
+    public void testManyFields() throws IOException {
+        StringBuilder sb = new StringBuilder("{");
+        for (int i = 0; i < 100; i++) {
+            sb.append(i == 0 ? "" : ",").append(String.format("\"field_%d\" : %d", i, i));
+        }
+        LazyEventMap map = new LazyEventMap(sb.append("}").toString());
+
+        Assert.assertEquals(100, map.size());
+        for (int i = 0; i < 100; i++) {
+            Assert.assertEquals(i, map.get("field_" + i));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNotObject() throws IOException {
+        new LazyEventMap("[1, 2]");
+    }
+
+    @Test(expected = IOException.class)
+    public void testInvalidJson() throws IOException {
+        new LazyEventMap("{\"a\" : 1, \"b\" : }");
+    }
+
+    @Test(expected = IOException.class)
+    public void testIncompleteJson() throws IOException {
+        new LazyEventMap("{\"a\" : {\"b\" : 1 }");
+    }
+}
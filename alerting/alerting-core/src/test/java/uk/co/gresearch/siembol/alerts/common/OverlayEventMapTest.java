@@ -0,0 +1,115 @@
+package uk.co.gresearch.siembol.alerts.common;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+
+public class OverlayEventMapTest {
+    private Map<String, Object> base;
+
+    @Before
+    public void setUp() {
+        base = new LinkedHashMap<>();
+        base.put("a", "1");
+        base.put("b", 2);
+        base.put("c", null);
+    }
+
+    @Test
+    public void testReadBase() {
+        OverlayEventMap map = new OverlayEventMap(base);
+        Assert.assertEquals(3, map.size());
+        Assert.assertEquals("1", map.get("a"));
+        Assert.assertEquals(2, map.get("b"));
+        Assert.assertTrue(map.containsKey("c"));
+        Assert.assertFalse(map.containsKey("d"));
+        Assert.assertEquals(base, map);
+        Assert.assertEquals(base.hashCode(), map.hashCode());
+    }
+
+    @Test
+    public void testPutDoesNotModifyBase() {
+        OverlayEventMap map = new OverlayEventMap(base);
+        Assert.assertEquals("1", map.put("a", "x"));
+        Assert.assertNull(map.put("d", true));
+
+        Assert.assertEquals(4, map.size());
+        Assert.assertEquals("x", map.get("a"));
+        Assert.assertEquals(true, map.get("d"));
+        Assert.assertEquals("1", base.get("a"));
+        Assert.assertFalse(base.containsKey("d"));
+
+        Map<String, Object> expected = new HashMap<>(base);
+        expected.put("a", "x");
+        expected.put("d", true);
+        Assert.assertEquals(expected, map);
+        Assert.assertEquals(expected, new HashMap<>(map));
+    }
+
+    @Test
+    public void testRemove() {
+        OverlayEventMap map = new OverlayEventMap(base);
+        map.put("d", 1);
+        Assert.assertEquals("1", map.remove("a"));
+        Assert.assertEquals(1, map.remove("d"));
+        Assert.assertNull(map.remove("unknown"));
+
+        Assert.assertEquals(2, map.size());
+        Assert.assertFalse(map.containsKey("a"));
+        Assert.assertFalse(map.containsKey("d"));
+        Assert.assertTrue(base.containsKey("a"));
+
+        map.put("a", "y");
+        Assert.assertEquals(3, map.size());
+        Assert.assertEquals("y", map.get("a"));
+    }
+
+    @Test
+    public void testClear() {
+        OverlayEventMap map = new OverlayEventMap(base);
+        map.put("d", 1);
+        map.clear();
+        Assert.assertTrue(map.isEmpty());
+        Assert.assertFalse(map.entrySet().iterator().hasNext());
+        Assert.assertEquals(3, base.size());
+    }
+
+    @Test
+    public void testIterationOrder() {
+        OverlayEventMap map = new OverlayEventMap(base);
+        map.put("d", 1);
+        map.put("b", 3);
+        map.remove("c");
+
+        List<String> keys = new ArrayList<>(map.keySet());
+        Assert.assertEquals(Arrays.asList("a", "b", "d"), keys);
+        Assert.assertEquals(Arrays.asList("1", 3, 1), new ArrayList<>(map.values()));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testBaseEntriesCanNotBeModified() {
+        OverlayEventMap map = new OverlayEventMap(base);
+        map.entrySet().iterator().next().setValue("x");
+    }
+
+    @Test
+    public void testOverlayOfOverlay() {
+        OverlayEventMap first = new OverlayEventMap(base);
+        first.put("d", 1);
+        first.remove("a");
+
+        OverlayEventMap second = new OverlayEventMap(first);
+        second.put("e", 2);
+        second.put("a", "z");
+
+        Assert.assertEquals(3, first.size());
+        Assert.assertFalse(first.containsKey("a"));
+        Assert.assertFalse(first.containsKey("e"));
+        Assert.assertEquals(5, second.size());
+        Assert.assertEquals("z", second.get("a"));
+        Assert.assertEquals(1, second.get("d"));
+        Assert.assertEquals(3, base.size());
+    }
+}
@@ -67,4 +67,43 @@ public class AlertCounterTest {
         Assert.assertTrue(alertCounter.isEmpty());
     }
 
+    @Test
+    public void outOfOrderTimestamps() {
+        AlertCounter counter = new AlertCounter(new AlertCounterMetadata("dummy",
+                3, 1000, EnumSet.noneOf(AlertCounterMetadata.Flags.class)));
+        counter.update(5);
+        counter.update(3);
+        counter.update(4);
+        Assert.assertArrayEquals(new long[]{3, 4, 5}, counter.getTimestamps());
+        Assert.assertTrue(counter.matchThreshold());
+
+        counter.update(1);
+        Assert.assertEquals(1, counter.getOldest().longValue());
+        Assert.assertArrayEquals(new long[]{1, 4, 5}, counter.getTimestamps());
+
+        counter.update(6);
+        Assert.assertArrayEquals(new long[]{4, 5, 6}, counter.getTimestamps());
+
+        counter.clean(5);
+        Assert.assertArrayEquals(new long[]{5, 6}, counter.getTimestamps());
+        Assert.assertFalse(counter.matchThreshold());
+    }
+
+    @Test
+    public void wrappingAroundBuffer() {
+        for (long i = 1; i <= 3 * counterMetadata.getThreshold(); i++) {
+            alertCounter.update(i);
+            if (i % 7 == 0) {
+                alertCounter.clean(i - 3);
+            }
+        }
+
+        long[] timestamps = alertCounter.getTimestamps();
+        Assert.assertEquals(alertCounter.getSize(), timestamps.length);
+        Assert.assertEquals(alertCounter.getOldest().longValue(), timestamps[0]);
+        Assert.assertEquals(3 * counterMetadata.getThreshold(), timestamps[timestamps.length - 1]);
+        for (int i = 1; i < timestamps.length; i++) {
+            Assert.assertEquals(timestamps[i - 1] + 1, timestamps[i]);
+        }
+    }
 }
@@ -56,8 +56,8 @@ public class CorrelationEngineTest {
         when(rule2.match(ArgumentMatchers.any())).thenReturn(resultRule2);
 
         when(timeProvider.getCurrentTimeInMs()).thenReturn(currentTime);
-        doNothing().when(rule1).clean(currentTime);
-        doNothing().when(rule2).clean(currentTime);
+        when(rule1.clean(currentTime)).thenReturn(1);
+        when(rule2.clean(currentTime)).thenReturn(2);
 
         List<CorrelationRule> rules = Arrays.asList(rule1, rule2);
 
@@ -163,7 +163,7 @@ public class CorrelationEngineTest {
 
     @Test
     public void clean() {
-        engine.clean();
+        Assert.assertEquals(3, engine.clean());
         Mockito.verify(rule1, times(1)).clean(currentTime);
         Mockito.verify(rule2, times(1)).clean(currentTime);
         Mockito.verify(timeProvider, times(1)).getCurrentTimeInMs();
@@ -186,8 +186,55 @@ public class CorrelationRuleTest {
             }
         }
 
-        rule.clean(30050 + 15000);
+        Assert.assertEquals(49, rule.clean(30050 + 15000));
+        Assert.assertEquals(0, rule.clean(30050 + 15000));
+        Assert.assertEquals(50, rule.clean(30100 + 15000));
+    }
+
+    @Test
+    public void cleanKeysAddedAfterFirstClean() {
+        rule = builder.alertsThresholds(1).build();
+        Assert.assertEquals(0, rule.clean(0));
+
+        for (int i = 1; i <= 10; i++) {
+            alerts = createAlert(1, correlationKey + String.valueOf(i), "alert2", 30000 + i);
+            AlertingResult ret = rule.match(alerts.get(0));
+            Assert.assertEquals(OK, ret.getStatusCode());
+            Assert.assertEquals(NO_MATCH, ret.getAttributes().getEvaluationResult());
+        }
+
+        alerts = createAlert(1, correlationKey + "1", "alert1", 30011);
+        AlertingResult ret = rule.match(alerts.get(0));
+        Assert.assertEquals(MATCH, ret.getAttributes().getEvaluationResult());
+
+        Assert.assertEquals(4, rule.clean(30006 + 10000));
+        Assert.assertEquals(5, rule.clean(30011 + 10000));
+    }
+
+    @Test
+    public void cleanOutOfOrderEventTime() {
+        InMemoryCorrelationStateStore stateStore = new InMemoryCorrelationStateStore();
+        ruleFlags = EnumSet.of(CorrelationRule.Flags.USE_EVENT_TIME);
+        rule = builder.flags(ruleFlags).stateStore(stateStore).build();
+        Assert.assertEquals(0, rule.clean(0));
+
+        alerts = createAlert(1, correlationKey, "alert3", 30010);
+        alerts.addAll(createAlert(1, correlationKey, "alert3", 30001));
+        for (Map<String, Object> alert : alerts) {
+            AlertingResult ret = rule.match(alert);
+            Assert.assertEquals(OK, ret.getStatusCode());
+            Assert.assertEquals(NO_MATCH, ret.getAttributes().getEvaluationResult());
+        }
+
+        Assert.assertEquals(0, rule.clean(30005 + 15000));
+        AlertCounter counter = stateStore.getAlertCounters(rule.getFullRuleName(), null)
+                .get(correlationKey)
+                .get(2);
+        Assert.assertEquals(1, counter.getSize());
+        Assert.assertEquals(Long.valueOf(30010), counter.getOldest());
 
+        Assert.assertEquals(1, rule.clean(30011 + 15000));
+        Assert.assertTrue(stateStore.getAlertCounters(rule.getFullRuleName(), null).isEmpty());
     }
 
     @Test
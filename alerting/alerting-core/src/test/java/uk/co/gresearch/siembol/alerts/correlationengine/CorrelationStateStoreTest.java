@@ -0,0 +1,141 @@
+package uk.co.gresearch.siembol.alerts.correlationengine;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import uk.co.gresearch.siembol.alerts.common.AlertingFields;
+import uk.co.gresearch.siembol.alerts.common.AlertingResult;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static uk.co.gresearch.siembol.alerts.common.AlertingResult.StatusCode.OK;
+import static uk.co.gresearch.siembol.alerts.common.AlertingTags.CORRELATION_KEY_TAG_NAME;
+import static uk.co.gresearch.siembol.alerts.common.EvaluationResult.MATCH;
+import static uk.co.gresearch.siembol.alerts.common.EvaluationResult.NO_MATCH;
+
+public class CorrelationStateStoreTest {
+    private final EnumSet<AlertCounterMetadata.Flags> counterFlags = EnumSet.noneOf(AlertCounterMetadata.Flags.class);
+    private final String correlationKey = "1.2.3.4";
+    private Path snapshotDirectory;
+    private Path snapshotPath;
+
+    @Before
+    public void setUp() throws IOException {
+        snapshotDirectory = Files.createTempDirectory("correlation_state");
+        snapshotPath = snapshotDirectory.resolve("state.json");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(snapshotPath);
+        Files.deleteIfExists(snapshotDirectory);
+    }
+
+    private CorrelationRule createRule(CorrelationStateStore stateStore, String name, int version) {
+        return CorrelationRule.builder()
+                .timeWindowInMs(10000)
+                .maxLagTimeInSec(0)
+                .addAlertCounter("alert1", 2, counterFlags)
+                .addAlertCounter("alert2", 1, counterFlags)
+                .stateStore(stateStore)
+                .name(name)
+                .version(version)
+                .build();
+    }
+
+    private AlertingResult match(CorrelationRule rule, String alertName, long time) {
+        Map<String, Object> alert = new HashMap<>();
+        alert.put(AlertingFields.RULE_NAME.getAlertingName(), alertName);
+        alert.put(CORRELATION_KEY_TAG_NAME.toString(), correlationKey);
+        alert.put(AlertingFields.PROCESSING_TIME.getCorrelationAlertingName(), time);
+        AlertingResult ret = rule.match(alert);
+        Assert.assertEquals(OK, ret.getStatusCode());
+        return ret;
+    }
+
+    @Test
+    public void carryOverUnchangedRule() {
+        CorrelationStateStore stateStore = new InMemoryCorrelationStateStore();
+        CorrelationRule rule = createRule(stateStore, "rule", 1);
+        Assert.assertEquals(NO_MATCH, match(rule, "alert1", 1000).getAttributes().getEvaluationResult());
+        Assert.assertEquals(NO_MATCH, match(rule, "alert1", 1001).getAttributes().getEvaluationResult());
+
+        CorrelationRule recompiled = createRule(stateStore, "rule", 1);
+        stateStore.retainRules(new HashSet<>(Arrays.asList(recompiled.getFullRuleName())));
+        Assert.assertEquals(MATCH, match(recompiled, "alert2", 1002).getAttributes().getEvaluationResult());
+    }
+
+    @Test
+    public void changedRuleStartsEmpty() {
+        CorrelationStateStore stateStore = new InMemoryCorrelationStateStore();
+        CorrelationRule rule = createRule(stateStore, "rule", 1);
+        match(rule, "alert1", 1000);
+        match(rule, "alert1", 1001);
+
+        CorrelationRule updated = createRule(stateStore, "rule", 2);
+        stateStore.retainRules(new HashSet<>(Arrays.asList(updated.getFullRuleName())));
+        Assert.assertEquals(NO_MATCH, match(updated, "alert2", 1002).getAttributes().getEvaluationResult());
+        Assert.assertTrue(stateStore.getAlertCounters(rule.getFullRuleName(), new ArrayList<>()).isEmpty());
+    }
+
+    @Test
+    public void restoreFromSnapshot() throws IOException {
+        FileCorrelationStateStore stateStore = new FileCorrelationStateStore(snapshotPath);
+        CorrelationRule rule = createRule(stateStore, "rule", 1);
+        match(rule, "alert1", 1000);
+        match(rule, "alert1", 1001);
+        stateStore.checkpoint();
+        stateStore.awaitCheckpoint();
+        Assert.assertTrue(Files.exists(snapshotPath));
+
+        CorrelationStateStore restoredStore = new FileCorrelationStateStore(snapshotPath);
+        CorrelationRule restored = createRule(restoredStore, "rule", 1);
+        Assert.assertEquals(MATCH, match(restored, "alert2", 1002).getAttributes().getEvaluationResult());
+    }
+
+    @Test
+    public void restoreFromSnapshotChangedRule() throws IOException {
+        CorrelationStateStore stateStore = new FileCorrelationStateStore(snapshotPath);
+        CorrelationRule rule = createRule(stateStore, "rule", 1);
+        match(rule, "alert1", 1000);
+        match(rule, "alert1", 1001);
+        stateStore.close();
+
+        CorrelationStateStore restoredStore = new FileCorrelationStateStore(snapshotPath);
+        CorrelationRule restored = createRule(restoredStore, "rule", 2);
+        Assert.assertEquals(NO_MATCH, match(restored, "alert2", 1002).getAttributes().getEvaluationResult());
+    }
+
+    @Test
+    public void checkpointSnapshotTakenOnCall() throws IOException {
+        FileCorrelationStateStore stateStore = new FileCorrelationStateStore(snapshotPath);
+        CorrelationRule rule = createRule(stateStore, "rule", 1);
+        match(rule, "alert1", 1000);
+        match(rule, "alert1", 1001);
+        stateStore.checkpoint();
+        Assert.assertEquals(MATCH, match(rule, "alert2", 1002).getAttributes().getEvaluationResult());
+        stateStore.awaitCheckpoint();
+
+        CorrelationStateStore restoredStore = new FileCorrelationStateStore(snapshotPath);
+        CorrelationRule restored = createRule(restoredStore, "rule", 1);
+        Assert.assertEquals(MATCH, match(restored, "alert2", 1003).getAttributes().getEvaluationResult());
+    }
+
+    @Test
+    public void closeWritesCurrentState() throws IOException {
+        FileCorrelationStateStore stateStore = new FileCorrelationStateStore(snapshotPath);
+        CorrelationRule rule = createRule(stateStore, "rule", 1);
+        match(rule, "alert1", 1000);
+        stateStore.checkpoint();
+        match(rule, "alert1", 1001);
+        stateStore.close();
+
+        CorrelationStateStore restoredStore = new FileCorrelationStateStore(snapshotPath);
+        CorrelationRule restored = createRule(restoredStore, "rule", 1);
+        Assert.assertEquals(MATCH, match(restored, "alert2", 1002).getAttributes().getEvaluationResult());
+    }
+}
@@ -0,0 +1,55 @@
+package uk.co.gresearch.siembol.alerts.engine;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+public class AhoCorasickAutomatonTest {
+    private AhoCorasickAutomaton automaton;
+    private BitSet found;
+
+    @Before
+    public void setUp() {
+        automaton = new AhoCorasickAutomaton.Builder()
+                .literals(Arrays.asList("he", "she", "his", "hers", "secret"))
+                .build();
+        found = new BitSet();
+    }
+
+    @Test
+    public void testOverlappingLiterals() {
+        automaton.search("ushers", found);
+        Assert.assertEquals(3, found.cardinality());
+        Assert.assertTrue(found.get(0));
+        Assert.assertTrue(found.get(1));
+        Assert.assertTrue(found.get(3));
+    }
+
+    @Test
+    public void testNoMatch() {
+        automaton.search("secre hi s", found);
+        Assert.assertTrue(found.isEmpty());
+    }
+
+    @Test
+    public void testMatchAtEnd() {
+        automaton.search("top secret", found);
+        Assert.assertEquals(1, found.cardinality());
+        Assert.assertTrue(found.get(4));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testEmptyLiteral() {
+        new AhoCorasickAutomaton.Builder()
+                .literals(Arrays.asList("he", ""))
+                .build();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMissingLiterals() {
+        new AhoCorasickAutomaton.Builder().build();
+    }
+}
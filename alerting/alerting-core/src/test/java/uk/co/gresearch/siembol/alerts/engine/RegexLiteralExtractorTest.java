@@ -0,0 +1,58 @@
+package uk.co.gresearch.siembol.alerts.engine;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Optional;
+
+public class RegexLiteralExtractorTest {
+    private Optional<String> literal;
+
+    @Test
+    public void testSimpleLiteral() {
+        literal = RegexLiteralExtractor.getLongestRequiredLiteral("^.*secret.*$");
+        Assert.assertTrue(literal.isPresent());
+        Assert.assertEquals("secret", literal.get());
+    }
+
+    @Test
+    public void testLongestLiteral() {
+        literal = RegexLiteralExtractor.getLongestRequiredLiteral("ab\\d+cmd\\.exe\\s*");
+        Assert.assertTrue(literal.isPresent());
+        Assert.assertEquals("cmd.exe", literal.get());
+    }
+
+    @Test
+    public void testQuantifiers() {
+        literal = RegexLiteralExtractor.getLongestRequiredLiteral("abcx?defg*hij{2}klm+n");
+        Assert.assertTrue(literal.isPresent());
+        Assert.assertEquals("abc", literal.get());
+
+        literal = RegexLiteralExtractor.getLongestRequiredLiteral("xy+z");
+        Assert.assertTrue(literal.isPresent());
+        Assert.assertEquals("xy", literal.get());
+    }
+
+    @Test
+    public void testGroupsAndClassesAreSkipped() {
+        literal = RegexLiteralExtractor.getLongestRequiredLiteral(
+                "Threat Level=(?<vof_threat_level>\\d) Category=(?<vof_threat_cat>\\S+) Type=(?<vof_threat_type>.*?)");
+        Assert.assertTrue(literal.isPresent());
+        Assert.assertEquals("Threat Level=", literal.get());
+
+        literal = RegexLiteralExtractor.getLongestRequiredLiteral("(abc|defgh){1,3}[]()|]xy[a[b]]z");
+        Assert.assertTrue(literal.isPresent());
+        Assert.assertEquals("xy", literal.get());
+    }
+
+    @Test
+    public void testUnsupported() {
+        Assert.assertFalse(RegexLiteralExtractor.getLongestRequiredLiteral("abc|def").isPresent());
+        Assert.assertFalse(RegexLiteralExtractor.getLongestRequiredLiteral("(?i)secret").isPresent());
+        Assert.assertFalse(RegexLiteralExtractor.getLongestRequiredLiteral("\\Qsecret\\E").isPresent());
+        Assert.assertFalse(RegexLiteralExtractor.getLongestRequiredLiteral("\\x41secret").isPresent());
+        Assert.assertFalse(RegexLiteralExtractor.getLongestRequiredLiteral("(secret").isPresent());
+        Assert.assertFalse(RegexLiteralExtractor.getLongestRequiredLiteral(".*").isPresent());
+        Assert.assertFalse(RegexLiteralExtractor.getLongestRequiredLiteral("").isPresent());
+    }
+}
@@ -0,0 +1,137 @@
+package uk.co.gresearch.siembol.alerts.engine;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import uk.co.gresearch.siembol.alerts.common.EvaluationResult;
+
+import java.util.*;
+
+public class RulesPrefilterTest {
+    private Map<String, Object> event;
+    private List<Rule> rules;
+    private RulesPrefilter prefilter;
+
+    private Rule createRule(String name, Matcher... matchers) {
+        return Rule.builder()
+                .matchers(Arrays.asList(matchers))
+                .name(name)
+                .version(1)
+                .build();
+    }
+
+    private RegexMatcher createRegexMatcher(String field, String pattern, boolean negated) {
+        return RegexMatcher.builder()
+                .pattern(pattern)
+                .fieldName(field)
+                .isNegated(negated)
+                .build();
+    }
+
+    private IsInSetMatcher createIsInSetMatcher(String field, String data, boolean caseInsensitive, boolean negated) {
+        return IsInSetMatcher.builder()
+                .data(data)
+                .isCaseInsensitiveCompare(caseInsensitive)
+                .fieldName(field)
+                .isNegated(negated)
+                .build();
+    }
+
+    @Before
+    public void setUp() {
+        event = new HashMap<>();
+        rules = Arrays.asList(
+                createRule("r0", createRegexMatcher("cmd", ".*mimikatz.*", false)),
+                createRule("r1", createRegexMatcher("cmd", ".*whoami.*", false),
+                        createRegexMatcher("user", "^admin.*", false)),
+                createRule("r2", createRegexMatcher("cmd", ".*secret.*", true)),
+                createRule("r3", createRegexMatcher("cmd", ".*", false)),
+                createRule("r4", createRegexMatcher("cmd", "(?<user>\\w+) logged", false),
+                        createRegexMatcher("user", "^root$", false)),
+                createRule("r5", createRegexMatcher("user", "^administrator$", false)));
+
+        prefilter = new RulesPrefilter.Builder()
+                .rules(rules)
+                .build();
+    }
+
+    @Test
+    public void testAlwaysCandidates() {
+        BitSet candidates = prefilter.getCandidates(event);
+        Assert.assertEquals(2, candidates.cardinality());
+        Assert.assertTrue(candidates.get(2));
+        Assert.assertTrue(candidates.get(3));
+    }
+
+    @Test
+    public void testLiteralFound() {
+        event.put("cmd", "c:\\mimikatz.exe");
+        BitSet candidates = prefilter.getCandidates(event);
+        Assert.assertEquals(3, candidates.cardinality());
+        Assert.assertTrue(candidates.get(0));
+        Assert.assertTrue(candidates.get(2));
+        Assert.assertTrue(candidates.get(3));
+    }
+
+    @Test
+    public void testLongestLiteralUsed() {
+        event.put("cmd", "ls");
+        event.put("user", "administrator");
+        BitSet candidates = prefilter.getCandidates(event);
+        Assert.assertEquals(3, candidates.cardinality());
+        Assert.assertTrue(candidates.get(2));
+        Assert.assertTrue(candidates.get(3));
+        Assert.assertTrue(candidates.get(5));
+
+        event.put("cmd", "whoami");
+        event.put("user", "admin");
+        candidates = prefilter.getCandidates(event);
+        Assert.assertEquals(3, candidates.cardinality());
+        Assert.assertTrue(candidates.get(1));
+    }
+
+    @Test
+    public void testModifiedFieldsNotUsed() {
+        event.put("cmd", "root logged");
+        event.put("user", "john");
+        BitSet candidates = prefilter.getCandidates(event);
+        Assert.assertEquals(3, candidates.cardinality());
+        Assert.assertTrue(candidates.get(4));
+        Assert.assertEquals(EvaluationResult.MATCH, rules.get(4).match(event).getAttributes().getEvaluationResult());
+    }
+
+    @Test
+    public void testIsInSetIndex() {
+        rules = Arrays.asList(
+                createRule("r0", createIsInSetMatcher("dst_ip", "1.2.3.4\n5.6.7.8", false, false)),
+                createRule("r1", createIsInSetMatcher("user", "John\nalice", true, false),
+                        createRegexMatcher("cmd", ".*whoami.*", false)),
+                createRule("r2", createIsInSetMatcher("dst_ip", "5.6.7.8", false, true)),
+                createRule("r3", createIsInSetMatcher("dst_ip", "5.6.7.8\n${src_ip}", false, false)),
+                createRule("r4", createRegexMatcher("cmd", ".*whoami.*", false),
+                        createIsInSetMatcher("dst_ip", "5.6.7.8", false, false)));
+
+        prefilter = new RulesPrefilter.Builder()
+                .rules(rules)
+                .build();
+
+        BitSet candidates = prefilter.getCandidates(event);
+        Assert.assertEquals(2, candidates.cardinality());
+        Assert.assertTrue(candidates.get(2));
+        Assert.assertTrue(candidates.get(3));
+
+        event.put("dst_ip", "5.6.7.8");
+        event.put("user", "JOHN");
+        candidates = prefilter.getCandidates(event);
+        Assert.assertEquals(5, candidates.cardinality());
+
+        event.put("dst_ip", "1.2.3.4");
+        event.put("user", "bob");
+        event.put("cmd", "whoami");
+        candidates = prefilter.getCandidates(event);
+        Assert.assertEquals(3, candidates.cardinality());
+        Assert.assertTrue(candidates.get(0));
+        Assert.assertTrue(candidates.get(2));
+        Assert.assertTrue(candidates.get(3));
+    }
+}
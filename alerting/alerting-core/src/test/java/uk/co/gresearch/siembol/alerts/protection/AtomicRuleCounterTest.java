@@ -0,0 +1,63 @@
+package uk.co.gresearch.siembol.alerts.protection;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import uk.co.gresearch.siembol.common.utils.TimeProvider;
+
+import static org.mockito.Mockito.when;
+
+public class AtomicRuleCounterTest {
+    TimeProvider provider;
+    AtomicRuleCounter counter;
+
+    @Before
+    public void setUp() {
+        provider = Mockito.mock(TimeProvider.class);
+        counter = new AtomicRuleCounter(provider);
+        when(provider.getDays()).thenReturn(1);
+        when(provider.getHour()).thenReturn(1);
+    }
+
+    @Test
+    public void testNoChange() {
+        long state = counter.updateAndIncrement();
+        Assert.assertEquals(1, AtomicRuleCounter.getDailyMatches(state));
+        Assert.assertEquals(1, AtomicRuleCounter.getHourlyMatches(state));
+        Assert.assertEquals(state, counter.getState());
+    }
+
+    @Test
+    public void testDayChange() {
+        counter.updateAndIncrement();
+        long state = counter.updateAndIncrement();
+        Assert.assertEquals(2, AtomicRuleCounter.getDailyMatches(state));
+        Assert.assertEquals(2, AtomicRuleCounter.getHourlyMatches(state));
+        when(provider.getDays()).thenReturn(2);
+        state = counter.updateAndIncrement();
+        Assert.assertEquals(1, AtomicRuleCounter.getDailyMatches(state));
+        Assert.assertEquals(1, AtomicRuleCounter.getHourlyMatches(state));
+    }
+
+    @Test
+    public void testHourChange() {
+        counter.updateAndIncrement();
+        long state = counter.updateAndIncrement();
+        Assert.assertEquals(2, AtomicRuleCounter.getDailyMatches(state));
+        Assert.assertEquals(2, AtomicRuleCounter.getHourlyMatches(state));
+        when(provider.getHour()).thenReturn(2);
+        state = counter.updateAndIncrement();
+        Assert.assertEquals(3, AtomicRuleCounter.getDailyMatches(state));
+        Assert.assertEquals(1, AtomicRuleCounter.getHourlyMatches(state));
+    }
+
+    @Test
+    public void testSameHourNextDay() {
+        counter.updateAndIncrement();
+        when(provider.getDays()).thenReturn(2);
+        long state = counter.updateAndIncrement();
+        Assert.assertEquals(1, AtomicRuleCounter.getDailyMatches(state));
+        Assert.assertEquals(1, AtomicRuleCounter.getHourlyMatches(state));
+    }
+}
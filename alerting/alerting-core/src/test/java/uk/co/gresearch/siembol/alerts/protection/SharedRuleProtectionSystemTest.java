@@ -0,0 +1,68 @@
+package uk.co.gresearch.siembol.alerts.protection;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import uk.co.gresearch.siembol.alerts.common.AlertingResult;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class SharedRuleProtectionSystemTest {
+    private RuleProtectionSystem protection;
+    private String ruleName = "test";
+
+    @Before
+    public void setUp() {
+        protection = new SharedRuleProtectionSystem();
+    }
+
+    @Test
+    public void testUnknown() {
+        AlertingResult ret = protection.getRuleMatches(ruleName);
+        Assert.assertEquals(AlertingResult.StatusCode.ERROR, ret.getStatusCode());
+        Assert.assertEquals("No matches of the rule test", ret.getAttributes().getMessage());
+    }
+
+    @Test
+    public void testIncrementAndGet() {
+        AlertingResult ret = protection.incrementRuleMatches(ruleName);
+        Assert.assertEquals(AlertingResult.StatusCode.OK, ret.getStatusCode());
+        Assert.assertEquals(Integer.valueOf(1), ret.getAttributes().getDailyMatches());
+        Assert.assertEquals(Integer.valueOf(1), ret.getAttributes().getHourlyMatches());
+
+        ret = protection.getRuleMatches(ruleName);
+        Assert.assertEquals(Integer.valueOf(1), ret.getAttributes().getDailyMatches());
+        Assert.assertEquals(Integer.valueOf(1), ret.getAttributes().getHourlyMatches());
+    }
+
+    @Test
+    public void testConcurrentIncrements() throws InterruptedException {
+        //NOTE: this test can theoretically fail on a change of the hour
+        int numThreads = 8;
+        int numIncrements = 10000;
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < numThreads; i++) {
+            threads.add(new Thread(() -> {
+                for (int j = 0; j < numIncrements; j++) {
+                    protection.incrementRuleMatches(ruleName);
+                }
+            }));
+        }
+
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        AlertingResult ret = protection.getRuleMatches(ruleName);
+        Assert.assertEquals(Integer.valueOf(numThreads * numIncrements), ret.getAttributes().getDailyMatches());
+        Assert.assertEquals(Integer.valueOf(numThreads * numIncrements), ret.getAttributes().getHourlyMatches());
+    }
+
+    @Test
+    public void testWorkerInstance() {
+        Assert.assertSame(SharedRuleProtectionSystem.getWorkerInstance(),
+                SharedRuleProtectionSystem.getWorkerInstance());
+    }
+}
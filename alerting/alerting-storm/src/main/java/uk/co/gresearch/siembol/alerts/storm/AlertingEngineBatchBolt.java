@@ -0,0 +1,98 @@
+package uk.co.gresearch.siembol.alerts.storm;
+
+import org.apache.storm.task.OutputCollector;
+import org.apache.storm.task.TopologyContext;
+import org.apache.storm.tuple.Tuple;
+import org.apache.storm.tuple.Values;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.co.gresearch.siembol.alerts.common.AlertingEngine;
+import uk.co.gresearch.siembol.alerts.common.AlertingResult;
+import uk.co.gresearch.siembol.alerts.storm.model.AlertMessages;
+import uk.co.gresearch.siembol.alerts.storm.model.ExceptionMessages;
+import uk.co.gresearch.siembol.common.model.AlertingStormAttributesDto;
+import uk.co.gresearch.siembol.common.storm.TupleBatch;
+import uk.co.gresearch.siembol.common.zookeeper.ZooKeeperCompositeConnectorFactory;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.Map;
+
+import static org.apache.storm.utils.TupleUtils.isTick;
+
+/**
+ * Alerting engine bolt that collects tuples into a batch and evaluates the events of the batch by the alerting engine.
+ * The batch is evaluated when it reaches the batch size or when the batch timeout elapses.
+ * Matches and exceptions of the batch are emitted in one tuple anchored to all the tuples of the batch.
+ */
+public class AlertingEngineBatchBolt extends AlertingEngineBolt {
+    private static final long serialVersionUID = 1L;
+    private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+    private static final String EVALUATING_BATCH_LOG = "Evaluating batch of {} events";
+
+    private final TupleBatch<String> batch;
+    private transient StringWriter jsonBuffer;
+
+    AlertingEngineBatchBolt(AlertingStormAttributesDto attributes,
+                            ZooKeeperCompositeConnectorFactory zooKeeperConnectorFactory) {
+        super(attributes, zooKeeperConnectorFactory);
+        this.batch = new TupleBatch<>(attributes.getAlertingEngineBatchSize(),
+                attributes.getAlertingEngineBatchTimeoutMs());
+    }
+
+    @SuppressWarnings("rawtypes")
+    @Override
+    public void prepare(Map map, TopologyContext topologyContext, OutputCollector outputCollector) {
+        jsonBuffer = new StringWriter();
+        super.prepare(map, topologyContext, outputCollector);
+    }
+
+    @Override
+    public Map<String, Object> getComponentConfiguration() {
+        return batch.getComponentConfiguration();
+    }
+
+    @Override
+    public void execute(Tuple tuple) {
+        if (isTick(tuple)) {
+            if (batch.isCompletedByTick(tuple)) {
+                evaluateBatch();
+            }
+            return;
+        }
+
+        if (batch.add(tuple, tuple.getStringByField(TupleFieldNames.EVENT.toString()))) {
+            evaluateBatch();
+        }
+    }
+
+    @Override
+    protected String serialiseEvent(Map<String, Object> event) throws IOException {
+        //NOTE: the buffer is reused during the batch in order to avoid allocating a new buffer for each event
+        jsonBuffer.getBuffer().setLength(0);
+        JSON_WRITER.writeValue(jsonBuffer, event);
+        return jsonBuffer.toString();
+    }
+
+    private void evaluateBatch() {
+        LOG.debug(EVALUATING_BATCH_LOG, batch.size());
+        AlertingEngine currentEngine = AlertingEngine.get();
+        AlertMessages matches = new AlertMessages();
+        ExceptionMessages exceptions = new ExceptionMessages();
+        for (String event : batch.getValues()) {
+            AlertingResult ret = currentEngine.evaluate(event);
+            if (!isNoMatch(ret)) {
+                addResult(currentEngine, event, ret, matches, exceptions);
+            }
+        }
+
+        if (!matches.isEmpty() || !exceptions.isEmpty()) {
+            collector.emit(new ArrayList<>(batch.getAnchors()), new Values(matches, exceptions));
+        }
+
+        batch.getAnchors().forEach(x -> collector.ack(x));
+        batch.clear();
+    }
+}
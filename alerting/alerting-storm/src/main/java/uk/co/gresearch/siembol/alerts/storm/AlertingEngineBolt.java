@@ -1,6 +1,5 @@
 package uk.co.gresearch.siembol.alerts.storm;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectWriter;
@@ -25,6 +24,7 @@ import uk.co.gresearch.siembol.alerts.storm.model.AlertMessages;
 import uk.co.gresearch.siembol.alerts.storm.model.ExceptionMessages;
 import uk.co.gresearch.siembol.common.model.AlertingStormAttributesDto;
 
+import java.io.IOException;
 import java.lang.invoke.MethodHandles;
 import java.util.*;
 import java.util.concurrent.atomic.AtomicReference;
@@ -45,13 +45,13 @@ public class AlertingEngineBolt extends BaseRichBolt {
     private static final String ENGINE_UPDATE_TRY_MSG_FORMAT = "Alerting Engine is trying to update the rules: %s";
     private static final String ACK_NO_MATCH_LOG = "Ack-ing event {}, since no further processing required";
     private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
-    private static final ObjectWriter JSON_WRITER = new ObjectMapper()
+    protected static final ObjectWriter JSON_WRITER = new ObjectMapper()
             .writerFor(new TypeReference<Map<String, Object>>() { });
 
     protected static final String COMPILER_EXCEPTION_MSG_FORMAT = "Exception during alerting rules compilation: %s";
     protected final AtomicReference<AlertingEngine> AlertingEngine = new AtomicReference<>();
 
-    private OutputCollector collector;
+    protected OutputCollector collector;
     private ZooKeeperCompositeConnector zooKeeperConnector;
     private final ZooKeeperCompositeConnectorFactory zooKeeperConnectorFactory;
     private final ZooKeeperAttributesDto zookeperAttributes;
@@ -135,9 +135,7 @@ public class AlertingEngineBolt extends BaseRichBolt {
         String event = tuple.getStringByField(TupleFieldNames.EVENT.toString());
         AlertingResult ret = currentEngine.evaluate(event);
 
-        if (ret.getStatusCode() == AlertingResult.StatusCode.OK
-                && ret.getAttributes().getEvaluationResult() == EvaluationResult.NO_MATCH
-                && ret.getAttributes().getExceptionEvents() == null) {
+        if (isNoMatch(ret)) {
             LOG.debug(ACK_NO_MATCH_LOG, event);
             collector.ack(tuple);
             return;
@@ -145,7 +143,23 @@ public class AlertingEngineBolt extends BaseRichBolt {
 
         AlertMessages matches = new AlertMessages();
         ExceptionMessages exceptions = new ExceptionMessages();
+        addResult(currentEngine, event, ret, matches, exceptions);
+
+        collector.emit(tuple, new Values(matches, exceptions));
+        collector.ack(tuple);
+    }
 
+    protected static boolean isNoMatch(AlertingResult ret) {
+        return ret.getStatusCode() == AlertingResult.StatusCode.OK
+                && ret.getAttributes().getEvaluationResult() == EvaluationResult.NO_MATCH
+                && ret.getAttributes().getExceptionEvents() == null;
+    }
+
+    protected void addResult(AlertingEngine engine,
+                             String event,
+                             AlertingResult ret,
+                             AlertMessages matches,
+                             ExceptionMessages exceptions) {
         if (ret.getStatusCode() != AlertingResult.StatusCode.OK) {
             exceptions.add(String.format(EXCEPTION_MSG_FORMAT,
                     ret.getAttributes().getException(),
@@ -156,8 +170,8 @@ public class AlertingEngineBolt extends BaseRichBolt {
             ret.getAttributes().getExceptionEvents()
                     .forEach( x -> {
                         try {
-                            exceptions.add(JSON_WRITER.writeValueAsString(x));
-                        } catch (JsonProcessingException e) {
+                            exceptions.add(serialiseEvent(x));
+                        } catch (IOException e) {
                             exceptions.add(ExceptionUtils.getStackTrace(e));
                         }
                     });
@@ -167,17 +181,18 @@ public class AlertingEngineBolt extends BaseRichBolt {
             ret.getAttributes().getOutputEvents()
                     .forEach( x -> {
                         try {
-                            matches.add(new AlertMessage(currentEngine.getAlertingEngineType(),
+                            matches.add(new AlertMessage(engine.getAlertingEngineType(),
                                     x,
-                                    JSON_WRITER.writeValueAsString(x)));
+                                    serialiseEvent(x)));
                         } catch (Exception e) {
                             exceptions.add(ExceptionUtils.getStackTrace(e));
                         }
                     });
         }
+    }
 
-        collector.emit(tuple, new Values(matches, exceptions));
-        collector.ack(tuple);
+    protected String serialiseEvent(Map<String, Object> event) throws IOException {
+        return JSON_WRITER.writeValueAsString(event);
     }
 
     @Override
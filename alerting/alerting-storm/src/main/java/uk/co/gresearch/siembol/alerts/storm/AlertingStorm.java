@@ -59,8 +59,11 @@ public class AlertingStorm {
                 new KafkaSpout<>(createKafkaSpoutConfig(attributes)),
                 attributes.getKafkaSpoutNumExecutors());
 
+        AlertingEngineBolt alertingEngineBolt = attributes.getAlertingEngineBatchSize() > 1
+                ? new AlertingEngineBatchBolt(attributes, zooKeeperConnectorFactory)
+                : new AlertingEngineBolt(attributes, zooKeeperConnectorFactory);
         builder.setBolt(AlertingEngineType.SIEMBOL_ALERTS.getEngineName(),
-                new AlertingEngineBolt(attributes, zooKeeperConnectorFactory), attributes.getAlertingEngineBoltNumExecutors())
+                alertingEngineBolt, attributes.getAlertingEngineBoltNumExecutors())
                 .localOrShuffleGrouping(KAFKA_SPOUT);
 
         builder.setBolt(KAFKA_WRITER,
@@ -1,5 +1,9 @@
 package uk.co.gresearch.siembol.alerts.storm;
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Histogram;
 import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.apache.storm.task.OutputCollector;
+import org.apache.storm.task.TopologyContext;
 import org.apache.storm.tuple.Tuple;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -8,9 +12,14 @@ import uk.co.gresearch.siembol.common.zookeeper.ZooKeeperCompositeConnectorFacto
 import uk.co.gresearch.siembol.alerts.common.AlertingEngine;
 import uk.co.gresearch.siembol.alerts.common.AlertingResult;
 import uk.co.gresearch.siembol.alerts.compiler.AlertingCorrelationRulesCompiler;
+import uk.co.gresearch.siembol.alerts.correlationengine.CorrelationStateStore;
+import uk.co.gresearch.siembol.alerts.correlationengine.FileCorrelationStateStore;
+import uk.co.gresearch.siembol.alerts.correlationengine.InMemoryCorrelationStateStore;
 import uk.co.gresearch.siembol.common.model.AlertingStormAttributesDto;
 
+import java.io.IOException;
 import java.lang.invoke.MethodHandles;
+import java.nio.file.Paths;
 import java.util.List;
 import java.util.Map;
 import static org.apache.storm.utils.TupleUtils.isTick;
@@ -19,19 +28,57 @@ import static org.apache.storm.utils.TupleUtils.putTickFrequencyIntoComponentCon
 public class CorrelationAlertingEngineBolt extends AlertingEngineBolt {
     private static final long serialVersionUID = 1L;
     private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+    private static final String SNAPSHOT_FILE_FORMAT = "correlation_state_%d.json";
+    private static final String STATE_STORE_INIT_EXCEPTION_MSG_FORMAT =
+            "Exception during initialising correlation state store: %s";
+    private static final String CHECKPOINT_EXCEPTION_LOG = "Exception during checkpointing correlation state: {}";
+    private static final String CLOSE_EXCEPTION_LOG = "Exception during closing correlation state store: {}";
+    private static final long MILLI_MULTIPLIER = 1000L;
+    private static final String EXPIRED_KEYS_METRIC_NAME = "correlation_clean_expired_keys";
+    private static final String CLEAN_DURATION_METRIC_NAME = "correlation_clean_duration_ms";
     private final int cleanIntervalSec;
+    private final String stateSnapshotDirectory;
+    private final long checkpointIntervalMs;
+    private transient CorrelationStateStore stateStore;
+    private long lastCheckpointTime;
+    private transient Counter expiredKeysCounter;
+    private transient Histogram cleanDurationHistogram;
 
     public CorrelationAlertingEngineBolt(AlertingStormAttributesDto attributes,
                                          ZooKeeperCompositeConnectorFactory zooKeeperConnectorFactory) {
         super(attributes, zooKeeperConnectorFactory);
         cleanIntervalSec = attributes.getAlertingEngineCleanIntervalSec();
+        stateSnapshotDirectory = attributes.getAlertingEngineStateSnapshotDirectory();
+        checkpointIntervalMs = attributes.getAlertingEngineStateCheckpointIntervalSec() * MILLI_MULTIPLIER;
+    }
+
+    @SuppressWarnings("rawtypes")
+    @Override
+    public void prepare(Map map, TopologyContext topologyContext, OutputCollector outputCollector) {
+        try {
+            //NOTE: the store outlives the engines so that counters are carried over during rules updates
+            stateStore = stateSnapshotDirectory == null
+                    ? new InMemoryCorrelationStateStore()
+                    : new FileCorrelationStateStore(Paths.get(stateSnapshotDirectory,
+                    String.format(SNAPSHOT_FILE_FORMAT, topologyContext.getThisTaskId())));
+        } catch (IOException e) {
+            String msg = String.format(STATE_STORE_INIT_EXCEPTION_MSG_FORMAT, ExceptionUtils.getStackTrace(e));
+            LOG.error(msg);
+            throw new IllegalStateException(msg);
+        }
+
+        expiredKeysCounter = topologyContext.registerCounter(EXPIRED_KEYS_METRIC_NAME);
+        cleanDurationHistogram = topologyContext.registerHistogram(CLEAN_DURATION_METRIC_NAME);
+
+        lastCheckpointTime = System.currentTimeMillis();
+        super.prepare(map, topologyContext, outputCollector);
     }
 
     @Override
     protected AlertingEngine getAlertingEngine(List<String> rulesList) {
         try {
             AlertingResult engineResult =  AlertingCorrelationRulesCompiler
-                    .createAlertingCorrelationRulesCompiler()
+                    .createAlertingCorrelationRulesCompiler(stateStore)
                     .compile(rulesList);
             if (engineResult.getStatusCode() != AlertingResult.StatusCode.OK) {
                 String errorMsg = String.format(COMPILER_EXCEPTION_MSG_FORMAT,
@@ -57,10 +104,40 @@ public class CorrelationAlertingEngineBolt extends AlertingEngineBolt {
     public void execute(Tuple tuple) {
         if (isTick(tuple)) {
             AlertingEngine currentEngine = AlertingEngine.get();
-            currentEngine.clean();
+            long startTime = System.currentTimeMillis();
+            expiredKeysCounter.inc(currentEngine.clean());
+            cleanDurationHistogram.update(System.currentTimeMillis() - startTime);
+            checkpoint();
             return;
         }
 
         super.execute(tuple);
     }
+
+    private void checkpoint() {
+        long currentTime = System.currentTimeMillis();
+        if (currentTime - lastCheckpointTime < checkpointIntervalMs) {
+            return;
+        }
+
+        try {
+            stateStore.checkpoint();
+        } catch (IOException e) {
+            LOG.error(CHECKPOINT_EXCEPTION_LOG, ExceptionUtils.getStackTrace(e));
+        }
+        lastCheckpointTime = currentTime;
+    }
+
+    @Override
+    public void cleanup() {
+        if (stateStore == null) {
+            return;
+        }
+
+        try {
+            stateStore.close();
+        } catch (IOException e) {
+            LOG.error(CLOSE_EXCEPTION_LOG, ExceptionUtils.getStackTrace(e));
+        }
+    }
 }
@@ -1,6 +1,8 @@
 package uk.co.gresearch.siembol.alerts.storm;
 import java.lang.invoke.MethodHandles;
 import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.apache.kafka.clients.producer.KafkaProducer;
@@ -22,20 +24,29 @@ import uk.co.gresearch.siembol.common.error.ErrorType;
 import uk.co.gresearch.siembol.alerts.common.AlertingResult;
 import uk.co.gresearch.siembol.alerts.protection.RuleProtectionSystem;
 import uk.co.gresearch.siembol.alerts.protection.RuleProtectionSystemImpl;
+import uk.co.gresearch.siembol.alerts.protection.SharedRuleProtectionSystem;
 import uk.co.gresearch.siembol.alerts.storm.model.*;
 import uk.co.gresearch.siembol.common.model.AlertingStormAttributesDto;
 
+import static org.apache.storm.utils.TupleUtils.isTick;
+import static org.apache.storm.utils.TupleUtils.putTickFrequencyIntoComponentConfig;
+
 public class KafkaWriterBolt extends BaseRichBolt {
     private static final long serialVersionUID = 1L;
     private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
     private static final String WRONG_ALERTS_FIELD_MESSAGE = "Wrong alerts type in tuple";
     private static final String WRONG_EXCEPTION_FIELD_MESSAGE = "Wrong exceptions type in tuple";
+    private static final int COMPLETE_TUPLES_INTERVAL_SEC = 1;
 
     private final String errorSensorType;
     private final Properties props;
     private final String errorTopic;
     private final String outputTopic;
     private final String correlationTopic;
+    private final boolean ruleProtectionWorkerShared;
+    private final int maxPendingTuples;
+    private final Queue<PendingTuple> completedTuples = new ConcurrentLinkedQueue<>();
+    private int numPendingTuples = 0;
     private OutputCollector collector;
     private Producer<String, String> producer;
     private RuleProtectionSystem ruleProtection;
@@ -46,12 +57,19 @@ public class KafkaWriterBolt extends BaseRichBolt {
         this.outputTopic = attributes.getOutputTopic();
         this.errorTopic = attributes.getKafkaErrorTopic();
         this.correlationTopic = attributes.getCorrelationOutputTopic();
+        this.ruleProtectionWorkerShared = Boolean.TRUE.equals(attributes.getRuleProtectionWorkerShared());
+        this.maxPendingTuples = attributes.getKafkaWriterMaxPendingTuples();
         AlertingEngineType engineType = AlertingEngineType.valueOfName(attributes.getAlertingEngine());
         errorSensorType = engineType.toString();
     }
 
     @Override
     public void execute(Tuple tuple) {
+        if (isTick(tuple)) {
+            completeTuples();
+            return;
+        }
+
         Object matchesObject = tuple.getValueByField(TupleFieldNames.ALERTING_MATCHES.toString());
         if (!(matchesObject instanceof AlertMessages)) {
             LOG.error(WRONG_ALERTS_FIELD_MESSAGE);
@@ -66,67 +84,113 @@ public class KafkaWriterBolt extends BaseRichBolt {
         }
         ExceptionMessages exceptions = (ExceptionMessages)exceptionsObject;
 
-        try {
-            for (AlertMessage match : matches) {
-                AlertingResult matchesInfo = ruleProtection.incrementRuleMatches(match.getFullRuleName());
-                int hourlyMatches = matchesInfo.getAttributes().getHourlyMatches();
-                int dailyMatches = matchesInfo.getAttributes().getDailyMatches();
-
-                if (match.getMaxHourMatches().intValue() < hourlyMatches
-                        || match.getMaxDayMatches().intValue() < dailyMatches) {
-                    String msg = String.format(
-                            "The rule: %s reaches the limit\n hourly matches: %d, daily matches: %d, alert: %s",
-                            match.getFullRuleName(), hourlyMatches, dailyMatches, match.getAlertJson());
-                    LOG.debug(msg);
-                    exceptions.add(msg);
-                    continue;
-                }
-
-                if (match.isVisibleAlert()) {
-                    LOG.debug("Sending message {}\n to output topic", match.getAlertJson());
-                    producer.send(new ProducerRecord<>(outputTopic,
-                            String.valueOf(match.getAlertJson().hashCode()),
-                            match.getAlertJson()));
-                }
-
-                if (match.isCorrelationAlert()) {
-                    LOG.debug("Sending message {}\n to correlation alerts topic", match.getAlertJson());
-                    producer.send(new ProducerRecord<>(correlationTopic,
-                            match.getCorrelationKey().get(),
-                            match.getAlertJson()));
-                }
+        List<ProducerRecord<String, String>> records = new ArrayList<>();
+        for (AlertMessage match : matches) {
+            AlertingResult matchesInfo = ruleProtection.incrementRuleMatches(match.getFullRuleName());
+            int hourlyMatches = matchesInfo.getAttributes().getHourlyMatches();
+            int dailyMatches = matchesInfo.getAttributes().getDailyMatches();
+
+            if (match.getMaxHourMatches().intValue() < hourlyMatches
+                    || match.getMaxDayMatches().intValue() < dailyMatches) {
+                String msg = String.format(
+                        "The rule: %s reaches the limit\n hourly matches: %d, daily matches: %d, alert: %s",
+                        match.getFullRuleName(), hourlyMatches, dailyMatches, match.getAlertJson());
+                LOG.debug(msg);
+                exceptions.add(msg);
+                continue;
+            }
+
+            if (match.isVisibleAlert()) {
+                LOG.debug("Sending message {}\n to output topic", match.getAlertJson());
+                records.add(new ProducerRecord<>(outputTopic,
+                        String.valueOf(match.getAlertJson().hashCode()),
+                        match.getAlertJson()));
             }
 
-            for (String errorMsg : exceptions) {
-                String errorMsgToSend = getErrorMessageToSend(errorMsg);
-                LOG.debug("Sending message {}\n to error topic", errorMsgToSend);
-                producer.send(new ProducerRecord<>(errorTopic,
-                        String.valueOf(errorMsgToSend.hashCode()),
-                        errorMsgToSend));
+            if (match.isCorrelationAlert()) {
+                LOG.debug("Sending message {}\n to correlation alerts topic", match.getAlertJson());
+                records.add(new ProducerRecord<>(correlationTopic,
+                        match.getCorrelationKey().get(),
+                        match.getAlertJson()));
             }
+        }
+
+        for (String errorMsg : exceptions) {
+            String errorMsgToSend = getErrorMessageToSend(errorMsg);
+            LOG.debug("Sending message {}\n to error topic", errorMsgToSend);
+            records.add(new ProducerRecord<>(errorTopic,
+                    String.valueOf(errorMsgToSend.hashCode()),
+                    errorMsgToSend));
+        }
+
+        if (records.isEmpty()) {
+            LOG.debug("Acking tuple");
+            collector.ack(tuple);
+            return;
+        }
 
+        PendingTuple pendingTuple = new PendingTuple(tuple, records.size());
+        numPendingTuples++;
+        for (ProducerRecord<String, String> record : records) {
+            send(record, pendingTuple);
+        }
+
+        if (numPendingTuples >= maxPendingTuples) {
+            //NOTE: we wait for the pending records in order to bound the number of in-flight records
             producer.flush();
+        }
+        completeTuples();
+    }
+
+    private void send(ProducerRecord<String, String> record, PendingTuple pendingTuple) {
+        try {
+            producer.send(record, (metadata, exception) -> pendingTuple.complete(exception, completedTuples));
         } catch (AuthorizationException e) {
-                LOG.error("Exception {} during writing messages to the kafka",
-                        ExceptionUtils.getStackTrace(e));
-                producer.close();
-                throw new IllegalStateException(e);
-            } catch (KafkaException e) {
-            LOG.error("KafkaException {} during writing messages to the kafka",
-                    ExceptionUtils.getStackTrace(e));
-                collector.fail(tuple);
-                return;
+            handleAuthorizationException(e);
+        } catch (KafkaException e) {
+            pendingTuple.complete(e, completedTuples);
+        }
+    }
+
+    private void handleAuthorizationException(Exception e) {
+        LOG.error("Exception {} during writing messages to the kafka", ExceptionUtils.getStackTrace(e));
+        producer.close();
+        throw new IllegalStateException(e);
+    }
+
+    private void completeTuples() {
+        PendingTuple current;
+        while ((current = completedTuples.poll()) != null) {
+            numPendingTuples--;
+            Exception exception = current.getException();
+            if (exception == null) {
+                LOG.debug("Acking tuple");
+                collector.ack(current.getTuple());
+                continue;
+            }
+
+            if (exception instanceof AuthorizationException) {
+                handleAuthorizationException(exception);
             }
 
-        LOG.debug("Acking tuple");
-        collector.ack(tuple);
+            LOG.error("KafkaException {} during writing messages to the kafka",
+                    ExceptionUtils.getStackTrace(exception));
+            collector.fail(current.getTuple());
+        }
+    }
+
+    @Override
+    public Map<String, Object> getComponentConfiguration() {
+        return putTickFrequencyIntoComponentConfig(null, COMPLETE_TUPLES_INTERVAL_SEC);
     }
 
     @SuppressWarnings("rawtypes")
     @Override
     public void prepare(Map map, TopologyContext topologyContext, OutputCollector outputCollector) {
         this.collector = outputCollector;
-        ruleProtection = new RuleProtectionSystemImpl();
+        ruleProtection = ruleProtectionWorkerShared
+                ? SharedRuleProtectionSystem.getWorkerInstance()
+                : new RuleProtectionSystemImpl();
         producer = new KafkaProducer<>(props, new StringSerializer(), new StringSerializer());
     }
 
@@ -135,6 +199,40 @@ public class KafkaWriterBolt extends BaseRichBolt {
         producer.close();
     }
 
+    /**
+     * Tuple with records that are sent to kafka asynchronously.
+     * Kafka producer callbacks complete the records and the tuple is acked or failed
+     * by the executor thread after all its records are completed.
+     */
+    private static class PendingTuple {
+        private final Tuple tuple;
+        private final AtomicInteger numPendingRecords;
+        private volatile Exception exception;
+
+        PendingTuple(Tuple tuple, int numRecords) {
+            this.tuple = tuple;
+            this.numPendingRecords = new AtomicInteger(numRecords);
+        }
+
+        void complete(Exception recordException, Queue<PendingTuple> completedTuples) {
+            if (recordException != null) {
+                exception = recordException;
+            }
+
+            if (numPendingRecords.decrementAndGet() == 0) {
+                completedTuples.add(this);
+            }
+        }
+
+        Tuple getTuple() {
+            return tuple;
+        }
+
+        Exception getException() {
+            return exception;
+        }
+    }
+
     private String getErrorMessageToSend(String errorMsg) {
         ErrorMessage error = new ErrorMessage();
         error.setErrorType(ErrorType.ALERTING_ERROR);
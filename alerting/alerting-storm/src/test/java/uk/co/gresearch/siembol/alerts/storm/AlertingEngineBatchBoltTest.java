@@ -0,0 +1,215 @@
+package uk.co.gresearch.siembol.alerts.storm;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.adrianwalker.multilinestring.Multiline;
+import org.apache.storm.Config;
+import org.apache.storm.Constants;
+import org.apache.storm.task.OutputCollector;
+import org.apache.storm.tuple.Tuple;
+import org.apache.storm.tuple.Values;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import uk.co.gresearch.siembol.alerts.common.AlertingFields;
+import uk.co.gresearch.siembol.alerts.storm.model.AlertMessages;
+import uk.co.gresearch.siembol.alerts.storm.model.ExceptionMessages;
+import uk.co.gresearch.siembol.common.model.AlertingStormAttributesDto;
+import uk.co.gresearch.siembol.common.model.ZooKeeperAttributesDto;
+import uk.co.gresearch.siembol.common.zookeeper.ZooKeeperCompositeConnector;
+import uk.co.gresearch.siembol.common.zookeeper.ZooKeeperCompositeConnectorFactory;
+
+import java.io.IOException;
+import java.util.*;
+
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.internal.verification.VerificationModeFactory.times;
+
+public class AlertingEngineBatchBoltTest {
+    private static final ObjectReader JSON_READER = new ObjectMapper()
+            .readerFor(new TypeReference<Map<String, Object>>() {});
+
+    /**
+    *{
+     *  "source_type" : "secret",
+     *  "is_alert" : "TruE",
+     *  "dummy_field_int" : 1,
+     *  "dummy_field_boolean" : false
+     *}
+     **/
+    @Multiline
+    public static String event;
+
+
+    /**
+     *{
+     *  "rules_version" :1,
+     *  "tags" : [ { "tag_name" : "detection_source", "tag_value" : "siembol_alerts" } ],
+     *  "rules" : [ {
+     *      "rule_name" : "siembol_alert_generic",
+     *      "rule_version" : 1,
+     *      "rule_author" : "dummy",
+     *      "rule_description": "Test rule - is_alert is equal to true",
+     *      "source_type" : "*",
+     *      "matchers" : [ {
+     *          "matcher_type" : "REGEX_MATCH",
+     *          "is_negated" : false,
+     *          "field" : "is_alert",
+     *          "data" : "(?i)true" },
+     *          {
+     *           "matcher_type": "REGEX_MATCH",
+     *           "is_negated": false,
+     *           "field": "source_type",
+     *           "data": "(?<sensor>.*)"
+     *         }
+     *          ]
+     *  }]
+     *}
+     **/
+    @Multiline
+    public static String simpleTestRules;
+
+    private Tuple tuple1;
+    private Tuple tuple2;
+    private Tuple tickTuple;
+    private OutputCollector collector;
+    AlertingEngineBatchBolt alertingEngineBatchBolt;
+    AlertingStormAttributesDto stormAttributes;
+    ZooKeeperAttributesDto zookeperAttributes;
+
+    ZooKeeperCompositeConnector zooKeeperConnector;
+    ZooKeeperCompositeConnectorFactory zooKeeperConnectorFactory;
+    ArgumentCaptor<Collection<Tuple>> argumentAnchorsCaptor;
+    ArgumentCaptor<Values> argumentEmitCaptor;
+
+    @Before
+    public void setUp() throws Exception {
+        stormAttributes = new AlertingStormAttributesDto();
+        stormAttributes.setAlertingEngineBatchSize(2);
+        stormAttributes.setAlertingEngineBatchTimeoutMs(1000 * 3600);
+        zookeperAttributes = new ZooKeeperAttributesDto();
+        stormAttributes.setZookeperAttributes(zookeperAttributes);
+
+        tuple1 = Mockito.mock(Tuple.class);
+        tuple2 = Mockito.mock(Tuple.class);
+        tickTuple = Mockito.mock(Tuple.class);
+        when(tickTuple.getSourceComponent()).thenReturn(Constants.SYSTEM_COMPONENT_ID);
+        when(tickTuple.getSourceStreamId()).thenReturn(Constants.SYSTEM_TICK_STREAM_ID);
+
+        collector = Mockito.mock(OutputCollector.class);
+        argumentAnchorsCaptor = ArgumentCaptor.forClass(Collection.class);
+        argumentEmitCaptor = ArgumentCaptor.forClass(Values.class);
+        zooKeeperConnectorFactory = Mockito.mock(ZooKeeperCompositeConnectorFactory.class);
+
+        zooKeeperConnector = Mockito.mock(ZooKeeperCompositeConnector.class);
+        when(zooKeeperConnectorFactory.createZookeeperConnector(zookeperAttributes)).thenReturn(zooKeeperConnector);
+        when(zooKeeperConnector.getData()).thenReturn(Collections.singletonList(simpleTestRules));
+
+        when(tuple1.getStringByField(eq(TupleFieldNames.EVENT.toString()))).thenReturn(event.trim());
+        when(tuple2.getStringByField(eq(TupleFieldNames.EVENT.toString()))).thenReturn(event.trim());
+        when(collector.emit(argumentAnchorsCaptor.capture(), argumentEmitCaptor.capture()))
+                .thenReturn(new ArrayList<>());
+
+        alertingEngineBatchBolt = new AlertingEngineBatchBolt(stormAttributes, zooKeeperConnectorFactory);
+        alertingEngineBatchBolt.prepare(null, null, collector);
+    }
+
+    @Test
+    public void testMatchRuleBatch() throws IOException {
+        alertingEngineBatchBolt.execute(tuple1);
+        verify(collector, never()).ack(ArgumentMatchers.any());
+
+        alertingEngineBatchBolt.execute(tuple2);
+        Assert.assertEquals(Arrays.asList(tuple1, tuple2), new ArrayList<>(argumentAnchorsCaptor.getValue()));
+        Values values = argumentEmitCaptor.getValue();
+        Assert.assertEquals(2, values.size());
+        Assert.assertTrue(values.get(0) instanceof AlertMessages);
+        Assert.assertTrue(values.get(1) instanceof ExceptionMessages);
+
+        AlertMessages alerts = (AlertMessages)values.get(0);
+        Assert.assertEquals(2, alerts.size());
+        Assert.assertTrue(((ExceptionMessages)values.get(1)).isEmpty());
+        for (int i = 0; i < alerts.size(); i++) {
+            Assert.assertEquals("siembol_alert_generic_v1", alerts.get(i).getFullRuleName());
+            Map<String, Object> parsed = JSON_READER.readValue(alerts.get(i).getAlertJson());
+            Assert.assertEquals("siembol_alert_generic_v1",
+                    parsed.get(AlertingFields.FULL_RULE_NAME.getAlertingName()));
+            Assert.assertEquals("secret", parsed.get("sensor"));
+        }
+
+        verify(collector, times(1)).ack(eq(tuple1));
+        verify(collector, times(1)).ack(eq(tuple2));
+    }
+
+    @Test
+    public void testNoMatchRuleBatch() {
+        when(tuple1.getStringByField(eq(TupleFieldNames.EVENT.toString())))
+                .thenReturn(event.replaceAll("is_alert", "unknown"));
+        when(tuple2.getStringByField(eq(TupleFieldNames.EVENT.toString())))
+                .thenReturn(event.replaceAll("is_alert", "unknown"));
+
+        alertingEngineBatchBolt.execute(tuple1);
+        alertingEngineBatchBolt.execute(tuple2);
+        verify(collector, never()).emit(ArgumentMatchers.<Collection<Tuple>>any(), ArgumentMatchers.any());
+        verify(collector, times(1)).ack(eq(tuple1));
+        verify(collector, times(1)).ack(eq(tuple2));
+    }
+
+    @Test
+    public void testExceptionBatch() {
+        when(tuple2.getStringByField(eq(TupleFieldNames.EVENT.toString())))
+                .thenReturn("INVALID");
+
+        alertingEngineBatchBolt.execute(tuple1);
+        alertingEngineBatchBolt.execute(tuple2);
+        Values values = argumentEmitCaptor.getValue();
+        Assert.assertEquals(1, ((AlertMessages)values.get(0)).size());
+        Assert.assertEquals(1, ((ExceptionMessages)values.get(1)).size());
+        Assert.assertTrue(((ExceptionMessages)values.get(1)).get(0).contains("JsonParseException"));
+        verify(collector, times(1)).ack(eq(tuple1));
+        verify(collector, times(1)).ack(eq(tuple2));
+    }
+
+    @Test
+    public void testTickBeforeTimeout() {
+        alertingEngineBatchBolt.execute(tuple1);
+        alertingEngineBatchBolt.execute(tickTuple);
+        verify(collector, never()).ack(ArgumentMatchers.any());
+    }
+
+    @Test
+    public void testTickAfterTimeout() throws InterruptedException {
+        stormAttributes.setAlertingEngineBatchTimeoutMs(1);
+        alertingEngineBatchBolt = new AlertingEngineBatchBolt(stormAttributes, zooKeeperConnectorFactory);
+        alertingEngineBatchBolt.prepare(null, null, collector);
+
+        alertingEngineBatchBolt.execute(tuple1);
+        Thread.sleep(10);
+        alertingEngineBatchBolt.execute(tickTuple);
+        verify(collector, times(1)).ack(eq(tuple1));
+        Assert.assertEquals(Collections.singletonList(tuple1), new ArrayList<>(argumentAnchorsCaptor.getValue()));
+    }
+
+    @Test
+    public void testTickFrequencyFromTimeout() {
+        Assert.assertEquals(3600,
+                alertingEngineBatchBolt.getComponentConfiguration().get(Config.TOPOLOGY_TICK_TUPLE_FREQ_SECS));
+
+        stormAttributes.setAlertingEngineBatchTimeoutMs(100);
+        alertingEngineBatchBolt = new AlertingEngineBatchBolt(stormAttributes, zooKeeperConnectorFactory);
+        Assert.assertEquals(1,
+                alertingEngineBatchBolt.getComponentConfiguration().get(Config.TOPOLOGY_TICK_TUPLE_FREQ_SECS));
+
+        stormAttributes.setAlertingEngineBatchTimeoutMs(5500);
+        alertingEngineBatchBolt = new AlertingEngineBatchBolt(stormAttributes, zooKeeperConnectorFactory);
+        Assert.assertEquals(5,
+                alertingEngineBatchBolt.getComponentConfiguration().get(Config.TOPOLOGY_TICK_TUPLE_FREQ_SECS));
+    }
+}
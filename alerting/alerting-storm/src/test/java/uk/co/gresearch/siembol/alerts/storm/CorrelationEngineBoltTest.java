@@ -1,10 +1,15 @@
 package uk.co.gresearch.siembol.alerts.storm;
 
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.UniformReservoir;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectReader;
 import org.adrianwalker.multilinestring.Multiline;
 import org.apache.storm.task.OutputCollector;
+import org.apache.storm.Constants;
+import org.apache.storm.task.TopologyContext;
 import org.apache.storm.tuple.Tuple;
 import org.apache.storm.tuple.Values;
 import org.junit.Assert;
@@ -114,6 +119,70 @@ public class CorrelationEngineBoltTest {
     @Multiline
     public static String simpleCorrelationRules;
 
+    /**
+     * {
+     *   "siembol_alerts_full_rule_name": "alert1_v3",
+     *   "siembol_alerts_rule_name": "alert1",
+     *   "correlation_key": "evil",
+     *   "siembol_alerts_max_per_hour": 200,
+     *   "siembol_alerts_test": "true",
+     *   "source_type": "a",
+     *   "siembol_alerts_max_per_day": 10000,
+     *   "timestamp": 1000
+     * }
+     **/
+    @Multiline
+    public static String oldAlert;
+
+    /**
+     * {
+     *   "rules_version": 1,
+     *   "tags": [
+     *     {
+     *       "tag_name": "detection_source",
+     *       "tag_value": "siembol_correlation_alerts_instance"
+     *     }
+     *   ],
+     *   "rules": [
+     *     {
+     *       "tags": [
+     *         {
+     *           "tag_name": "test",
+     *           "tag_value": "true"
+     *         }
+     *       ],
+     *       "rule_protection": {
+     *         "max_per_hour": 500,
+     *         "max_per_day": 1000
+     *       },
+     *       "rule_name": "test_rule",
+     *       "rule_version": 1,
+     *       "rule_author": "dummy",
+     *       "rule_description": "Testing rule",
+     *       "correlation_attributes": {
+     *         "time_unit": "seconds",
+     *         "time_window": 500,
+     *         "time_computation_type": "event_time",
+     *         "max_time_lag_in_sec": 30,
+     *         "alerts": [
+     *           {
+     *             "alert": "alert1",
+     *             "threshold": 2
+     *           },
+     *           {
+     *             "alert": "alert2",
+     *             "threshold": 1
+     *           }
+     *         ]
+     *       }
+     *     }
+     *   ]
+     * }
+     *}
+     **/
+    @Multiline
+    public static String eventTimeCorrelationRules;
+
     private Tuple tuple;
     private OutputCollector collector;
     CorrelationAlertingEngineBolt correlationAlertingEngineBolt;
@@ -123,6 +192,8 @@ public class CorrelationEngineBoltTest {
     ZooKeeperCompositeConnector zooKeeperConnector;
     ZooKeeperCompositeConnectorFactory zooKeeperConnectorFactory;
     ArgumentCaptor<Values> argumentEmitCaptor;
+    TopologyContext topologyContext;
+    Counter expiredKeysCounter;
 
     @Before
     public void setUp() throws Exception {
@@ -143,8 +214,14 @@ public class CorrelationEngineBoltTest {
         when(tuple.getStringByField(eq(TupleFieldNames.EVENT.toString()))).thenReturn(alert1, alert2, alert1);
         when(collector.emit(eq(tuple), argumentEmitCaptor.capture())).thenReturn(new ArrayList<>());
 
+        topologyContext = Mockito.mock(TopologyContext.class);
+        expiredKeysCounter = new Counter();
+        when(topologyContext.registerCounter(eq("correlation_clean_expired_keys"))).thenReturn(expiredKeysCounter);
+        when(topologyContext.registerHistogram(eq("correlation_clean_duration_ms")))
+                .thenReturn(new Histogram(new UniformReservoir()));
+
         correlationAlertingEngineBolt = new CorrelationAlertingEngineBolt(stormAttributes, zooKeeperConnectorFactory);
-        correlationAlertingEngineBolt.prepare(null, null, collector);
+        correlationAlertingEngineBolt.prepare(null, topologyContext, collector);
     }
 
     @Test
@@ -207,4 +284,25 @@ public class CorrelationEngineBoltTest {
         verify(collector, times(10)).ack(eq(tuple));
         verify(collector, never()).emit(ArgumentMatchers.<List<Object>>any());
     }
+
+    @Test
+    public void testCleanExpiredKeys() {
+        when(zooKeeperConnector.getData()).thenReturn(Arrays.asList(eventTimeCorrelationRules));
+        correlationAlertingEngineBolt = new CorrelationAlertingEngineBolt(stormAttributes, zooKeeperConnectorFactory);
+        correlationAlertingEngineBolt.prepare(null, topologyContext, collector);
+
+        when(tuple.getStringByField(eq(TupleFieldNames.EVENT.toString()))).thenReturn(oldAlert);
+        correlationAlertingEngineBolt.execute(tuple);
+        verify(collector, times(1)).ack(eq(tuple));
+        Assert.assertEquals(0, expiredKeysCounter.getCount());
+
+        Tuple tickTuple = Mockito.mock(Tuple.class);
+        when(tickTuple.getSourceComponent()).thenReturn(Constants.SYSTEM_COMPONENT_ID);
+        when(tickTuple.getSourceStreamId()).thenReturn(Constants.SYSTEM_TICK_STREAM_ID);
+        correlationAlertingEngineBolt.execute(tickTuple);
+        Assert.assertEquals(1, expiredKeysCounter.getCount());
+
+        correlationAlertingEngineBolt.execute(tickTuple);
+        Assert.assertEquals(1, expiredKeysCounter.getCount());
+    }
 }
@@ -6,6 +6,7 @@ import com.fasterxml.jackson.databind.ObjectReader;
 import com.github.charithe.kafka.EphemeralKafkaBroker;
 import com.github.charithe.kafka.KafkaJunitRule;
 import org.adrianwalker.multilinestring.Multiline;
+import org.apache.storm.Constants;
 import org.apache.storm.task.OutputCollector;
 import org.apache.storm.tuple.Tuple;
 import org.junit.Assert;
@@ -25,8 +26,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 
 public class KafkaWriterBoltTest {
     private static final ObjectReader JSON_PARSERS_CONFIG_READER = new ObjectMapper()
@@ -192,4 +194,29 @@ public class KafkaWriterBoltTest {
         Assert.assertEquals(1, outputAlert.size());
         Assert.assertEquals(AlertMessageCorrelationStr.trim(), outputAlert.get(0).trim());
     }
+
+    @Test
+    public void testTupleAckedAfterRecordsAreWritten() throws Exception {
+        AlertMessage alert = new AlertMessage(AlertingEngineType.SIEMBOL_ALERTS, alertMap, AlertMessageStr);
+        AlertMessages.add(alert);
+        writerBolt.execute(tuple);
+        kafkaRule.helper().consumeStrings("alerts", 1).get(10, TimeUnit.SECONDS);
+
+        Tuple tickTuple = Mockito.mock(Tuple.class);
+        when(tickTuple.getSourceComponent()).thenReturn(Constants.SYSTEM_COMPONENT_ID);
+        when(tickTuple.getSourceStreamId()).thenReturn(Constants.SYSTEM_TICK_STREAM_ID);
+        //NOTE: the producer callback can be completed after the record is consumed
+        for (int i = 0; i < 100 && Mockito.mockingDetails(collector).getInvocations().isEmpty(); i++) {
+            Thread.sleep(100);
+            writerBolt.execute(tickTuple);
+        }
+        verify(collector, times(1)).ack(tuple);
+        verify(collector, never()).fail(any());
+    }
+
+    @Test
+    public void testEmptyTupleAcked() {
+        writerBolt.execute(tuple);
+        verify(collector, times(1)).ack(tuple);
+    }
 }
@@ -1,6 +1,7 @@
 package uk.co.gresearch.siembol.enrichments.common;
 
 import org.apache.commons.lang3.tuple.Pair;
+import uk.co.gresearch.siembol.enrichments.model.TableTypeDto;
 
 import java.io.Serializable;
 import java.util.ArrayList;
@@ -12,6 +13,7 @@ public class EnrichmentCommand implements Serializable {
     private static final long serialVersionUID = 1L;
     private String tableName;
     private String key;
+    private TableTypeDto tableType = TableTypeDto.EXACT;
     private ArrayList<Pair<String, String>> tags;
     private ArrayList<Pair<String, String>> enrichmentFields;
 
@@ -31,6 +33,14 @@ public class EnrichmentCommand implements Serializable {
         this.key = key;
     }
 
+    public TableTypeDto getTableType() {
+        return tableType;
+    }
+
+    public void setTableType(TableTypeDto tableType) {
+        this.tableType = tableType;
+    }
+
     public ArrayList<Pair<String, String>> getTags() {
         return tags;
     }
@@ -18,6 +18,7 @@ import uk.co.gresearch.siembol.enrichments.evaluation.EnrichmentEvaluator;
 import uk.co.gresearch.siembol.enrichments.evaluation.EnrichmentEvaluatorLibrary;
 import uk.co.gresearch.siembol.enrichments.evaluation.AlertingEnrichmentEvaluator;
 import uk.co.gresearch.siembol.enrichments.model.*;
+import uk.co.gresearch.siembol.enrichments.table.EnrichmentCidrTable;
 import uk.co.gresearch.siembol.enrichments.table.EnrichmentMemoryTable;
 import uk.co.gresearch.siembol.enrichments.table.EnrichmentTable;
 import uk.co.gresearch.siembol.alerts.engine.*;
@@ -105,6 +106,7 @@ public class EnrichmentCompilerImpl implements EnrichmentCompiler {
         EnrichingRule rule = EnrichingRule.enrichingRuleBuilder()
                 .key(ruleDto.getTableMapping().getJoiningKey())
                 .tableName(ruleDto.getTableMapping().getTableName())
+                .tableType(ruleDto.getTableMapping().getTableType())
                 .enrichmentTags(enrichingTags)
                 .enrichmentFields(enrichingFields)
                 .matchers(matchers)
@@ -118,7 +120,9 @@ public class EnrichmentCompilerImpl implements EnrichmentCompiler {
     private Map<String, EnrichmentTable> createTestingTable(TestingSpecificationDto test) throws IOException {
         Map<String, EnrichmentTable> ret = new HashMap<>();
         try (InputStream is = new ByteArrayInputStream(test.getTestingTableMappingContent().getBytes())) {
-            EnrichmentMemoryTable current = EnrichmentMemoryTable.fromJsonStream(is);
+            EnrichmentTable current = test.getTestingTableType() == TableTypeDto.CIDR
+                    ? EnrichmentCidrTable.fromJsonStream(is)
+                    : EnrichmentMemoryTable.fromJsonStream(is);
             ret.put(test.getTestingTableName(), current);
         }
         return ret;
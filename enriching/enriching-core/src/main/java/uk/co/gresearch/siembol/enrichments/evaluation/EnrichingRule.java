@@ -9,6 +9,7 @@ import uk.co.gresearch.siembol.alerts.common.EvaluationResult;
 import uk.co.gresearch.siembol.alerts.common.AlertingResult;
 import uk.co.gresearch.siembol.common.utils.EvaluationLibrary;
 import uk.co.gresearch.siembol.alerts.engine.Rule;
+import uk.co.gresearch.siembol.enrichments.model.TableTypeDto;
 
 import java.lang.invoke.MethodHandles;
 import java.util.ArrayList;
@@ -21,6 +22,7 @@ public class EnrichingRule extends Rule {
     private static final String COMMAND_FIELD_ERROR_MSG = "Enrichment command field already in event: %s";
     private final String tableName;
     private final String key;
+    private final TableTypeDto tableType;
     private final ArrayList<Pair<String, String>> enrichmentTags;
     private final ArrayList<Pair<String, String>> enrichmentFields;
 
@@ -28,6 +30,7 @@ public class EnrichingRule extends Rule {
         super(builder);
         this.tableName = builder.tableName;
         this.key = builder.key;
+        this.tableType = builder.tableType;
         this.enrichmentTags = builder.enrichmentTags;
         this.enrichmentFields = builder.enrichmentFields;
     }
@@ -41,6 +44,7 @@ public class EnrichingRule extends Rule {
         EnrichmentCommand ret = new EnrichmentCommand();
         ret.setKey(currentKey.get());
         ret.setTableName(tableName);
+        ret.setTableType(tableType);
         ret.setTags(enrichmentTags);
         ret.setEnrichmentFields(enrichmentFields);
         return Optional.of(ret);
@@ -78,6 +82,7 @@ public class EnrichingRule extends Rule {
     public static abstract class Builder<T extends EnrichingRule> extends Rule.Builder<T> {
         protected String tableName;
         protected String key;
+        protected TableTypeDto tableType = TableTypeDto.EXACT;
         protected ArrayList<Pair<String, String>> enrichmentTags = new ArrayList<>();
         protected ArrayList<Pair<String, String>> enrichmentFields = new ArrayList<>();
         protected static final String MISSING_REQUIRED_ARGUMENTS = "Missing required arguments in rule builder";
@@ -93,6 +98,11 @@ public class EnrichingRule extends Rule {
             return this;
         }
 
+        public Builder<T> tableType(TableTypeDto tableType) {
+            this.tableType = tableType;
+            return this;
+        }
+
         public Builder<T> enrichmentTags(List<Pair<String, String>> enrichingTags) {
             enrichingTags.forEach(x -> this.enrichmentTags.add(ImmutablePair.of(x.getKey(), x.getValue())));
             return this;
@@ -109,7 +119,7 @@ public class EnrichingRule extends Rule {
         return new Builder<EnrichingRule>() {
             @Override
             protected EnrichingRule buildInternally() {
-                if (key == null || tableName == null) {
+                if (key == null || tableName == null || tableType == null) {
                     throw new IllegalArgumentException(MISSING_REQUIRED_ARGUMENTS);
                 }
 
@@ -1,19 +1,33 @@
 package uk.co.gresearch.siembol.enrichments.evaluation;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
 import org.apache.commons.lang3.tuple.Pair;
 import uk.co.gresearch.siembol.enrichments.common.EnrichmentCommand;
 import uk.co.gresearch.siembol.enrichments.table.EnrichmentTable;
 
 import java.io.IOException;
+import java.io.StringWriter;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 public class EnrichmentEvaluatorLibrary {
-    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final String INVALID_EVENT_MSG = "Event should be a json object";
+    private static final char QUOTE = '"';
+    private static final char ESCAPE = '\\';
+    private static final char FIELDS_SEPARATOR = ',';
+    private static final char NAME_SEPARATOR = ':';
+    private static final char OBJECT_END = '}';
+    private static final String NULL_VALUE = "null";
 
     public static ArrayList<Pair<String, String>> evaluateCommands(List<EnrichmentCommand> commands,
                                                                    Map<String, EnrichmentTable> tables) {
@@ -32,14 +46,128 @@ public class EnrichmentEvaluatorLibrary {
         return ret;
     }
 
+    private static String quoteString(String str) {
+        return QUOTE + new String(JsonStringEncoder.getInstance().quoteAsString(str)) + QUOTE;
+    }
+
+    /**
+     * Adds the enrichments into the json event. The event is scanned by a streaming parser without building a tree
+     * and if the event does not contain the enriched fields the enrichments are spliced before the end of the event.
+     * The event is rewritten by a streaming generator if an enriched field is already in the event
+     * or if the event contains whitespaces, so the result is the same as serialising the merged json object.
+     * @param event the json object of the event
+     * @param enrichments the pairs of field names and values added to the event, the last value of a field is used
+     * @param timestampField the optional field name for the enriching timestamp
+     * @return the enriched event
+     * @throws IOException if the event is not a valid json
+     */
     public static String mergeEnrichments(String event,
                                           List<Pair<String, String>> enrichments,
                                           Optional<String> timestampField) throws IOException {
-        ObjectNode node = (ObjectNode)OBJECT_MAPPER.readTree(event);
-        enrichments.forEach(x -> node.put(x.getKey(), x.getValue()));
+        //NOTE: the values are stored as json literals
+        Map<String, String> fields = new LinkedHashMap<>();
+        enrichments.forEach(x -> fields.put(x.getKey(),
+                x.getValue() == null ? NULL_VALUE : quoteString(x.getValue())));
         if (timestampField.isPresent()) {
-            node.put(timestampField.get(), System.currentTimeMillis());
+            fields.put(timestampField.get(), String.valueOf(System.currentTimeMillis()));
+        }
+
+        boolean hasFields = false;
+        boolean hasConflict = false;
+        try (JsonParser parser = JSON_FACTORY.createParser(event)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalArgumentException(INVALID_EVENT_MSG);
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                hasFields = true;
+                hasConflict |= fields.containsKey(parser.getCurrentName());
+                parser.nextToken();
+                parser.skipChildren();
+            }
+
+            if (parser.getCurrentToken() != JsonToken.END_OBJECT || parser.nextToken() != null) {
+                throw new IllegalArgumentException(INVALID_EVENT_MSG);
+            }
+        }
+
+        if (hasConflict || !isCompact(event)) {
+            return rewriteEvent(event, fields);
+        }
+
+        if (fields.isEmpty()) {
+            return event;
+        }
+
+        int end = event.lastIndexOf(OBJECT_END);
+        StringBuilder sb = new StringBuilder(event.length() + 32 * fields.size());
+        sb.append(event, 0, end);
+        for (Map.Entry<String, String> field : fields.entrySet()) {
+            if (hasFields) {
+                sb.append(FIELDS_SEPARATOR);
+            }
+            hasFields = true;
+            sb.append(quoteString(field.getKey())).append(NAME_SEPARATOR).append(field.getValue());
+        }
+        sb.append(event, end, event.length());
+        return sb.toString();
+    }
+
+    private static boolean isCompact(String event) {
+        //NOTE: the event is spliced only if it is serialised without whitespaces as the json writer does
+        boolean inString = false;
+        for (int i = 0; i < event.length(); i++) {
+            char c = event.charAt(i);
+            if (inString) {
+                if (c == ESCAPE) {
+                    i++;
+                } else if (c == QUOTE) {
+                    inString = false;
+                }
+            } else if (c == QUOTE) {
+                inString = true;
+            } else if (Character.isWhitespace(c)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String rewriteEvent(String event, Map<String, String> fields) throws IOException {
+        StringWriter writer = new StringWriter(event.length() + 32 * fields.size());
+        try (JsonParser parser = JSON_FACTORY.createParser(event);
+             JsonGenerator generator = JSON_FACTORY.createGenerator(writer)) {
+            parser.nextToken();
+            generator.writeStartObject();
+            Set<String> writtenFields = new HashSet<>();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String fieldName = parser.getCurrentName();
+                parser.nextToken();
+
+                String value = fields.get(fieldName);
+                if (value == null) {
+                    generator.writeFieldName(fieldName);
+                    generator.copyCurrentStructure(parser);
+                    continue;
+                }
+
+                //NOTE: an enriched field keeps its position in the event as when putting it into a json object
+                //and its duplicates are dropped so they can not hide the enriched value
+                parser.skipChildren();
+                if (writtenFields.add(fieldName)) {
+                    generator.writeFieldName(fieldName);
+                    generator.writeRawValue(value);
+                }
+            }
+
+            for (Map.Entry<String, String> field : fields.entrySet()) {
+                if (!writtenFields.contains(field.getKey())) {
+                    generator.writeFieldName(field.getKey());
+                    generator.writeRawValue(field.getValue());
+                }
+            }
+            generator.writeEndObject();
         }
-        return node.toString();
+        return writer.toString();
     }
 }
@@ -15,6 +15,10 @@ public class TableMappingDto {
     @Attributes(required = true, description = "The key for joining the table with an event")
     private String joiningKey;
 
+    @JsonProperty("table_type")
+    @Attributes(description = "Type of the table that determines how the joining key is matched")
+    private TableTypeDto tableType = TableTypeDto.EXACT;
+
     @JsonProperty("tags")
     @Attributes(description = "Tags added after matching the joining key", minItems = 1)
     private List<TagDto> tags;
@@ -39,6 +43,14 @@ public class TableMappingDto {
         this.joiningKey = joiningKey;
     }
 
+    public TableTypeDto getTableType() {
+        return tableType;
+    }
+
+    public void setTableType(TableTypeDto tableType) {
+        this.tableType = tableType;
+    }
+
     public List<TagDto> getTags() {
         return tags;
     }
@@ -0,0 +1,20 @@
+package uk.co.gresearch.siembol.enrichments.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.github.reinert.jjschema.Attributes;
+
+@Attributes(title = "table type", description = "Type of enrichment table")
+public enum TableTypeDto {
+    @JsonProperty("exact") EXACT("exact"),
+    @JsonProperty("cidr") CIDR("cidr");
+    private final String name;
+
+    TableTypeDto(String name) {
+        this.name = name;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -29,6 +29,10 @@ public class TestingSpecificationDto {
     @SchemaIgnore
     private String testingTableMappingContent;
 
+    @JsonProperty("testing_table_type")
+    @Attributes(description = "Type of a testing table")
+    private TableTypeDto testingTableType = TableTypeDto.EXACT;
+
     @JsonSetter
     public void setTestingTableMapping(JsonNode testingTableMapping) {
         this.testingTableMappingContent = testingTableMapping.toString();
@@ -51,6 +55,14 @@ public class TestingSpecificationDto {
         this.testingTableName = testingTableName;
     }
 
+    public TableTypeDto getTestingTableType() {
+        return testingTableType;
+    }
+
+    public void setTestingTableType(TableTypeDto testingTableType) {
+        this.testingTableType = testingTableType;
+    }
+
     public JsonRawStringDto getEvent() {
         return event;
     }
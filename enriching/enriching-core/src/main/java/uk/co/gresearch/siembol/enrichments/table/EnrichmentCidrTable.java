@@ -0,0 +1,310 @@
+package uk.co.gresearch.siembol.enrichments.table;
+
+import org.apache.commons.lang3.tuple.Pair;
+import uk.co.gresearch.siembol.enrichments.model.TableTypeDto;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Enrichment table with IPv4 and IPv6 CIDR keys, e.g. 10.0.0.0/8 or 2001:db8::/32.
+ * A lookup key is an ip address and the values of the longest prefix that contains the address are returned.
+ * A key without a prefix length is a single address. Prefixes are stored in a compressed binary (Patricia) trie
+ * so a lookup visits at most one node per distinct prefix length on the path.
+ */
+public class EnrichmentCidrTable implements EnrichmentTable {
+    private static final String INVALID_CIDR_KEY_MSG = "Invalid cidr key in the table: %s";
+    private static final int IPV4_BYTES = 4;
+    private static final int IPV6_BYTES = 16;
+    private static final int IPV6_GROUPS = 8;
+    private static final char PREFIX_SEPARATOR = '/';
+    private static final String IPV6_COMPRESSION = "::";
+
+    private Node ipv4Root;
+    private Node ipv6Root;
+    private int numberOfPrefixes;
+
+    private static class Node {
+        private final byte[] address;
+        private final int length;
+        private final Node[] children = new Node[2];
+        private ArrayList<Pair<String, String>> values;
+
+        Node(byte[] address, int length, ArrayList<Pair<String, String>> values) {
+            this.address = address;
+            this.length = length;
+            this.values = values;
+        }
+    }
+
+    private EnrichmentCidrTable() {
+    }
+
+    @Override
+    public boolean containsKey(String key) {
+        return lookup(key) != null;
+    }
+
+    @Override
+    public Optional<List<Pair<String, String>>> getValues(String key, List<String> field) {
+        List<Pair<String, String>> values = lookup(key);
+        if (values == null) {
+            return Optional.empty();
+        }
+
+        return Optional.of(values.stream().filter(x -> field.contains(x.getKey())).collect(Collectors.toList()));
+    }
+
+    @Override
+    public TableTypeDto getTableType() {
+        return TableTypeDto.CIDR;
+    }
+
+    public int getNumberOfPrefixes() {
+        return numberOfPrefixes;
+    }
+
+    private List<Pair<String, String>> lookup(String key) {
+        byte[] address = parseAddress(key);
+        if (address == null) {
+            return null;
+        }
+
+        int bits = address.length * Byte.SIZE;
+        Node node = address.length == IPV4_BYTES ? ipv4Root : ipv6Root;
+        List<Pair<String, String>> ret = null;
+        while (node != null && commonPrefixLength(node.address, address, node.length) == node.length) {
+            if (node.values != null) {
+                ret = node.values;
+            }
+            if (node.length == bits) {
+                break;
+            }
+            node = node.children[getBit(address, node.length)];
+        }
+        return ret;
+    }
+
+    private void put(String key, ArrayList<Pair<String, String>> values) {
+        int separatorIndex = key.indexOf(PREFIX_SEPARATOR);
+        byte[] address = parseAddress(separatorIndex < 0 ? key : key.substring(0, separatorIndex));
+        if (address == null) {
+            throw new IllegalArgumentException(String.format(INVALID_CIDR_KEY_MSG, key));
+        }
+
+        int bits = address.length * Byte.SIZE;
+        int length = separatorIndex < 0 ? bits : parsePrefixLength(key.substring(separatorIndex + 1), bits);
+        if (length < 0) {
+            throw new IllegalArgumentException(String.format(INVALID_CIDR_KEY_MSG, key));
+        }
+
+        //NOTE: host bits are ignored so 10.1.2.3/8 is the same prefix as 10.0.0.0/8
+        byte[] prefix = maskAddress(address, length);
+        if (address.length == IPV4_BYTES) {
+            ipv4Root = insert(ipv4Root, prefix, length, values);
+        } else {
+            ipv6Root = insert(ipv6Root, prefix, length, values);
+        }
+    }
+
+    private Node insert(Node node, byte[] address, int length, ArrayList<Pair<String, String>> values) {
+        if (node == null) {
+            numberOfPrefixes++;
+            return new Node(address, length, values);
+        }
+
+        int common = commonPrefixLength(node.address, address, Math.min(node.length, length));
+        if (common == node.length) {
+            if (length == node.length) {
+                if (node.values == null) {
+                    numberOfPrefixes++;
+                }
+                node.values = values;
+            } else {
+                int bit = getBit(address, node.length);
+                node.children[bit] = insert(node.children[bit], address, length, values);
+            }
+            return node;
+        }
+
+        numberOfPrefixes++;
+        Node inserted = new Node(address, length, values);
+        if (common == length) {
+            inserted.children[getBit(node.address, length)] = node;
+            return inserted;
+        }
+
+        Node split = new Node(maskAddress(address, common), common, null);
+        split.children[getBit(node.address, common)] = node;
+        split.children[getBit(address, common)] = inserted;
+        return split;
+    }
+
+    private static int getBit(byte[] address, int index) {
+        return (address[index / Byte.SIZE] >> (Byte.SIZE - 1 - index % Byte.SIZE)) & 1;
+    }
+
+    private static int commonPrefixLength(byte[] first, byte[] second, int maxLength) {
+        for (int i = 0; i * Byte.SIZE < maxLength; i++) {
+            int diff = (first[i] ^ second[i]) & 0xff;
+            if (diff != 0) {
+                return Math.min(maxLength, i * Byte.SIZE + Integer.numberOfLeadingZeros(diff) - 24);
+            }
+        }
+        return maxLength;
+    }
+
+    private static byte[] maskAddress(byte[] address, int length) {
+        byte[] ret = new byte[address.length];
+        for (int i = 0; i < address.length && i * Byte.SIZE < length; i++) {
+            int remaining = length - i * Byte.SIZE;
+            ret[i] = remaining >= Byte.SIZE
+                    ? address[i]
+                    : (byte) (address[i] & (0xff << (Byte.SIZE - remaining)));
+        }
+        return ret;
+    }
+
+    private static int parsePrefixLength(String str, int maxLength) {
+        if (str.isEmpty() || str.length() > 3) {
+            return -1;
+        }
+
+        int ret = 0;
+        for (int i = 0; i < str.length(); i++) {
+            int digit = Character.digit(str.charAt(i), 10);
+            if (digit < 0) {
+                return -1;
+            }
+            ret = ret * 10 + digit;
+        }
+        return ret <= maxLength ? ret : -1;
+    }
+
+    /**
+     * Parses an ip address literal without any dns resolution
+     * @param str the string representation of an IPv4 or IPv6 address
+     * @return the bytes of the address or null if the string is not a valid address
+     */
+    static byte[] parseAddress(String str) {
+        return str.indexOf(':') < 0 ? parseIpv4(str, 0, str.length()) : parseIpv6(str);
+    }
+
+    private static byte[] parseIpv4(String str, int begin, int end) {
+        byte[] ret = new byte[IPV4_BYTES];
+        int octet = 0;
+        int value = 0;
+        int digits = 0;
+        for (int i = begin; i < end; i++) {
+            char c = str.charAt(i);
+            if (c == '.') {
+                if (digits == 0 || octet == IPV4_BYTES - 1) {
+                    return null;
+                }
+                ret[octet++] = (byte) value;
+                value = 0;
+                digits = 0;
+                continue;
+            }
+
+            int digit = Character.digit(c, 10);
+            if (digit < 0 || ++digits > 3) {
+                return null;
+            }
+            value = value * 10 + digit;
+            if (value > 255) {
+                return null;
+            }
+        }
+
+        if (digits == 0 || octet != IPV4_BYTES - 1) {
+            return null;
+        }
+        ret[octet] = (byte) value;
+        return ret;
+    }
+
+    private static byte[] parseIpv6(String str) {
+        int compression = str.indexOf(IPV6_COMPRESSION);
+        if (compression >= 0 && str.indexOf(IPV6_COMPRESSION, compression + 1) >= 0) {
+            return null;
+        }
+
+        List<Integer> head = new ArrayList<>();
+        List<Integer> tail = new ArrayList<>();
+        if (compression < 0) {
+            if (!parseIpv6Groups(str, 0, str.length(), head) || head.size() != IPV6_GROUPS) {
+                return null;
+            }
+        } else {
+            if (!parseIpv6Groups(str, 0, compression, head)
+                    || !parseIpv6Groups(str, compression + IPV6_COMPRESSION.length(), str.length(), tail)
+                    || head.size() + tail.size() >= IPV6_GROUPS) {
+                return null;
+            }
+        }
+
+        byte[] ret = new byte[IPV6_BYTES];
+        for (int i = 0; i < head.size(); i++) {
+            ret[2 * i] = (byte) (head.get(i) >> Byte.SIZE);
+            ret[2 * i + 1] = head.get(i).byteValue();
+        }
+        int offset = IPV6_GROUPS - tail.size();
+        for (int i = 0; i < tail.size(); i++) {
+            ret[2 * (offset + i)] = (byte) (tail.get(i) >> Byte.SIZE);
+            ret[2 * (offset + i) + 1] = tail.get(i).byteValue();
+        }
+        return ret;
+    }
+
+    private static boolean parseIpv6Groups(String str, int begin, int end, List<Integer> groups) {
+        if (begin == end) {
+            return true;
+        }
+
+        int groupBegin = begin;
+        while (groupBegin <= end) {
+            int groupEnd = str.indexOf(':', groupBegin);
+            if (groupEnd < 0 || groupEnd > end) {
+                groupEnd = end;
+            }
+
+            if (groupEnd == str.length() && str.lastIndexOf('.', end - 1) >= groupBegin) {
+                //NOTE: the last group can be an embedded IPv4 address, e.g. ::ffff:10.0.0.1
+                byte[] ipv4 = parseIpv4(str, groupBegin, groupEnd);
+                if (ipv4 == null) {
+                    return false;
+                }
+                groups.add(((ipv4[0] & 0xff) << Byte.SIZE) | (ipv4[1] & 0xff));
+                groups.add(((ipv4[2] & 0xff) << Byte.SIZE) | (ipv4[3] & 0xff));
+                return true;
+            }
+
+            if (groupEnd == groupBegin || groupEnd - groupBegin > 4) {
+                return false;
+            }
+
+            int value = 0;
+            for (int i = groupBegin; i < groupEnd; i++) {
+                int digit = Character.digit(str.charAt(i), 16);
+                if (digit < 0) {
+                    return false;
+                }
+                value = (value << 4) | digit;
+            }
+            groups.add(value);
+            groupBegin = groupEnd + 1;
+        }
+        return true;
+    }
+
+    public static EnrichmentCidrTable fromJsonStream(InputStream is) throws IOException {
+        EnrichmentCidrTable table = new EnrichmentCidrTable();
+        EnrichmentMemoryTable.readJsonStream(is, table::put);
+        return table;
+    }
+}
@@ -0,0 +1,77 @@
+package uk.co.gresearch.siembol.enrichments.table;
+
+import org.apache.commons.lang3.tuple.Pair;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable enrichment table with changes applied on top of a base table.
+ * A delta is a json table where a row replaces the row of the base table with the same key
+ * and a null row deletes the key from the table.
+ * Changes are stored on the heap and the base table is not copied.
+ */
+public class EnrichmentDeltaTable implements EnrichmentTable {
+    private final EnrichmentTable baseTable;
+    //NOTE: a null value represents a deleted key
+    private final HashMap<String, ArrayList<Pair<String, String>>> changes;
+
+    private EnrichmentDeltaTable(EnrichmentTable baseTable, HashMap<String, ArrayList<Pair<String, String>>> changes) {
+        this.baseTable = baseTable;
+        this.changes = changes;
+    }
+
+    public EnrichmentDeltaTable(EnrichmentTable baseTable) {
+        this(baseTable, new HashMap<>());
+    }
+
+    @Override
+    public boolean containsKey(String key) {
+        String lowerCaseKey = key.toLowerCase();
+        return changes.containsKey(lowerCaseKey)
+                ? changes.get(lowerCaseKey) != null
+                : baseTable.containsKey(key);
+    }
+
+    @Override
+    public Optional<List<Pair<String, String>>> getValues(String key, List<String> field) {
+        String lowerCaseKey = key.toLowerCase();
+        if (!changes.containsKey(lowerCaseKey)) {
+            return baseTable.getValues(key, field);
+        }
+
+        List<Pair<String, String>> values = changes.get(lowerCaseKey);
+        if (values == null) {
+            return Optional.empty();
+        }
+        return Optional.of(values.stream().filter(x -> field.contains(x.getKey())).collect(Collectors.toList()));
+    }
+
+    public EnrichmentTable getBaseTable() {
+        return baseTable;
+    }
+
+    public int getNumberOfChanges() {
+        return changes.size();
+    }
+
+    /**
+     * Creates a new table with the delta applied on top of this table. This table is not modified.
+     * @param is the input stream of the json delta
+     * @return the table with the changes of this table and of the delta
+     * @throws IOException on error during reading the delta
+     */
+    public EnrichmentDeltaTable applyDelta(InputStream is) throws IOException {
+        HashMap<String, ArrayList<Pair<String, String>>> deltaChanges = new HashMap<>();
+        EnrichmentMemoryTable.readJsonStream(is, deltaChanges::put, true);
+
+        HashMap<String, ArrayList<Pair<String, String>>> newChanges = new HashMap<>(changes);
+        newChanges.putAll(deltaChanges);
+        return new EnrichmentDeltaTable(baseTable, newChanges);
+    }
+}
@@ -0,0 +1,329 @@
+package uk.co.gresearch.siembol.enrichments.table;
+
+import org.apache.commons.lang3.tuple.Pair;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Immutable enrichment table stored in a memory mapped file.
+ * Keys are sorted and looked up by a binary search, values are stored in columns.
+ * The table is not loaded on the heap and the pages of the file are shared by all processes on the host
+ * that map the same file.
+ *
+ * File format: magic, version, number of keys, number of columns, column names,
+ * key offsets, key bytes and for each column a presence bitmap, value offsets and value bytes.
+ * The size of the file is limited to 2GB.
+ */
+public class EnrichmentMappedTable implements EnrichmentTable {
+    private static final int MAGIC = 0x53454d54;
+    private static final int FORMAT_VERSION = 1;
+    private static final String INVALID_FILE_MSG = "Invalid mapped enrichment table file: %s";
+    private static final String FILE_TOO_LARGE_MSG = "Mapped enrichment table file: %s is larger than 2GB";
+    private static final String TABLE_TOO_LARGE_MSG = "Mapped enrichment table is larger than 2GB";
+    private static final String TMP_FILE_SUFFIX = ".tmp";
+
+    private final ByteBuffer buffer;
+    private final int numKeys;
+    private final String[] columnNames;
+    private final int keyOffsetsPosition;
+    private final int keysPosition;
+    private final int[] presencePositions;
+    private final int[] valueOffsetsPositions;
+    private final int[] valuesPositions;
+
+    private EnrichmentMappedTable(ByteBuffer buffer) {
+        this.buffer = buffer;
+        int position = 0;
+        if (buffer.getInt(position) != MAGIC || buffer.getInt(position + Integer.BYTES) != FORMAT_VERSION) {
+            throw new IllegalArgumentException();
+        }
+        position += 2 * Integer.BYTES;
+
+        numKeys = buffer.getInt(position);
+        int numColumns = buffer.getInt(position + Integer.BYTES);
+        position += 2 * Integer.BYTES;
+
+        columnNames = new String[numColumns];
+        for (int i = 0; i < numColumns; i++) {
+            int length = buffer.getInt(position);
+            position += Integer.BYTES;
+            columnNames[i] = getString(position, length);
+            position += length;
+        }
+
+        keyOffsetsPosition = position;
+        keysPosition = keyOffsetsPosition + (numKeys + 1) * Integer.BYTES;
+        position = keysPosition + buffer.getInt(keyOffsetsPosition + numKeys * Integer.BYTES);
+
+        presencePositions = new int[numColumns];
+        valueOffsetsPositions = new int[numColumns];
+        valuesPositions = new int[numColumns];
+        for (int i = 0; i < numColumns; i++) {
+            presencePositions[i] = position;
+            valueOffsetsPositions[i] = position + getBitmapSize(numKeys);
+            valuesPositions[i] = valueOffsetsPositions[i] + (numKeys + 1) * Integer.BYTES;
+            position = valuesPositions[i] + buffer.getInt(valueOffsetsPositions[i] + numKeys * Integer.BYTES);
+        }
+
+        if (position != buffer.limit()) {
+            throw new IllegalArgumentException();
+        }
+    }
+
+    private static int getBitmapSize(int numKeys) {
+        return (numKeys + Byte.SIZE - 1) / Byte.SIZE;
+    }
+
+    private String getString(int position, int length) {
+        byte[] bytes = new byte[length];
+        //NOTE: the table is shared by threads so the position of the buffer can not be changed
+        ByteBuffer current = buffer.duplicate();
+        current.position(position);
+        current.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int compareKeys(byte[] first, byte[] second) {
+        int length = Math.min(first.length, second.length);
+        for (int i = 0; i < length; i++) {
+            int diff = (first[i] & 0xff) - (second[i] & 0xff);
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return first.length - second.length;
+    }
+
+    private static long getLong(byte[] bytes, int offset) {
+        long ret = 0;
+        for (int i = 0; i < Long.BYTES; i++) {
+            ret = (ret << Byte.SIZE) | (bytes[offset + i] & 0xff);
+        }
+        return ret;
+    }
+
+    private int compareKey(int index, byte[] key) {
+        int begin = keysPosition + buffer.getInt(keyOffsetsPosition + index * Integer.BYTES);
+        int end = keysPosition + buffer.getInt(keyOffsetsPosition + (index + 1) * Integer.BYTES);
+        int length = Math.min(end - begin, key.length);
+        int i = 0;
+        for (; i + Long.BYTES <= length; i += Long.BYTES) {
+            //NOTE: the buffer is big endian so an unsigned comparison of longs compares the bytes in order
+            int cmp = Long.compareUnsigned(buffer.getLong(begin + i), getLong(key, i));
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+
+        for (; i < length; i++) {
+            int diff = (buffer.get(begin + i) & 0xff) - (key[i] & 0xff);
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return (end - begin) - key.length;
+    }
+
+    private int findKey(String key) {
+        byte[] keyBytes = key.toLowerCase().getBytes(StandardCharsets.UTF_8);
+        int low = 0;
+        int high = numKeys - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int cmp = compareKey(middle, keyBytes);
+            if (cmp < 0) {
+                low = middle + 1;
+            } else if (cmp > 0) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    private Optional<String> getValue(int column, int index) {
+        if ((buffer.get(presencePositions[column] + index / Byte.SIZE) & (1 << (index % Byte.SIZE))) == 0) {
+            return Optional.empty();
+        }
+
+        int offsetPosition = valueOffsetsPositions[column] + index * Integer.BYTES;
+        int begin = buffer.getInt(offsetPosition);
+        int end = buffer.getInt(offsetPosition + Integer.BYTES);
+        return Optional.of(getString(valuesPositions[column] + begin, end - begin));
+    }
+
+    @Override
+    public boolean containsKey(String key) {
+        return findKey(key) >= 0;
+    }
+
+    @Override
+    public Optional<List<Pair<String, String>>> getValues(String key, List<String> field) {
+        int index = findKey(key);
+        if (index < 0) {
+            return Optional.empty();
+        }
+
+        List<Pair<String, String>> ret = new ArrayList<>();
+        for (int i = 0; i < columnNames.length; i++) {
+            if (field.contains(columnNames[i])) {
+                final String columnName = columnNames[i];
+                getValue(i, index).ifPresent(x -> ret.add(Pair.of(columnName, x)));
+            }
+        }
+        return Optional.of(ret);
+    }
+
+    public int size() {
+        return numKeys;
+    }
+
+    public static EnrichmentMappedTable fromFile(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException(String.format(FILE_TOO_LARGE_MSG, path));
+            }
+
+            //NOTE: the mapping remains valid after the channel is closed
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            try {
+                return new EnrichmentMappedTable(buffer);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException(String.format(INVALID_FILE_MSG, path));
+            }
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Builder that converts rows of an enrichment table into the mapped table file
+     */
+    public static class Builder {
+        private final Map<String, Integer> columns = new LinkedHashMap<>();
+        private final Map<String, String[]> rows = new HashMap<>();
+
+        public Builder addRow(String key, List<Pair<String, String>> fields) {
+            String[] values = new String[columns.size()];
+            for (Pair<String, String> field : fields) {
+                int column = columns.computeIfAbsent(field.getKey(), x -> columns.size());
+                if (column >= values.length) {
+                    values = Arrays.copyOf(values, columns.size());
+                }
+                values[column] = field.getValue();
+            }
+            rows.put(key.toLowerCase(), values);
+            return this;
+        }
+
+        public Builder addJsonStream(InputStream is) throws IOException {
+            EnrichmentMemoryTable.readJsonStream(is, this::addRow);
+            return this;
+        }
+
+        private static void checkSize(long size) {
+            if (size > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException(TABLE_TOO_LARGE_MSG);
+            }
+        }
+
+        public void write(OutputStream os) throws IOException {
+            List<Pair<byte[], String[]>> sortedRows = new ArrayList<>(rows.size());
+            rows.forEach((k, v) -> sortedRows.add(Pair.of(k.getBytes(StandardCharsets.UTF_8), v)));
+            sortedRows.sort((x, y) -> compareKeys(x.getKey(), y.getKey()));
+
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(os));
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(sortedRows.size());
+            out.writeInt(columns.size());
+            for (String column : columns.keySet()) {
+                byte[] name = column.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(name.length);
+                out.write(name);
+            }
+
+            long offset = 0;
+            out.writeInt(0);
+            for (Pair<byte[], String[]> row : sortedRows) {
+                offset += row.getKey().length;
+                checkSize(offset);
+                out.writeInt((int)offset);
+            }
+            for (Pair<byte[], String[]> row : sortedRows) {
+                out.write(row.getKey());
+            }
+
+            for (int column = 0; column < columns.size(); column++) {
+                byte[] presence = new byte[getBitmapSize(sortedRows.size())];
+                List<byte[]> values = new ArrayList<>(sortedRows.size());
+                for (int i = 0; i < sortedRows.size(); i++) {
+                    String[] row = sortedRows.get(i).getValue();
+                    String value = column < row.length ? row[column] : null;
+                    if (value != null) {
+                        presence[i / Byte.SIZE] |= 1 << (i % Byte.SIZE);
+                    }
+                    values.add(value != null ? value.getBytes(StandardCharsets.UTF_8) : new byte[0]);
+                }
+
+                out.write(presence);
+                offset = 0;
+                out.writeInt(0);
+                for (byte[] value : values) {
+                    offset += value.length;
+                    checkSize(offset);
+                    out.writeInt((int)offset);
+                }
+                for (byte[] value : values) {
+                    out.write(value);
+                }
+            }
+            out.flush();
+        }
+
+        /**
+         * Writes the table into the file and maps it.
+         * The file is written and mapped from a temporary file first and then atomically moved to the path,
+         * so the returned table stays valid if the file is deleted after the move.
+         * @param path the path of the table file
+         * @return the mapped table
+         * @throws IOException on error during writing or mapping the file
+         */
+        public EnrichmentMappedTable build(Path path) throws IOException {
+            Path tmpPath = Files.createTempFile(path.toAbsolutePath().getParent(),
+                    path.getFileName().toString(), TMP_FILE_SUFFIX);
+            try {
+                try (OutputStream os = Files.newOutputStream(tmpPath)) {
+                    write(os);
+                }
+                EnrichmentMappedTable table = fromFile(tmpPath);
+                Files.move(tmpPath, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                return table;
+            } finally {
+                Files.deleteIfExists(tmpPath);
+            }
+        }
+    }
+}
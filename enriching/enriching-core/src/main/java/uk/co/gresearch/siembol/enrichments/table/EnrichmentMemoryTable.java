@@ -9,11 +9,13 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.Serializable;
 import java.util.*;
+import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 
 public class EnrichmentMemoryTable implements EnrichmentTable, Serializable {
     private static final long serialVersionUID = 1L;
     private static final String INVALID_JSON_TABLE_OBJECT = "Json table should be a json object";
+    private static final String INVALID_JSON_TABLE_ROW_MSG = "Invalid json table row with key: %s";
     private static final String INVALID_JSON_TABLE_FIELD_MSG = "Invalid json table field: %s key: %s, " +
             "only strings fields are supported ";
 
@@ -38,8 +40,14 @@ public class EnrichmentMemoryTable implements EnrichmentTable, Serializable {
         return Optional.of(values.stream().filter(x -> field.contains(x.getKey())).collect(Collectors.toList()));
     }
 
-    public static EnrichmentMemoryTable fromJsonStream(InputStream is) throws IOException {
-        HashMap<String, ArrayList<Pair<String, String>>> table = new HashMap<>();
+    static void readJsonStream(InputStream is,
+                               BiConsumer<String, ArrayList<Pair<String, String>>> rowConsumer) throws IOException {
+        readJsonStream(is, rowConsumer, false);
+    }
+
+    static void readJsonStream(InputStream is,
+                               BiConsumer<String, ArrayList<Pair<String, String>>> rowConsumer,
+                               boolean allowNullRows) throws IOException {
         JsonFactory factory = new JsonFactory();
 
         try(JsonParser parser = factory.createParser(is)) {
@@ -52,7 +60,13 @@ public class EnrichmentMemoryTable implements EnrichmentTable, Serializable {
                 ArrayList<Pair<String, String>> fields = new ArrayList<>();
 
                 String key = parser.getCurrentName().toLowerCase();
-                parser.nextToken();
+                if (parser.nextToken() == JsonToken.VALUE_NULL) {
+                    if (!allowNullRows) {
+                        throw new IllegalArgumentException(String.format(INVALID_JSON_TABLE_ROW_MSG, key));
+                    }
+                    rowConsumer.accept(key, null);
+                    continue;
+                }
                 parser.isExpectedStartObjectToken();
 
                 while (parser.nextToken() != JsonToken.END_OBJECT) {
@@ -62,14 +76,18 @@ public class EnrichmentMemoryTable implements EnrichmentTable, Serializable {
                     }
                     fields.add(Pair.of(fieldName, parser.getText()));
                 }
-                table.put(key, fields.isEmpty() ? new ArrayList<>() : fields);
+                rowConsumer.accept(key, fields.isEmpty() ? new ArrayList<>() : fields);
             }
 
             if (parser.currentToken() != JsonToken.END_OBJECT) {
                 throw new IllegalArgumentException(INVALID_JSON_TABLE_OBJECT);
             }
         }
+    }
 
+    public static EnrichmentMemoryTable fromJsonStream(InputStream is) throws IOException {
+        HashMap<String, ArrayList<Pair<String, String>>> table = new HashMap<>();
+        readJsonStream(is, table::put);
         return new EnrichmentMemoryTable(table);
     }
 }
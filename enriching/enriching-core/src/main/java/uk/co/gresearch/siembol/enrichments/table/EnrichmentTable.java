@@ -3,6 +3,7 @@ package uk.co.gresearch.siembol.enrichments.table;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
 import uk.co.gresearch.siembol.enrichments.common.EnrichmentCommand;
+import uk.co.gresearch.siembol.enrichments.model.TableTypeDto;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -14,7 +15,15 @@ public interface EnrichmentTable {
 
     Optional<List<Pair<String, String>>> getValues(String key, List<String> field);
 
+    default TableTypeDto getTableType() {
+        return TableTypeDto.EXACT;
+    }
+
     default Optional<List<Pair<String, String>>> getValues(EnrichmentCommand command) {
+        if (command.getTableType() != getTableType()) {
+            return Optional.empty();
+        }
+
         List<String> fields = command.getTableFields();
         Optional<List<Pair<String, String>>> values = getValues(command.getKey(), fields);
         if (!values.isPresent()) {
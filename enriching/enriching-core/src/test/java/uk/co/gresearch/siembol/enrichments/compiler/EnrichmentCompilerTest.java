@@ -241,6 +241,28 @@ public class EnrichmentCompilerTest {
     @Multiline
     public static String testSpecificationNoMatch;
 
+    /**
+     * {
+     *   "event": {
+     *     "source_type": "secret",
+     *     "is_alert": "true",
+     *     "ip_src_addr": "1.2.3.4"
+     *   },
+     *   "testing_table_name": "test_table",
+     *   "testing_table_type": "cidr",
+     *   "testing_table_mapping": {
+     *     "1.2.0.0/16": {
+     *       "dns_name": "secret.network"
+     *     },
+     *     "1.2.3.0/24": {
+     *       "dns_name": "secret.subnet"
+     *     }
+     *   }
+     * }
+     **/
+    @Multiline
+    public static String testSpecificationCidr;
+
     private EnrichmentCompiler enrichmentCompiler;
 
     @Before
@@ -388,4 +410,24 @@ public class EnrichmentCompilerTest {
         Assert.assertTrue(result.getAttributes().getMessage().contains("Both enriching fields and tags are empty"));
 
     }
+
+    @Test
+    public void testRuleCidrTableOK() throws IOException {
+        String cidrRule = testRule.replace("\"table_name\": \"test_table\",",
+                "\"table_name\": \"test_table\", \"table_type\": \"cidr\",");
+        EnrichmentResult result = enrichmentCompiler.testConfiguration(cidrRule, testSpecificationCidr);
+        Assert.assertEquals(OK, result.getStatusCode());
+        Map<String, Object> rawResult = JSON_MAP_READER.readValue(result.getAttributes().getTestRawResult());
+        Assert.assertEquals("true", rawResult.get("is_test_tag"));
+        Assert.assertEquals("secret.subnet", rawResult.get("siembol:enrichments:dns"));
+    }
+
+    @Test
+    public void testRuleExactTypeCidrTable() throws IOException {
+        EnrichmentResult result = enrichmentCompiler.testConfiguration(testRule, testSpecificationCidr);
+        Assert.assertEquals(OK, result.getStatusCode());
+        Map<String, Object> rawResult = JSON_MAP_READER.readValue(result.getAttributes().getTestRawResult());
+        Assert.assertNull(rawResult.get("is_test_tag"));
+        Assert.assertNull(rawResult.get("siembol:enrichments:dns"));
+    }
 }
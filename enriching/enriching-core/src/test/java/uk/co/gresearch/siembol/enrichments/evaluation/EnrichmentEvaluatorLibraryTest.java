@@ -123,11 +123,63 @@ public class EnrichmentEvaluatorLibraryTest {
         EnrichmentEvaluatorLibrary.mergeEnrichments("INVALID", enrichments, Optional.empty());
     }
 
-    @Test(expected = ClassCastException.class)
+    @Test(expected = IllegalArgumentException.class)
     public void testMergeInvalidJsonEventArray() throws IOException {
         EnrichmentEvaluatorLibrary.mergeEnrichments("[]", enrichments, Optional.empty());
     }
 
+    @Test(expected = IllegalArgumentException.class)
+    public void testMergeInvalidJsonEventTrailingContent() throws IOException {
+        EnrichmentEvaluatorLibrary.mergeEnrichments("{\"a\":1} {}", enrichments, Optional.empty());
+    }
+
+    @Test(expected = IOException.class)
+    public void testMergeInvalidJsonEventNotClosed() throws IOException {
+        EnrichmentEvaluatorLibrary.mergeEnrichments("{\"a\":{\"b\":1}", enrichments, Optional.empty());
+    }
+
+    @Test
+    public void testMergeSplicedEnrichments() throws IOException {
+        String enriched = EnrichmentEvaluatorLibrary.mergeEnrichments("{\"x\":{\"a\":[1,2]},\"y\":\"1 \\\" 5\"}",
+                enrichments, Optional.empty());
+        Assert.assertEquals("{\"x\":{\"a\":[1,2]},\"y\":\"1 \\\" 5\",\"a\":\"b\",\"c\":\"d\"}", enriched);
+    }
+
+    @Test
+    public void testMergeEventWithWhitespaces() throws IOException {
+        String enriched = EnrichmentEvaluatorLibrary.mergeEnrichments("{\"x\": {\"a\": [1, 2]},\n \"y\": 1.5} ",
+                enrichments, Optional.empty());
+        Assert.assertEquals("{\"x\":{\"a\":[1,2]},\"y\":1.5,\"a\":\"b\",\"c\":\"d\"}", enriched);
+    }
+
+    @Test
+    public void testMergeConflictKeepsFieldPosition() throws IOException {
+        enrichments.add(Pair.of("c", "e"));
+        String enriched = EnrichmentEvaluatorLibrary.mergeEnrichments("{\"a\":{\"c\":\"x\"},\"y\":[true,null]}",
+                enrichments, Optional.empty());
+        Assert.assertEquals("{\"a\":\"b\",\"y\":[true,null],\"c\":\"e\"}", enriched);
+    }
+
+    @Test
+    public void testMergeConflictDuplicatedFields() throws IOException {
+        String enriched = EnrichmentEvaluatorLibrary.mergeEnrichments(
+                "{\"a\":1,\"y\":true,\"a\":[2],\"y\":false,\"a\":3}", enrichments, Optional.empty());
+        Assert.assertEquals("{\"a\":\"b\",\"y\":true,\"y\":false,\"c\":\"d\"}", enriched);
+        Map<String, Object> map = JSON_MAP_READER.readValue(enriched);
+        Assert.assertEquals("b", map.get("a"));
+        Assert.assertEquals(false, map.get("y"));
+    }
+
+    @Test
+    public void testMergeEscapedValues() throws IOException {
+        enrichments.clear();
+        enrichments.add(Pair.of("quote\"d", "new\nline \\ \u00e9"));
+        String enriched = EnrichmentEvaluatorLibrary.mergeEnrichments("{}", enrichments, Optional.empty());
+        Map<String, Object> map = JSON_MAP_READER.readValue(enriched);
+        Assert.assertEquals(1, map.size());
+        Assert.assertEquals("new\nline \\ \u00e9", map.get("quote\"d"));
+    }
+
     @Test
     public void testEvaluateCommand() {
         command.setKey("a");
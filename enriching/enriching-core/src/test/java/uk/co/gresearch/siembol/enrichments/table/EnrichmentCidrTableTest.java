@@ -0,0 +1,140 @@
+package uk.co.gresearch.siembol.enrichments.table;
+
+import org.adrianwalker.multilinestring.Multiline;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import uk.co.gresearch.siembol.enrichments.common.EnrichmentCommand;
+import uk.co.gresearch.siembol.enrichments.model.TableTypeDto;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+public class EnrichmentCidrTableTest {
+    /**
+     *
+     * {
+     *   "10.0.0.0/8" : { "zone" : "internal" },
+     *   "10.1.0.0/16" : { "zone" : "datacenter", "site" : "london" },
+     *   "10.1.2.0/24" : { "zone" : "dmz" },
+     *   "10.1.2.3" : { "zone" : "proxy" },
+     *   "10.128.0.0/9" : { "zone" : "office" },
+     *   "2001:db8::/32" : { "zone" : "internal_v6" },
+     *   "2001:DB8:1::/48" : { "zone" : "dmz_v6" }
+     * }
+     **/
+    @Multiline
+    public static String cidrTable;
+
+    private final List<String> fields = Arrays.asList("zone", "site");
+    private EnrichmentCidrTable table;
+
+    private static InputStream getStream(String str) {
+        return new ByteArrayInputStream(str.getBytes());
+    }
+
+    private String getZone(String key) {
+        Optional<List<Pair<String, String>>> values = table.getValues(key, fields);
+        Assert.assertTrue(values.isPresent());
+        Assert.assertEquals("zone", values.get().get(0).getKey());
+        return values.get().get(0).getValue();
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        table = EnrichmentCidrTable.fromJsonStream(getStream(cidrTable));
+    }
+
+    @Test
+    public void testOverlappingPrefixes() {
+        Assert.assertEquals(7, table.getNumberOfPrefixes());
+        Assert.assertEquals("internal", getZone("10.0.0.1"));
+        Assert.assertEquals("internal", getZone("10.2.3.4"));
+        Assert.assertEquals("datacenter", getZone("10.1.0.1"));
+        Assert.assertEquals("datacenter", getZone("10.1.3.3"));
+        Assert.assertEquals("dmz", getZone("10.1.2.4"));
+        Assert.assertEquals("dmz", getZone("10.1.2.255"));
+        Assert.assertEquals("proxy", getZone("10.1.2.3"));
+        Assert.assertEquals("office", getZone("10.128.0.1"));
+        Assert.assertEquals("office", getZone("10.255.255.255"));
+        Assert.assertEquals("internal", getZone("10.127.255.255"));
+    }
+
+    @Test
+    public void testNoMatch() {
+        Assert.assertFalse(table.containsKey("11.0.0.1"));
+        Assert.assertFalse(table.containsKey("9.255.255.255"));
+        Assert.assertFalse(table.getValues("192.168.1.1", fields).isPresent());
+        Assert.assertFalse(table.containsKey("2001:db9::1"));
+    }
+
+    @Test
+    public void testIpv6() {
+        Assert.assertEquals("internal_v6", getZone("2001:db8::1"));
+        Assert.assertEquals("internal_v6", getZone("2001:0db8:ffff:0000:0000:0000:0000:0001"));
+        Assert.assertEquals("dmz_v6", getZone("2001:db8:1:2::3"));
+        Assert.assertEquals("dmz_v6", getZone("2001:DB8:1::"));
+        Assert.assertFalse(table.containsKey("::ffff:10.1.2.3"));
+    }
+
+    @Test
+    public void testFieldsFiltering() {
+        Optional<List<Pair<String, String>>> values = table.getValues("10.1.0.1", Arrays.asList("site"));
+        Assert.assertTrue(values.isPresent());
+        Assert.assertEquals(1, values.get().size());
+        Assert.assertEquals("london", values.get().get(0).getValue());
+        Assert.assertTrue(table.getValues("10.1.2.3", Arrays.asList("site")).get().isEmpty());
+    }
+
+    @Test
+    public void testHostBitsAndDefaultRoute() throws IOException {
+        table = EnrichmentCidrTable.fromJsonStream(
+                getStream("{\"0.0.0.0/0\" : {\"zone\" : \"any\"}, \"192.168.1.77/24\" : {\"zone\" : \"home\"}}"));
+        Assert.assertEquals("any", getZone("1.1.1.1"));
+        Assert.assertEquals("home", getZone("192.168.1.1"));
+        Assert.assertEquals("any", getZone("192.168.2.1"));
+        Assert.assertFalse(table.containsKey("::1"));
+    }
+
+    @Test
+    public void testInvalidLookupKeys() {
+        Assert.assertFalse(table.containsKey("10.1.2"));
+        Assert.assertFalse(table.containsKey("10.1.2.256"));
+        Assert.assertFalse(table.containsKey("10.1.2.3.4"));
+        Assert.assertFalse(table.containsKey("10.1.2.3/24"));
+        Assert.assertFalse(table.containsKey("secret.abc"));
+        Assert.assertFalse(table.containsKey("2001:db8::1::2"));
+        Assert.assertFalse(table.containsKey("2001:db8:0:0:0:0:0:0:1"));
+        Assert.assertFalse(table.containsKey(""));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidTableKey() throws IOException {
+        EnrichmentCidrTable.fromJsonStream(getStream("{\"secret.abc\" : {\"zone\" : \"internal\"}}"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidPrefixLength() throws IOException {
+        EnrichmentCidrTable.fromJsonStream(getStream("{\"10.0.0.0/33\" : {\"zone\" : \"internal\"}}"));
+    }
+
+    @Test
+    public void testEnrichmentCommandTableType() {
+        EnrichmentCommand command = new EnrichmentCommand();
+        command.setKey("10.1.2.4");
+        command.setTableName("zones");
+        command.setEnrichmentFields(new ArrayList<>(Arrays.asList(Pair.of("zone", "siembol:zone"))));
+        Assert.assertFalse(table.getValues(command).isPresent());
+
+        command.setTableType(TableTypeDto.CIDR);
+        Optional<List<Pair<String, String>>> values = table.getValues(command);
+        Assert.assertTrue(values.isPresent());
+        Assert.assertEquals(Pair.of("siembol:zone", "dmz"), values.get().get(0));
+    }
+}
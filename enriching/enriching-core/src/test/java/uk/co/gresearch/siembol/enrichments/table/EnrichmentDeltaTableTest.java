@@ -0,0 +1,111 @@
+package uk.co.gresearch.siembol.enrichments.table;
+
+import org.adrianwalker.multilinestring.Multiline;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+public class EnrichmentDeltaTableTest {
+    /**
+     *
+     * {
+     *   "1.2.3.1" : { "is_malicious" : "true" },
+     *   "1.2.3.2" : { "is_malicious" : "true"},
+     *   "1.2.3.3" : {"is_malicious" : "false"}
+     * }
+     **/
+    @Multiline
+    public static String baseTable;
+
+    /**
+     *
+     * {
+     *   "1.2.3.1" : null,
+     *   "1.2.3.3" : {"is_malicious" : "true", "is_ioc" : "true"},
+     *   "1.2.3.4" : {"is_malicious" : "true"}
+     * }
+     **/
+    @Multiline
+    public static String firstDelta;
+
+    /**
+     *
+     * {
+     *   "1.2.3.1" : {"is_malicious" : "false"},
+     *   "1.2.3.4" : null
+     * }
+     **/
+    @Multiline
+    public static String secondDelta;
+
+    private final List<String> fields = Arrays.asList("is_malicious", "is_ioc");
+    private EnrichmentDeltaTable table;
+
+    private static InputStream getStream(String str) {
+        return new ByteArrayInputStream(str.getBytes());
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        table = new EnrichmentDeltaTable(EnrichmentMemoryTable.fromJsonStream(getStream(baseTable)));
+    }
+
+    @Test
+    public void testNoDelta() {
+        Assert.assertTrue(table.containsKey("1.2.3.1"));
+        Assert.assertFalse(table.containsKey("1.2.3.4"));
+        Assert.assertEquals(0, table.getNumberOfChanges());
+    }
+
+    @Test
+    public void testOneDelta() throws IOException {
+        EnrichmentDeltaTable current = table.applyDelta(getStream(firstDelta));
+        Assert.assertEquals(3, current.getNumberOfChanges());
+        Assert.assertFalse(current.containsKey("1.2.3.1"));
+        Assert.assertFalse(current.getValues("1.2.3.1", fields).isPresent());
+        Assert.assertTrue(current.containsKey("1.2.3.2"));
+        Assert.assertTrue(current.containsKey("1.2.3.4"));
+
+        Optional<List<Pair<String, String>>> values = current.getValues("1.2.3.3", fields);
+        Assert.assertTrue(values.isPresent());
+        Assert.assertEquals(2, values.get().size());
+        Assert.assertEquals("true", values.get().get(0).getValue());
+        Assert.assertEquals("is_ioc", values.get().get(1).getKey());
+
+        Assert.assertTrue(table.containsKey("1.2.3.1"));
+        Assert.assertFalse(table.containsKey("1.2.3.4"));
+    }
+
+    @Test
+    public void testTwoDeltas() throws IOException {
+        EnrichmentDeltaTable current = table.applyDelta(getStream(firstDelta)).applyDelta(getStream(secondDelta));
+        Assert.assertEquals(3, current.getNumberOfChanges());
+        Assert.assertFalse(current.containsKey("1.2.3.4"));
+
+        Optional<List<Pair<String, String>>> values = current.getValues("1.2.3.1", fields);
+        Assert.assertTrue(values.isPresent());
+        Assert.assertEquals(1, values.get().size());
+        Assert.assertEquals("false", values.get().get(0).getValue());
+        Assert.assertEquals(2, current.getValues("1.2.3.3", fields).get().size());
+    }
+
+    @Test
+    public void testCaseInsensitiveKeys() throws IOException {
+        EnrichmentDeltaTable current = table.applyDelta(getStream("{\"HOST\" : {\"is_ioc\" : \"true\"}}"));
+        Assert.assertTrue(current.containsKey("host"));
+        Assert.assertTrue(current.containsKey("Host"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullRowInTable() throws IOException {
+        EnrichmentMemoryTable.fromJsonStream(getStream(firstDelta));
+    }
+}
@@ -0,0 +1,159 @@
+package uk.co.gresearch.siembol.enrichments.table;
+
+import org.adrianwalker.multilinestring.Multiline;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import uk.co.gresearch.siembol.enrichments.common.EnrichmentCommand;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+public class EnrichmentMappedTableTest {
+    /**
+     *
+     * {
+     *   "1.2.3.1" : { "is_malicious" : "true", "is_ioc" : "false" },
+     *   "1.2.3.2" : {},
+     *   "1.2.3.3" : {"is_malicious" : "true", "is_ioc" : "false", "is_alert" : "true"},
+     *   "1.2.3.4" : {},
+     *   "1.2.3.5" : {"is_malicious" : "true"},
+     *   "Host.Example.COM" : {"is_ioc" : "", "owner" : "dummy"}
+     * }
+     **/
+    @Multiline
+    public static String simpleMixedFields;
+
+    private Path tableDirectory;
+    private Path tablePath;
+    private EnrichmentMappedTable table;
+    private EnrichmentMemoryTable memoryTable;
+
+    @Before
+    public void setUp() throws IOException {
+        tableDirectory = Files.createTempDirectory("enrichment_table");
+        tablePath = tableDirectory.resolve("table.bin");
+        try (InputStream is = new ByteArrayInputStream(simpleMixedFields.getBytes())) {
+            table = EnrichmentMappedTable.builder().addJsonStream(is).build(tablePath);
+        }
+        try (InputStream is = new ByteArrayInputStream(simpleMixedFields.getBytes())) {
+            memoryTable = EnrichmentMemoryTable.fromJsonStream(is);
+        }
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(tablePath);
+        Files.deleteIfExists(tableDirectory);
+    }
+
+    @Test
+    public void testSameAsMemoryTable() {
+        List<String> keys = Arrays.asList("1.2.3.1", "1.2.3.2", "1.2.3.3", "1.2.3.4", "1.2.3.5", "1.2.3.6",
+                "host.example.com", "HOST.example.com", "", "1.2.3", "1.2.3.10");
+        List<List<String>> fields = Arrays.asList(Collections.emptyList(),
+                Arrays.asList("is_malicious", "b"),
+                Arrays.asList("is_ioc", "is_alert", "owner"),
+                Arrays.asList("is_malicious", "is_ioc", "is_alert", "owner"));
+
+        Assert.assertEquals(6, table.size());
+        for (String key : keys) {
+            Assert.assertEquals(key, memoryTable.containsKey(key), table.containsKey(key));
+            for (List<String> field : fields) {
+                Assert.assertEquals(key, memoryTable.getValues(key, field), table.getValues(key, field));
+            }
+        }
+    }
+
+    @Test
+    public void testEmptyValue() {
+        Optional<List<Pair<String, String>>> values = table.getValues("host.example.com",
+                Arrays.asList("owner", "is_ioc", "is_malicious"));
+        Assert.assertTrue(values.isPresent());
+        Assert.assertEquals(2, values.get().size());
+        Assert.assertEquals("is_ioc", values.get().get(0).getKey());
+        Assert.assertEquals("", values.get().get(0).getValue());
+        Assert.assertEquals("owner", values.get().get(1).getKey());
+        Assert.assertEquals("dummy", values.get().get(1).getValue());
+    }
+
+    @Test
+    public void testUnicodeKeys() throws IOException {
+        List<String> keys = Arrays.asList("\u017elu\u0165ou\u010dk\u00fd", "zlutoucky", "\u00e9", "e", "\uD83D\uDE00", "");
+        EnrichmentMappedTable.Builder builder = EnrichmentMappedTable.builder();
+        keys.forEach(x -> builder.addRow(x, Arrays.asList(Pair.of("value", x))));
+        EnrichmentMappedTable unicodeTable = builder.build(tablePath);
+
+        for (String key : keys) {
+            Optional<List<Pair<String, String>>> values = unicodeTable.getValues(key, Arrays.asList("value"));
+            Assert.assertTrue(values.isPresent());
+            Assert.assertEquals(key, values.get().get(0).getValue());
+        }
+        Assert.assertFalse(unicodeTable.containsKey("\u017elu\u0165ou\u010dk"));
+    }
+
+    @Test
+    public void testCommand() {
+        EnrichmentCommand command = new EnrichmentCommand();
+        command.setTags(new ArrayList<>(Arrays.asList(Pair.of("tag_key", "tag_value"))));
+        command.setEnrichmentFields(new ArrayList<>(Arrays.asList(
+                Pair.of("is_malicious", "siembol:is_malicious"))));
+        command.setKey("1.2.3.1");
+        Optional<List<Pair<String, String>>> values = table.getValues(command);
+        Assert.assertTrue(values.isPresent());
+        Assert.assertEquals(2, values.get().size());
+        Assert.assertEquals("tag_key", values.get().get(0).getKey());
+        Assert.assertEquals("siembol:is_malicious", values.get().get(1).getKey());
+        Assert.assertEquals("true", values.get().get(1).getValue());
+    }
+
+    @Test
+    public void testReopenFile() throws IOException {
+        EnrichmentMappedTable reopened = EnrichmentMappedTable.fromFile(tablePath);
+        Assert.assertEquals(table.size(), reopened.size());
+        Assert.assertEquals(table.getValues("1.2.3.3", Arrays.asList("is_alert")),
+                reopened.getValues("1.2.3.3", Arrays.asList("is_alert")));
+    }
+
+    @Test
+    public void testDeletedFileAfterBuild() throws IOException {
+        Files.delete(tablePath);
+        try (Stream<Path> files = Files.list(tableDirectory)) {
+            Assert.assertEquals(0, files.count());
+        }
+        Assert.assertEquals(6, table.size());
+        Assert.assertEquals(Optional.of(Arrays.asList(Pair.of("is_alert", "true"))),
+                table.getValues("1.2.3.3", Arrays.asList("is_alert")));
+    }
+
+    @Test
+    public void testEmptyTable() throws IOException {
+        EnrichmentMappedTable empty = EnrichmentMappedTable.builder().build(tablePath);
+        Assert.assertEquals(0, empty.size());
+        Assert.assertFalse(empty.containsKey("1.2.3.1"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidFile() throws IOException {
+        Files.write(tablePath, simpleMixedFields.getBytes());
+        EnrichmentMappedTable.fromFile(tablePath);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTruncatedFile() throws IOException {
+        byte[] data = Files.readAllBytes(tablePath);
+        Files.write(tablePath, Arrays.copyOf(data, data.length - 1));
+        EnrichmentMappedTable.fromFile(tablePath);
+    }
+}
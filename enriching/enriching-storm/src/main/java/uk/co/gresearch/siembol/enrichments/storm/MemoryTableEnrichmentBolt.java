@@ -15,6 +15,8 @@ import org.apache.storm.tuple.Tuple;
 import org.apache.storm.tuple.Values;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import uk.co.gresearch.siembol.common.error.ErrorMessage;
+import uk.co.gresearch.siembol.common.error.ErrorType;
 import uk.co.gresearch.siembol.common.filesystem.HdfsFileSystemFactory;
 import uk.co.gresearch.siembol.common.filesystem.SiembolFileSystem;
 import uk.co.gresearch.siembol.common.filesystem.SiembolFileSystemFactory;
@@ -24,17 +26,33 @@ import uk.co.gresearch.siembol.common.zookeeper.ZooKeeperConnectorFactory;
 import uk.co.gresearch.siembol.common.zookeeper.ZooKeeperConnector;
 import uk.co.gresearch.siembol.common.zookeeper.ZooKeeperConnectorFactoryImpl;
 import uk.co.gresearch.siembol.enrichments.common.EnrichmentCommand;
+import uk.co.gresearch.siembol.enrichments.model.TableTypeDto;
 import uk.co.gresearch.siembol.enrichments.storm.common.*;
+import uk.co.gresearch.siembol.enrichments.table.EnrichmentCidrTable;
+import uk.co.gresearch.siembol.enrichments.table.EnrichmentDeltaTable;
+import uk.co.gresearch.siembol.enrichments.table.EnrichmentMappedTable;
 import uk.co.gresearch.siembol.enrichments.table.EnrichmentMemoryTable;
 import uk.co.gresearch.siembol.enrichments.table.EnrichmentTable;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.lang.invoke.MethodHandles;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
 import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 public class MemoryTableEnrichmentBolt extends BaseRichBolt {
     private static final long serialVersionUID = 1L;
@@ -54,21 +72,49 @@ public class MemoryTableEnrichmentBolt extends BaseRichBolt {
     private static final String TABLES_UPDATE_EMPTY_TABLES = "No enrichment tables provided";
     private static final String INIT_EXCEPTION_MSG_FORMAT = "Exception during loading memory table: %s";
     private static final String INVALID_TYPE_IN_TUPLES = "Invalid type in tuple provided";
+    private static final String MAPPED_TABLE_EXISTS = "Mapping existing enrichment table file: {}";
+    private static final String MAPPED_TABLE_CREATE = "Creating enrichment table file: {}";
+    private static final String MAPPED_TABLE_MISSING = "Enrichment table file: {} was deleted, creating it again";
+    private static final String MAPPED_TABLE_DELETE = "Deleting unused enrichment table file: {}";
+    private static final String MAPPED_TABLE_DELETE_EXCEPTION = "Exception during deleting unused table files: {}";
+    private static final String MAPPED_TABLE_FILE_FORMAT = "%s_%s_%s.table";
+    private static final String MAPPED_TABLE_FILE_GLOB = "*.table";
+    private static final String MAPPED_TABLE_KEY_FORMAT = "%s|%s";
+    private static final String UNVERSIONED_TABLE = "unversioned";
+    private static final Pattern UNSAFE_FILE_NAME_CHARS = Pattern.compile("[^a-zA-Z0-9_\\-]");
+    private static final String TABLE_DELTA_APPLY = "Applying delta on enrichment table: {} from the file: {}";
+    private static final String UNSUPPORTED_CIDR_TABLE_DELTAS = "Deltas are not supported for cidr table: %s";
+    private static final String DELTA_SEPARATOR = "|";
+    private static final String TABLE_TYPE_MISMATCH_MSG =
+            "Enrichment command expects the %s table: %s but the table type is %s";
 
     private final AtomicReference<Map<String, EnrichmentTable>> enrichmentTables = new AtomicReference<>();
     private final ZooKeeperAttributesDto zookeperAttributes;
     private final ZooKeeperConnectorFactory zooKeeperConnectorFactory;
     private final SiembolFileSystemFactory fileSystemFactory;
+    private final String localTablesDirectory;
 
     private OutputCollector collector;
     private ZooKeeperConnector zooKeeperConnector;
+    private transient EnrichmentTableRegistry tableRegistry;
+    private transient List<HdfsTable> acquiredTables;
+    private transient Map<String, HdfsTable> acquiredDeltaTables;
 
     MemoryTableEnrichmentBolt(StormEnrichmentAttributesDto attributes,
                               ZooKeeperConnectorFactory zooKeeperConnectorFactory,
-                              SiembolFileSystemFactory fileSystemFactory) {
+                              SiembolFileSystemFactory fileSystemFactory,
+                              EnrichmentTableRegistry tableRegistry) {
         this.zookeperAttributes = attributes.getEnrichingTablesAttributes();
         this.zooKeeperConnectorFactory = zooKeeperConnectorFactory;
         this.fileSystemFactory = fileSystemFactory;
+        this.localTablesDirectory = attributes.getEnrichingTablesLocalDirectory();
+        this.tableRegistry = tableRegistry;
+    }
+
+    MemoryTableEnrichmentBolt(StormEnrichmentAttributesDto attributes,
+                              ZooKeeperConnectorFactory zooKeeperConnectorFactory,
+                              SiembolFileSystemFactory fileSystemFactory) {
+        this(attributes, zooKeeperConnectorFactory, fileSystemFactory, null);
     }
 
     public MemoryTableEnrichmentBolt(StormEnrichmentAttributesDto attributes) {
@@ -81,6 +127,12 @@ public class MemoryTableEnrichmentBolt extends BaseRichBolt {
     @Override
     public void prepare(Map map, TopologyContext topologyContext, OutputCollector outputCollector) {
         this.collector = outputCollector;
+        if (tableRegistry == null) {
+            //NOTE: the registry is not serialised with the bolt and it is shared by all executors of the worker
+            tableRegistry = EnrichmentTableRegistry.getWorkerInstance();
+        }
+        acquiredTables = new ArrayList<>();
+        acquiredDeltaTables = new HashMap<>();
 
         try {
             LOG.info(TABLES_INIT_START);
@@ -101,7 +153,13 @@ public class MemoryTableEnrichmentBolt extends BaseRichBolt {
         }
     }
 
-    private void updateTables() {
+    private void releaseTables(List<HdfsTable> tables) {
+        tables.forEach(x -> tableRegistry.release(x));
+    }
+
+    private synchronized void updateTables() {
+        List<HdfsTable> newTables = new ArrayList<>();
+        Map<String, HdfsTable> newDeltaTables = new HashMap<>();
         try {
             LOG.info(TABLES_UPDATES_START);
 
@@ -112,18 +170,179 @@ public class MemoryTableEnrichmentBolt extends BaseRichBolt {
             try (SiembolFileSystem fs = fileSystemFactory.create()) {
                 for (HdfsTable table :  tablesUpdate.getHdfsTables()) {
                     LOG.info(TABLE_INIT_START, table.getName(), table.getPath());
-                    try (InputStream is = fs.openInputStream(table.getPath())) {
-                        tables.put(table.getName(), EnrichmentMemoryTable.fromJsonStream(is));
+                    table.setVersion(fs.getFileVersion(table.getPath()).orElse(null));
+                    EnrichmentTable baseTable = tableRegistry.acquire(table, () -> loadTable(fs, table));
+                    newTables.add(table);
+
+                    HdfsTable deltaTable = getDeltaTable(fs, table);
+                    if (deltaTable == null) {
+                        tables.put(table.getName(), baseTable);
+                    } else {
+                        EnrichmentTable currentTable = tableRegistry.acquire(deltaTable,
+                                () -> applyDeltas(fs, deltaTable, baseTable));
+                        newTables.add(deltaTable);
+                        newDeltaTables.put(table.getName(), deltaTable);
+                        tables.put(table.getName(), currentTable);
                     }
                     LOG.info(TABLE_INIT_COMPLETED, table.getName());
                 }
             }
             enrichmentTables.set(tables);
+            releaseTables(acquiredTables);
+            acquiredTables = newTables;
+            acquiredDeltaTables = newDeltaTables;
+            if (localTablesDirectory != null) {
+                deleteUnusedTableFiles(tablesUpdate.getHdfsTables());
+            }
             LOG.info(TABLES_UPDATES_COMPLETED);
         } catch (Exception e) {
             LOG.error(TABLES_UPDATE_EXCEPTION_FORMAT, ExceptionUtils.getStackTrace(e));
+            releaseTables(newTables);
+        }
+    }
+
+    private EnrichmentTable loadTable(SiembolFileSystem fs, HdfsTable table) throws IOException {
+        if (table.getType() == TableTypeDto.CIDR) {
+            //NOTE: the trie of cidr prefixes is always built on the heap
+            try (InputStream is = fs.openInputStream(table.getPath())) {
+                return EnrichmentCidrTable.fromJsonStream(is);
+            }
+        }
+
+        if (localTablesDirectory == null) {
+            try (InputStream is = fs.openInputStream(table.getPath())) {
+                return EnrichmentMemoryTable.fromJsonStream(is);
+            }
+        }
+
+        Path mappedPath = Paths.get(localTablesDirectory, getMappedTableFileName(table));
+        //NOTE: the file of a table without a version is always created again since its content can not be verified
+        if (table.getVersion() != null && Files.exists(mappedPath)) {
+            LOG.info(MAPPED_TABLE_EXISTS, mappedPath);
+            try {
+                return EnrichmentMappedTable.fromFile(mappedPath);
+            } catch (NoSuchFileException e) {
+                //NOTE: the file can be deleted by another worker that has not received the update yet
+                LOG.info(MAPPED_TABLE_MISSING, mappedPath);
+            }
+        }
+
+        LOG.info(MAPPED_TABLE_CREATE, mappedPath);
+        Files.createDirectories(mappedPath.getParent());
+        try (InputStream is = fs.openInputStream(table.getPath())) {
+            return EnrichmentMappedTable.builder().addJsonStream(is).build(mappedPath);
+        }
+    }
+
+    private static String getSafeFileName(String name) {
+        return UNSAFE_FILE_NAME_CHARS.matcher(name).replaceAll("_");
+    }
+
+    private static String getMappedTableFileName(HdfsTable table) {
+        //NOTE: the file name identifies the table by its name, path and version of the source file
+        String version = table.getVersion() != null ? table.getVersion() : UNVERSIONED_TABLE;
+        String key = String.format(MAPPED_TABLE_KEY_FORMAT, table.getName(), table.getPath());
+        return String.format(MAPPED_TABLE_FILE_FORMAT,
+                getSafeFileName(table.getName()),
+                UUID.nameUUIDFromBytes(key.getBytes(StandardCharsets.UTF_8)),
+                getSafeFileName(version));
+    }
+
+    private void deleteUnusedTableFiles(List<HdfsTable> tables) {
+        Path directory = Paths.get(localTablesDirectory);
+        if (!Files.isDirectory(directory)) {
             return;
         }
+
+        Set<String> usedFiles = tables.stream()
+                .map(MemoryTableEnrichmentBolt::getMappedTableFileName)
+                .collect(Collectors.toSet());
+        //NOTE: files mapped by other workers stay valid after deleting since the mapping keeps the file content
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, MAPPED_TABLE_FILE_GLOB)) {
+            for (Path file : files) {
+                if (!usedFiles.contains(file.getFileName().toString())) {
+                    LOG.info(MAPPED_TABLE_DELETE, file);
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (IOException e) {
+            LOG.error(MAPPED_TABLE_DELETE_EXCEPTION, ExceptionUtils.getStackTrace(e));
+        }
+    }
+
+    private static List<String> getDeltas(HdfsTable table) {
+        return table.getDeltas() != null ? table.getDeltas() : new ArrayList<>();
+    }
+
+    /**
+     * Creates the table with the deltas applied on top of the base table.
+     * It is identified by the base table together with the paths and versions of all its deltas,
+     * so the table is shared by executors and it is created again if any delta is rewritten.
+     * A table without a version of the base or of any delta is not shared.
+     */
+    private static HdfsTable getDeltaTable(SiembolFileSystem fs, HdfsTable table) throws IOException {
+        List<String> deltas = getDeltas(table);
+        if (deltas.isEmpty()) {
+            return null;
+        }
+
+        if (table.getType() == TableTypeDto.CIDR) {
+            throw new IllegalArgumentException(String.format(UNSUPPORTED_CIDR_TABLE_DELTAS, table.getName()));
+        }
+
+        StringBuilder path = new StringBuilder(table.getPath());
+        String version = table.getVersion();
+        for (String delta : deltas) {
+            path.append(DELTA_SEPARATOR).append(delta);
+            Optional<String> deltaVersion = fs.getFileVersion(delta);
+            version = version != null && deltaVersion.isPresent()
+                    ? version + DELTA_SEPARATOR + deltaVersion.get()
+                    : null;
+        }
+
+        HdfsTable ret = new HdfsTable();
+        ret.setName(table.getName());
+        ret.setType(table.getType());
+        ret.setPath(path.toString());
+        ret.setDeltas(deltas);
+        ret.setVersion(version);
+        return ret;
+    }
+
+    private EnrichmentTable applyDeltas(SiembolFileSystem fs,
+                                        HdfsTable deltaTable,
+                                        EnrichmentTable baseTable) throws IOException {
+        List<String> deltas = deltaTable.getDeltas();
+        EnrichmentDeltaTable current = new EnrichmentDeltaTable(baseTable);
+        int numApplied = 0;
+        EnrichmentTable previousTable = enrichmentTables.get() != null
+                ? enrichmentTables.get().get(deltaTable.getName())
+                : null;
+        HdfsTable previous = acquiredDeltaTables.get(deltaTable.getName());
+
+        if (previous != null
+                && previous.getVersion() != null
+                && deltaTable.getVersion() != null
+                && previousTable instanceof EnrichmentDeltaTable
+                && ((EnrichmentDeltaTable) previousTable).getBaseTable() == baseTable) {
+            List<String> previousDeltas = previous.getDeltas();
+            if (previousDeltas.size() <= deltas.size()
+                    && previousDeltas.equals(deltas.subList(0, previousDeltas.size()))
+                    && (deltaTable.getVersion() + DELTA_SEPARATOR)
+                    .startsWith(previous.getVersion() + DELTA_SEPARATOR)) {
+                //NOTE: the deltas are append only so only new deltas are applied on the previous table
+                current = (EnrichmentDeltaTable) previousTable;
+                numApplied = previousDeltas.size();
+            }
+        }
+
+        for (String delta : deltas.subList(numApplied, deltas.size())) {
+            LOG.info(TABLE_DELTA_APPLY, deltaTable.getName(), delta);
+            try (InputStream is = fs.openInputStream(delta)) {
+                current = current.applyDelta(is);
+            }
+        }
+        return current;
     }
 
     @Override
@@ -152,6 +371,15 @@ public class MemoryTableEnrichmentBolt extends BaseRichBolt {
                 continue;
             }
 
+            if (command.getTableType() != table.getTableType()) {
+                //NOTE: the command would not match any row so the misconfigured rule is reported as an error
+                String msg = String.format(TABLE_TYPE_MISMATCH_MSG,
+                        command.getTableType(), command.getTableName(), table.getTableType());
+                exceptions.add(ErrorMessage.createErrorMessage(new IllegalStateException(msg),
+                        ErrorType.ENRICHMENT_ERROR).toString());
+                continue;
+            }
+
             Optional<List<Pair<String, String>>> result = table.getValues(command);
             if (result.isPresent()) {
                 enrichments.addAll(result.get());
@@ -162,6 +390,15 @@ public class MemoryTableEnrichmentBolt extends BaseRichBolt {
         collector.ack(tuple);
     }
 
+    @Override
+    public synchronized void cleanup() {
+        if (acquiredTables != null) {
+            releaseTables(acquiredTables);
+            acquiredTables = new ArrayList<>();
+            acquiredDeltaTables = new HashMap<>();
+        }
+    }
+
     @Override
     public void declareOutputFields(OutputFieldsDeclarer declarer) {
         declarer.declare(new Fields(EnrichmentTuples.EVENT.toString(),
@@ -0,0 +1,101 @@
+package uk.co.gresearch.siembol.enrichments.storm.common;
+
+import uk.co.gresearch.siembol.enrichments.table.EnrichmentTable;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Registry of enrichment tables shared by all executors of a worker.
+ * A table is identified by its name, type, path and the version of its file and it is loaded only once
+ * by the first executor that acquires it. A table rewritten on the same path has a new version so it is loaded again.
+ * A table without a version can not be verified so it is not shared and it is loaded on each acquisition.
+ * Executors release tables that they do not use anymore and a table is removed from the registry
+ * when it is not used by any executor.
+ */
+public class EnrichmentTableRegistry {
+    private static final EnrichmentTableRegistry WORKER_INSTANCE = new EnrichmentTableRegistry();
+    private static final String KEY_FORMAT = "%s|%s|%s|%s";
+
+    private final Map<String, TableEntry> tables = new HashMap<>();
+
+    public interface TableLoader {
+        EnrichmentTable load() throws Exception;
+    }
+
+    private static class TableEntry {
+        private EnrichmentTable table;
+        private int references;
+
+        synchronized EnrichmentTable getTable(TableLoader loader) throws Exception {
+            if (table == null) {
+                table = loader.load();
+            }
+            return table;
+        }
+    }
+
+    /**
+     * Provides the registry shared by all executors in the worker
+     * @return the registry of the worker
+     */
+    public static EnrichmentTableRegistry getWorkerInstance() {
+        return WORKER_INSTANCE;
+    }
+
+    private static String getKey(HdfsTable table) {
+        return String.format(KEY_FORMAT, table.getName(), table.getType(), table.getPath(), table.getVersion());
+    }
+
+    /**
+     * Acquires the table and loads it if it is not in the registry.
+     * Concurrent acquisitions of the same table wait until the table is loaded.
+     * @param table the name, the path and the version of the table
+     * @param loader the loader used if the table is not loaded
+     * @return the shared read only table
+     * @throws Exception if the loading of the table fails
+     */
+    public EnrichmentTable acquire(HdfsTable table, TableLoader loader) throws Exception {
+        if (table.getVersion() == null) {
+            return loader.load();
+        }
+
+        TableEntry entry;
+        synchronized (this) {
+            entry = tables.computeIfAbsent(getKey(table), x -> new TableEntry());
+            entry.references++;
+        }
+
+        try {
+            return entry.getTable(loader);
+        } catch (Exception e) {
+            release(table);
+            throw e;
+        }
+    }
+
+    /**
+     * Releases the table acquired before and removes it from the registry if it is not used anymore
+     * @param table the name, the path and the version of the table
+     */
+    public synchronized void release(HdfsTable table) {
+        if (table.getVersion() == null) {
+            return;
+        }
+
+        String key = getKey(table);
+        TableEntry entry = tables.get(key);
+        if (entry != null && --entry.references == 0) {
+            tables.remove(key);
+        }
+    }
+
+    public synchronized int getReferences(HdfsTable table) {
+        TableEntry entry = tables.get(getKey(table));
+        return entry == null ? 0 : entry.references;
+    }
+
+    public synchronized int size() {
+        return tables.size();
+    }
+}
@@ -1,12 +1,22 @@
 package uk.co.gresearch.siembol.enrichments.storm.common;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import uk.co.gresearch.siembol.enrichments.model.TableTypeDto;
+
+import java.util.List;
 
 public class HdfsTable {
     @JsonProperty("name")
     private String name;
     @JsonProperty("path")
     private String path;
+    @JsonProperty("type")
+    private TableTypeDto type = TableTypeDto.EXACT;
+    @JsonProperty("deltas")
+    private List<String> deltas;
+    @JsonIgnore
+    private String version;
 
     public String getName() {
         return name;
@@ -23,4 +33,28 @@ public class HdfsTable {
     public void setPath(String path) {
         this.path = path;
     }
+
+    public TableTypeDto getType() {
+        return type;
+    }
+
+    public void setType(TableTypeDto type) {
+        this.type = type;
+    }
+
+    public List<String> getDeltas() {
+        return deltas;
+    }
+
+    public void setDeltas(List<String> deltas) {
+        this.deltas = deltas;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public void setVersion(String version) {
+        this.version = version;
+    }
 }
@@ -2,6 +2,7 @@ package uk.co.gresearch.siembol.enrichments.storm;
 
 import org.adrianwalker.multilinestring.Multiline;
 import org.apache.commons.lang3.tuple.Pair;
+import org.apache.curator.framework.recipes.cache.NodeCacheListener;
 import org.apache.storm.task.OutputCollector;
 import org.apache.storm.tuple.Tuple;
 import org.apache.storm.tuple.Values;
@@ -17,14 +18,21 @@ import uk.co.gresearch.siembol.common.model.ZooKeeperAttributesDto;
 import uk.co.gresearch.siembol.common.zookeeper.ZooKeeperConnectorFactory;
 import uk.co.gresearch.siembol.common.zookeeper.ZooKeeperConnector;
 import uk.co.gresearch.siembol.enrichments.common.EnrichmentCommand;
+import uk.co.gresearch.siembol.enrichments.model.TableTypeDto;
 import uk.co.gresearch.siembol.enrichments.storm.common.*;
 
 import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class MemoryTableEnrichmentBoltTest {
@@ -59,6 +67,32 @@ public class MemoryTableEnrichmentBoltTest {
     @Multiline
     public static String simpleOneField;
 
+    /**
+     * {
+     *     "hdfs_tables" : [
+     *     {
+     *       "name" : "test_table",
+     *       "path": "/siembol/tables/enrichment/test.json",
+     *       "deltas": [ "/siembol/tables/enrichment/test_delta_1.json" ]
+     *     }]
+     * }
+     **/
+    @Multiline
+    public static String tablesUpdateOneDelta;
+
+    /**
+     * {
+     *     "hdfs_tables" : [
+     *     {
+     *       "name" : "test_table",
+     *       "path": "/siembol/tables/enrichment/test.json",
+     *       "deltas": [ "/siembol/tables/enrichment/test_delta_1.json", "/siembol/tables/enrichment/test_delta_2.json" ]
+     *     }]
+     * }
+     **/
+    @Multiline
+    public static String tablesUpdateTwoDeltas;
+
     private Tuple tuple;
     private OutputCollector collector;
     private EnrichmentExceptions exceptions;
@@ -71,6 +105,7 @@ public class MemoryTableEnrichmentBoltTest {
     SiembolFileSystemFactory fileSystemFactory;
     SiembolFileSystem fileSystem;
     ArgumentCaptor<Values> argumentEmitCaptor;
+    EnrichmentTableRegistry tableRegistry;
 
     @Before
     public void setUp() throws Exception {
@@ -97,8 +132,11 @@ public class MemoryTableEnrichmentBoltTest {
         when(collector.emit(eq(tuple), argumentEmitCaptor.capture())).thenReturn(new ArrayList<>());
         when(zooKeeperConnector.getData()).thenReturn(tablesUpdate);
         when(fileSystem.openInputStream(anyString())).thenReturn(new ByteArrayInputStream(simpleOneField.getBytes()));
+        when(fileSystem.getFileVersion(anyString())).thenReturn(Optional.of("1_100"));
 
-        memoryTableBolt = new MemoryTableEnrichmentBolt(attributes, zooKeeperConnectorFactory, fileSystemFactory);
+        tableRegistry = new EnrichmentTableRegistry();
+        memoryTableBolt = new MemoryTableEnrichmentBolt(attributes, zooKeeperConnectorFactory, fileSystemFactory,
+                tableRegistry);
         memoryTableBolt.prepare(null, null, collector);
     }
 
@@ -189,4 +227,284 @@ public class MemoryTableEnrichmentBoltTest {
         Assert.assertTrue(((EnrichmentPairs)values.get(1)).isEmpty());
         Assert.assertTrue(((EnrichmentExceptions)values.get(2)).isEmpty());
     }
+
+    @Test
+    public void testCommandTableTypeMismatch() {
+        EnrichmentCommand command = new EnrichmentCommand();
+        commands.add(command);
+        command.setTableName("test_table");
+        command.setTableType(TableTypeDto.CIDR);
+        command.setKey("1.2.3.1");
+        command.setTags(new ArrayList<>(Arrays.asList(Pair.of("is_test", "true"))));
+        memoryTableBolt.execute(tuple);
+        Values values = argumentEmitCaptor.getValue();
+        Assert.assertTrue(((EnrichmentPairs)values.get(1)).isEmpty());
+        EnrichmentExceptions exceptions = (EnrichmentExceptions)values.get(2);
+        Assert.assertEquals(1, exceptions.size());
+        Assert.assertTrue(exceptions.get(0).contains("cidr table: test_table but the table type is exact"));
+    }
+
+    @Test
+    public void testMappedTablesSharedFile() throws Exception {
+        Path directory = Files.createTempDirectory("enrichment_tables");
+        try {
+            attributes.setEnrichingTablesLocalDirectory(directory.toString());
+            when(fileSystem.openInputStream(anyString()))
+                    .thenAnswer(x -> new ByteArrayInputStream(simpleOneField.getBytes()));
+            MemoryTableEnrichmentBolt first = new MemoryTableEnrichmentBolt(attributes,
+                    zooKeeperConnectorFactory, fileSystemFactory, new EnrichmentTableRegistry());
+            first.prepare(null, null, collector);
+            MemoryTableEnrichmentBolt second = new MemoryTableEnrichmentBolt(attributes,
+                    zooKeeperConnectorFactory, fileSystemFactory, new EnrichmentTableRegistry());
+            second.prepare(null, null, collector);
+
+            //NOTE: bolts with different registries simulate workers on the same host
+            //NOTE: the json table is read by the default bolt and by the first bolt that creates the table file
+            verify(fileSystem, times(2)).openInputStream(anyString());
+            Assert.assertEquals(1, directory.toFile().list().length);
+
+            EnrichmentCommand command = new EnrichmentCommand();
+            commands.add(command);
+            command.setTableName("test_table");
+            command.setKey("1.2.3.3");
+            command.setEnrichmentFields(new ArrayList<>(Arrays.asList(
+                    Pair.of("is_malicious", "siembol:is_malicious"))));
+            second.execute(tuple);
+
+            EnrichmentPairs enrichments = (EnrichmentPairs)argumentEmitCaptor.getValue().get(1);
+            Assert.assertEquals(1, enrichments.size());
+            Assert.assertEquals("siembol:is_malicious", enrichments.get(0).getKey());
+            Assert.assertEquals("false", enrichments.get(0).getValue());
+        } finally {
+            deleteDirectory(directory);
+        }
+    }
+
+    private void deleteDirectory(Path directory) throws Exception {
+        for (File file : directory.toFile().listFiles()) {
+            Files.delete(file.toPath());
+        }
+        Files.delete(directory);
+    }
+
+    @Test
+    public void testMappedTableNewVersion() throws Exception {
+        Path directory = Files.createTempDirectory("enrichment_tables");
+        try {
+            attributes.setEnrichingTablesLocalDirectory(directory.toString());
+            when(fileSystem.openInputStream(anyString()))
+                    .thenAnswer(x -> new ByteArrayInputStream(simpleOneField.getBytes()));
+            MemoryTableEnrichmentBolt first = new MemoryTableEnrichmentBolt(attributes,
+                    zooKeeperConnectorFactory, fileSystemFactory, new EnrichmentTableRegistry());
+            first.prepare(null, null, collector);
+            String[] files = directory.toFile().list();
+            Assert.assertEquals(1, files.length);
+            Assert.assertTrue(files[0].startsWith("test_table_"));
+            Assert.assertTrue(files[0].endsWith("_1_100.table"));
+
+            //NOTE: the table is rewritten on the same path so only its version is changed
+            when(fileSystem.getFileVersion(anyString())).thenReturn(Optional.of("2_120"));
+            when(fileSystem.openInputStream(anyString()))
+                    .thenAnswer(x -> new ByteArrayInputStream(simpleOneField.replace("false", "true").getBytes()));
+            memoryTableBolt = new MemoryTableEnrichmentBolt(attributes,
+                    zooKeeperConnectorFactory, fileSystemFactory, new EnrichmentTableRegistry());
+            memoryTableBolt.prepare(null, null, collector);
+
+            files = directory.toFile().list();
+            Assert.assertEquals(1, files.length);
+            Assert.assertTrue(files[0].endsWith("_2_120.table"));
+            Assert.assertEquals("true", executeCommand("1.2.3.3").get(0).getValue());
+        } finally {
+            deleteDirectory(directory);
+        }
+    }
+
+    @Test
+    public void testMappedTableFileNameSanitised() throws Exception {
+        Path directory = Files.createTempDirectory("enrichment_tables");
+        try {
+            attributes.setEnrichingTablesLocalDirectory(directory.toString());
+            when(zooKeeperConnector.getData()).thenReturn(tablesUpdate.replace("test_table", "../test table"));
+            when(fileSystem.openInputStream(anyString()))
+                    .thenAnswer(x -> new ByteArrayInputStream(simpleOneField.getBytes()));
+            memoryTableBolt = new MemoryTableEnrichmentBolt(attributes,
+                    zooKeeperConnectorFactory, fileSystemFactory, new EnrichmentTableRegistry());
+            memoryTableBolt.prepare(null, null, collector);
+
+            String[] files = directory.toFile().list();
+            Assert.assertEquals(1, files.length);
+            Assert.assertTrue(files[0].startsWith("___test_table_"));
+        } finally {
+            deleteDirectory(directory);
+        }
+    }
+
+    @Test
+    public void testSharedTablesInWorker() throws Exception {
+        MemoryTableEnrichmentBolt second = new MemoryTableEnrichmentBolt(attributes,
+                zooKeeperConnectorFactory, fileSystemFactory, tableRegistry);
+        second.prepare(null, null, collector);
+
+        verify(fileSystem, times(1)).openInputStream(anyString());
+        Assert.assertEquals(1, tableRegistry.size());
+
+        memoryTableBolt.cleanup();
+        Assert.assertEquals(1, tableRegistry.size());
+        second.cleanup();
+        Assert.assertEquals(0, tableRegistry.size());
+    }
+
+    @Test
+    public void testTablesUpdateReleasesOldTable() throws Exception {
+        ArgumentCaptor<NodeCacheListener> callbackCaptor = ArgumentCaptor.forClass(NodeCacheListener.class);
+        verify(zooKeeperConnector).addCacheListener(callbackCaptor.capture());
+        when(fileSystem.openInputStream(anyString()))
+                .thenAnswer(x -> new ByteArrayInputStream(simpleOneField.getBytes()));
+        when(zooKeeperConnector.getData()).thenReturn(tablesUpdate.replace("test.json", "test_2.json"));
+
+        callbackCaptor.getValue().nodeChanged();
+
+        verify(fileSystem, times(1)).openInputStream(eq("/siembol/tables/enrichment/test_2.json"));
+        Assert.assertEquals(1, tableRegistry.size());
+
+        EnrichmentCommand command = new EnrichmentCommand();
+        commands.add(command);
+        command.setTableName("test_table");
+        command.setKey("1.2.3.1");
+        command.setTags(new ArrayList<>(Arrays.asList(Pair.of("is_test", "true"))));
+        memoryTableBolt.execute(tuple);
+        Assert.assertEquals(1, ((EnrichmentPairs)argumentEmitCaptor.getValue().get(1)).size());
+    }
+
+    @Test
+    public void testTablesUpdateRepublishedOnSamePath() throws Exception {
+        ArgumentCaptor<NodeCacheListener> callbackCaptor = ArgumentCaptor.forClass(NodeCacheListener.class);
+        verify(zooKeeperConnector).addCacheListener(callbackCaptor.capture());
+        Assert.assertEquals("false", executeCommand("1.2.3.3").get(0).getValue());
+
+        when(fileSystem.getFileVersion(anyString())).thenReturn(Optional.of("2_120"));
+        when(fileSystem.openInputStream(anyString()))
+                .thenAnswer(x -> new ByteArrayInputStream(simpleOneField.replace("false", "true").getBytes()));
+        callbackCaptor.getValue().nodeChanged();
+
+        verify(fileSystem, times(2)).openInputStream(eq("/siembol/tables/enrichment/test.json"));
+        Assert.assertEquals("true", executeCommand("1.2.3.3").get(0).getValue());
+        Assert.assertEquals(1, tableRegistry.size());
+    }
+
+    @Test
+    public void testUnversionedTableRewrittenOnSamePath() throws Exception {
+        when(fileSystem.getFileVersion(anyString())).thenReturn(Optional.empty());
+        when(fileSystem.openInputStream(anyString()))
+                .thenAnswer(x -> new ByteArrayInputStream(simpleOneField.getBytes()));
+        ArgumentCaptor<NodeCacheListener> callbackCaptor = ArgumentCaptor.forClass(NodeCacheListener.class);
+        verify(zooKeeperConnector).addCacheListener(callbackCaptor.capture());
+        callbackCaptor.getValue().nodeChanged();
+        Assert.assertEquals("false", executeCommand("1.2.3.3").get(0).getValue());
+
+        when(fileSystem.openInputStream(anyString()))
+                .thenAnswer(x -> new ByteArrayInputStream(simpleOneField.replace("false", "true").getBytes()));
+        callbackCaptor.getValue().nodeChanged();
+
+        Assert.assertEquals("true", executeCommand("1.2.3.3").get(0).getValue());
+        Assert.assertEquals(0, tableRegistry.size());
+    }
+
+    private EnrichmentPairs executeCommand(String key) {
+        commands.clear();
+        EnrichmentCommand command = new EnrichmentCommand();
+        commands.add(command);
+        command.setTableName("test_table");
+        command.setKey(key);
+        command.setEnrichmentFields(new ArrayList<>(Arrays.asList(
+                Pair.of("is_malicious", "siembol:is_malicious"))));
+        memoryTableBolt.execute(tuple);
+        return (EnrichmentPairs)argumentEmitCaptor.getValue().get(1);
+    }
+
+    @Test
+    public void testTablesUpdateAppliesNewDeltas() throws Exception {
+        ArgumentCaptor<NodeCacheListener> callbackCaptor = ArgumentCaptor.forClass(NodeCacheListener.class);
+        verify(zooKeeperConnector).addCacheListener(callbackCaptor.capture());
+        when(fileSystem.openInputStream(eq("/siembol/tables/enrichment/test_delta_1.json")))
+                .thenAnswer(x -> new ByteArrayInputStream("{\"1.2.3.1\" : null}".getBytes()));
+        when(fileSystem.openInputStream(eq("/siembol/tables/enrichment/test_delta_2.json")))
+                .thenAnswer(x -> new ByteArrayInputStream("{\"1.2.3.3\" : {\"is_malicious\" : \"true\"}}".getBytes()));
+
+        when(zooKeeperConnector.getData()).thenReturn(tablesUpdateOneDelta);
+        callbackCaptor.getValue().nodeChanged();
+        Assert.assertTrue(executeCommand("1.2.3.1").isEmpty());
+        Assert.assertEquals("false", executeCommand("1.2.3.3").get(0).getValue());
+
+        when(zooKeeperConnector.getData()).thenReturn(tablesUpdateTwoDeltas);
+        callbackCaptor.getValue().nodeChanged();
+        Assert.assertTrue(executeCommand("1.2.3.1").isEmpty());
+        Assert.assertEquals("true", executeCommand("1.2.3.3").get(0).getValue());
+        Assert.assertEquals("true", executeCommand("1.2.3.2").get(0).getValue());
+
+        verify(fileSystem, times(1)).openInputStream(eq("/siembol/tables/enrichment/test.json"));
+        verify(fileSystem, times(1)).openInputStream(eq("/siembol/tables/enrichment/test_delta_1.json"));
+        verify(fileSystem, times(1)).openInputStream(eq("/siembol/tables/enrichment/test_delta_2.json"));
+        Assert.assertEquals(2, tableRegistry.size());
+    }
+
+    @Test
+    public void testDeltasSharedByExecutors() throws Exception {
+        when(fileSystem.openInputStream(eq("/siembol/tables/enrichment/test_delta_1.json")))
+                .thenAnswer(x -> new ByteArrayInputStream("{\"1.2.3.1\" : null}".getBytes()));
+        when(zooKeeperConnector.getData()).thenReturn(tablesUpdateOneDelta);
+        MemoryTableEnrichmentBolt first = new MemoryTableEnrichmentBolt(attributes, zooKeeperConnectorFactory,
+                fileSystemFactory, tableRegistry);
+        first.prepare(null, null, collector);
+        MemoryTableEnrichmentBolt second = new MemoryTableEnrichmentBolt(attributes, zooKeeperConnectorFactory,
+                fileSystemFactory, tableRegistry);
+        second.prepare(null, null, collector);
+
+        verify(fileSystem, times(1)).openInputStream(eq("/siembol/tables/enrichment/test_delta_1.json"));
+        Assert.assertEquals(2, tableRegistry.size());
+
+        first.cleanup();
+        second.cleanup();
+        Assert.assertEquals(1, tableRegistry.size());
+    }
+
+    @Test
+    public void testDeltaRewrittenOnSamePath() throws Exception {
+        ArgumentCaptor<NodeCacheListener> callbackCaptor = ArgumentCaptor.forClass(NodeCacheListener.class);
+        verify(zooKeeperConnector).addCacheListener(callbackCaptor.capture());
+        when(fileSystem.openInputStream(eq("/siembol/tables/enrichment/test_delta_1.json")))
+                .thenAnswer(x -> new ByteArrayInputStream("{\"1.2.3.1\" : null}".getBytes()));
+        when(zooKeeperConnector.getData()).thenReturn(tablesUpdateOneDelta);
+        callbackCaptor.getValue().nodeChanged();
+        Assert.assertTrue(executeCommand("1.2.3.1").isEmpty());
+
+        when(fileSystem.getFileVersion(eq("/siembol/tables/enrichment/test_delta_1.json")))
+                .thenReturn(Optional.of("2_120"));
+        when(fileSystem.openInputStream(eq("/siembol/tables/enrichment/test_delta_1.json")))
+                .thenAnswer(x -> new ByteArrayInputStream("{\"1.2.3.3\" : null}".getBytes()));
+        callbackCaptor.getValue().nodeChanged();
+        Assert.assertEquals("true", executeCommand("1.2.3.1").get(0).getValue());
+        Assert.assertTrue(executeCommand("1.2.3.3").isEmpty());
+
+        verify(fileSystem, times(1)).openInputStream(eq("/siembol/tables/enrichment/test.json"));
+        verify(fileSystem, times(2)).openInputStream(eq("/siembol/tables/enrichment/test_delta_1.json"));
+        Assert.assertEquals(2, tableRegistry.size());
+    }
+
+    @Test
+    public void testUnversionedDeltaNotShared() throws Exception {
+        ArgumentCaptor<NodeCacheListener> callbackCaptor = ArgumentCaptor.forClass(NodeCacheListener.class);
+        verify(zooKeeperConnector).addCacheListener(callbackCaptor.capture());
+        when(fileSystem.getFileVersion(eq("/siembol/tables/enrichment/test_delta_1.json")))
+                .thenReturn(Optional.empty());
+        when(fileSystem.openInputStream(eq("/siembol/tables/enrichment/test_delta_1.json")))
+                .thenAnswer(x -> new ByteArrayInputStream("{\"1.2.3.1\" : null}".getBytes()));
+        when(zooKeeperConnector.getData()).thenReturn(tablesUpdateOneDelta);
+        callbackCaptor.getValue().nodeChanged();
+        callbackCaptor.getValue().nodeChanged();
+        Assert.assertTrue(executeCommand("1.2.3.1").isEmpty());
+
+        verify(fileSystem, times(2)).openInputStream(eq("/siembol/tables/enrichment/test_delta_1.json"));
+        Assert.assertEquals(1, tableRegistry.size());
+    }
 }
@@ -0,0 +1,133 @@
+package uk.co.gresearch.siembol.enrichments.storm.common;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import uk.co.gresearch.siembol.enrichments.table.EnrichmentMemoryTable;
+import uk.co.gresearch.siembol.enrichments.table.EnrichmentTable;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class EnrichmentTableRegistryTest {
+    private EnrichmentTableRegistry registry;
+    private HdfsTable table;
+    private AtomicInteger loads;
+
+    private EnrichmentTable load() {
+        loads.incrementAndGet();
+        return new EnrichmentMemoryTable(new HashMap<>());
+    }
+
+    private HdfsTable createTable(String name, String path) {
+        HdfsTable ret = new HdfsTable();
+        ret.setName(name);
+        ret.setPath(path);
+        ret.setVersion("1_100");
+        return ret;
+    }
+
+    @Before
+    public void setUp() {
+        registry = new EnrichmentTableRegistry();
+        table = createTable("test_table", "/siembol/tables/test.json");
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    public void testAcquireRelease() throws Exception {
+        EnrichmentTable first = registry.acquire(table, this::load);
+        EnrichmentTable second = registry.acquire(createTable("test_table", "/siembol/tables/test.json"), this::load);
+        Assert.assertSame(first, second);
+        Assert.assertEquals(1, loads.get());
+        Assert.assertEquals(2, registry.getReferences(table));
+
+        registry.release(table);
+        Assert.assertEquals(1, registry.size());
+        registry.release(table);
+        Assert.assertEquals(0, registry.size());
+        Assert.assertEquals(0, registry.getReferences(table));
+
+        Assert.assertNotSame(first, registry.acquire(table, this::load));
+        Assert.assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void testNewVersion() throws Exception {
+        HdfsTable newTable = createTable("test_table", "/siembol/tables/test_2.json");
+        EnrichmentTable first = registry.acquire(table, this::load);
+        Assert.assertNotSame(first, registry.acquire(newTable, this::load));
+        Assert.assertEquals(2, registry.size());
+
+        registry.release(table);
+        Assert.assertEquals(1, registry.size());
+        Assert.assertEquals(1, registry.getReferences(newTable));
+    }
+
+    @Test
+    public void testNewVersionOnSamePath() throws Exception {
+        table.setVersion("1_100");
+        HdfsTable newTable = createTable("test_table", "/siembol/tables/test.json");
+        newTable.setVersion("2_120");
+        EnrichmentTable first = registry.acquire(table, this::load);
+        Assert.assertNotSame(first, registry.acquire(newTable, this::load));
+        Assert.assertEquals(2, loads.get());
+
+        registry.release(table);
+        Assert.assertEquals(1, registry.size());
+        Assert.assertEquals(1, registry.getReferences(newTable));
+    }
+
+    @Test
+    public void testUnversionedTableNotShared() throws Exception {
+        table.setVersion(null);
+        EnrichmentTable first = registry.acquire(table, this::load);
+        Assert.assertNotSame(first, registry.acquire(table, this::load));
+        Assert.assertEquals(2, loads.get());
+        Assert.assertEquals(0, registry.size());
+
+        registry.release(table);
+        Assert.assertEquals(0, registry.getReferences(table));
+    }
+
+    @Test
+    public void testLoadingException() throws Exception {
+        try {
+            registry.acquire(table, () -> {
+                throw new IOException();
+            });
+            Assert.fail();
+        } catch (IOException e) {
+            Assert.assertEquals(0, registry.size());
+        }
+
+        registry.acquire(table, this::load);
+        Assert.assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void testConcurrentAcquireLoadsOnce() throws Exception {
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<EnrichmentTable>> futures = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                futures.add(executorService.submit(() -> registry.acquire(table, this::load)));
+            }
+
+            EnrichmentTable expected = futures.get(0).get();
+            for (Future<EnrichmentTable> future : futures) {
+                Assert.assertSame(expected, future.get());
+            }
+            Assert.assertEquals(1, loads.get());
+            Assert.assertEquals(16, registry.getReferences(table));
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+}
@@ -19,6 +19,7 @@ import uk.co.gresearch.siembol.parsers.factory.ParserFactoryImpl;
 import uk.co.gresearch.siembol.parsers.factory.ParserFactoryResult;
 import uk.co.gresearch.siembol.parsers.model.ParserConfigDto;
 import uk.co.gresearch.siembol.parsers.model.ParsersConfigDto;
+import uk.co.gresearch.siembol.parsers.netflow.NetflowTemplateStore;
 
 import java.io.IOException;
 import java.util.Arrays;
@@ -53,6 +54,16 @@ public class ParsingApplicationFactoryImpl implements ParsingApplicationFactory
         parserFactory = ParserFactoryImpl.createParserFactory();
     }
 
+    /**
+     * Creates a parsing application factory with netflow parsers sharing the template store
+     * @param netflowTemplateStore template store shared by netflow parsers of created applications
+     * @throws Exception if the factory can not be created
+     */
+    public ParsingApplicationFactoryImpl(NetflowTemplateStore netflowTemplateStore) throws Exception {
+        jsonSchemaValidator =  new SiembolJsonSchemaValidator(ParsingApplicationsDto.class);
+        parserFactory = ParserFactoryImpl.createParserFactory(netflowTemplateStore);
+    }
+
     @Override
     public ParsingApplicationFactoryResult getSchema() {
         ParsingApplicationFactoryAttributes attributes = new ParsingApplicationFactoryAttributes();
@@ -153,7 +164,7 @@ public class ParsingApplicationFactoryImpl implements ParsingApplicationFactory
             return SingleApplicationParser.builder()
                     .parser(parsingSettingsDto.getSingleParser().getOutputTopic(),
                             new SerializableSiembolParser(parsersMap
-                                    .get(parsingSettingsDto.getSingleParser().getParserName())))
+                                    .get(parsingSettingsDto.getSingleParser().getParserName()), parserFactory))
                     .parseMetadata(appSettings.getParseMetadata())
                     .addGuidToMessages(true)
                     .errorTopic(appSettings.getErrorTopic())
@@ -178,10 +189,12 @@ public class ParsingApplicationFactoryImpl implements ParsingApplicationFactory
 
         RoutingParsingApplicationParser.Builder<RoutingParsingApplicationParser> builder =
                 RoutingParsingApplicationParser.builder()
-                        .routerParser(new SerializableSiembolParser(parsersMap.get(routingParser.getRouterParserName())))
+                        .routerParser(new SerializableSiembolParser(
+                                parsersMap.get(routingParser.getRouterParserName()), parserFactory))
                         .defaultParser(routingParser.getDefaultParser().getOutputTopic(),
                                 new SerializableSiembolParser(
-                                        parsersMap.get(routingParser.getDefaultParser().getParserName())))
+                                        parsersMap.get(routingParser.getDefaultParser().getParserName()),
+                                        parserFactory))
                         .routingConditionField(routingParser.getRoutingField())
                         .routingMessageField(routingParser.getRoutingMessage())
                         .mergedFields(routingParser.getMergedFields());
@@ -192,7 +205,8 @@ public class ParsingApplicationFactoryImpl implements ParsingApplicationFactory
                 throw new IllegalArgumentException(errorMsg);
             }
             builder.addParser(routedParser.getParserProperties().getOutputTopic(),
-                    new SerializableSiembolParser(parsersMap.get(routedParser.getParserProperties().getParserName())),
+                    new SerializableSiembolParser(
+                            parsersMap.get(routedParser.getParserProperties().getParserName()), parserFactory),
                     routedParser.getRoutingFieldPattern());
         }
 
@@ -0,0 +1,152 @@
+package uk.co.gresearch.siembol.parsers.application.parsing;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Router that selects the first parser with a routing pattern matching a message.
+ * Patterns are compiled when the router is created. Literal patterns are evaluated by a hash lookup,
+ * literal patterns followed by .* are evaluated by a prefix tree and the remaining patterns are evaluated
+ * by regular expressions only if they could select a parser with a lower index than the parser
+ * already selected by the lookups. Regular expressions starting with a literal are skipped
+ * if the message does not start with the literal.
+ */
+public class CompiledRouter implements Serializable {
+    private static final long serialVersionUID = 1L;
+    public static final int NO_MATCH = -1;
+    private static final String MATCH_ANY_SUFFIX = ".*";
+    private static final String REGEX_META_CHARACTERS = "\\[](){}.*+?^$|";
+    private static final String QUANTIFIER_CHARACTERS = "*+?{";
+    private static final char BEGIN_ANCHOR = '^';
+    private static final char ALTERNATION = '|';
+
+    private final Map<String, Integer> exactPatterns = new HashMap<>();
+    private final PrefixNode prefixPatterns = new PrefixNode();
+    private final List<RegexPattern> regexPatterns = new ArrayList<>();
+
+    private static class PrefixNode implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private final Map<Character, PrefixNode> children = new HashMap<>();
+        private int index = Integer.MAX_VALUE;
+    }
+
+    private static class RegexPattern implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private final int index;
+        private final String literalPrefix;
+        private final Pattern pattern;
+
+        RegexPattern(int index, String literalPrefix, Pattern pattern) {
+            this.index = index;
+            this.literalPrefix = literalPrefix;
+            this.pattern = pattern;
+        }
+    }
+
+    /**
+     * Creates a router from routing patterns
+     * @param patterns the list of regular expressions matched against the whole routing field,
+     *                 the index of a pattern in the list is the index of the selected parser
+     */
+    public CompiledRouter(List<String> patterns) {
+        for (int i = 0; i < patterns.size(); i++) {
+            addPattern(i, patterns.get(i));
+        }
+    }
+
+    private static boolean isLiteral(String str) {
+        for (int i = 0; i < str.length(); i++) {
+            if (REGEX_META_CHARACTERS.indexOf(str.charAt(i)) >= 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String getLiteralPrefix(String pattern) {
+        if (pattern.indexOf(ALTERNATION) >= 0) {
+            return "";
+        }
+
+        int end = 0;
+        while (end < pattern.length() && REGEX_META_CHARACTERS.indexOf(pattern.charAt(end)) < 0) {
+            end++;
+        }
+
+        if (end < pattern.length() && QUANTIFIER_CHARACTERS.indexOf(pattern.charAt(end)) >= 0) {
+            //NOTE: the quantifier is applied on the last character of the literal
+            end = Math.max(0, end - 1);
+        }
+        return pattern.substring(0, end);
+    }
+
+    private void addPattern(int index, String pattern) {
+        //NOTE: the whole routing field is matched so the begin anchor can be ignored
+        String current = !pattern.isEmpty() && pattern.charAt(0) == BEGIN_ANCHOR
+                ? pattern.substring(1)
+                : pattern;
+
+        if (isLiteral(current)) {
+            exactPatterns.putIfAbsent(current, index);
+            return;
+        }
+
+        if (current.endsWith(MATCH_ANY_SUFFIX)) {
+            String prefix = current.substring(0, current.length() - MATCH_ANY_SUFFIX.length());
+            if (isLiteral(prefix)) {
+                addPrefix(prefix, index);
+                return;
+            }
+        }
+
+        regexPatterns.add(new RegexPattern(index, getLiteralPrefix(current), Pattern.compile(pattern, Pattern.DOTALL)));
+    }
+
+    private void addPrefix(String prefix, int index) {
+        PrefixNode node = prefixPatterns;
+        for (int i = 0; i < prefix.length(); i++) {
+            node = node.children.computeIfAbsent(prefix.charAt(i), x -> new PrefixNode());
+        }
+        node.index = Math.min(node.index, index);
+    }
+
+    private int getPrefixIndex(String message) {
+        PrefixNode node = prefixPatterns;
+        int ret = node.index;
+        for (int i = 0; i < message.length(); i++) {
+            node = node.children.get(message.charAt(i));
+            if (node == null) {
+                break;
+            }
+            ret = Math.min(ret, node.index);
+        }
+        return ret;
+    }
+
+    /**
+     * Selects the parser for a message
+     * @param message the value of the routing field
+     * @return the index of the first pattern that matches the message or NO_MATCH
+     */
+    public int getParserIndex(String message) {
+        Integer exactIndex = exactPatterns.get(message);
+        int ret = Math.min(exactIndex != null ? exactIndex : Integer.MAX_VALUE, getPrefixIndex(message));
+
+        for (RegexPattern regex : regexPatterns) {
+            if (regex.index >= ret) {
+                break;
+            }
+
+            if (message.startsWith(regex.literalPrefix) && regex.pattern.matcher(message).matches()) {
+                ret = regex.index;
+                break;
+            }
+        }
+
+        return ret == Integer.MAX_VALUE ? NO_MATCH : ret;
+    }
+}
@@ -73,6 +73,13 @@ public abstract class ParsingApplicationParser implements Serializable {
 
     protected abstract List<ParserResult> parseInternally(String metadata, byte[] message);
 
+    /**
+     * Returns whether a parser of the application keeps a state between messages,
+     * so the messages of a source should be parsed in order by one thread
+     * @return true if the application contains a stateful parser, otherwise false
+     */
+    public abstract boolean isStateful();
+
     public ArrayList<ParsingApplicationResult> parse(String metadata, byte[] message) {
         ArrayList<ParsingApplicationResult> ret = new ArrayList<>();
         try {
@@ -8,7 +8,6 @@ import java.lang.invoke.MethodHandles;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Pattern;
 
 public class RoutingParsingApplicationParser extends ParsingApplicationParser {
     private static final long serialVersionUID = 1L;
@@ -16,12 +15,14 @@ public class RoutingParsingApplicationParser extends ParsingApplicationParser {
             .getLogger(MethodHandles.lookup().lookupClass());
     private static final String MISSING_ROUTER_FIELDS = "Missing routing fields: %s, %s, in the parsed message: %s";
     private static final String MISSING_ARGUMENTS = "Missing arguments in routing parsing application";
+    private static final String MATCH_ALL_PATTERN = ".*";
 
     private final String routingConditionField;
     private final String routingMessageField;
     private final SiembolParserWrapper routerParser;
     private final ArrayList<String> mergedFields;
     private final ArrayList<SiembolParserWrapper> parsers;
+    private final CompiledRouter router;
 
     protected RoutingParsingApplicationParser(Builder<?> builder) {
         super(builder);
@@ -30,6 +31,7 @@ public class RoutingParsingApplicationParser extends ParsingApplicationParser {
         this.mergedFields = builder.mergedFields;
         this.parsers = builder.parsers;
         this.routerParser = builder.routerParser;
+        this.router = new CompiledRouter(builder.routingPatterns);
     }
 
     @Override
@@ -55,27 +57,31 @@ public class RoutingParsingApplicationParser extends ParsingApplicationParser {
 
             String messageToParse = parsedMsg.get(routingMessageField).toString();
             String messageToCondition = parsedMsg.get(routingConditionField).toString();
-            for (SiembolParserWrapper parser : parsers) {
-                if (!parser.checkCondition(messageToCondition)) {
-                    continue;
-                }
+            int parserIndex = router.getParserIndex(messageToCondition);
+            if (parserIndex == CompiledRouter.NO_MATCH) {
+                continue;
+            }
 
-                ParserResult result = parser.parseToResult(metadata, messageToParse.getBytes());
-                if (result.getParsedMessages() != null && !result.getParsedMessages().isEmpty()) {
-                    for (String field : mergedFields) {
-                        if (parsedMsg.containsKey(field)) {
-                            result.getParsedMessages().forEach(x -> x.put(field, parsedMsg.get(field)));
-                        }
+            //NOTE: the routed message is passed as a string in order to avoid encoding and decoding it again
+            ParserResult result = parsers.get(parserIndex).parseTextToResult(metadata, messageToParse);
+            if (result.getParsedMessages() != null && !result.getParsedMessages().isEmpty()) {
+                for (String field : mergedFields) {
+                    if (parsedMsg.containsKey(field)) {
+                        result.getParsedMessages().forEach(x -> x.put(field, parsedMsg.get(field)));
                     }
                 }
-                ret.add(result);
-                break;
             }
+            ret.add(result);
         }
 
         return ret;
     }
 
+    @Override
+    public boolean isStateful() {
+        return routerParser.isStateful() || parsers.stream().anyMatch(SiembolParserWrapper::isStateful);
+    }
+
     public static Builder<RoutingParsingApplicationParser> builder() {
         return new Builder<RoutingParsingApplicationParser>() {
             private static final long serialVersionUID = 1L;
@@ -90,6 +96,7 @@ public class RoutingParsingApplicationParser extends ParsingApplicationParser {
                 }
 
                 parsers.add(defaultParser);
+                routingPatterns.add(MATCH_ALL_PATTERN);
                 return new RoutingParsingApplicationParser(this);
             }
         };
@@ -105,6 +112,7 @@ public class RoutingParsingApplicationParser extends ParsingApplicationParser {
         protected SiembolParserWrapper routerParser;
         protected SiembolParserWrapper defaultParser;
         protected ArrayList<SiembolParserWrapper> parsers =  new ArrayList<>();
+        protected ArrayList<String> routingPatterns = new ArrayList<>();
 
         public Builder<T> routingConditionField(String routingConditionField) {
             this.routingConditionField = routingConditionField;
@@ -124,21 +132,18 @@ public class RoutingParsingApplicationParser extends ParsingApplicationParser {
         }
 
         public Builder<T> routerParser(SerializableSiembolParser siembolParser) throws Exception {
-            final RouterCondition alwaysMatch = x -> true;
-            this.routerParser = new SiembolParserWrapper(alwaysMatch, siembolParser, null);
+            this.routerParser = new SiembolParserWrapper(siembolParser, null);
             return this;
         }
 
         public Builder<T> defaultParser(String topic, SerializableSiembolParser siembolParser) throws Exception {
-            final RouterCondition alwaysMatch = x -> true;
-            defaultParser = new SiembolParserWrapper(alwaysMatch, siembolParser, topic);
+            defaultParser = new SiembolParserWrapper(siembolParser, topic);
             return this;
         }
 
         public Builder<T> addParser(String topic, SerializableSiembolParser siembolParser, String pattern) throws Exception {
-            final Pattern conditionPattern = Pattern.compile(pattern, Pattern.DOTALL);
-            final RouterCondition condition = x -> conditionPattern.matcher(x).matches();
-            parsers.add(new SiembolParserWrapper(condition, siembolParser, topic));
+            parsers.add(new SiembolParserWrapper(siembolParser, topic));
+            routingPatterns.add(pattern);
             return this;
         }
 
@@ -10,20 +10,14 @@ import java.util.Map;
 
 public class SiembolParserWrapper implements SiembolParser, Serializable {
     private static final long serialVersionUID = 1L;
-    private final RouterCondition condition;
     private final SerializableSiembolParser parser;
     private final String topic;
 
-    public SiembolParserWrapper(RouterCondition condition, SerializableSiembolParser parser, String topic) {
-        this.condition = condition;
+    public SiembolParserWrapper(SerializableSiembolParser parser, String topic) {
         this.parser = parser;
         this.topic = topic;
     }
 
-    boolean checkCondition(String message) {
-        return condition.apply(message);
-    }
-
     @Override
     public List<Map<String, Object>> parse(byte[] message) {
         return parser.parse(message);
@@ -37,8 +31,21 @@ public class SiembolParserWrapper implements SiembolParser, Serializable {
         return result;
     }
 
+    @Override
+    public ParserResult parseTextToResult(String metadata, String message) {
+        ParserResult result = parser.parseTextToResult(metadata, message);
+        result.setSourceType(getSourceType());
+        result.setTopic(topic);
+        return result;
+    }
+
     @Override
     public String getSourceType() {
         return parser.getSourceType();
     }
+
+    @Override
+    public boolean isStateful() {
+        return parser.isStateful();
+    }
 }
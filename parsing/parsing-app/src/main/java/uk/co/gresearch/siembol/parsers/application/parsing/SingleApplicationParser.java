@@ -28,6 +28,11 @@ public class SingleApplicationParser extends ParsingApplicationParser {
         return ret;
     }
 
+    @Override
+    public boolean isStateful() {
+        return parser.isStateful();
+    }
+
     public static Builder<SingleApplicationParser> builder() {
         return new Builder<SingleApplicationParser>() {
             private static final long serialVersionUID = 1L;
@@ -49,8 +54,7 @@ public class SingleApplicationParser extends ParsingApplicationParser {
         protected SiembolParserWrapper parser;
 
         public Builder<T> parser(String topic, SerializableSiembolParser siembolParser) throws Exception {
-            final RouterCondition alwaysMatch = x -> true;
-            parser = new SiembolParserWrapper(alwaysMatch, siembolParser, topic);
+            parser = new SiembolParserWrapper(siembolParser, topic);
             return this;
         }
 
@@ -0,0 +1,71 @@
+package uk.co.gresearch.siembol.parsers.application.parsing;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+public class CompiledRouterTest {
+    private final List<String> patterns = Arrays.asList(
+            "^cisco_asa",
+            "palo.*",
+            "fortigate\\d+",
+            "checkpoint",
+            "pa.*",
+            "(?i)SYSLOG_.*",
+            "sym(an)?tec",
+            ".*");
+    private final CompiledRouter router = new CompiledRouter(patterns);
+
+    private int getExpectedIndex(String message) {
+        for (int i = 0; i < patterns.size(); i++) {
+            if (Pattern.compile(patterns.get(i), Pattern.DOTALL).matcher(message).matches()) {
+                return i;
+            }
+        }
+        return CompiledRouter.NO_MATCH;
+    }
+
+    @Test
+    public void testExactMatch() {
+        Assert.assertEquals(0, router.getParserIndex("cisco_asa"));
+        Assert.assertEquals(3, router.getParserIndex("checkpoint"));
+        Assert.assertEquals(7, router.getParserIndex("cisco_asa2"));
+    }
+
+    @Test
+    public void testPrefixMatch() {
+        Assert.assertEquals(1, router.getParserIndex("palo"));
+        Assert.assertEquals(1, router.getParserIndex("paloalto\nnext line"));
+        Assert.assertEquals(4, router.getParserIndex("pan"));
+        Assert.assertEquals(7, router.getParserIndex("p"));
+    }
+
+    @Test
+    public void testRegexMatch() {
+        Assert.assertEquals(2, router.getParserIndex("fortigate100"));
+        Assert.assertEquals(7, router.getParserIndex("fortigate"));
+        Assert.assertEquals(5, router.getParserIndex("syslog_linux"));
+        Assert.assertEquals(6, router.getParserIndex("symtec"));
+        Assert.assertEquals(6, router.getParserIndex("symantec"));
+    }
+
+    @Test
+    public void testNoMatch() {
+        CompiledRouter noDefault = new CompiledRouter(Arrays.asList("a", "b.*", "c\\d"));
+        Assert.assertEquals(CompiledRouter.NO_MATCH, noDefault.getParserIndex("d"));
+        Assert.assertEquals(CompiledRouter.NO_MATCH, noDefault.getParserIndex("c"));
+        Assert.assertEquals(CompiledRouter.NO_MATCH, noDefault.getParserIndex(""));
+    }
+
+    @Test
+    public void testSameAsSequentialMatching() {
+        String[] messages = {"", "cisco_asa", "^cisco_asa", "palo", "pa", "p", "fortigate1", "fortigate",
+                "checkpoint", "checkpoint ", "SYSLOG_", "Syslog_x", "symantec", "symtec", "syman", "pal"};
+        for (String message : messages) {
+            Assert.assertEquals(message, getExpectedIndex(message), router.getParserIndex(message));
+        }
+    }
+}
@@ -129,12 +129,12 @@ public class RoutingParsingApplicationParserTest {
 
         routerParserResult.getParsedMessages().remove(1);
         when(routerParser.parseToResult(metadata, input)).thenReturn(routerParserResult);
-        when(defaultParser.parseToResult(metadata, "dummy".getBytes())).thenReturn(routedParserResult1);
+        when(defaultParser.parseTextToResult(metadata, "dummy")).thenReturn(routedParserResult1);
 
         List<ParsingApplicationResult> result = appParser.parse(metadata, input);
         verify(timeProvider, times(1)).getCurrentTimeInMs();
         verify(routerParser, times(1)).parseToResult(metadata, input);
-        verify(defaultParser, times(1)).parseToResult(metadata, "dummy".getBytes());
+        verify(defaultParser, times(1)).parseTextToResult(metadata, "dummy");
         Assert.assertEquals(outputTopic, result.get(0).getTopic());
         Assert.assertEquals(1, result.size());
         Assert.assertEquals(1, result.get(0).getMessages().size());
@@ -185,12 +185,12 @@ public class RoutingParsingApplicationParserTest {
 
         routerParserResult.getParsedMessages().remove(1);
         when(routerParser.parseToResult(metadata, input)).thenReturn(routerParserResult);
-        when(defaultParser.parseToResult(metadata, "dummy".getBytes())).thenReturn(routedParserResult1);
+        when(defaultParser.parseTextToResult(metadata, "dummy")).thenReturn(routedParserResult1);
 
         List<ParsingApplicationResult> result = appParser.parse(metadata, input);
         verify(timeProvider, times(1)).getCurrentTimeInMs();
         verify(routerParser, times(1)).parseToResult(metadata, input);
-        verify(defaultParser, times(1)).parseToResult(metadata, "dummy".getBytes());
+        verify(defaultParser, times(1)).parseTextToResult(metadata, "dummy");
         Assert.assertEquals(outputTopic, result.get(0).getTopic());
         Assert.assertEquals(1, result.size());
         Assert.assertEquals(1, result.get(0).getMessages().size());
@@ -276,12 +276,12 @@ public class RoutingParsingApplicationParserTest {
 
         routerParserResult.getParsedMessages().remove(1);
         when(routerParser.parseToResult(metadata, input)).thenReturn(routerParserResult);
-        when(defaultParser.parseToResult(metadata, "dummy".getBytes())).thenReturn(routedParserResult1);
+        when(defaultParser.parseTextToResult(metadata, "dummy")).thenReturn(routedParserResult1);
 
         List<ParsingApplicationResult> result = appParser.parse(metadata, input);
         verify(timeProvider, times(1)).getCurrentTimeInMs();
         verify(routerParser, times(1)).parseToResult(metadata, input);
-        verify(defaultParser, times(1)).parseToResult(metadata, "dummy".getBytes());
+        verify(defaultParser, times(1)).parseTextToResult(metadata, "dummy");
         Assert.assertEquals(outputTopic, result.get(0).getTopic());
         Assert.assertEquals(1, result.size());
         Assert.assertEquals(1, result.get(0).getMessages().size());
@@ -309,13 +309,13 @@ public class RoutingParsingApplicationParserTest {
                 .build();
 
         when(routerParser.parseToResult(metadata, input)).thenReturn(routerParserResult);
-        when(routedParser1.parseToResult(metadata, "dummy".getBytes())).thenReturn(routedParserResult1);
-        when(routedParser2.parseToResult(metadata, "dummy".getBytes())).thenReturn(routedParserResult2);
+        when(routedParser1.parseTextToResult(metadata, "dummy")).thenReturn(routedParserResult1);
+        when(routedParser2.parseTextToResult(metadata, "dummy")).thenReturn(routedParserResult2);
 
         List<ParsingApplicationResult> result = appParser.parse(metadata, input);
         verify(timeProvider, times(1)).getCurrentTimeInMs();
-        verify(routedParser1, times(1)).parseToResult(metadata, "dummy".getBytes());
-        verify(routedParser2, times(1)).parseToResult(metadata, "dummy".getBytes());
+        verify(routedParser1, times(1)).parseTextToResult(metadata, "dummy");
+        verify(routedParser2, times(1)).parseTextToResult(metadata, "dummy");
 
         Assert.assertEquals(2, result.size());
         Assert.assertEquals("dummy1", result.get(0).getTopic());
@@ -342,13 +342,13 @@ public class RoutingParsingApplicationParserTest {
                 .build();
 
         when(routerParser.parseToResult(metadata, input)).thenReturn(routerParserResult);
-        when(routedParser1.parseToResult(metadata, "dummy".getBytes())).thenReturn(routedParserResult1);
-        when(routedParser2.parseToResult(metadata, "dummy".getBytes())).thenReturn(routedParserResult2);
+        when(routedParser1.parseTextToResult(metadata, "dummy")).thenReturn(routedParserResult1);
+        when(routedParser2.parseTextToResult(metadata, "dummy")).thenReturn(routedParserResult2);
 
         List<ParsingApplicationResult> result = appParser.parse(metadata, input);
         verify(timeProvider, times(1)).getCurrentTimeInMs();
-        verify(routedParser1, times(1)).parseToResult(metadata, "dummy".getBytes());
-        verify(routedParser2, times(1)).parseToResult(metadata, "dummy".getBytes());
+        verify(routedParser1, times(1)).parseTextToResult(metadata, "dummy");
+        verify(routedParser2, times(1)).parseTextToResult(metadata, "dummy");
 
         Assert.assertEquals(2, result.size());
         Assert.assertEquals("dummy1", result.get(0).getTopic());
@@ -378,13 +378,13 @@ public class RoutingParsingApplicationParserTest {
                 .build();
 
         when(routerParser.parseToResult(metadata, input)).thenReturn(routerParserResult);
-        when(routedParser1.parseToResult(metadata, "dummy".getBytes())).thenReturn(routedParserResult1);
-        when(routedParser2.parseToResult(metadata, "dummy".getBytes())).thenReturn(routedParserResult2);
+        when(routedParser1.parseTextToResult(metadata, "dummy")).thenReturn(routedParserResult1);
+        when(routedParser2.parseTextToResult(metadata, "dummy")).thenReturn(routedParserResult2);
 
         List<ParsingApplicationResult> result = appParser.parse(metadata, input);
         verify(timeProvider, times(1)).getCurrentTimeInMs();
-        verify(routedParser1, times(1)).parseToResult(metadata, "dummy".getBytes());
-        verify(routedParser2, times(1)).parseToResult(metadata, "dummy".getBytes());
+        verify(routedParser1, times(1)).parseTextToResult(metadata, "dummy");
+        verify(routedParser2, times(1)).parseTextToResult(metadata, "dummy");
 
         Assert.assertEquals(2, result.size());
         Assert.assertEquals("dummy1", result.get(0).getTopic());
@@ -416,13 +416,13 @@ public class RoutingParsingApplicationParserTest {
 
         routedParserResult1.setException(new IllegalStateException("test_exception"));
         when(routerParser.parseToResult(metadata, input)).thenReturn(routerParserResult);
-        when(routedParser1.parseToResult(metadata, "dummy".getBytes())).thenReturn(routedParserResult1);
-        when(routedParser2.parseToResult(metadata, "dummy".getBytes())).thenReturn(routedParserResult2);
+        when(routedParser1.parseTextToResult(metadata, "dummy")).thenReturn(routedParserResult1);
+        when(routedParser2.parseTextToResult(metadata, "dummy")).thenReturn(routedParserResult2);
 
         List<ParsingApplicationResult> result = appParser.parse(metadata, input);
         verify(timeProvider, times(1)).getCurrentTimeInMs();
-        verify(routedParser1, times(1)).parseToResult(metadata, "dummy".getBytes());
-        verify(routedParser2, times(1)).parseToResult(metadata, "dummy".getBytes());
+        verify(routedParser1, times(1)).parseTextToResult(metadata, "dummy");
+        verify(routedParser2, times(1)).parseTextToResult(metadata, "dummy");
 
         Assert.assertEquals(2, result.size());
         Assert.assertEquals("error", result.get(0).getTopic());
@@ -1,7 +1,10 @@
 package uk.co.gresearch.siembol.parsers.common;
 
+import uk.co.gresearch.siembol.common.constants.SiembolMessageFields;
+
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 public class ParserResult {
     private List<Map<String, Object>> parsedMessages;
@@ -40,4 +43,17 @@ public class ParserResult {
     public void setSourceType(String sourceType) {
         this.sourceType = sourceType;
     }
+
+    static ParserResult fromParsing(String sourceType, Supplier<List<Map<String, Object>>> parsing) {
+        ParserResult result = new ParserResult();
+        result.setSourceType(sourceType);
+        try {
+            List<Map<String, Object>> parsed = parsing.get();
+            parsed.forEach(x -> x.put(SiembolMessageFields.SENSOR_TYPE.toString(), sourceType));
+            result.setParsedMessages(parsed);
+        } catch (Throwable e) {
+            result.setException(e);
+        }
+        return result;
+    }
 }
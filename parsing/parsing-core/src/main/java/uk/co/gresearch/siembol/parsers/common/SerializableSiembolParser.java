@@ -1,5 +1,6 @@
 package uk.co.gresearch.siembol.parsers.common;
 
+import uk.co.gresearch.siembol.parsers.factory.ParserFactory;
 import uk.co.gresearch.siembol.parsers.factory.ParserFactoryImpl;
 import uk.co.gresearch.siembol.parsers.factory.ParserFactoryResult;
 
@@ -20,10 +21,12 @@ public class SerializableSiembolParser implements SiembolParser, Serializable {
     private String sourceType;
 
     public SerializableSiembolParser(String parserConfig) throws Exception {
+        this(parserConfig, ParserFactoryImpl.createParserFactory());
+    }
+
+    public SerializableSiembolParser(String parserConfig, ParserFactory parserFactory) {
         this.parserConfig = parserConfig;
-        ParserFactoryResult result = ParserFactoryImpl
-                .createParserFactory()
-                .create(parserConfig);
+        ParserFactoryResult result = parserFactory.create(parserConfig);
 
         if (result.getStatusCode() != OK || result.getAttributes().getSiembolParser() == null) {
             throw new IllegalArgumentException(String.format(WRONG_CONFIG_EXCEPTION_MSG,
@@ -44,6 +47,15 @@ public class SerializableSiembolParser implements SiembolParser, Serializable {
         return parser.parse(metadata, message);
     }
 
+    @Override
+    public List<Map<String, Object>> parseText(String metadata, String message) {
+        return parser.parseText(metadata, message);
+    }
+
+    @Override
+    public boolean isStateful() {
+        return parser.isStateful();
+    }
 
     @Override
     public String getSourceType() {
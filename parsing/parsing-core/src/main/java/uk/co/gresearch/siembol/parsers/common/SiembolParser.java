@@ -1,10 +1,10 @@
 package uk.co.gresearch.siembol.parsers.common;
 
-import uk.co.gresearch.siembol.common.constants.SiembolMessageFields;
-
 import java.util.List;
 import java.util.Map;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+
 public interface SiembolParser {
 
     default List<Map<String, Object>> parse(String metadata, byte[] message) {
@@ -14,19 +14,33 @@ public interface SiembolParser {
     List<Map<String, Object>> parse(byte[] message);
 
     default ParserResult parseToResult(String metadata, byte[] message) {
-        ParserResult result = new ParserResult();
-        result.setSourceType(getSourceType());
-        try {
-            List<Map<String, Object>> parsed = parse(metadata, message);
-            parsed.forEach(x -> x.put(SiembolMessageFields.SENSOR_TYPE.toString(), getSourceType()));
-            result.setParsedMessages(parsed);
-        } catch (Throwable e) {
-            result.setException(e);
-        }
-        return result;
+        return ParserResult.fromParsing(getSourceType(), () -> parse(metadata, message));
+    }
+
+    /**
+     * Parses a message that is already decoded into a string, e.g. a message routed by another parser
+     * @param metadata metadata of the message
+     * @param message the message to parse
+     * @return the list of parsed messages
+     */
+    default List<Map<String, Object>> parseText(String metadata, String message) {
+        return parse(metadata, message.getBytes(UTF_8));
+    }
+
+    default ParserResult parseTextToResult(String metadata, String message) {
+        return ParserResult.fromParsing(getSourceType(), () -> parseText(metadata, message));
     }
 
     default String getSourceType() {
         return "unknown";
     }
+
+    /**
+     * Returns whether the parser keeps a state between messages, e.g. netflow templates,
+     * so the messages of a source should be parsed in order by one thread
+     * @return true if the parser is stateful, otherwise false
+     */
+    default boolean isStateful() {
+        return false;
+    }
 }
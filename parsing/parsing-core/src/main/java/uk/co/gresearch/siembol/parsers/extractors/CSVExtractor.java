@@ -32,7 +32,7 @@ public class CSVExtractor extends ParserExtractor {
                 delimiterOffset = message.length();
             }
 
-            Object value = getValue(message.substring(offset, delimiterOffset));
+            Object value = getValue(message, offset, delimiterOffset);
             if (!shouldSkipEmptyValues()
                     || !"".equals(value)) {
                 values.add(value);
@@ -0,0 +1,47 @@
+package uk.co.gresearch.siembol.parsers.extractors;
+
+/**
+ * Cache of field names that are looked up by a region of a message without creating a substring.
+ * Field names usually repeat in messages of a source, so a name is allocated only on a cache miss.
+ */
+public class FieldNameCache {
+    private static final int DEFAULT_CAPACITY = 256;
+    private static final int MAX_CACHED_NAME_LENGTH = 64;
+    private final String[] names;
+    private final int mask;
+
+    public FieldNameCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public FieldNameCache(int capacity) {
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        names = new String[size];
+        mask = size - 1;
+    }
+
+    public String get(String message, int beginIndex, int endIndex) {
+        int length = endIndex - beginIndex;
+        if (length > MAX_CACHED_NAME_LENGTH) {
+            return message.substring(beginIndex, endIndex);
+        }
+
+        int hash = 0;
+        for (int i = beginIndex; i < endIndex; i++) {
+            hash = 31 * hash + message.charAt(i);
+        }
+
+        int slot = (hash ^ (hash >>> 16)) & mask;
+        //NOTE: a race on the slot is benign since strings are immutable and the slot is only a hint
+        String current = names[slot];
+        if (current != null
+                && current.length() == length
+                && current.regionMatches(0, message, beginIndex, length)) {
+            return current;
+        }
+
+        current = message.substring(beginIndex, endIndex);
+        names[slot] = current;
+        return current;
+    }
+}
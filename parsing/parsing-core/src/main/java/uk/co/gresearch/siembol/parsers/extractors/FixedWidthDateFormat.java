@@ -0,0 +1,288 @@
+package uk.co.gresearch.siembol.parsers.extractors;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneRules;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Fast path for date formats with fixed width numeric fields such as yyyy-MM-dd'T'HH:mm:ss.SSS.
+ * The fields are parsed on their positions and the epoch millis of the minute are cached in a small
+ * cache keyed by the date prefix of the timestamp, since most timestamps in a batch share the minute.
+ * An empty result means that the timestamp should be parsed by the date time formatter,
+ * e.g. a timestamp with a different width, an invalid date or a minute with a daylight saving time change.
+ */
+class FixedWidthDateFormat {
+    private static final int CACHE_SIZE = 16;
+    private static final long SECONDS_PER_DAY = 24 * 3600L;
+    private static final long LAST_NANO_OF_MINUTE = 60_000_000_000L - 1;
+    private static final int NANOS_DIGITS = 9;
+    private static final int MILLIS_DIGITS = 3;
+
+    private final int length;
+    private final char[] literals;
+    private final int yearPosition;
+    private final int monthPosition;
+    private final int dayPosition;
+    private final int hourPosition;
+    private final int minutePosition;
+    private final int secondPosition;
+    private final int fractionPosition;
+    private final int fractionDigits;
+    private final int prefixLength;
+    private final ZoneRules zoneRules;
+    private final MinuteEntry[] cache = new MinuteEntry[CACHE_SIZE];
+
+    private static class MinuteEntry {
+        private final String prefix;
+        private final long epochMillis;
+
+        MinuteEntry(String prefix, long epochMillis) {
+            this.prefix = prefix;
+            this.epochMillis = epochMillis;
+        }
+    }
+
+    private FixedWidthDateFormat(Builder builder, ZoneId zone) {
+        length = builder.literals.length();
+        literals = builder.literals.toString().toCharArray();
+        yearPosition = builder.year;
+        monthPosition = builder.month;
+        dayPosition = builder.day;
+        hourPosition = builder.hour;
+        minutePosition = builder.minute;
+        secondPosition = builder.second;
+        fractionPosition = builder.fraction;
+        fractionDigits = builder.fractionDigits;
+        prefixLength = builder.minute + 2;
+        zoneRules = zone.getRules();
+    }
+
+    Optional<Long> parse(String message) {
+        if (message.length() != length) {
+            return Optional.empty();
+        }
+
+        for (int i = 0; i < length; i++) {
+            char c = message.charAt(i);
+            if (literals[i] == 0 ? (c < '0' || c > '9') : c != literals[i]) {
+                return Optional.empty();
+            }
+        }
+
+        long ret = getMinuteEpochMillis(message);
+        if (ret == Long.MIN_VALUE) {
+            return Optional.empty();
+        }
+
+        if (secondPosition >= 0) {
+            int second = parseDigits(message, secondPosition, 2);
+            if (second > 59) {
+                return Optional.empty();
+            }
+            ret += second * 1000L;
+        }
+
+        if (fractionPosition >= 0) {
+            //NOTE: the fraction is truncated to milliseconds
+            int digits = Math.min(fractionDigits, MILLIS_DIGITS);
+            int millis = parseDigits(message, fractionPosition, digits);
+            for (int i = digits; i < MILLIS_DIGITS; i++) {
+                millis *= 10;
+            }
+            ret += millis;
+        }
+        return Optional.of(ret);
+    }
+
+    private long getMinuteEpochMillis(String message) {
+        int hash = 0;
+        for (int i = 0; i < prefixLength; i++) {
+            hash = 31 * hash + message.charAt(i);
+        }
+
+        int index = (hash ^ (hash >>> 16)) & (CACHE_SIZE - 1);
+        MinuteEntry entry = cache[index];
+        if (entry != null && message.regionMatches(0, entry.prefix, 0, prefixLength)) {
+            return entry.epochMillis;
+        }
+
+        int year = parseDigits(message, yearPosition, 4);
+        int month = parseDigits(message, monthPosition, 2);
+        int day = parseDigits(message, dayPosition, 2);
+        int hour = parseDigits(message, hourPosition, 2);
+        int minute = parseDigits(message, minutePosition, 2);
+        if (year < 1 || month < 1 || month > 12 || day < 1 || day > getMonthLength(year, month)
+                || hour > 23 || minute > 59) {
+            return Long.MIN_VALUE;
+        }
+
+        long localSeconds = getEpochDay(year, month, day) * SECONDS_PER_DAY + hour * 3600L + minute * 60L;
+        LocalDateTime minuteStart = LocalDateTime.ofEpochSecond(localSeconds, 0, ZoneOffset.UTC);
+        //NOTE: minutes that overlap a daylight saving time change are resolved per timestamp by the formatter
+        List<ZoneOffset> startOffsets = zoneRules.getValidOffsets(minuteStart);
+        List<ZoneOffset> endOffsets = zoneRules.getValidOffsets(minuteStart.plusNanos(LAST_NANO_OF_MINUTE));
+        if (startOffsets.size() != 1 || !startOffsets.equals(endOffsets)) {
+            return Long.MIN_VALUE;
+        }
+
+        long ret = (localSeconds - startOffsets.get(0).getTotalSeconds()) * 1000L;
+        cache[index] = new MinuteEntry(message.substring(0, prefixLength), ret);
+        return ret;
+    }
+
+    private static int parseDigits(String message, int from, int digits) {
+        int ret = 0;
+        for (int i = from; i < from + digits; i++) {
+            ret = ret * 10 + (message.charAt(i) - '0');
+        }
+        return ret;
+    }
+
+    private static boolean isLeapYear(int year) {
+        return (year % 4 == 0) && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    private static int getMonthLength(int year, int month) {
+        switch (month) {
+            case 2:
+                return isLeapYear(year) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    private static long getEpochDay(int year, int month, int day) {
+        //NOTE: days from civil algorithm for the proleptic gregorian calendar
+        long y = month <= 2 ? year - 1 : year;
+        long era = y / 400;
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153L * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    private static boolean isSupportedLiteral(String literal) {
+        return literal.chars().allMatch(x -> x >= ' ' && x <= '~');
+    }
+
+    /**
+     * Creates the fast path for the date format
+     * @param dateFormat the pattern of the date time formatter
+     * @param zone the zone used for timestamps without an offset
+     * @return the fast path or empty if the pattern is not supported, e.g. text fields, offsets or optional sections
+     */
+    static Optional<FixedWidthDateFormat> from(String dateFormat, ZoneId zone) {
+        Builder builder = new Builder();
+        int i = 0;
+        while (i < dateFormat.length()) {
+            char c = dateFormat.charAt(i);
+            if (c == '\'') {
+                int end = dateFormat.indexOf('\'', i + 1);
+                if (end < 0) {
+                    return Optional.empty();
+                }
+                String literal = end == i + 1 ? "'" : dateFormat.substring(i + 1, end);
+                if (!isSupportedLiteral(literal)
+                        || (end != i + 1 && end + 1 < dateFormat.length() && dateFormat.charAt(end + 1) == '\'')) {
+                    //NOTE: quoted text with an escaped quote is not supported
+                    return Optional.empty();
+                }
+                builder.literals.append(literal);
+                i = end + 1;
+                continue;
+            }
+
+            if (!Character.isLetter(c)) {
+                if (c == '[' || c == ']' || c == '{' || c == '}' || c == '#' || !isSupportedLiteral(String.valueOf(c))) {
+                    return Optional.empty();
+                }
+                builder.literals.append(c);
+                i++;
+                continue;
+            }
+
+            int count = 1;
+            while (i + count < dateFormat.length() && dateFormat.charAt(i + count) == c) {
+                count++;
+            }
+            if (!builder.addField(c, count)) {
+                return Optional.empty();
+            }
+            i += count;
+        }
+
+        return builder.isValid() ? Optional.of(new FixedWidthDateFormat(builder, zone)) : Optional.empty();
+    }
+
+    private static class Builder {
+        private final StringBuilder literals = new StringBuilder();
+        private int year = -1;
+        private int month = -1;
+        private int day = -1;
+        private int hour = -1;
+        private int minute = -1;
+        private int second = -1;
+        private int fraction = -1;
+        private int fractionDigits;
+
+        private int addDigits(int position, int count) {
+            if (position >= 0) {
+                //NOTE: the field is repeated in the pattern
+                return Integer.MIN_VALUE;
+            }
+            int ret = literals.length();
+            for (int i = 0; i < count; i++) {
+                literals.append((char) 0);
+            }
+            return ret;
+        }
+
+        private boolean addField(char c, int count) {
+            switch (c) {
+                case 'y':
+                case 'u':
+                    year = count == 4 ? addDigits(year, count) : Integer.MIN_VALUE;
+                    return year >= 0;
+                case 'M':
+                    month = count == 2 ? addDigits(month, count) : Integer.MIN_VALUE;
+                    return month >= 0;
+                case 'd':
+                    day = count == 2 ? addDigits(day, count) : Integer.MIN_VALUE;
+                    return day >= 0;
+                case 'H':
+                    hour = count == 2 ? addDigits(hour, count) : Integer.MIN_VALUE;
+                    return hour >= 0;
+                case 'm':
+                    minute = count == 2 ? addDigits(minute, count) : Integer.MIN_VALUE;
+                    return minute >= 0;
+                case 's':
+                    second = count == 2 ? addDigits(second, count) : Integer.MIN_VALUE;
+                    return second >= 0;
+                case 'S':
+                    fractionDigits = count;
+                    fraction = count <= NANOS_DIGITS ? addDigits(fraction, count) : Integer.MIN_VALUE;
+                    return fraction >= 0;
+                default:
+                    return false;
+            }
+        }
+
+        private boolean isValid() {
+            //NOTE: the date and the minute are the prefix of the timestamp followed by seconds and their fraction
+            int prefixEnd = minute + 2;
+            //NOTE: the formatter does not parse a fraction adjacent to other numeric fields in java 8
+            return year >= 0 && month >= 0 && day >= 0 && hour >= 0 && minute >= 0
+                    && year < minute && month < minute && day < minute && hour < minute
+                    && (second < 0 || second >= prefixEnd)
+                    && (fraction < 0 || (second >= 0 && fraction > second && literals.charAt(fraction - 1) != 0));
+        }
+    }
+}
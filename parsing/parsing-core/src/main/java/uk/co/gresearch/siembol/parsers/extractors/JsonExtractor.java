@@ -1,79 +1,153 @@
 package uk.co.gresearch.siembol.parsers.extractors;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.lang.invoke.MethodHandles;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-
+import java.util.Set;
+
+/**
+ * Extractor that flattens a json object into fields in one streaming pass over the json tokens.
+ * Nested field names are joined by the nested separator and array items are named by their indices.
+ * If included fields are provided, only these fields and their nested fields are extracted and
+ * the remaining subtrees are skipped without materialisation.
+ */
 public class JsonExtractor extends ParserExtractor {
     private static final Logger LOG = LoggerFactory
             .getLogger(MethodHandles.lookup().lookupClass());
-
-    private static final ObjectReader JSON_READER = new ObjectMapper()
-                    .readerFor(new TypeReference<Map<String, Object>>() { });
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final String EXPECTED_OBJECT_MSG = "Expected json object, found: %s";
 
     private final String nestedSeparator;
     private final String pathPrefix;
+    private final Set<String> includedFields;
+    private final Set<String> includedParents;
 
     private JsonExtractor(Builder<?> builder) {
         super(builder);
         nestedSeparator = builder.nestedSeparator;
         pathPrefix = builder.pathPrefix;
+        includedFields = builder.includedFields != null ? new HashSet<>(builder.includedFields) : null;
+        includedParents = new HashSet<>();
+        if (includedFields != null) {
+            for (String field : includedFields) {
+                //NOTE: every prefix of the field ending before a separator can be a parent of the field
+                int index = field.indexOf(nestedSeparator);
+                while (index >= 0 && index < field.length()) {
+                    includedParents.add(field.substring(0, index));
+                    index = field.indexOf(nestedSeparator, index + 1);
+                }
+            }
+        }
     }
 
-    @SuppressWarnings("unchecked")
-    private void traverseObject(Object current, StringBuilder path, Map<String, Object> result) {
-        if (current instanceof Map) {
-            Map<String, Object> map = (Map<String, Object>)current;
+    private boolean isIncluded(StringBuilder path) {
+        return includedFields == null || includedFields.contains(path.toString());
+    }
 
-            final int pathLength = path.length();
-            for (String key : map.keySet()) {
-                if(pathLength != 0) {
-                    path.append(nestedSeparator);
-                }
-                path.append(key);
+    private boolean isParentOfIncluded(StringBuilder path) {
+        return includedParents.contains(path.toString());
+    }
 
-                traverseObject(map.get(key), path, result);
-                path.setLength(pathLength);
+    private void traverseValue(JsonParser parser,
+                               JsonToken token,
+                               StringBuilder path,
+                               boolean included,
+                               Map<String, Object> result) throws IOException {
+        boolean currentIncluded = included || isIncluded(path);
+        if (token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY) {
+            if (!currentIncluded && !isParentOfIncluded(path)) {
+                parser.skipChildren();
+                return;
             }
-        } else if (current instanceof List) {
-            List<Object> list = (List<Object>)current;
-
-            int index = 0;
-            final int pathLength = path.length();
-            for (Object item : list) {
-                if(pathLength != 0) {
-                    path.append(nestedSeparator);
-                }
-                path.append(index++);
 
-                traverseObject(item, path, result);
-                path.setLength(pathLength);
+            if (token == JsonToken.START_OBJECT) {
+                traverseObject(parser, path, currentIncluded, result);
+            } else {
+                traverseArray(parser, path, currentIncluded, result);
+            }
+            return;
+        }
+
+        if (!currentIncluded) {
+            return;
+        }
+
+        switch (token) {
+            case VALUE_STRING:
+                result.put(path.toString(), parser.getText());
+                break;
+            case VALUE_NUMBER_INT:
+                result.put(path.toString(), parser.getNumberValue());
+                break;
+            case VALUE_NUMBER_FLOAT:
+                result.put(path.toString(), parser.getDoubleValue());
+                break;
+            case VALUE_TRUE:
+            case VALUE_FALSE:
+                result.put(path.toString(), parser.getBooleanValue());
+                break;
+        }
+    }
+
+    private void traverseObject(JsonParser parser,
+                                StringBuilder path,
+                                boolean included,
+                                Map<String, Object> result) throws IOException {
+        final int pathLength = path.length();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            if (pathLength != 0) {
+                path.append(nestedSeparator);
             }
-        } else if (current instanceof Number
-                    || current instanceof Boolean
-                    || current instanceof String) {
-            result.put(path.toString(), current);
+            path.append(parser.getCurrentName());
+
+            traverseValue(parser, parser.nextToken(), path, included, result);
+            path.setLength(pathLength);
         }
     }
 
+    private void traverseArray(JsonParser parser,
+                               StringBuilder path,
+                               boolean included,
+                               Map<String, Object> result) throws IOException {
+        int index = 0;
+        final int pathLength = path.length();
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (pathLength != 0) {
+                path.append(nestedSeparator);
+            }
+            path.append(index++);
+
+            traverseValue(parser, token, path, included, result);
+            path.setLength(pathLength);
+        }
+    }
 
     @Override
     protected Map<String, Object> extractInternally(String message) {
-        try {
-            Map<String, Object> originalMap = JSON_READER.readValue(message);
+        try (JsonParser parser = JSON_FACTORY.createParser(message)) {
             Map<String, Object> result = new HashMap<>();
-            StringBuilder path = new StringBuilder(pathPrefix);
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.VALUE_NULL) {
+                return result;
+            }
 
-            traverseObject(originalMap, path, result);
+            if (token != JsonToken.START_OBJECT) {
+                throw new IllegalArgumentException(String.format(EXPECTED_OBJECT_MSG, token));
+            }
 
+            StringBuilder path = new StringBuilder(pathPrefix);
+            traverseObject(parser, path, isIncluded(path), result);
             return result;
         } catch (Exception e) {
             String errorMessage = String.format("Error during extracting json:%s\n Exception: %s",
@@ -100,6 +174,7 @@ public class JsonExtractor extends ParserExtractor {
             extends ParserExtractor.Builder<T> {
         private String nestedSeparator = "_";
         private String pathPrefix = "";
+        private List<String> includedFields;
 
         public Builder<T> nestedSeparator(String separator) {
             this.nestedSeparator = separator;
@@ -111,5 +186,9 @@ public class JsonExtractor extends ParserExtractor {
             return this;
         }
 
+        public Builder<T> includedFields(List<String> includedFields) {
+            this.includedFields = includedFields;
+            return this;
+        }
     }
 }
@@ -22,6 +22,7 @@ public class KeyValueExtractor extends ParserExtractor {
     private final KeyValueIndices.IndexOf indexOf;
     private final EnumSet<KeyValueExtractorFlags> flags;
     private final String errorKeyName;
+    private final FieldNameCache fieldNameCache = new FieldNameCache();
 
     private KeyValueExtractor(Builder<?> builder) {
         super(builder);
@@ -48,8 +49,7 @@ public class KeyValueExtractor extends ParserExtractor {
                 return extracted;
             }
 
-            String key = message.substring(offset, indices.getKeyIndex());
-            String value = message.substring(indices.getKeyIndex() + 1, indices.getValueIndex());
+            String key = fieldNameCache.get(message, offset, indices.getKeyIndex());
 
             if (extracted.containsKey(key)
                     && flags.contains(KeyValueExtractorFlags.RENAME_DUPLICATE_KEYS))
@@ -58,7 +58,7 @@ public class KeyValueExtractor extends ParserExtractor {
                 key = String.format(DUPLICATE_FORMAT_MSG, key, index);
             }
 
-            extracted.put(key, getValue(value));
+            extracted.put(key, getValue(message, indices.getKeyIndex() + 1, indices.getValueIndex()));
             offset = indices.getValueIndex() + 1;
         }
 
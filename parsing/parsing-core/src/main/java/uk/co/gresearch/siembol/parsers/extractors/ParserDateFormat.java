@@ -14,39 +14,58 @@ public class ParserDateFormat {
     private static final String DEFAULT_TIMEZONE = "UTC";
     private final Pattern dateTimePattern;
     private final DateTimeFormatter dateFormatter;
-    private final ZoneOffset zoneOffSet;
+    private final ZoneId zone;
+    private final FixedWidthDateFormat fixedWidthFormat;
+    private volatile ParsedTimestamp lastParsed;
 
     public ParserDateFormat(String dateFormat) {
         this(dateFormat, Optional.empty(), Optional.empty());
     }
 
     public ParserDateFormat(String dateFormat, Optional<String> timeZone, Optional<String> regexPattern) {
-        ZoneId zone = ZoneId.of(timeZone.orElse(DEFAULT_TIMEZONE));
-
-        LocalDateTime now = LocalDateTime.now();
-        zoneOffSet = zone.getRules().getOffset(now);
-
+        zone = ZoneId.of(timeZone.orElse(DEFAULT_TIMEZONE));
         dateFormatter = DateTimeFormatter.ofPattern(dateFormat).withZone(zone);
         dateTimePattern = regexPattern.isPresent()
                 ? Pattern.compile(regexPattern.get())
                 : null;
+        fixedWidthFormat = FixedWidthDateFormat.from(dateFormat, zone).orElse(null);
     }
 
     public Optional<Long> parse(String message) {
+        //NOTE: messages in a batch often share the timestamp so we reuse the last parsed one
+        ParsedTimestamp last = lastParsed;
+        if (last != null && last.timestampStr.equals(message)) {
+            return last.timestamp;
+        }
+
+        Optional<Long> ret = parseInternally(message);
+        lastParsed = new ParsedTimestamp(message, ret);
+        return ret;
+    }
+
+    private Optional<Long> parseInternally(String message) {
         if (dateTimePattern != null
                 && !dateTimePattern.matcher(message).matches()) {
             return Optional.empty();
         }
 
+        if (fixedWidthFormat != null) {
+            Optional<Long> ret = fixedWidthFormat.parse(message);
+            if (ret.isPresent()) {
+                return ret;
+            }
+        }
+
         try {
             TemporalAccessor temporalAccessor = dateFormatter.parse(message);
             LocalDateTime dateTime = LocalDateTime.from(temporalAccessor);
             ZoneOffset currentOffset = temporalAccessor.query(TemporalQueries.offset());
-            if (currentOffset == null) {
-                currentOffset = zoneOffSet;
+            if (currentOffset != null) {
+                return Optional.of(dateTime.toInstant(currentOffset).toEpochMilli());
             }
 
-            return Optional.of(dateTime.toInstant(currentOffset).toEpochMilli());
+            //NOTE: the offset is resolved for the timestamp in order to handle daylight saving time changes
+            return Optional.of(dateTime.atZone(zone).toInstant().toEpochMilli());
         } catch (Exception e) {
             return Optional.empty();
         }
@@ -61,4 +80,14 @@ public class ParserDateFormat {
         }
         return Optional.empty();
     }
+
+    private static class ParsedTimestamp {
+        private final String timestampStr;
+        private final Optional<Long> timestamp;
+
+        ParsedTimestamp(String timestampStr, Optional<Long> timestamp) {
+            this.timestampStr = timestampStr;
+            this.timestamp = timestamp;
+        }
+    }
 }
@@ -7,7 +7,7 @@ import static uk.co.gresearch.siembol.parsers.extractors.ParserExtractor.ParserE
 
 public abstract class ParserExtractor  {
     private static final String EMPTY_MSG_FOR_EXTRACTION_MSG = "Empty message for extraction";
-    private static final String DUPLICATE_FORMAT_MSG = "duplicate_%s_%d";
+    private static final String EMPTY_VALUE = "";
 
     public enum ParserExtractorFlags {
         SHOULD_REMOVE_FIELD,
@@ -92,6 +92,18 @@ public abstract class ParserExtractor  {
         return value;
     }
 
+    protected Object getValue(String message, int beginIndex, int endIndex) {
+        //NOTE: quotes are removed on indices so that only one string is allocated for the value
+        if (parserExtractorFlags.contains(ParserExtractorFlags.REMOVE_QUOTES)
+                && endIndex - beginIndex >= 2
+                && (message.charAt(beginIndex) == '\'' || message.charAt(beginIndex) == '"')
+                && message.charAt(beginIndex) == message.charAt(endIndex - 1)) {
+            beginIndex++;
+            endIndex--;
+        }
+        return beginIndex == endIndex ? EMPTY_VALUE : message.substring(beginIndex, endIndex);
+    }
+
     public static abstract class Builder<T extends ParserExtractor> {
         private String name;
         private String field;
@@ -135,40 +147,4 @@ public abstract class ParserExtractor  {
 
         public abstract T build();
     }
-
-    public static Map<String, Object> extract(
-            List<ParserExtractor> extractors,
-            Map<String, Object> messageObject) {
-        Map<String, Object> current = messageObject;
-        DuplicatesFieldMap duplicatesMap = new DuplicatesFieldMap();
-
-        for (ParserExtractor extractor : extractors) {
-            String field = extractor.getField();
-            if (!(current.get(field) instanceof String)) {
-                continue;
-            }
-
-            if (!extractor.shouldOverwiteFields()) {
-                duplicatesMap.clear();
-            }
-
-            String message = (String)current.get(field);
-            Map<String, Object> parsed = extractor.extract(message);
-            for (String key : parsed.keySet()) {
-                if (current.putIfAbsent(key, parsed.get(key)) != null) {
-                    String currentName = key;
-                    if(!extractor.shouldOverwiteFields()) {
-                        int duplicateIndex = duplicatesMap.getIndex(key);
-                        currentName = String.format(DUPLICATE_FORMAT_MSG, key, duplicateIndex);
-                    }
-                    current.put(currentName, parsed.get(key));
-                }
-            }
-
-            if (extractor.shouldRemoveField()) {
-                current.remove(field);
-            }
-        }
-        return current;
-    }
 }
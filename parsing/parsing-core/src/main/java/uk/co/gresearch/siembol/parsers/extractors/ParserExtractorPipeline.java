@@ -0,0 +1,78 @@
+package uk.co.gresearch.siembol.parsers.extractors;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Parser extractors compiled into a pipeline that evaluates them on a message.
+ * Merging semantics of the extractors are resolved when the pipeline is created and
+ * the number of fields of parsed messages is tracked in order to pre-size maps of next messages.
+ */
+public class ParserExtractorPipeline {
+    private static final String DUPLICATE_FORMAT_MSG = "duplicate_%s_%d";
+    private static final int DEFAULT_EXPECTED_FIELDS = 16;
+
+    private final ParserExtractor[] extractors;
+    private final String[] fields;
+    private final boolean[] overwriteFields;
+    private final boolean[] removeField;
+    private volatile int expectedFields = DEFAULT_EXPECTED_FIELDS;
+
+    public ParserExtractorPipeline(List<ParserExtractor> extractors) {
+        int size = extractors.size();
+        this.extractors = extractors.toArray(new ParserExtractor[size]);
+        this.fields = new String[size];
+        this.overwriteFields = new boolean[size];
+        this.removeField = new boolean[size];
+        for (int i = 0; i < size; i++) {
+            fields[i] = this.extractors[i].getField();
+            overwriteFields[i] = this.extractors[i].shouldOverwiteFields();
+            removeField[i] = this.extractors[i].shouldRemoveField();
+        }
+    }
+
+    public Map<String, Object> createMessageMap() {
+        //NOTE: the map is sized so that it is not resized for a message with the expected number of fields
+        return new HashMap<>(expectedFields * 4 / 3 + 1);
+    }
+
+    public Map<String, Object> extract(Map<String, Object> message) {
+        DuplicatesFieldMap duplicatesMap = null;
+        for (int i = 0; i < extractors.length; i++) {
+            Object value = message.get(fields[i]);
+            if (!(value instanceof String)) {
+                continue;
+            }
+
+            Map<String, Object> parsed = extractors[i].extract((String)value);
+            if (overwriteFields[i]) {
+                message.putAll(parsed);
+            } else {
+                if (duplicatesMap != null) {
+                    duplicatesMap.clear();
+                }
+
+                for (Map.Entry<String, Object> entry : parsed.entrySet()) {
+                    String key = entry.getKey();
+                    if (message.putIfAbsent(key, entry.getValue()) != null) {
+                        if (duplicatesMap == null) {
+                            duplicatesMap = new DuplicatesFieldMap();
+                        }
+                        int duplicateIndex = duplicatesMap.getIndex(key);
+                        message.put(String.format(DUPLICATE_FORMAT_MSG, key, duplicateIndex), entry.getValue());
+                    }
+                }
+            }
+
+            if (removeField[i]) {
+                message.remove(fields[i]);
+            }
+        }
+
+        if (message.size() > expectedFields) {
+            expectedFields = message.size();
+        }
+        return message;
+    }
+}
@@ -14,6 +14,7 @@ import uk.co.gresearch.siembol.parsers.common.SiembolParser;
 import uk.co.gresearch.siembol.parsers.common.ParserResult;
 import uk.co.gresearch.siembol.parsers.common.SerializableSiembolParser;
 import uk.co.gresearch.siembol.parsers.generic.SiembolGenericParser;
+import uk.co.gresearch.siembol.parsers.netflow.NetflowTemplateStore;
 import uk.co.gresearch.siembol.parsers.netflow.SiembolNetflowParser;
 import uk.co.gresearch.siembol.parsers.syslog.SiembolSyslogParser;
 import uk.co.gresearch.siembol.parsers.extractors.*;
@@ -48,9 +49,15 @@ public class ParserFactoryImpl implements ParserFactory {
 
     private final JsonSchemaValidator jsonSchemaValidator;
     private final TransformationFactory transformationFactory = new TransformationFactory();
+    private final NetflowTemplateStore netflowTemplateStore;
 
-    ParserFactoryImpl(JsonSchemaValidator jsonSchemaValidator) {
+    ParserFactoryImpl(JsonSchemaValidator jsonSchemaValidator, NetflowTemplateStore netflowTemplateStore) {
         this.jsonSchemaValidator = jsonSchemaValidator;
+        this.netflowTemplateStore = netflowTemplateStore;
+    }
+
+    ParserFactoryImpl(JsonSchemaValidator jsonSchemaValidator) {
+        this(jsonSchemaValidator, null);
     }
 
     @Override
@@ -72,7 +79,10 @@ public class ParserFactoryImpl implements ParserFactory {
             SiembolParser parser;
             switch (parserConfig.getParserAttributes().getParserType()) {
                 case NETFLOW:
-                    parser = new SiembolNetflowParser();
+                    //NOTE: netflow parsers use their own template store unless a shared store is provided
+                    parser = netflowTemplateStore != null
+                            ? new SiembolNetflowParser(netflowTemplateStore)
+                            : new SiembolNetflowParser();
                     break;
                 case SYSLOG:
                     parser = createSyslogParser(parserConfig.getParserAttributes().getSyslogConfig(), extractors, transformations);
@@ -151,6 +161,17 @@ public class ParserFactoryImpl implements ParserFactory {
         return new ParserFactoryImpl(validator);
     }
 
+    /**
+     * Creates a parser factory with netflow parsers sharing the template store
+     * @param netflowTemplateStore template store shared by the created netflow parsers
+     * @return parser factory
+     * @throws Exception if the factory can not be created
+     */
+    public static ParserFactory createParserFactory(NetflowTemplateStore netflowTemplateStore) throws Exception {
+        JsonSchemaValidator validator = new SiembolJsonSchemaValidator(ParsersConfigDto.class);
+        return new ParserFactoryImpl(validator, netflowTemplateStore);
+    }
+
     private EnumSet<ParserExtractor.ParserExtractorFlags> getExtractorFlags(ExtractorAttributesDto attributes) {
         EnumSet<ParserExtractor.ParserExtractorFlags> ret = EnumSet.noneOf(
                 ParserExtractor.ParserExtractorFlags.class);
@@ -353,6 +374,7 @@ public class ParserFactoryImpl implements ParserFactory {
                 .builder()
                 .pathPrefix(extractor.getAttributes().getPathPrefix())
                 .nestedSeparator(extractor.getAttributes().getNestedSeparator())
+                .includedFields(extractor.getAttributes().getIncludedFields())
                 .name(extractor.getName())
                 .field(extractor.getField())
                 .extractorFlags(getExtractorFlags(extractor.getAttributes()))
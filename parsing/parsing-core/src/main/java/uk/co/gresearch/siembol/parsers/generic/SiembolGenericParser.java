@@ -6,6 +6,7 @@ import org.slf4j.LoggerFactory;
 import uk.co.gresearch.siembol.parsers.common.SiembolParser;
 import uk.co.gresearch.siembol.common.constants.SiembolMessageFields;
 import uk.co.gresearch.siembol.parsers.extractors.ParserExtractor;
+import uk.co.gresearch.siembol.parsers.extractors.ParserExtractorPipeline;
 import uk.co.gresearch.siembol.parsers.transformations.Transformation;
 import uk.co.gresearch.siembol.parsers.transformations.TransformationsLibrary;
 
@@ -17,26 +18,28 @@ public class SiembolGenericParser implements SiembolParser {
     private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
     private static final String PARSING_ERROR_MSG = "Unable to parse message: %s, exception: %s";
 
-    private final List<ParserExtractor> extractors;
+    private final ParserExtractorPipeline extractors;
     private final List<Transformation> transformations;
 
     public SiembolGenericParser(List<ParserExtractor> extractors, List<Transformation> transformations) {
-        this.extractors = extractors;
+        this.extractors = extractors != null ? new ParserExtractorPipeline(extractors) : null;
         this.transformations = transformations;
     }
 
     @Override
     public List<Map<String, Object>> parse(byte[] bytes) {
-        String originalMessage = null;
-        try {
-            originalMessage = new String(bytes, UTF_8);
+        return parseText(null, new String(bytes, UTF_8));
+    }
 
-            Map<String, Object> parsed = new HashMap<>();
+    @Override
+    public List<Map<String, Object>> parseText(String metadata, String originalMessage) {
+        try {
+            Map<String, Object> parsed = extractors != null ? extractors.createMessageMap() : new HashMap<>();
             parsed.put(SiembolMessageFields.ORIGINAL.toString(), originalMessage);
             parsed.put(SiembolMessageFields.TIMESTAMP.toString(), System.currentTimeMillis());
 
             if (extractors != null) {
-                parsed = ParserExtractor.extract(extractors, parsed);
+                parsed = extractors.extract(parsed);
             }
 
             if (transformations != null) {
@@ -78,6 +78,10 @@ public class ExtractorAttributesDto {
     @Attributes(description = "The separator added during unfolding nested json objects")
     private String nestedSeparator = ":";
 
+    @JsonProperty("included_fields")
+    @Attributes(description = "The list of fields included during unfolding nested json objects, all fields are included if not provided", minItems = 1)
+    private List<String> includedFields;
+
     @JsonProperty("regex_select_config")
     @Attributes(description = "The specification of regex_select extractor")
     private RegexSelectDto regexSelectConfig;
@@ -262,6 +266,14 @@ public class ExtractorAttributesDto {
         this.nestedSeparator = nestedSeparator;
     }
 
+    public List<String> getIncludedFields() {
+        return includedFields;
+    }
+
+    public void setIncludedFields(List<String> includedFields) {
+        this.includedFields = includedFields;
+    }
+
     public String getStringReplaceTarget() {
         return stringReplaceTarget;
     }
@@ -8,23 +8,45 @@ import java.util.Objects;
 
 public class NetflowField {
     private static final String UNKNOWN_VALUE = "unknown";
+    private static final String ENTERPRISE_FIELD_NAME_FORMAT = "custom_%d_%d";
     private static final Logger LOG = LoggerFactory
             .getLogger(MethodHandles.lookup().lookupClass());
 
     private final int type;
     private final int length;
+    private final long enterpriseNumber;
 
-    public NetflowField(int type, int len) {
+    /**
+     * Creates a field
+     * @param type field type or the information element id of an IPFIX enterprise specific field
+     * @param len length of the field
+     * @param enterpriseNumber private enterprise number of an IPFIX enterprise specific field, otherwise 0
+     */
+    public NetflowField(int type, int len, long enterpriseNumber) {
         this.type = type;
         this.length = len;
+        this.enterpriseNumber = enterpriseNumber;
+    }
+
+    public NetflowField(int type, int len) {
+        this(type, len, 0);
     }
 
     public String getName() {
-        return NetflowFieldType.of(type).getFieldName();
+        //NOTE: enterprise specific fields are named by the enterprise number and the element id to be unique
+        return isEnterpriseField()
+                ? String.format(ENTERPRISE_FIELD_NAME_FORMAT, enterpriseNumber, type)
+                : NetflowFieldType.of(type).getFieldName();
+    }
+
+    public NetflowDataType getDataType() {
+        return isEnterpriseField()
+                ? NetflowFieldType.CUSTOM.getDataType()
+                : NetflowFieldType.of(type).getDataType();
     }
 
     public Object getValue(BinaryBuffer buffer) {
-        NetflowDataType dataType = NetflowFieldType.of(type).getDataType();
+        NetflowDataType dataType = getDataType();
         try {
             return dataType.apply(buffer, length);
         } catch (Exception e) {
@@ -45,17 +67,30 @@ public class NetflowField {
         return length;
     }
 
+    public int getType() {
+        return type;
+    }
+
+    public long getEnterpriseNumber() {
+        return enterpriseNumber;
+    }
+
+    public boolean isEnterpriseField() {
+        return enterpriseNumber != 0;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (!(o instanceof NetflowField)) {
             return false;
         }
         return this.length == ((NetflowField)o).length
-                && this.type == ((NetflowField)o).type;
+                && this.type == ((NetflowField)o).type
+                && this.enterpriseNumber == ((NetflowField)o).enterpriseNumber;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(type, length);
+        return Objects.hash(type, length, enterpriseNumber);
     }
 }
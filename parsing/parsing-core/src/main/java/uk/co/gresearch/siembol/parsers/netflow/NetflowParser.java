@@ -7,10 +7,17 @@ import java.util.*;
 
 public class NetflowParser<T> {
     public static final int SUPPORTED_VERSION = 9;
+    public static final int IPFIX_VERSION = 10;
     public static final int TEMPLATE_FLOW_SET_ID = 0;
     public static final int OPTIONS_FLOW_SET_ID = 1;
+    public static final int IPFIX_TEMPLATE_SET_ID = 2;
+    public static final int IPFIX_OPTIONS_TEMPLATE_SET_ID = 3;
     public static final int DATA_FLOW_SET_OFFSET = 255;
     public static final int NETFLOW_HEADER_SIZE = 20;
+    public static final int IPFIX_HEADER_SIZE = 16;
+    public static final int VERSION_SIZE = 2;
+    public static final int IPFIX_ENTERPRISE_BIT = 0x8000;
+    public static final int IPFIX_ENTERPRISE_NUMBER_SIZE = 4;
     public static final int RECORD_FLOWSET_AND_LEN_SIZE = 4;
     public static final int TEMPLATE_ID_AND_FIELD_COUNT_SIZE = 4;
     public static final int FIELD_TYPE_AND_LEN_SIZE = 4;
@@ -31,36 +38,51 @@ public class NetflowParser<T> {
     }
 
     private NetflowHeader parseHeader(BinaryBuffer buffer) {
-        if (!buffer.hasRemaining(NETFLOW_HEADER_SIZE)) {
+        if (!buffer.hasRemaining(IPFIX_HEADER_SIZE)) {
             LOG.error("Insufficient buffer size for reading header");
             return null;
         }
 
         int version = buffer.readUShort();
+        switch (version) {
+            case SUPPORTED_VERSION:
+                return parseNetflowHeader(buffer, version);
+            case IPFIX_VERSION:
+                return parseIpfixHeader(buffer, version);
+            default:
+                LOG.error(String.format("Unsupported Netflow version: %d", version));
+                return null;
+        }
+    }
+
+    private NetflowHeader parseNetflowHeader(BinaryBuffer buffer, int version) {
+        if (!buffer.hasRemaining(NETFLOW_HEADER_SIZE - VERSION_SIZE)) {
+            LOG.error("Insufficient buffer size for reading header");
+            return null;
+        }
+
         int count = buffer.readUShort();
         long uptime = buffer.readUInt();
         long timestamp = buffer.readUInt();
         long sequence = buffer.readUInt();
         int sourceId = buffer.readInt();
-
-        if (version != SUPPORTED_VERSION) {
-            LOG.error(String.format("Unsupported Netflow version: %d", version));
-            return null;
-        }
         return new NetflowHeader(version, count, uptime, timestamp, sequence, sourceId);
     }
 
-    private List<NetflowField> createTemplate(BinaryBuffer buffer, int fieldCount)
-    {
-        List<NetflowField> ret = new ArrayList<>();
+    private NetflowHeader parseIpfixHeader(BinaryBuffer buffer, int version) {
+        int length = buffer.readUShort();
+        long exportTime = buffer.readUInt();
+        long sequence = buffer.readUInt();
+        int observationDomainId = buffer.readInt();
 
-        for (int i = 0; i < fieldCount; i++) {
-            int fieldType = buffer.readUShort();
-            int fieldLen = buffer.readUShort();
-            ret.add(new NetflowField(fieldType, fieldLen));
+        if (length < IPFIX_HEADER_SIZE || length > buffer.getBuffer().limit()) {
+            LOG.error(String.format("Wrong IPFIX message length: %d", length));
+            return null;
         }
 
-        return ret;
+        //NOTE: IPFIX header contains the message length instead of the number of records
+        buffer.getBuffer().limit(length);
+        return new NetflowHeader(version, 0, 0, exportTime, sequence, observationDomainId);
     }
 
     private boolean parseTemplates(NetflowTransportMessage<T> message,
@@ -68,6 +90,7 @@ public class NetflowParser<T> {
                                    BinaryBuffer buffer,
                                    int length)
     {
+        boolean ipfix = header.getVersion() == IPFIX_VERSION;
         int processed = 0;
         while (processed < length) {
             if (length - processed < TEMPLATE_ID_AND_FIELD_COUNT_SIZE) {
@@ -80,13 +103,40 @@ public class NetflowParser<T> {
             }
 
             int fieldCount = buffer.readUShort();
-            processed += TEMPLATE_ID_AND_FIELD_COUNT_SIZE + fieldCount * FIELD_TYPE_AND_LEN_SIZE;
-            if (processed > length) {
-                return false;
+            processed += TEMPLATE_ID_AND_FIELD_COUNT_SIZE;
+            if (ipfix && fieldCount == 0) {
+                //NOTE: IPFIX template record without fields is a template withdrawal
+                transportProvider.removeTemplate(message, header, templateId);
+                if (length - processed <= RECORD_MAX_PADDING_SIZE) {
+                    break;
+                }
+                continue;
+            }
+
+            List<NetflowField> fields = new ArrayList<>(fieldCount);
+            for (int i = 0; i < fieldCount; i++) {
+                processed += FIELD_TYPE_AND_LEN_SIZE;
+                if (processed > length) {
+                    return false;
+                }
+
+                int fieldType = buffer.readUShort();
+                int fieldLen = buffer.readUShort();
+                long enterpriseNumber = 0;
+                if (ipfix && (fieldType & IPFIX_ENTERPRISE_BIT) != 0) {
+                    processed += IPFIX_ENTERPRISE_NUMBER_SIZE;
+                    if (processed > length) {
+                        return false;
+                    }
+                    //NOTE: enterprise specific fields are parsed as custom fields named by the enterprise number
+                    enterpriseNumber = buffer.readUInt();
+                    fieldType &= ~IPFIX_ENTERPRISE_BIT;
+                }
+                fields.add(new NetflowField(fieldType, fieldLen, enterpriseNumber));
             }
 
-            List<NetflowField> currentTemplate = createTemplate(buffer, fieldCount);
-            transportProvider.updateTemplate(message, header, templateId, currentTemplate);
+            transportProvider.updateTemplate(message, header, templateId,
+                    new NetflowTemplate(templateId, fields, ipfix));
             if (length - processed <= RECORD_MAX_PADDING_SIZE ){
                 //NOTE: padding
                 break;
@@ -96,29 +146,22 @@ public class NetflowParser<T> {
         return processed > 0;
     }
 
-    private List<List<Pair<String, Object>>> getDataFields(int templateId,
-                                                           BinaryBuffer buffer,
+    private List<List<Pair<String, Object>>> getDataFields(BinaryBuffer buffer,
                                                            int length,
-                                                           List<NetflowField> template) {
+                                                           NetflowTemplate template) {
 
         List<List<Pair<String, Object>>> ret = new ArrayList<>();
+        int start = buffer.getBuffer().position();
         int processed = 0;
 
         while (processed < length) {
-            List<Pair<String, Object>> record = new ArrayList<>();
-            record.add(Pair.of(TEMPLATE_ID, String.valueOf(templateId)));
-            for (NetflowField field : template) {
-                processed += field.getLength();
-                if (processed > length) {
-                    return null;
-                }
-
-                String fieldName = field.getName();
-                Object fieldValue = field.getValue(buffer);
-
-                record.add(Pair.of(fieldName, fieldValue));
+            List<Pair<String, Object>> record = template.decodeRecord(buffer, length - processed);
+            if (record == null) {
+                return null;
             }
+
             ret.add(record);
+            processed = buffer.getBuffer().position() - start;
             if (length - processed <= RECORD_MAX_PADDING_SIZE) {
                 //NOTE: padding
                 break;
@@ -137,8 +180,11 @@ public class NetflowParser<T> {
         }
 
         List<List<Pair<String, Object>>> dataFlowSet = new ArrayList<>();
+        boolean ipfix = header.getVersion() == IPFIX_VERSION;
+        int templateSetId = ipfix ? IPFIX_TEMPLATE_SET_ID : TEMPLATE_FLOW_SET_ID;
+        int optionsSetId = ipfix ? IPFIX_OPTIONS_TEMPLATE_SET_ID : OPTIONS_FLOW_SET_ID;
         int processedRecords = 0;
-        while (processedRecords < header.getCount() && buffer.hasRemaining())
+        while ((ipfix || processedRecords < header.getCount()) && buffer.hasRemaining())
         {
             if (!buffer.hasRemaining(RECORD_FLOWSET_AND_LEN_SIZE)) {
                 return new NetflowParsingResult(NetflowParsingResult.StatusCode.PARSING_ERROR,
@@ -156,53 +202,49 @@ public class NetflowParser<T> {
                         header);
             }
 
-            switch (flowSetId) {
-                case TEMPLATE_FLOW_SET_ID:
-                    if (!parseTemplates(transportMessage,
-                            header,
-                            buffer,
-                            length - RECORD_FLOWSET_AND_LEN_SIZE)) {
-                        return new NetflowParsingResult(NetflowParsingResult.StatusCode.PARSING_TEMPLATE_ERROR,
-                                transportMessage,
-                                header);
-                    }
-                    processedRecords++;
-                    break;
-                case OPTIONS_FLOW_SET_ID:
-                    processedRecords++;
-                    break;
-                default:
-                    if (flowSetId < DATA_FLOW_SET_OFFSET){
-                        return new NetflowParsingResult(NetflowParsingResult.StatusCode.PARSING_ERROR,
-                                transportMessage,
-                                header);
-                    }
-                    Optional<List<NetflowField>> template = transportProvider.getTemplate(
+            if (flowSetId == templateSetId) {
+                if (!parseTemplates(transportMessage,
+                        header,
+                        buffer,
+                        length - RECORD_FLOWSET_AND_LEN_SIZE)) {
+                    return new NetflowParsingResult(NetflowParsingResult.StatusCode.PARSING_TEMPLATE_ERROR,
                             transportMessage,
-                            header,
-                            flowSetId);
-
-                    if (!template.isPresent()) {
-                        LOG.error(String.format("Unknown template %d for source: %s, sourceID: %d",
-                                flowSetId, transportMessage.getGlobalSource(), header.getSourceId()));
-                        return new NetflowParsingResult(NetflowParsingResult.StatusCode.UNKNOWN_TEMPLATE,
-                                transportMessage,
-                                header);
-                    }
+                            header);
+                }
+                processedRecords++;
+            } else if (flowSetId == optionsSetId) {
+                processedRecords++;
+            } else {
+                if (flowSetId < DATA_FLOW_SET_OFFSET){
+                    return new NetflowParsingResult(NetflowParsingResult.StatusCode.PARSING_ERROR,
+                            transportMessage,
+                            header);
+                }
+                Optional<NetflowTemplate> template = transportProvider.getTemplate(
+                        transportMessage,
+                        header,
+                        flowSetId);
 
-                    List<List<Pair<String, Object>>> currentData = getDataFields(flowSetId,
-                            buffer,
-                            length - RECORD_FLOWSET_AND_LEN_SIZE,
-                            template.get());
+                if (!template.isPresent()) {
+                    LOG.error(String.format("Unknown template %d for source: %s, sourceID: %d",
+                            flowSetId, transportMessage.getGlobalSource(), header.getSourceId()));
+                    return new NetflowParsingResult(NetflowParsingResult.StatusCode.UNKNOWN_TEMPLATE,
+                            transportMessage,
+                            header);
+                }
 
-                    if (currentData == null) {
-                        return new NetflowParsingResult(NetflowParsingResult.StatusCode.PARSING_ERROR,
-                                transportMessage,
-                                header);
-                    }
+                List<List<Pair<String, Object>>> currentData = getDataFields(buffer,
+                        length - RECORD_FLOWSET_AND_LEN_SIZE,
+                        template.get());
+
+                if (currentData == null) {
+                    return new NetflowParsingResult(NetflowParsingResult.StatusCode.PARSING_ERROR,
+                            transportMessage,
+                            header);
+                }
 
-                    processedRecords += currentData.size();
-                    dataFlowSet.addAll(currentData);
+                processedRecords += currentData.size();
+                dataFlowSet.addAll(currentData);
             }
 
             if (buffer.hasRemaining()) {
@@ -0,0 +1,163 @@
+package uk.co.gresearch.siembol.parsers.netflow;
+
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.apache.commons.lang3.tuple.Pair;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Netflow template compiled for decoding data records.
+ * Field names, data types and lengths are resolved when the template is received,
+ * so that decoding of data records does not need to look up field types.
+ */
+public class NetflowTemplate {
+    public static final int VARIABLE_LENGTH = 65535;
+    private static final int VARIABLE_LENGTH_LONG_FORMAT = 255;
+    private static final String UNKNOWN_VALUE = "unknown";
+    private static final Logger LOG = LoggerFactory
+            .getLogger(MethodHandles.lookup().lookupClass());
+
+    private final List<NetflowField> fields;
+    private final boolean variableLengthEncoding;
+    private final int templateId;
+    private final String templateIdStr;
+    private final int[] types;
+    private final String[] names;
+    private final NetflowDataType[] dataTypes;
+    private final int[] lengths;
+    private final int recordLength;
+    private final boolean hasVariableLengthFields;
+
+    /**
+     * Creates a template
+     * @param templateId id of the template
+     * @param fields fields of the template
+     * @param variableLengthEncoding whether fields with length 65535 are encoded with variable length (IPFIX)
+     */
+    public NetflowTemplate(int templateId, List<NetflowField> fields, boolean variableLengthEncoding) {
+        this.fields = Collections.unmodifiableList(new ArrayList<>(fields));
+        this.variableLengthEncoding = variableLengthEncoding;
+        this.templateId = templateId;
+        this.templateIdStr = String.valueOf(templateId);
+
+        int size = fields.size();
+        types = new int[size];
+        names = new String[size];
+        dataTypes = new NetflowDataType[size];
+        lengths = new int[size];
+
+        int currentRecordLength = 0;
+        boolean variableLengthFields = false;
+        for (int i = 0; i < size; i++) {
+            NetflowField field = fields.get(i);
+            types[i] = field.getType();
+            names[i] = field.getName();
+            dataTypes[i] = field.getDataType();
+            lengths[i] = field.getLength();
+            if (variableLengthEncoding && lengths[i] == VARIABLE_LENGTH) {
+                variableLengthFields = true;
+            } else {
+                currentRecordLength += lengths[i];
+            }
+        }
+        recordLength = currentRecordLength;
+        hasVariableLengthFields = variableLengthFields;
+    }
+
+    public NetflowTemplate(int templateId, List<NetflowField> fields) {
+        this(templateId, fields, false);
+    }
+
+    public int getTemplateId() {
+        return templateId;
+    }
+
+    public List<NetflowField> getFields() {
+        return fields;
+    }
+
+    public boolean isVariableLengthEncoding() {
+        return variableLengthEncoding;
+    }
+
+    /**
+     * Decodes a data record of the template from a buffer
+     * @param buffer buffer with the position at the start of the record
+     * @param available number of bytes available for the record
+     * @return list of the record fields or null if the record does not fit into the available bytes
+     */
+    public List<Pair<String, Object>> decodeRecord(BinaryBuffer buffer, int available) {
+        if (recordLength > available || (recordLength == 0 && !hasVariableLengthFields)) {
+            return null;
+        }
+
+        List<Pair<String, Object>> ret = new ArrayList<>(names.length + 1);
+        ret.add(Pair.of(NetflowParser.TEMPLATE_ID, templateIdStr));
+        int processed = 0;
+        for (int i = 0; i < names.length; i++) {
+            int fieldLength = lengths[i];
+            if (hasVariableLengthFields && fieldLength == VARIABLE_LENGTH) {
+                if (processed + 1 > available) {
+                    return null;
+                }
+                fieldLength = buffer.readUByte();
+                processed++;
+
+                if (fieldLength == VARIABLE_LENGTH_LONG_FORMAT) {
+                    if (processed + 2 > available) {
+                        return null;
+                    }
+                    fieldLength = buffer.readUShort();
+                    processed += 2;
+                }
+            }
+
+            processed += fieldLength;
+            if (processed > available) {
+                return null;
+            }
+            ret.add(Pair.of(names[i], getValue(buffer, i, fieldLength)));
+        }
+
+        return processed > 0 ? ret : null;
+    }
+
+    private Object getValue(BinaryBuffer buffer, int index, int fieldLength) {
+        try {
+            return dataTypes[index].apply(buffer, fieldLength);
+        } catch (Exception e) {
+            LOG.error(String.format("Exception during parsing field %s type: %d, len: %d, exception: %s, buffer: %s",
+                    names[index],
+                    types[index],
+                    fieldLength,
+                    ExceptionUtils.getStackTrace(e),
+                    buffer.getBase64String()));
+
+            //NOTE: we skip the field length in buffer
+            buffer.skip(fieldLength);
+            return UNKNOWN_VALUE;
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof NetflowTemplate)) {
+            return false;
+        }
+        NetflowTemplate other = (NetflowTemplate)o;
+        return variableLengthEncoding == other.variableLengthEncoding
+                && templateId == other.templateId
+                && fields.equals(other.fields);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(templateId, fields, variableLengthEncoding);
+    }
+}
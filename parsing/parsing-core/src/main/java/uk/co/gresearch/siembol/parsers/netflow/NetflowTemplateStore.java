@@ -0,0 +1,202 @@
+package uk.co.gresearch.siembol.parsers.netflow;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.lang.invoke.MethodHandles;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Store of netflow templates that can be shared by several threads.
+ * The worker instance is shared by all netflow parsers in a worker so that a template received
+ * by one executor can be used by other executors and the templates are not duplicated in memory.
+ * The store is versioned and it can be persisted into a snapshot file that is loaded after a restart.
+ */
+public class NetflowTemplateStore {
+    private static final Logger LOG = LoggerFactory
+            .getLogger(MethodHandles.lookup().lookupClass());
+    private static final int SNAPSHOT_FORMAT_VERSION = 2;
+    private static final String TMP_FILE_SUFFIX = ".tmp";
+    private static final int MAX_FIELD_COUNT = 65535;
+    private static final String WRONG_SNAPSHOT_FORMAT_MSG = "Unsupported snapshot format version: %d";
+    private static final String CORRUPTED_SNAPSHOT_MSG = "Corrupted snapshot, template count: %d, field count: %d";
+    private static final String SNAPSHOT_LOADED_LOG = "Loaded {} netflow templates from the snapshot {}";
+    private static final String SNAPSHOT_SAVED_LOG = "Saved {} netflow templates into the snapshot {}";
+    private static final NetflowTemplateStore WORKER_INSTANCE = new NetflowTemplateStore();
+
+    private final Map<String, NetflowTemplate> templates = new ConcurrentHashMap<>();
+    private final AtomicLong version = new AtomicLong();
+    private long savedVersion = -1;
+
+    public static NetflowTemplateStore getWorkerInstance() {
+        return WORKER_INSTANCE;
+    }
+
+    public Optional<NetflowTemplate> get(String key) {
+        return Optional.ofNullable(templates.get(key));
+    }
+
+    /**
+     * Updates the store by the template
+     * @param key global template id
+     * @param template template for update
+     * @return true if the template was added or it differs from the stored one, otherwise false
+     */
+    public boolean update(String key, NetflowTemplate template) {
+        NetflowTemplate existing = templates.get(key);
+        if (template.equals(existing)) {
+            //NOTE: templates are beaconed regularly so most of the updates do not need to modify the store
+            return false;
+        }
+
+        templates.put(key, template);
+        version.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Removes the template from the store
+     * @param key global template id
+     * @return true if the template was removed, otherwise false
+     */
+    public boolean remove(String key) {
+        if (templates.remove(key) == null) {
+            return false;
+        }
+
+        version.incrementAndGet();
+        return true;
+    }
+
+    public long getVersion() {
+        return version.get();
+    }
+
+    public int size() {
+        return templates.size();
+    }
+
+    public void writeSnapshot(OutputStream outputStream) throws IOException {
+        DataOutputStream out = new DataOutputStream(outputStream);
+        List<Map.Entry<String, NetflowTemplate>> entries = new ArrayList<>(templates.entrySet());
+
+        out.writeInt(SNAPSHOT_FORMAT_VERSION);
+        out.writeInt(entries.size());
+        for (Map.Entry<String, NetflowTemplate> entry : entries) {
+            NetflowTemplate template = entry.getValue();
+            out.writeUTF(entry.getKey());
+            out.writeInt(template.getTemplateId());
+            out.writeBoolean(template.isVariableLengthEncoding());
+            out.writeInt(template.getFields().size());
+            for (NetflowField field : template.getFields()) {
+                out.writeInt(field.getType());
+                out.writeInt(field.getLength());
+                out.writeLong(field.getEnterpriseNumber());
+            }
+        }
+        out.flush();
+    }
+
+    /**
+     * Reads templates from a snapshot. Templates already present in the store are not overwritten.
+     * @param inputStream input stream with the snapshot
+     * @return the number of templates in the snapshot
+     * @throws IOException if the snapshot can not be read
+     */
+    public int readSnapshot(InputStream inputStream) throws IOException {
+        DataInputStream in = new DataInputStream(inputStream);
+        int formatVersion = in.readInt();
+        if (formatVersion != SNAPSHOT_FORMAT_VERSION) {
+            throw new IOException(String.format(WRONG_SNAPSHOT_FORMAT_MSG, formatVersion));
+        }
+
+        int count = in.readInt();
+        if (count < 0) {
+            throw new IOException(String.format(CORRUPTED_SNAPSHOT_MSG, count, 0));
+        }
+
+        //NOTE: templates are added into the store only after the whole snapshot has been read
+        Map<String, NetflowTemplate> snapshotTemplates = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            String key = in.readUTF();
+            int templateId = in.readInt();
+            boolean variableLengthEncoding = in.readBoolean();
+            int fieldCount = in.readInt();
+            if (fieldCount < 0 || fieldCount > MAX_FIELD_COUNT) {
+                throw new IOException(String.format(CORRUPTED_SNAPSHOT_MSG, count, fieldCount));
+            }
+            List<NetflowField> fields = new ArrayList<>(fieldCount);
+            for (int j = 0; j < fieldCount; j++) {
+                int type = in.readInt();
+                int length = in.readInt();
+                long enterpriseNumber = in.readLong();
+                fields.add(new NetflowField(type, length, enterpriseNumber));
+            }
+
+            snapshotTemplates.put(key, new NetflowTemplate(templateId, fields, variableLengthEncoding));
+        }
+
+        for (Map.Entry<String, NetflowTemplate> entry : snapshotTemplates.entrySet()) {
+            if (templates.putIfAbsent(entry.getKey(), entry.getValue()) == null) {
+                version.incrementAndGet();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Loads templates from a snapshot file if it exists
+     * @param path path to the snapshot file
+     * @throws IOException if the snapshot can not be read
+     */
+    public void loadSnapshot(String path) throws IOException {
+        Path snapshotPath = Paths.get(path);
+        if (!Files.exists(snapshotPath)) {
+            return;
+        }
+
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(snapshotPath))) {
+            int count = readSnapshot(in);
+            LOG.info(SNAPSHOT_LOADED_LOG, count, path);
+        }
+    }
+
+    /**
+     * Saves templates into a snapshot file if the store has changed since the last save
+     * @param path path to the snapshot file
+     * @throws IOException if the snapshot can not be written
+     */
+    public synchronized void saveSnapshot(String path) throws IOException {
+        long currentVersion = version.get();
+        if (currentVersion == savedVersion) {
+            return;
+        }
+
+        Path snapshotPath = Paths.get(path).toAbsolutePath();
+        //NOTE: each worker writes its own temporary file in the snapshot directory so the move is atomic
+        Path tmpPath = Files.createTempFile(snapshotPath.getParent(),
+                snapshotPath.getFileName().toString(), TMP_FILE_SUFFIX);
+        try {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(tmpPath))) {
+                writeSnapshot(out);
+            }
+            //NOTE: the snapshot is replaced atomically so a restarted worker never reads a partial snapshot
+            Files.move(tmpPath, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmpPath);
+        }
+        savedVersion = currentVersion;
+        LOG.info(SNAPSHOT_SAVED_LOG, templates.size(), path);
+    }
+}
@@ -1,5 +1,4 @@
 package uk.co.gresearch.siembol.parsers.netflow;
-import java.util.List;
 import java.util.Optional;
 
 public interface NetflowTransportProvider<T> {
@@ -20,7 +19,7 @@ public interface NetflowTransportProvider<T> {
      * @param templateId from netflow packet
      * @return           template from the store if available otherwise the empty
      */
-    Optional<List<NetflowField>> getTemplate(NetflowTransportMessage<T> transportMessage,
+    Optional<NetflowTemplate> getTemplate(NetflowTransportMessage<T> transportMessage,
                                              NetflowHeader header,
                                              int templateId);
 
@@ -35,5 +34,15 @@ public interface NetflowTransportProvider<T> {
     void updateTemplate(NetflowTransportMessage<T> transportMessage,
                         NetflowHeader header,
                         int templateId,
-                        List<NetflowField> template);
+                        NetflowTemplate template);
+
+    /**
+     * Remove a template withdrawn by the exporter from the templates store
+     * @param transportMessage message with related netflow packet
+     * @param header netflow header of the processed packet
+     * @param templateId templateId from netflow packet
+     */
+    void removeTemplate(NetflowTransportMessage<T> transportMessage,
+                        NetflowHeader header,
+                        int templateId);
 }
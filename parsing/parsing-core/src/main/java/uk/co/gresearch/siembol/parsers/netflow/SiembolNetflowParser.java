@@ -33,11 +33,15 @@ public class SiembolNetflowParser implements SiembolParser {
         return ret;
     }
 
-    public SiembolNetflowParser() {
-        final NetflowTransportProvider<String> provider = new SimpleTransportProvider();
+    public SiembolNetflowParser(NetflowTemplateStore templateStore) {
+        final NetflowTransportProvider<String> provider = new SimpleTransportProvider(templateStore);
         netflowParser = new NetflowParser<>(provider);
     }
 
+    public SiembolNetflowParser() {
+        this(new NetflowTemplateStore());
+    }
+
     @Override
     public List<Map<String, Object>> parse(String metadata, byte[] bytes) {
         ArrayList<Map<String, Object>> ret = new ArrayList<>();
@@ -80,4 +84,9 @@ public class SiembolNetflowParser implements SiembolParser {
     public List<Map<String, Object>> parse(byte[] message) {
         throw new UnsupportedOperationException(UNSUPPORTED_MSG);
     }
+
+    @Override
+    public boolean isStateful() {
+        return true;
+    }
 }
@@ -4,14 +4,21 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.lang.invoke.MethodHandles;
-import java.util.*;
+import java.util.Optional;
 
 public class SimpleTransportProvider implements NetflowTransportProvider<String> {
     private static final Logger LOG = LoggerFactory
             .getLogger(MethodHandles.lookup().lookupClass());
 
-    private final Map<String, List<NetflowField>> templates
-            = new HashMap<>();
+    private final NetflowTemplateStore templates;
+
+    public SimpleTransportProvider(NetflowTemplateStore templates) {
+        this.templates = templates;
+    }
+
+    public SimpleTransportProvider() {
+        this(new NetflowTemplateStore());
+    }
 
     @Override
     public NetflowTransportMessage<String> message(String metadata, byte[] data) {
@@ -19,37 +26,49 @@ public class SimpleTransportProvider implements NetflowTransportProvider<String>
     }
 
     @Override
-    public Optional<List<NetflowField>> getTemplate(NetflowTransportMessage<String> transportMessage,
+    public Optional<NetflowTemplate> getTemplate(NetflowTransportMessage<String> transportMessage,
                                                           NetflowHeader header,
                                                           int templateId) {
 
         String key = transportMessage.getGlobalTemplateId(header, templateId);
-        return Optional.ofNullable(templates.get(key));
+        return templates.get(key);
     }
 
     @Override
     public void updateTemplate(NetflowTransportMessage<String> transportMessage,
                                NetflowHeader header,
                                int templateId,
-                               List<NetflowField> template) {
+                               NetflowTemplate template) {
         String key = transportMessage.getGlobalTemplateId(header, templateId);
-        if (!templates.containsKey(key)) {
+        Optional<NetflowTemplate> existing = templates.get(key);
+        if (!templates.update(key, template)) {
+            return;
+        }
+
+        if (!existing.isPresent()) {
             LOG.debug(String.format("New template, source identifier: %s, source_id: %d, template_id: %d",
                     transportMessage.getGlobalSource(),
                     header.getSourceId(),
                     templateId));
-            templates.put(key, Collections.unmodifiableList(template));
-            return;
-         }
-
-         List<NetflowField> existing = templates.get(key);
-         if (!existing.equals(template)){
+        } else {
             LOG.error(String.format(
                     "Template differs, source identifier: %s, source_id: %d, template_id: %d",
                     transportMessage.getGlobalSource(),
                     header.getSourceId(),
                     templateId));
-            templates.put(key, Collections.unmodifiableList(template));
-         }
+        }
+    }
+
+    @Override
+    public void removeTemplate(NetflowTransportMessage<String> transportMessage,
+                               NetflowHeader header,
+                               int templateId) {
+        String key = transportMessage.getGlobalTemplateId(header, templateId);
+        if (templates.remove(key)) {
+            LOG.debug(String.format("Template withdrawn, source identifier: %s, source_id: %d, template_id: %d",
+                    transportMessage.getGlobalSource(),
+                    header.getSourceId(),
+                    templateId));
+        }
     }
 }
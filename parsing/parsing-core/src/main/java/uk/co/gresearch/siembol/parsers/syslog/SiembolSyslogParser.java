@@ -7,6 +7,7 @@ import uk.co.gresearch.siembol.parsers.common.SiembolParser;
 import uk.co.gresearch.siembol.common.constants.SiembolMessageFields;
 import uk.co.gresearch.siembol.parsers.extractors.ParserDateFormat;
 import uk.co.gresearch.siembol.parsers.extractors.ParserExtractor;
+import uk.co.gresearch.siembol.parsers.extractors.ParserExtractorPipeline;
 import uk.co.gresearch.siembol.parsers.transformations.Transformation;
 import uk.co.gresearch.siembol.parsers.transformations.TransformationsLibrary;
 import java.util.*;
@@ -35,13 +36,13 @@ public class SiembolSyslogParser implements SiembolParser {
     public static final String SYSLOG_MSG = "syslog_msg";
     public static final String SYSLOG_TIMESTAMP_STR = "syslog_timestamp";
 
-    private final List<ParserExtractor> extractors;
+    private final ParserExtractorPipeline extractors;
     private final List<Transformation> transformations;
     private final SyslogParser parser;
     private final EnumSet<Flags> flags;
 
     private SiembolSyslogParser(Builder builder) {
-        extractors = builder.extractors;
+        extractors = builder.extractors != null ? new ParserExtractorPipeline(builder.extractors) : null;
         transformations = builder.transformations;
         parser = builder.parser;
         flags = builder.flags;
@@ -49,8 +50,11 @@ public class SiembolSyslogParser implements SiembolParser {
 
     @Override
     public List<Map<String, Object>> parse(byte[] bytes) {
+        return parseText(null, new String(bytes, UTF_8));
+    }
 
-        String originalMessage = new String(bytes, UTF_8);
+    @Override
+    public List<Map<String, Object>> parseText(String metadata, String originalMessage) {
         try {
             List<Map<String, Object>> ret = new ArrayList<>();
             Map<String, Object> syslogObject = new HashMap<>();
@@ -132,7 +136,7 @@ public class SiembolSyslogParser implements SiembolParser {
     private Map<String, Object> extractAndTransfrom(Map<String, Object> message) {
         Map<String, Object> ret = message;
         if (extractors != null) {
-            ret = ParserExtractor.extract(extractors, ret);
+            ret = extractors.extract(ret);
         }
 
         if (transformations != null) {
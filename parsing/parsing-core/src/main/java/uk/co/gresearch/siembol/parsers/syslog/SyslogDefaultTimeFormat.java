@@ -1,7 +1,8 @@
 package uk.co.gresearch.siembol.parsers.syslog;
 
-import org.joda.time.DateTime;
+import org.joda.time.Chronology;
 import org.joda.time.DateTimeZone;
+import org.joda.time.chrono.ISOChronology;
 import org.joda.time.format.DateTimeFormat;
 import org.joda.time.format.DateTimeFormatter;
 import org.joda.time.format.DateTimeFormatterBuilder;
@@ -10,32 +11,19 @@ import org.joda.time.format.DateTimeParser;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeParseException;
 import java.util.Locale;
-import java.util.regex.Pattern;
 
 /**
  * The class provides default time formatting for syslog messages
  */
 public class SyslogDefaultTimeFormat {
     private static final int WEEK_MILLISECONDS = 7 * 24 * 3600 * 1000;
-    private static final String ISO_DATE_FORMAT = "yyyy-MM-dd'T'HH:mm:ss";
-    private static final String ISO_DATE_FORMAT_REGEX = "^\\d{4}-\\d{2}-\\d{2}T\\d{2}:\\d{2}:\\d{2}$";
-    private static final DateTimeFormatter ISO_DATE_FORMATTER = DateTimeFormat.forPattern(ISO_DATE_FORMAT);
-    private static final Pattern ISO_DATE_FORMAT_PATTERN = Pattern.compile(ISO_DATE_FORMAT_REGEX);
-    private static final String ISO_DATE_FORMAT_Z = ISO_DATE_FORMAT + "Z";
-    private static final DateTimeFormatter ISO_DATE_FORMATTER_Z = DateTimeFormat.forPattern(ISO_DATE_FORMAT_Z);
-    private static final String ISO_DATE_FORMAT_Z_REGEX =
-            "^\\d{4}-\\d{2}-\\d{2}T\\d{2}:\\d{2}:\\d{2}[+-]\\d{2}:\\d{2}$";
-    private static final Pattern ISO_DATE_FORMAT_Z_PATTERN = Pattern.compile(ISO_DATE_FORMAT_Z_REGEX);
-    private static final String ISO_DATE_FORMAT_MS = "yyyy-MM-dd'T'HH:mm:ss.SSSSSS";
-    private static final String ISO_DATE_FORMAT_MS_REGEX = "^\\d{4}-\\d{2}-\\d{2}T\\d{2}:\\d{2}:\\d{2}.\\d{6}$";
-    private static final DateTimeFormatter ISO_DATE_FORMATTER_MS = DateTimeFormat.forPattern(ISO_DATE_FORMAT_MS);
-    private static final Pattern ISO_DATE_FORMAT_PATTERN_MS = Pattern.compile(ISO_DATE_FORMAT_MS_REGEX);
-
-    private static final String ISO_DATE_FORMAT_MS_Z = ISO_DATE_FORMAT_MS + 'Z';
-    private static final String ISO_DATE_FORMAT_MS_Z_REGEX =
-            "^\\d{4}-\\d{2}-\\d{2}T\\d{2}:\\d{2}:\\d{2}.\\d{6}[+-]\\d{2}:\\d{2}$";
-    private static final DateTimeFormatter ISO_DATE_FORMATTER_MS_Z = DateTimeFormat.forPattern(ISO_DATE_FORMAT_MS_Z);
-    private static final Pattern ISO_DATE_FORMAT_PATTERN_MS_Z = Pattern.compile(ISO_DATE_FORMAT_MS_Z_REGEX);
+    private static final String UNSUPPORTED_TIMESTAMP_MSG = "unsupported timestamp format";
+    private static final int ISO_DATE_LENGTH = "yyyy-MM-ddTHH:mm:ss".length();
+    private static final int ISO_DATE_MS_LENGTH = "yyyy-MM-ddTHH:mm:ss.SSSSSS".length();
+    private static final int NUMERIC_OFFSET_LENGTH = "+00:00".length();
+    private static final int MAX_OFFSET_HOURS = 23;
+    private static final int MAX_OFFSET_MINUTES = 59;
+    private static final Chronology ISO_UTC_CHRONOLOGY = ISOChronology.getInstanceUTC();
 
     private static final String BSD_TIMESTAMP_FORMAT_1 = "MMM dd HH:mm:ss";
     private static final String BSD_TIMESTAMP_FORMAT_2 = "MMM  d HH:mm:ss";
@@ -78,25 +66,86 @@ public class SyslogDefaultTimeFormat {
     }
 
     public static long parseTimestamp(String message, DateTimeZone dateTimeZone) {
-        DateTime dateTime;
         try {
-            if (ISO_DATE_FORMAT_Z_PATTERN.matcher(message).matches()) {
-                dateTime = DateTime.parse(message, ISO_DATE_FORMATTER_Z.withZone(dateTimeZone));
-            } else if (ISO_DATE_FORMAT_PATTERN.matcher(message).matches()) {
-                dateTime = DateTime.parse(message, ISO_DATE_FORMATTER.withZone(dateTimeZone));
-            } else if (ISO_DATE_FORMAT_PATTERN_MS.matcher(message).matches()) {
-                dateTime = DateTime.parse(message, ISO_DATE_FORMATTER_MS.withZone(dateTimeZone));
-            } else if (ISO_DATE_FORMAT_PATTERN_MS_Z.matcher(message).matches()) {
-                dateTime = DateTime.parse(message, ISO_DATE_FORMATTER_MS_Z.withZone(dateTimeZone));
-            } else {
-                //NOTE: unssupported default time format from RFC 5424
-                throw new IllegalStateException(
-                        String.format("unsupported syslog RFC 5424 timestamp: %s", message));
-            }
-            return dateTime.getMillis();
+            return parseIsoTimestamp(message, dateTimeZone);
         } catch (Exception e) {
             throw new IllegalStateException(
                     String.format("unsupported syslog RFC 5424 timestamp: %s", message));
         }
     }
+
+    private static long parseIsoTimestamp(String message, DateTimeZone dateTimeZone) {
+        //NOTE: supported timestamps have fixed width so we parse the fields on their positions
+        int length = message.length();
+        boolean hasFraction = length >= ISO_DATE_MS_LENGTH;
+        int offsetIndex = hasFraction ? ISO_DATE_MS_LENGTH : ISO_DATE_LENGTH;
+        int offsetLength = length - offsetIndex;
+        if (offsetLength != 0 && offsetLength != NUMERIC_OFFSET_LENGTH) {
+            throw new IllegalStateException(UNSUPPORTED_TIMESTAMP_MSG);
+        }
+
+        checkSeparator(message, 4, '-');
+        checkSeparator(message, 7, '-');
+        checkSeparator(message, 10, 'T');
+        checkSeparator(message, 13, ':');
+        checkSeparator(message, 16, ':');
+
+        int millis = 0;
+        if (hasFraction) {
+            checkSeparator(message, ISO_DATE_LENGTH, '.');
+            //NOTE: microseconds are truncated to milliseconds
+            millis = parseDigits(message, ISO_DATE_LENGTH + 1, 3);
+            parseDigits(message, ISO_DATE_LENGTH + 4, 3);
+        }
+
+        long localMillis = ISO_UTC_CHRONOLOGY.getDateTimeMillis(
+                parseDigits(message, 0, 4),
+                parseDigits(message, 5, 2),
+                parseDigits(message, 8, 2),
+                parseDigits(message, 11, 2),
+                parseDigits(message, 14, 2),
+                parseDigits(message, 17, 2),
+                millis);
+
+        if (offsetLength == 0) {
+            //NOTE: the offset is resolved for the timestamp in order to handle daylight saving time changes
+            long ret = localMillis - dateTimeZone.getOffsetFromLocal(localMillis);
+            if (ret + dateTimeZone.getOffset(ret) != localMillis) {
+                //NOTE: the local time is in a gap caused by a daylight saving time change
+                throw new IllegalStateException(UNSUPPORTED_TIMESTAMP_MSG);
+            }
+            return ret;
+        }
+
+        char sign = message.charAt(offsetIndex);
+        if (sign != '+' && sign != '-') {
+            throw new IllegalStateException(UNSUPPORTED_TIMESTAMP_MSG);
+        }
+        checkSeparator(message, offsetIndex + 3, ':');
+        int offsetHours = parseDigits(message, offsetIndex + 1, 2);
+        int offsetMinutes = parseDigits(message, offsetIndex + 4, 2);
+        if (offsetHours > MAX_OFFSET_HOURS || offsetMinutes > MAX_OFFSET_MINUTES) {
+            throw new IllegalStateException(UNSUPPORTED_TIMESTAMP_MSG);
+        }
+        long offsetMillis = (offsetHours * 60L + offsetMinutes) * 60_000L;
+        return sign == '+' ? localMillis - offsetMillis : localMillis + offsetMillis;
+    }
+
+    private static void checkSeparator(String message, int index, char separator) {
+        if (message.charAt(index) != separator) {
+            throw new IllegalStateException(UNSUPPORTED_TIMESTAMP_MSG);
+        }
+    }
+
+    private static int parseDigits(String message, int offset, int numDigits) {
+        int ret = 0;
+        for (int i = offset; i < offset + numDigits; i++) {
+            int digit = message.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new IllegalStateException(UNSUPPORTED_TIMESTAMP_MSG);
+            }
+            ret = ret * 10 + digit;
+        }
+        return ret;
+    }
 }
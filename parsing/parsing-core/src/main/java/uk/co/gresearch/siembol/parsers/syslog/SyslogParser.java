@@ -7,8 +7,6 @@ import uk.co.gresearch.siembol.parsers.extractors.ParserDateFormat;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 public class SyslogParser {
     private static final String BOM_SIGNATURE = "BOM";
@@ -20,14 +18,13 @@ public class SyslogParser {
     private static final int PROCID_HEADER_INDEX = 4;
     private static final int MSGID_HEADER_INDEX = 5;
     private static final int OTHER_DATA_INDEX = 6;
-    private static final int SYSLOG_FIELDS_NUMBER = OTHER_DATA_INDEX + 1;
+    private static final int MAX_PRIORITY_DIGITS = 3;
     private static final char NIL_VALUE_CHAR = '-';
     private static final char SP_VALUE_CHAR = ' ';
+    private static final String INVALID_PRI_MSG = "invalid PRI header field in SYSLOG message";
+    private static final String WRONG_SD_PARAM_MSG = "Wrong SD-PARAM in sd element: %s";
     private static final char LEFT_BRACKET_SD_ELEMENT = '[';
     private static final char RIGHT_BRACKET_SD_ELEMENT = ']';
-    private static final String SP_VALUE = " ";
-    private static final String PRI_REGEXP = "^<\\d{1,3}+>";
-    private static final Pattern PRI_PATTERN = Pattern.compile(PRI_REGEXP);
 
     public static final int RFC_5424_VERSION = 1;
     public static final int RFC_3164_VERSION = 0;
@@ -45,39 +42,55 @@ public class SyslogParser {
         this.dateTimeZone = null;
     }
 
-    private SyslogMessage parsePri(String str, SyslogMessage message) {
-        int endOffset = str.indexOf('>');
+    private int parsePri(String str, SyslogMessage message) {
+        if (str.isEmpty() || str.charAt(0) != '<') {
+            throw new IllegalStateException(INVALID_PRI_MSG);
+        }
+
+        int priority = 0;
+        int offset = 1;
+        while (offset < str.length() && isDigit(str.charAt(offset))) {
+            if (offset > MAX_PRIORITY_DIGITS) {
+                throw new IllegalStateException(INVALID_PRI_MSG);
+            }
+            priority = priority * 10 + str.charAt(offset) - '0';
+            offset++;
+        }
+
+        if (offset == 1 || offset == str.length() || str.charAt(offset) != '>') {
+            throw new IllegalStateException(INVALID_PRI_MSG);
+        }
 
-        int priority = Integer.valueOf(str.substring(1, endOffset));
         if (priority > MAX_PRIORITY) {
             throw new IllegalStateException(String.format(
                     "wrong Priority value: %d", priority));
         }
-        message.setPriority(Integer.valueOf(str.substring(1, endOffset)));
+        message.setPriority(priority);
+        return offset + 1;
+    }
+
+    private void parseHeaderVersion(String str, int priOffset, int endOffset, SyslogMessage message) {
         int headerVersion = 0;
-        if (str.length() > endOffset + 1)
-            headerVersion = str.charAt(str.length() - 1) - '0';
+        if (endOffset > priOffset) {
+            headerVersion = str.charAt(endOffset - 1) - '0';
+        }
 
         if (headerVersion > RFC_5424_VERSION) {
             throw new IllegalStateException(String.format(
                     "Unsupported SYSLOG version: %d", headerVersion));
         }
         message.setHeaderVersion(headerVersion);
-        return message;
     }
 
-    private SyslogMessage setMsgField(String msg, SyslogMessage message) {
-        message.setMsg(
-                msg != null && msg.startsWith(BOM_SIGNATURE)
-                        ? msg.substring(BOM_SIGNATURE.length())
-                        : msg);
+    private SyslogMessage setMsgField(String str, int offset, SyslogMessage message) {
+        message.setMsg(str.startsWith(BOM_SIGNATURE, offset)
+                ? str.substring(offset + BOM_SIGNATURE.length())
+                : str.substring(offset));
         return message;
     }
 
-    private SyslogMessage parseBsdMessage(String str, int priOffset) {
-        SyslogMessage message = new SyslogMessage();
+    private SyslogMessage parseBsdMessage(String str, int priOffset, SyslogMessage message) {
         message.setHeaderVersion(RFC_3164_VERSION);
-        message = parsePri(str.substring(0, priOffset), message);
 
         int hostStartOffset = priOffset + SyslogDefaultTimeFormat.getBsdTimestampSize() + 1;
         if (hostStartOffset >= str.length()
@@ -98,15 +111,27 @@ public class SyslogParser {
         message.setHostname(
                 str.substring(hostStartOffset, hostEndOffset));
 
-        message = setMsgField(str.substring(hostEndOffset + 1), message);
-        return message;
+        return setMsgField(str, hostEndOffset + 1, message);
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static int indexOf(String str, char c, int from, int end) {
+        for (int i = from; i < end; i++) {
+            if (str.charAt(i) == c) {
+                return i;
+            }
+        }
+        return -1;
     }
 
-    private int indexOfEscaped(String str, char c, int from) {
+    private static int indexOfEscaped(String str, char c, int from, int end) {
         int numQuotes = 0;
         int i = from;
 
-        while (i < str.length()) {
+        while (i < end) {
             char current = str.charAt(i);
             if (current == '\\') {
                 i++;
@@ -120,26 +145,31 @@ public class SyslogParser {
         return -1;
     }
 
-    private SyslogMessage parseSdElement(String str, SyslogMessage message){
+    private SyslogMessage parseSdElement(String str, int begin, int end, SyslogMessage message) {
         List<Pair<String, String>> sdParameters = new ArrayList<>();
 
-        int offset = str.indexOf(SP_VALUE_CHAR);
+        int offset = indexOf(str, SP_VALUE_CHAR, begin, end);
         if (offset == -1) {
             //NOTE: SD-PARAM are optional
-            message.adSdElement(str, sdParameters);
+            message.adSdElement(str.substring(begin, end), sdParameters);
             return message;
         }
 
-        String sdElement = str.substring(0, offset);
-        while (offset < str.length()) {
-            int delimiter = str.indexOf('=', offset + 1);
-            int endParam = indexOfEscaped(str, '"', delimiter + 2);
-            if (str.charAt(offset) != SP_VALUE_CHAR ||
-                    delimiter == -1 ||
-                    endParam == -1 ||
-                    str.charAt(delimiter + 1) != '"'){
+        String sdElement = str.substring(begin, offset);
+        while (offset < end) {
+            int delimiter = indexOf(str, '=', offset + 1, end);
+            if (str.charAt(offset) != SP_VALUE_CHAR
+                    || delimiter == -1
+                    || delimiter + 1 >= end
+                    || str.charAt(delimiter + 1) != '"') {
+                throw new IllegalStateException(String.format(
+                        WRONG_SD_PARAM_MSG, str.substring(begin, end)));
+            }
+
+            int endParam = indexOfEscaped(str, '"', delimiter + 2, end);
+            if (endParam == -1) {
                 throw new IllegalStateException(String.format(
-                        "Wrong SD-PARAM in sd element: %s",str));
+                        WRONG_SD_PARAM_MSG, str.substring(begin, end)));
             }
 
             String key = str.substring(offset + 1, delimiter);
@@ -152,78 +182,72 @@ public class SyslogParser {
     }
 
     public SyslogMessage parse(String str) {
-        Matcher priMatcher = PRI_PATTERN.matcher(str);
-        if (!priMatcher.find()) {
-            throw new IllegalStateException("invalid PRI header field in SYSLOG message");
-        }
-
-        int offset = priMatcher.end();
-        if (!Character.isDigit(str.charAt(offset))) {
+        //NOTE: the message is scanned in one pass on indices of the header fields
+        SyslogMessage message = new SyslogMessage();
+        int offset = parsePri(str, message);
+        if (offset == str.length() || !Character.isDigit(str.charAt(offset))) {
             //RFC 3164 - BSD SYSLOG TIMESTAMP starts after >
-            return parseBsdMessage(str, offset);
+            return parseBsdMessage(str, offset, message);
         }
 
-        SyslogMessage message = new SyslogMessage();
-        String[] syslogFields = str.split(SP_VALUE, SYSLOG_FIELDS_NUMBER);
-        if (syslogFields.length != SYSLOG_FIELDS_NUMBER) {
-            throw new IllegalStateException("wrong number of fields in SYSLOG header");
+        int[] fieldEnds = new int[OTHER_DATA_INDEX];
+        int fieldEnd = -1;
+        for (int i = PRI_HEADER_INDEX; i < OTHER_DATA_INDEX; i++) {
+            fieldEnd = str.indexOf(SP_VALUE_CHAR, fieldEnd + 1);
+            if (fieldEnd == -1) {
+                throw new IllegalStateException("wrong number of fields in SYSLOG header");
+            }
+            fieldEnds[i] = fieldEnd;
         }
 
-        message = parsePri(syslogFields[PRI_HEADER_INDEX], message);
-        if (message.getHeaderVersion() > RFC_5424_VERSION) {
-            throw new IllegalStateException(
-                    String.format("unsupported version of SYSLOG protocol ver: %d",
-                            message.getHeaderVersion()));
-
-        }
+        parseHeaderVersion(str, offset, fieldEnds[PRI_HEADER_INDEX], message);
 
+        String timestampStr = str.substring(fieldEnds[PRI_HEADER_INDEX] + 1, fieldEnds[TIMESTAMP_HEADER_INDEX]);
         if (dateFormats != null) {
-            Optional<Long> timeStamp = ParserDateFormat.parse(
-                    dateFormats,
-                    syslogFields[TIMESTAMP_HEADER_INDEX]);
+            Optional<Long> timeStamp = ParserDateFormat.parse(dateFormats, timestampStr);
             if (!timeStamp.isPresent()) {
-                message.setTimestampStr(syslogFields[TIMESTAMP_HEADER_INDEX]);
+                message.setTimestampStr(timestampStr);
             } else {
                 message.setTimestamp(timeStamp.get());
             }
         } else {
             try {
-                message.setTimestamp(SyslogDefaultTimeFormat.parseTimestamp(
-                        syslogFields[TIMESTAMP_HEADER_INDEX],
-                        dateTimeZone));
+                message.setTimestamp(SyslogDefaultTimeFormat.parseTimestamp(timestampStr, dateTimeZone));
             } catch(Exception e) {
-                message.setTimestampStr(syslogFields[TIMESTAMP_HEADER_INDEX]);
+                message.setTimestampStr(timestampStr);
             }
         }
 
-        message.setHostname(syslogFields[HOSTNAME_HEADER_INDEX]);
-        message.setAppName(syslogFields[APPNAME_HEADER_INDEX]);
-        message.setProcId(syslogFields[PROCID_HEADER_INDEX]);
-        message.setMsgId(syslogFields[MSGID_HEADER_INDEX]);
+        message.setHostname(str.substring(fieldEnds[TIMESTAMP_HEADER_INDEX] + 1, fieldEnds[HOSTNAME_HEADER_INDEX]));
+        message.setAppName(str.substring(fieldEnds[HOSTNAME_HEADER_INDEX] + 1, fieldEnds[APPNAME_HEADER_INDEX]));
+        message.setProcId(str.substring(fieldEnds[APPNAME_HEADER_INDEX] + 1, fieldEnds[PROCID_HEADER_INDEX]));
+        message.setMsgId(str.substring(fieldEnds[PROCID_HEADER_INDEX] + 1, fieldEnds[MSGID_HEADER_INDEX]));
 
-        String data = syslogFields[OTHER_DATA_INDEX];
-        int dataOffset = 0;
-        if (data.length() == 0) {
+        int dataOffset = fieldEnds[MSGID_HEADER_INDEX] + 1;
+        if (dataOffset == str.length()) {
             throw new IllegalStateException("missing SD elements in RFC5424 SYSLOG message");
         }
 
-        if (data.charAt(dataOffset) == NIL_VALUE_CHAR) {
+        if (str.charAt(dataOffset) == NIL_VALUE_CHAR) {
             //empty SD elements
             dataOffset++;
         } else {
             boolean validSdElements = false;
-            while (dataOffset < data.length()) {
+            while (dataOffset < str.length()) {
 
-                if (data.charAt(dataOffset) != LEFT_BRACKET_SD_ELEMENT) {
+                if (str.charAt(dataOffset) != LEFT_BRACKET_SD_ELEMENT) {
                     throw new IllegalStateException("missing left bracket in a RFC5424 SYSLOG message");
                 }
-                int nextOffset = indexOfEscaped(data, RIGHT_BRACKET_SD_ELEMENT, dataOffset);
+                int nextOffset = indexOfEscaped(str, RIGHT_BRACKET_SD_ELEMENT, dataOffset, str.length());
+                if (nextOffset == -1) {
+                    throw new IllegalStateException("missing right bracket in a RFC5424 SYSLOG message");
+                }
 
-                message = parseSdElement(data.substring(dataOffset + 1, nextOffset), message);
+                message = parseSdElement(str, dataOffset + 1, nextOffset, message);
                 dataOffset  = nextOffset + 1;
 
-                if (dataOffset == data.length()
-                        || data.charAt(dataOffset) == SP_VALUE_CHAR) {
+                if (dataOffset == str.length()
+                        || str.charAt(dataOffset) == SP_VALUE_CHAR) {
                     validSdElements = true;
                     break;
                 }
@@ -233,16 +257,15 @@ public class SyslogParser {
             }
         }
 
-        if (dataOffset == data.length()) {
+        if (dataOffset == str.length()) {
             //NOTE: MSG is optional
             return message;
         }
 
-        if (data.charAt(dataOffset) != SP_VALUE_CHAR) {
+        if (str.charAt(dataOffset) != SP_VALUE_CHAR) {
             throw new IllegalStateException("invalid MSG field in RFC5424 SYSLOG message");
         }
 
-        message = setMsgField(data.substring(dataOffset + 1), message);
-        return message;
+        return setMsgField(str, dataOffset + 1, message);
     }
 }
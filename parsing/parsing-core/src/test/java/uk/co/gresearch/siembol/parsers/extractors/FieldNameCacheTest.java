@@ -0,0 +1,51 @@
+package uk.co.gresearch.siembol.parsers.extractors;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class FieldNameCacheTest {
+    private FieldNameCache cache;
+
+    @Before
+    public void setUp() {
+        cache = new FieldNameCache();
+    }
+
+    @Test
+    public void testSameNameReused() {
+        String first = cache.get("a=1 src=1.2.3.4", 4, 7);
+        String second = cache.get("b=2 src=5.6.7.8", 4, 7);
+        Assert.assertEquals("src", first);
+        Assert.assertSame(first, second);
+    }
+
+    @Test
+    public void testDifferentNames() {
+        Assert.assertEquals("src", cache.get("src=1", 0, 3));
+        Assert.assertEquals("dst", cache.get("dst=1", 0, 3));
+        Assert.assertEquals("sr", cache.get("src=1", 0, 2));
+        Assert.assertEquals("", cache.get("=1", 0, 0));
+    }
+
+    @Test
+    public void testCollisionsReturnCorrectNames() {
+        FieldNameCache small = new FieldNameCache(1);
+        for (int i = 0; i < 100; i++) {
+            String name = "field" + i;
+            Assert.assertEquals(name, small.get("x " + name + " y", 2, 2 + name.length()));
+        }
+    }
+
+    @Test
+    public void testLongNameNotCached() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            sb.append('a');
+        }
+        String message = " " + sb.toString();
+        String first = cache.get(message, 1, message.length());
+        Assert.assertEquals(message.substring(1), first);
+        Assert.assertNotSame(first, cache.get(message, 1, message.length()));
+    }
+}
@@ -0,0 +1,107 @@
+package uk.co.gresearch.siembol.parsers.extractors;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Optional;
+import java.util.Random;
+
+public class FixedWidthDateFormatTest {
+    private final ZoneId utc = ZoneId.of("UTC");
+
+    private static Optional<Long> referenceParse(DateTimeFormatter formatter, ZoneId zone, String message) {
+        try {
+            return Optional.of(LocalDateTime.from(formatter.parse(message)).atZone(zone).toInstant().toEpochMilli());
+        } catch (Exception e) {
+            return Optional.empty();
+        }
+    }
+
+    @Test
+    public void testSupportedFormats() {
+        Assert.assertTrue(FixedWidthDateFormat.from("yyyy-MM-dd HH:mm:ss", utc).isPresent());
+        Assert.assertTrue(FixedWidthDateFormat.from("yyyy-MM-dd'T'HH:mm:ss.SSS", utc).isPresent());
+        Assert.assertTrue(FixedWidthDateFormat.from("uuuuMMdd HH:mm", utc).isPresent());
+        Assert.assertTrue(FixedWidthDateFormat.from("dd/MM/yyyy HH:mm:ss.SSSSSS", utc).isPresent());
+    }
+
+    @Test
+    public void testUnsupportedFormats() {
+        Assert.assertFalse(FixedWidthDateFormat.from("MMM dd HH:mm:ss", utc).isPresent());
+        Assert.assertFalse(FixedWidthDateFormat.from("yyyy-MM-dd HH:mm:ssXXX", utc).isPresent());
+        Assert.assertFalse(FixedWidthDateFormat.from("yy-MM-dd HH:mm:ss", utc).isPresent());
+        Assert.assertFalse(FixedWidthDateFormat.from("yyyy-MM-dd HH:mm[:ss]", utc).isPresent());
+        Assert.assertFalse(FixedWidthDateFormat.from("yyyy-MM-dd hh:mm:ss a", utc).isPresent());
+        Assert.assertFalse(FixedWidthDateFormat.from("yyyy-MM-dd", utc).isPresent());
+        Assert.assertFalse(FixedWidthDateFormat.from("ss yyyy-MM-dd HH:mm", utc).isPresent());
+        Assert.assertFalse(FixedWidthDateFormat.from("yyyy-MM-dd HH:mm:ssSSS", utc).isPresent());
+        Assert.assertFalse(FixedWidthDateFormat.from("yyyy-MM-dd'T'HH:mm:ss 'o''clock'", utc).isPresent());
+    }
+
+    @Test
+    public void testFallbackToFormatter() {
+        FixedWidthDateFormat format = FixedWidthDateFormat.from("yyyy-MM-dd HH:mm:ss", utc).get();
+        Assert.assertEquals(1610280001000L, format.parse("2021-01-10 12:00:01").get().longValue());
+        Assert.assertFalse(format.parse("2021-01-10 12:00:1").isPresent());
+        Assert.assertFalse(format.parse("2021-01-10T12:00:01").isPresent());
+        Assert.assertFalse(format.parse("2021-02-29 12:00:01").isPresent());
+        Assert.assertFalse(format.parse("2021-01-10 24:00:00").isPresent());
+        Assert.assertFalse(format.parse("2021-01-10 12:00:60").isPresent());
+        Assert.assertFalse(format.parse("0000-01-10 12:00:00").isPresent());
+    }
+
+    @Test
+    public void testPrefixCache() {
+        FixedWidthDateFormat format = FixedWidthDateFormat.from("yyyy-MM-dd HH:mm:ss.SSS", utc).get();
+        for (int i = 0; i < 100; i++) {
+            String minute = String.format("2021-01-10 12:%02d", i % 60);
+            long expected = 1610280000000L + (i % 60) * 60_000L;
+            Assert.assertEquals(expected, format.parse(minute + ":00.000").get().longValue());
+            Assert.assertEquals(expected + 59_999L, format.parse(minute + ":59.999").get().longValue());
+        }
+        Assert.assertEquals(1610280000120L, format.parse("2021-01-10 12:00:00.120").get().longValue());
+    }
+
+    @Test
+    public void testRandomTimestampsAsReference() {
+        Random random = new Random(42);
+        String[] patterns = {"yyyy-MM-dd HH:mm:ss", "yyyy-MM-dd'T'HH:mm:ss.SSS", "dd.MM.uuuu HH:mm:ss.SSSSSS",
+                "yyyyMMdd HH:mm"};
+        ZoneId[] zones = {utc, ZoneId.of("Europe/London"), ZoneId.of("America/New_York"),
+                ZoneId.of("Australia/Lord_Howe"), ZoneId.of("Europe/Amsterdam")};
+        int fastPathHits = 0;
+        for (String pattern : patterns) {
+            for (ZoneId zone : zones) {
+                DateTimeFormatter formatter = DateTimeFormatter.ofPattern(pattern).withZone(zone);
+                FixedWidthDateFormat format = FixedWidthDateFormat.from(pattern, zone).get();
+                for (int i = 0; i < 2000; i++) {
+                    LocalDateTime dateTime = LocalDateTime.of(1900 + random.nextInt(200), 1 + random.nextInt(12),
+                            1 + random.nextInt(28), random.nextInt(24), random.nextInt(60), random.nextInt(60),
+                            random.nextInt(1_000_000_000));
+                    if (random.nextInt(4) == 0) {
+                        //NOTE: timestamps around daylight saving time changes
+                        dateTime = dateTime.withMonth(random.nextBoolean() ? 3 : 10).withDayOfMonth(25 + random.nextInt(7))
+                                .withHour(random.nextInt(4));
+                    }
+
+                    StringBuilder sb = new StringBuilder(formatter.format(dateTime));
+                    if (random.nextInt(10) == 0) {
+                        sb.setCharAt(random.nextInt(sb.length()), "09:- .T".charAt(random.nextInt(7)));
+                    }
+
+                    String timestamp = sb.toString();
+                    Optional<Long> expected = referenceParse(formatter, zone, timestamp);
+                    Optional<Long> actual = format.parse(timestamp);
+                    if (actual.isPresent()) {
+                        Assert.assertEquals(pattern + " " + zone + " " + timestamp, expected, actual);
+                        fastPathHits++;
+                    }
+                }
+            }
+        }
+        Assert.assertTrue(fastPathHits > patterns.length * zones.length * 1500);
+    }
+}
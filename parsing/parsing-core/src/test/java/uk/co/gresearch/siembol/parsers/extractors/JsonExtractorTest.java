@@ -3,6 +3,7 @@ package uk.co.gresearch.siembol.parsers.extractors;
 import org.adrianwalker.multilinestring.Multiline;
 import org.junit.Assert;
 import org.junit.Test;
+import java.util.Arrays;
 import java.util.EnumSet;
 import java.util.Map;
 
@@ -26,6 +27,15 @@ public class JsonExtractorTest {
     @Multiline
     public static String simpleArrayJson;
 
+    /**
+     * {"eventVersion":"1.08","userIdentity":{"type":"AssumedRole","arn":"arn:aws:sts::1:assumed-role/a/b",
+     * "sessionContext":{"attributes":{"mfaAuthenticated":"false"}}},"eventName":"PutObject",
+     * "requestParameters":{"bucketName":"logs","tags":[{"key":"a","value":1},{"key":"b","value":2.5}]},
+     * "resources":[{"ARN":"arn:aws:s3:::logs"}]}
+     **/
+    @Multiline
+    public static String auditLogJson;
+
     @Test
     public void testGoodNested() {
         JsonExtractor extractor = JsonExtractor.builder()
@@ -90,4 +100,63 @@ public class JsonExtractorTest {
         Assert.assertEquals(1, out.get("key2:nested1:0:order"));
         Assert.assertEquals(2, out.get("key2:nested1:1:order"));
     }
+
+    @Test
+    public void testIncludedFields() {
+        JsonExtractor extractor = JsonExtractor.builder()
+                .includedFields(Arrays.asList("eventName", "userIdentity_arn", "requestParameters_tags",
+                        "resources_0_ARN", "missing"))
+                .extractorFlags(extractorFlags)
+                .name(name)
+                .field(field)
+                .build();
+
+        Map<String, Object> out = extractor.extract(auditLogJson.trim());
+        Assert.assertEquals(7, out.size());
+        Assert.assertEquals("PutObject", out.get("eventName"));
+        Assert.assertEquals("arn:aws:sts::1:assumed-role/a/b", out.get("userIdentity_arn"));
+        Assert.assertEquals("a", out.get("requestParameters_tags_0_key"));
+        Assert.assertEquals(1, out.get("requestParameters_tags_0_value"));
+        Assert.assertEquals("b", out.get("requestParameters_tags_1_key"));
+        Assert.assertEquals(2.5, out.get("requestParameters_tags_1_value"));
+        Assert.assertEquals("arn:aws:s3:::logs", out.get("resources_0_ARN"));
+    }
+
+    @Test
+    public void testIncludedFieldsWithPrefix() {
+        JsonExtractor extractor = JsonExtractor.builder()
+                .pathPrefix("aws")
+                .includedFields(Arrays.asList("aws_userIdentity_sessionContext", "aws_eventVersion"))
+                .extractorFlags(extractorFlags)
+                .name(name)
+                .field(field)
+                .build();
+
+        Map<String, Object> out = extractor.extract(auditLogJson.trim());
+        Assert.assertEquals(2, out.size());
+        Assert.assertEquals("1.08", out.get("aws_eventVersion"));
+        Assert.assertEquals("false", out.get("aws_userIdentity_sessionContext_attributes_mfaAuthenticated"));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testNotObjectThrows() {
+        JsonExtractor extractor = JsonExtractor.builder()
+                .extractorFlags(EnumSet.of(ParserExtractor.ParserExtractorFlags.THROWN_EXCEPTION_ON_ERROR))
+                .name(name)
+                .field(field)
+                .build();
+
+        extractor.extract("[{\"key\":1}]");
+    }
+
+    @Test
+    public void testInvalidJsonEmpty() {
+        JsonExtractor extractor = JsonExtractor.builder()
+                .extractorFlags(extractorFlags)
+                .name(name)
+                .field(field)
+                .build();
+
+        Assert.assertTrue(extractor.extract("{\"key\":").isEmpty());
+    }
 }
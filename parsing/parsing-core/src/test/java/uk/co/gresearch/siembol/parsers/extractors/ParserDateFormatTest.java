@@ -0,0 +1,93 @@
+package uk.co.gresearch.siembol.parsers.extractors;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+public class ParserDateFormatTest {
+    private final String timeFormat = "yyyy-MM-dd HH:mm:ss";
+
+    @Test
+    public void testDaylightSavingTime() {
+        ParserDateFormat dateFormat = new ParserDateFormat(timeFormat,
+                Optional.of("Europe/London"), Optional.empty());
+
+        Optional<Long> winter = dateFormat.parse("2021-01-10 12:00:00");
+        Assert.assertTrue(winter.isPresent());
+        Assert.assertEquals(1610280000000L, winter.get().longValue());
+
+        Optional<Long> summer = dateFormat.parse("2021-07-10 12:00:00");
+        Assert.assertTrue(summer.isPresent());
+        Assert.assertEquals(1625914800000L, summer.get().longValue());
+    }
+
+    @Test
+    public void testOffsetInTimestamp() {
+        ParserDateFormat dateFormat = new ParserDateFormat("yyyy-MM-dd HH:mm:ssXXX",
+                Optional.of("Europe/London"), Optional.empty());
+        Optional<Long> timestamp = dateFormat.parse("2021-07-10 12:00:00+02:00");
+        Assert.assertTrue(timestamp.isPresent());
+        Assert.assertEquals(1625911200000L, timestamp.get().longValue());
+    }
+
+    @Test
+    public void testRepeatedTimestamp() {
+        ParserDateFormat dateFormat = new ParserDateFormat(timeFormat);
+        Optional<Long> first = dateFormat.parse("2021-01-10 12:00:00");
+        Optional<Long> second = dateFormat.parse("2021-01-10 12:00:00");
+        Optional<Long> third = dateFormat.parse("2021-01-10 12:00:01");
+        Assert.assertEquals(first, second);
+        Assert.assertEquals(1610280000000L, first.get().longValue());
+        Assert.assertEquals(1610280001000L, third.get().longValue());
+    }
+
+    @Test
+    public void testValidationRegex() {
+        ParserDateFormat dateFormat = new ParserDateFormat(timeFormat,
+                Optional.empty(), Optional.of("^2020.*$"));
+        Assert.assertFalse(dateFormat.parse("2021-01-10 12:00:00").isPresent());
+        Assert.assertFalse(dateFormat.parse("2021-01-10 12:00:00").isPresent());
+        Assert.assertTrue(dateFormat.parse("2020-01-10 12:00:00").isPresent());
+    }
+
+    @Test
+    public void testParseList() {
+        ParserDateFormat first = new ParserDateFormat("yyyy-MM-dd'T'HH:mm:ss");
+        ParserDateFormat second = new ParserDateFormat(timeFormat);
+        Optional<Long> timestamp = ParserDateFormat.parse(Arrays.asList(first, second), "2021-01-10 12:00:00");
+        Assert.assertTrue(timestamp.isPresent());
+        Assert.assertEquals(1610280000000L, timestamp.get().longValue());
+        Assert.assertFalse(ParserDateFormat.parse(Arrays.asList(first, second), "invalid").isPresent());
+    }
+
+    @Test
+    public void testDaylightSavingTimeChangeMinutes() {
+        ParserDateFormat dateFormat = new ParserDateFormat(timeFormat,
+                Optional.of("Europe/London"), Optional.empty());
+
+        Assert.assertEquals(1616893140000L, dateFormat.parse("2021-03-28 00:59:00").get().longValue());
+        //NOTE: a local time in the gap is shifted by the length of the gap
+        Assert.assertEquals(1616893200000L, dateFormat.parse("2021-03-28 01:00:00").get().longValue());
+        Assert.assertEquals(1616893259000L, dateFormat.parse("2021-03-28 01:00:59").get().longValue());
+        Assert.assertEquals(1616893200000L, dateFormat.parse("2021-03-28 02:00:00").get().longValue());
+
+        //NOTE: the earlier offset is used for a local time in the overlap
+        Assert.assertEquals(1635641940000L, dateFormat.parse("2021-10-31 01:59:00").get().longValue());
+        Assert.assertEquals(1635645600000L, dateFormat.parse("2021-10-31 02:00:00").get().longValue());
+    }
+
+    @Test
+    public void testFixedWidthAndFormatterFormats() {
+        ParserDateFormat fixedWidth = new ParserDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS",
+                Optional.of("America/New_York"), Optional.empty());
+        ParserDateFormat formatter = new ParserDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS[XXX]",
+                Optional.of("America/New_York"), Optional.empty());
+        for (int i = 0; i < 1000; i++) {
+            String timestamp = String.format("2021-%02d-%02dT%02d:%02d:%02d.%03d",
+                    1 + i % 12, 1 + i % 28, i % 24, i % 60, (i * 7) % 60, i);
+            Assert.assertEquals(timestamp, formatter.parse(timestamp), fixedWidth.parse(timestamp));
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package uk.co.gresearch.siembol.parsers.extractors;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Optional;
+import java.util.Random;
+
+public class ParserExtractorLibraryTest {
+    private final Optional<Character> quote = Optional.of('"');
+    private final Optional<Character> escape = Optional.of('\\');
+
+    private static int referenceIndexOf(String str,
+                                        char c,
+                                        int from,
+                                        Optional<Character> quota,
+                                        Optional<Character> escaped) {
+        int numQuotes = 0;
+        int i = from;
+        while (i < str.length()) {
+            char current = str.charAt(i);
+            if (escaped.isPresent() && escaped.get() == current) {
+                i++;
+            } else if (quota.isPresent() && quota.get() == current) {
+                numQuotes++;
+            } else if (c == current && (numQuotes % 2 == 0)) {
+                return i;
+            }
+            i++;
+        }
+        return -1;
+    }
+
+    @Test
+    public void testSeparatorAtStartAndEnd() {
+        Assert.assertEquals(0, ParserExtractorLibrary.indexOf(",a,b", ',', 0, quote, escape));
+        Assert.assertEquals(3, ParserExtractorLibrary.indexOf("a,b,", ',', 2, quote, escape));
+        Assert.assertEquals(3, ParserExtractorLibrary.indexOf("ab\",", ',', 0, Optional.empty(), escape));
+        Assert.assertEquals(0, ParserExtractorLibrary.indexOf(",", ',', 0, Optional.empty(), Optional.empty()));
+        Assert.assertEquals(-1, ParserExtractorLibrary.indexOf("a,", ',', 2, quote, escape));
+    }
+
+    @Test
+    public void testQuotedAndEscapedSeparators() {
+        Assert.assertEquals(5, ParserExtractorLibrary.indexOf("\"a,b\",c", ',', 0, quote, escape));
+        Assert.assertEquals(3, ParserExtractorLibrary.indexOf("a\\,,b", ',', 0, quote, escape));
+        Assert.assertEquals(7, ParserExtractorLibrary.indexOf("\"a\\\",b\",c", ',', 0, quote, escape));
+        Assert.assertEquals(6, ParserExtractorLibrary.indexOf("\"a\"\",\",", ',', 0, quote, escape));
+        Assert.assertEquals(4, ParserExtractorLibrary.indexOf("\"\"\"\",", ',', 0, quote, escape));
+    }
+
+    @Test
+    public void testNoMatch() {
+        Assert.assertEquals(-1, ParserExtractorLibrary.indexOf("abc", ',', 0, quote, escape));
+        Assert.assertEquals(-1, ParserExtractorLibrary.indexOf("abc", ',', 0, Optional.empty(), Optional.empty()));
+        Assert.assertEquals(-1, ParserExtractorLibrary.indexOf("\"a,b,c", ',', 0, quote, escape));
+        Assert.assertEquals(-1, ParserExtractorLibrary.indexOf("a\\,b\\,", ',', 0, quote, escape));
+        Assert.assertEquals(-1, ParserExtractorLibrary.indexOf("a,b\\", ',', 2, quote, escape));
+        Assert.assertEquals(-1, ParserExtractorLibrary.indexOf("", ',', 0, quote, escape));
+    }
+
+    @Test
+    public void testIndexOfQuotedEscaped() {
+        Assert.assertEquals(5, ParserExtractorLibrary.indexOfQuotedEscaped("'a b' c", ' ', 0, escape, true));
+        Assert.assertEquals(2, ParserExtractorLibrary.indexOfQuotedEscaped("'a b' c", ' ', 0, escape, false));
+        Assert.assertEquals(4, ParserExtractorLibrary.indexOfQuotedEscaped("a\\ b c", ' ', 0, escape, true));
+        Assert.assertEquals(-1, ParserExtractorLibrary.indexOfQuotedEscaped("abc", ' ', 3, escape, true));
+    }
+
+    @Test
+    public void testRandomStringsAsReference() {
+        Random random = new Random(42);
+        char[] alphabet = {'a', ',', '"', '\\', ' '};
+        for (int i = 0; i < 10000; i++) {
+            char[] chars = new char[random.nextInt(12)];
+            for (int j = 0; j < chars.length; j++) {
+                chars[j] = alphabet[random.nextInt(alphabet.length)];
+            }
+            String str = new String(chars);
+            int from = random.nextInt(chars.length + 1);
+            Optional<Character> currentQuote = random.nextBoolean() ? quote : Optional.empty();
+            Optional<Character> currentEscape = random.nextBoolean() ? escape : Optional.empty();
+            Assert.assertEquals(str,
+                    referenceIndexOf(str, ',', from, currentQuote, currentEscape),
+                    ParserExtractorLibrary.indexOf(str, ',', from, currentQuote, currentEscape));
+        }
+    }
+}
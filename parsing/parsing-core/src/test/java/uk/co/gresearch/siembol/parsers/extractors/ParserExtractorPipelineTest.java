@@ -0,0 +1,71 @@
+package uk.co.gresearch.siembol.parsers.extractors;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Map;
+
+public class ParserExtractorPipelineTest {
+    private EnumSet<ParserExtractor.ParserExtractorFlags> extractorFlags;
+    private Map<String, Object> message;
+
+    @Before
+    public void setUp() {
+        extractorFlags = EnumSet.noneOf(ParserExtractor.ParserExtractorFlags.class);
+        message = new ParserExtractorPipeline(new ArrayList<>()).createMessageMap();
+        message.put("original_string", "a=1 b=2");
+        message.put("a", "0");
+    }
+
+    private KeyValueExtractor createExtractor(String name, String field) {
+        return KeyValueExtractor.builder()
+                .keyValueExtractorFlags(EnumSet.noneOf(KeyValueExtractor.KeyValueExtractorFlags.class))
+                .extractorFlags(extractorFlags)
+                .name(name)
+                .field(field)
+                .build();
+    }
+
+    @Test
+    public void testDuplicates() {
+        ParserExtractorPipeline pipeline = new ParserExtractorPipeline(Arrays.asList(
+                createExtractor("first", "original_string"),
+                createExtractor("second", "original_string")));
+
+        Map<String, Object> extracted = pipeline.extract(message);
+        Assert.assertEquals("0", extracted.get("a"));
+        Assert.assertEquals("2", extracted.get("b"));
+        Assert.assertEquals("1", extracted.get("duplicate_a_1"));
+        Assert.assertEquals("2", extracted.get("duplicate_b_1"));
+        Assert.assertEquals("a=1 b=2", extracted.get("original_string"));
+        Assert.assertEquals(5, extracted.size());
+    }
+
+    @Test
+    public void testOverwriteAndRemoveField() {
+        extractorFlags.add(ParserExtractor.ParserExtractorFlags.SHOULD_OVERWRITE_FIELDS);
+        extractorFlags.add(ParserExtractor.ParserExtractorFlags.SHOULD_REMOVE_FIELD);
+        ParserExtractorPipeline pipeline = new ParserExtractorPipeline(Arrays.asList(
+                createExtractor("first", "original_string")));
+
+        Map<String, Object> extracted = pipeline.extract(message);
+        Assert.assertEquals("1", extracted.get("a"));
+        Assert.assertEquals("2", extracted.get("b"));
+        Assert.assertFalse(extracted.containsKey("original_string"));
+        Assert.assertEquals(2, extracted.size());
+    }
+
+    @Test
+    public void testMissingField() {
+        ParserExtractorPipeline pipeline = new ParserExtractorPipeline(Arrays.asList(
+                createExtractor("first", "unknown")));
+
+        Map<String, Object> extracted = pipeline.extract(message);
+        Assert.assertEquals(2, extracted.size());
+        Assert.assertEquals("0", extracted.get("a"));
+    }
+}
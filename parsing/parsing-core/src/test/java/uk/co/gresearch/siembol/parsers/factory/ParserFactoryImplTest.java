@@ -4,7 +4,13 @@ import org.adrianwalker.multilinestring.Multiline;
 import org.junit.Assert;
 import org.junit.Test;
 import uk.co.gresearch.siembol.common.constants.SiembolMessageFields;
+import uk.co.gresearch.siembol.parsers.common.SiembolParser;
+import uk.co.gresearch.siembol.parsers.netflow.NetflowTemplateStore;
 
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.List;
 import java.util.Map;
 
@@ -61,6 +67,23 @@ public class ParserFactoryImplTest {
     @Multiline
     public static String message;
 
+    /**
+     *   {
+     *     "parser_name" : "netflow",
+     *     "parser_version" : 1,
+     *     "parser_author" : "dummy",
+     *     "parser_attributes": {
+     *       "parser_type": "netflow"
+     *     }
+     *   }
+     **/
+    @Multiline
+    public static String netflowParser;
+
+    private byte[] readFileFromResource(String filename) throws IOException, URISyntaxException {
+        return Files.readAllBytes(Paths.get(this.getClass().getClassLoader().getResource(filename).toURI()));
+    }
+
     @Test
     public void testGetSchema() {
         ParserFactoryResult schemaResult = factory.getSchema();
@@ -102,4 +125,20 @@ public class ParserFactoryImplTest {
         Assert.assertEquals(true, parsed.get(0).get("test_field"));
         Assert.assertEquals("test", parsed.get(0).get(SiembolMessageFields.SENSOR_TYPE.toString()));
     }
+
+    @Test
+    public void testNetflowTemplateStores() throws Exception {
+        byte[] data = readFileFromResource("example2.netflow9");
+        ParserFactoryResult result = factory.create(netflowParser);
+        Assert.assertEquals(ParserFactoryResult.StatusCode.OK, result.getStatusCode());
+        Assert.assertEquals(30, result.getAttributes().getSiembolParser().parse("10.16.22.254", data).size());
+        Assert.assertEquals(0, NetflowTemplateStore.getWorkerInstance().size());
+
+        NetflowTemplateStore store = new NetflowTemplateStore();
+        ParserFactory sharedFactory = ParserFactoryImpl.createParserFactory(store);
+        SiembolParser parser = sharedFactory.create(netflowParser).getAttributes().getSiembolParser();
+        Assert.assertEquals(30, parser.parse("10.16.22.254", data).size());
+        Assert.assertTrue(store.size() > 0);
+        Assert.assertEquals(0, NetflowTemplateStore.getWorkerInstance().size());
+    }
 }
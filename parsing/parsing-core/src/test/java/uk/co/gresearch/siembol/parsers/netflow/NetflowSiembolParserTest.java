@@ -7,6 +7,8 @@ import org.junit.Test;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 import static uk.co.gresearch.siembol.common.constants.SiembolMessageFields.ORIGINAL;
@@ -67,6 +69,93 @@ public class NetflowSiembolParserTest {
         Assert.assertEquals("10.16.22.254", unknownTemplate.get(SiembolNetflowParser.NETFLOW_GLOBAL_SOURCE));
     }
 
+    private byte[] createIpfixMessage() {
+        ByteBuffer buffer = ByteBuffer.allocate(80);
+        //NOTE: header
+        buffer.putShort((short)10).putShort((short)0).putInt(1521721700).putInt(1).putInt(5);
+        //NOTE: template set with an enterprise and a variable length field
+        buffer.putShort((short)2).putShort((short)28).putShort((short)256).putShort((short)4);
+        buffer.putShort((short)8).putShort((short)4);
+        buffer.putShort((short)0x8001).putShort((short)2).putInt(12345);
+        buffer.putShort((short)82).putShort((short)65535);
+        buffer.putShort((short)4).putShort((short)1);
+        //NOTE: data set with one record and padding
+        buffer.putShort((short)256).putShort((short)16);
+        buffer.put(new byte[]{10, 0, 0, 1}).putShort((short)7);
+        buffer.put((byte)3).put("eth".getBytes(StandardCharsets.UTF_8)).put((byte)6);
+        buffer.put((byte)0);
+
+        int length = buffer.position();
+        buffer.putShort(2, (short)length);
+        return Arrays.copyOf(buffer.array(), length);
+    }
+
+    @Test
+    public void testIpfixTemplateAndDataParsing() {
+        byte[] data = createIpfixMessage();
+        List<Map<String, Object>> ret = netflowParser.parse("10.16.22.254", data);
+        Assert.assertEquals(1, ret.size());
+
+        Map<String, Object> first = ret.get(0);
+        Assert.assertEquals(1521721700000L, first.get("timestamp"));
+        Assert.assertEquals("10.0.0.1", first.get("ip_src_addr"));
+        Assert.assertEquals("eth", first.get("if_name"));
+        Assert.assertEquals(6L, first.get("protocol"));
+        Assert.assertEquals("256", first.get(NetflowParser.TEMPLATE_ID));
+        Assert.assertEquals("5", first.get(SiembolNetflowParser.NETFLOW_SOURCE_ID));
+
+        List<Map<String, Object>> retNext = netflowParser.parse("10.16.22.254", data);
+        Assert.assertEquals(ret, retNext);
+    }
+
+    private byte[] finishIpfixMessage(ByteBuffer buffer) {
+        int length = buffer.position();
+        buffer.putShort(2, (short)length);
+        return Arrays.copyOf(buffer.array(), length);
+    }
+
+    @Test
+    public void testIpfixEnterpriseFields() {
+        ByteBuffer buffer = ByteBuffer.allocate(80);
+        buffer.putShort((short)10).putShort((short)0).putInt(1521721700).putInt(1).putInt(5);
+        buffer.putShort((short)2).putShort((short)36).putShort((short)257).putShort((short)4);
+        buffer.putShort((short)0x8001).putShort((short)2).putInt(12345);
+        buffer.putShort((short)0x8002).putShort((short)2).putInt(12345);
+        buffer.putShort((short)0x8001).putShort((short)2).putInt(9);
+        buffer.putShort((short)4).putShort((short)1);
+        buffer.putShort((short)257).putShort((short)12);
+        buffer.put("abcdef".getBytes(StandardCharsets.UTF_8)).put((byte)17).put((byte)0);
+
+        List<Map<String, Object>> ret = netflowParser.parse("10.16.22.254", finishIpfixMessage(buffer));
+        Assert.assertEquals(1, ret.size());
+        Assert.assertEquals("ab", ret.get(0).get("custom_12345_1"));
+        Assert.assertEquals("cd", ret.get(0).get("custom_12345_2"));
+        Assert.assertEquals("ef", ret.get(0).get("custom_9_1"));
+        Assert.assertEquals(17L, ret.get(0).get("protocol"));
+        Assert.assertFalse(ret.get(0).containsKey("custom"));
+    }
+
+    @Test
+    public void testIpfixTemplateWithdrawal() {
+        byte[] data = createIpfixMessage();
+        Assert.assertEquals(1, netflowParser.parse("10.16.22.254", data).size());
+
+        ByteBuffer buffer = ByteBuffer.allocate(80);
+        buffer.putShort((short)10).putShort((short)0).putInt(1521721701).putInt(2).putInt(5);
+        buffer.putShort((short)2).putShort((short)8).putShort((short)256).putShort((short)0);
+        Assert.assertTrue(netflowParser.parse("10.16.22.254", finishIpfixMessage(buffer)).isEmpty());
+
+        buffer = ByteBuffer.allocate(80);
+        buffer.putShort((short)10).putShort((short)0).putInt(1521721702).putInt(3).putInt(5);
+        buffer.putShort((short)256).putShort((short)16);
+        buffer.put(new byte[]{10, 0, 0, 1}).putShort((short)7);
+        buffer.put((byte)3).put("eth".getBytes(StandardCharsets.UTF_8)).put((byte)6);
+        buffer.put((byte)0);
+        List<Map<String, Object>> ret = netflowParser.parse("10.16.22.254", finishIpfixMessage(buffer));
+        Assert.assertEquals(1, ret.size());
+        Assert.assertTrue((Boolean)ret.get(0).get(SiembolNetflowParser.NETFLOW_UNKNOWN_TEMPLATE));
+    }
+
     @Test(expected = IllegalStateException.class)
     public void testUsupportedVersionFail() throws IOException {
         byte[] data = readFileFromResource("unsupportedVersion.netflow9");
@@ -0,0 +1,141 @@
+package uk.co.gresearch.siembol.parsers.netflow;
+
+import com.google.common.io.Files;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+public class NetflowTemplateStoreTest {
+    private NetflowTemplateStore store;
+    private NetflowTemplate template;
+
+    private byte[] readFileFromResource(String filename) throws IOException {
+        ClassLoader classLoader = this.getClass().getClassLoader();
+        File file = new File(classLoader.getResource(filename).getFile());
+        return Files.toByteArray(file);
+    }
+
+    @Before
+    public void setUp() {
+        store = new NetflowTemplateStore();
+        template = new NetflowTemplate(256, Arrays.asList(new NetflowField(8, 4), new NetflowField(4, 1)));
+    }
+
+    @Test
+    public void testUpdateVersion() {
+        Assert.assertEquals(0, store.getVersion());
+        Assert.assertFalse(store.get("a").isPresent());
+
+        Assert.assertTrue(store.update("a", template));
+        Assert.assertEquals(1, store.getVersion());
+        Assert.assertEquals(template, store.get("a").get());
+
+        Assert.assertFalse(store.update("a",
+                new NetflowTemplate(256, Arrays.asList(new NetflowField(8, 4), new NetflowField(4, 1)))));
+        Assert.assertEquals(1, store.getVersion());
+
+        Assert.assertTrue(store.update("a", new NetflowTemplate(256, Arrays.asList(new NetflowField(8, 4)))));
+        Assert.assertEquals(2, store.getVersion());
+        Assert.assertEquals(1, store.size());
+    }
+
+    @Test
+    public void testRemove() {
+        store.update("a", template);
+        Assert.assertTrue(store.remove("a"));
+        Assert.assertEquals(2, store.getVersion());
+        Assert.assertFalse(store.get("a").isPresent());
+        Assert.assertFalse(store.remove("a"));
+        Assert.assertEquals(2, store.getVersion());
+    }
+
+    @Test
+    public void testSnapshot() throws IOException {
+        NetflowTemplate ipfixTemplate = new NetflowTemplate(300,
+                Arrays.asList(new NetflowField(82, NetflowTemplate.VARIABLE_LENGTH), new NetflowField(1, 2, 12345)),
+                true);
+        store.update("a", template);
+        store.update("b", ipfixTemplate);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        store.writeSnapshot(out);
+
+        NetflowTemplateStore loaded = new NetflowTemplateStore();
+        Assert.assertEquals(2, loaded.readSnapshot(new ByteArrayInputStream(out.toByteArray())));
+        Assert.assertEquals(2, loaded.size());
+        Assert.assertEquals(template, loaded.get("a").get());
+        Assert.assertEquals(ipfixTemplate, loaded.get("b").get());
+    }
+
+    @Test(expected = IOException.class)
+    public void testWrongSnapshot() throws IOException {
+        store.readSnapshot(new ByteArrayInputStream(new byte[]{0, 0, 0, 1, 0, 0, 0, 0}));
+    }
+
+    @Test
+    public void testCorruptedSnapshotNotLoaded() throws IOException {
+        store.update("a", template);
+        store.update("b", new NetflowTemplate(257, Arrays.asList(new NetflowField(8, 4))));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        store.writeSnapshot(out);
+        byte[] snapshot = out.toByteArray();
+
+        NetflowTemplateStore loaded = new NetflowTemplateStore();
+        try {
+            loaded.readSnapshot(new ByteArrayInputStream(Arrays.copyOf(snapshot, snapshot.length - 4)));
+            Assert.fail();
+        } catch (IOException e) {
+            Assert.assertEquals(0, loaded.size());
+            Assert.assertEquals(0, loaded.getVersion());
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testSnapshotWithInvalidFieldCount() throws IOException {
+        store.readSnapshot(new ByteArrayInputStream(new byte[]{0, 0, 0, 2, 0, 0, 0, 1,
+                0, 1, 'a', 0, 0, 1, 0, 0, -1, -1, -1, -1}));
+    }
+
+    @Test
+    public void testSaveAndLoadSnapshotFile() throws IOException {
+        Path directory = java.nio.file.Files.createTempDirectory("netflow_templates");
+        Path snapshotPath = directory.resolve("templates.snapshot");
+        try {
+            store.update("a", template);
+            store.saveSnapshot(snapshotPath.toString());
+            store.saveSnapshot(snapshotPath.toString());
+            Assert.assertEquals(1, directory.toFile().list().length);
+
+            NetflowTemplateStore loaded = new NetflowTemplateStore();
+            loaded.loadSnapshot(snapshotPath.toString());
+            Assert.assertEquals(template, loaded.get("a").get());
+        } finally {
+            java.nio.file.Files.deleteIfExists(snapshotPath);
+            java.nio.file.Files.deleteIfExists(directory);
+        }
+    }
+
+    @Test
+    public void testSharedTemplates() throws IOException {
+        byte[] data = readFileFromResource("example2.netflow9");
+        SiembolNetflowParser first = new SiembolNetflowParser(store);
+        SiembolNetflowParser second = new SiembolNetflowParser(store);
+
+        List<Map<String, Object>> ret = first.parse("10.16.22.254", data);
+        Assert.assertEquals(30, ret.size());
+        Assert.assertTrue(store.size() > 0);
+
+        List<Map<String, Object>> retShared = second.parse("10.16.22.254", data);
+        Assert.assertEquals(ret, retShared);
+        Assert.assertEquals(store.size(), store.getVersion());
+    }
+}
@@ -0,0 +1,144 @@
+package uk.co.gresearch.siembol.parsers.syslog;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.joda.time.format.DateTimeFormat;
+import org.joda.time.format.DateTimeFormatter;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.regex.Pattern;
+
+public class SyslogDefaultTimeFormatTest {
+    private static final DateTimeZone UTC = DateTimeZone.UTC;
+    private static final DateTimeZone LONDON = DateTimeZone.forID("Europe/London");
+
+    private static final Pattern REFERENCE_PATTERN =
+            Pattern.compile("^\\d{4}-\\d{2}-\\d{2}T\\d{2}:\\d{2}:\\d{2}$");
+    private static final Pattern REFERENCE_PATTERN_Z =
+            Pattern.compile("^\\d{4}-\\d{2}-\\d{2}T\\d{2}:\\d{2}:\\d{2}[+-]\\d{2}:\\d{2}$");
+    private static final Pattern REFERENCE_PATTERN_MS =
+            Pattern.compile("^\\d{4}-\\d{2}-\\d{2}T\\d{2}:\\d{2}:\\d{2}.\\d{6}$");
+    private static final Pattern REFERENCE_PATTERN_MS_Z =
+            Pattern.compile("^\\d{4}-\\d{2}-\\d{2}T\\d{2}:\\d{2}:\\d{2}.\\d{6}[+-]\\d{2}:\\d{2}$");
+    private static final DateTimeFormatter REFERENCE_FORMATTER =
+            DateTimeFormat.forPattern("yyyy-MM-dd'T'HH:mm:ss");
+    private static final DateTimeFormatter REFERENCE_FORMATTER_Z =
+            DateTimeFormat.forPattern("yyyy-MM-dd'T'HH:mm:ssZ");
+    private static final DateTimeFormatter REFERENCE_FORMATTER_MS =
+            DateTimeFormat.forPattern("yyyy-MM-dd'T'HH:mm:ss.SSSSSS");
+    private static final DateTimeFormatter REFERENCE_FORMATTER_MS_Z =
+            DateTimeFormat.forPattern("yyyy-MM-dd'T'HH:mm:ss.SSSSSSZ");
+
+    private static Long referenceParseTimestamp(String message, DateTimeZone dateTimeZone) {
+        try {
+            DateTimeFormatter formatter;
+            if (REFERENCE_PATTERN_Z.matcher(message).matches()) {
+                formatter = REFERENCE_FORMATTER_Z;
+            } else if (REFERENCE_PATTERN.matcher(message).matches()) {
+                formatter = REFERENCE_FORMATTER;
+            } else if (REFERENCE_PATTERN_MS.matcher(message).matches()) {
+                formatter = REFERENCE_FORMATTER_MS;
+            } else if (REFERENCE_PATTERN_MS_Z.matcher(message).matches()) {
+                formatter = REFERENCE_FORMATTER_MS_Z;
+            } else {
+                return null;
+            }
+            return DateTime.parse(message, formatter.withZone(dateTimeZone)).getMillis();
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static Long parseTimestamp(String message, DateTimeZone dateTimeZone) {
+        try {
+            return SyslogDefaultTimeFormat.parseTimestamp(message, dateTimeZone);
+        } catch (IllegalStateException e) {
+            return null;
+        }
+    }
+
+    @Test
+    public void testTimestampWithoutOffset() {
+        Assert.assertEquals(1583926261000L,
+                SyslogDefaultTimeFormat.parseTimestamp("2020-03-11T11:31:01", UTC));
+        Assert.assertEquals(1583926261000L - 3600_000L,
+                SyslogDefaultTimeFormat.parseTimestamp("2020-03-11T11:31:01", DateTimeZone.forOffsetHours(1)));
+    }
+
+    @Test
+    public void testFractionalSeconds() {
+        Assert.assertEquals(1583926261123L,
+                SyslogDefaultTimeFormat.parseTimestamp("2020-03-11T11:31:01.123456", UTC));
+        Assert.assertEquals(1583926261999L,
+                SyslogDefaultTimeFormat.parseTimestamp("2020-03-11T11:31:01.999999", UTC));
+        Assert.assertEquals(1583926261000L,
+                SyslogDefaultTimeFormat.parseTimestamp("2020-03-11T11:31:01.000999+00:00", UTC));
+    }
+
+    @Test
+    public void testExplicitOffsets() {
+        Assert.assertEquals(1583926261000L - 3600_000L * 5 - 60_000L * 30,
+                SyslogDefaultTimeFormat.parseTimestamp("2020-03-11T11:31:01+05:30", LONDON));
+        Assert.assertEquals(1583926261000L + 3600_000L * 8,
+                SyslogDefaultTimeFormat.parseTimestamp("2020-03-11T11:31:01-08:00", LONDON));
+        Assert.assertEquals(1583926261500L + 3600_000L * 8,
+                SyslogDefaultTimeFormat.parseTimestamp("2020-03-11T11:31:01.500000-08:00", LONDON));
+    }
+
+    @Test
+    public void testUtcDesignatorUnsupported() {
+        //NOTE: the designator is not supported by the default format and the timestamp string is kept by the parser
+        Assert.assertNull(parseTimestamp("2020-03-11T11:31:01Z", LONDON));
+        Assert.assertNull(parseTimestamp("2020-03-11T11:31:01.123456Z", LONDON));
+    }
+
+    @Test
+    public void testDaylightSavingTime() {
+        Assert.assertEquals(1593250200000L,
+                SyslogDefaultTimeFormat.parseTimestamp("2020-06-27T10:30:00", LONDON));
+        Assert.assertEquals(1606473000000L,
+                SyslogDefaultTimeFormat.parseTimestamp("2020-11-27T10:30:00", LONDON));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testDaylightSavingTimeGap() {
+        SyslogDefaultTimeFormat.parseTimestamp("2020-03-29T01:30:00", LONDON);
+    }
+
+    @Test
+    public void testInvalidTimestamps() {
+        String[] invalid = {"", "2020-03-11", "2020-03-11 11:31:01", "2020-03-11T11:31:0a",
+                "2020-13-11T11:31:01", "2020-02-30T11:31:01", "2020-03-11T24:31:01", "2020-03-11T11:31:01.123",
+                "2020-03-11T11:31:01.1234567", "2020-03-11T11:31:01+0530", "2020-03-11T11:31:01*05:30",
+                "2020-03-11T11:31:01+24:00", "2020-03-11T11:31:01z", "2020-03-11T11:31:01.123456Zz"};
+        for (String timestamp : invalid) {
+            Assert.assertNull(timestamp, parseTimestamp(timestamp, UTC));
+        }
+    }
+
+    @Test
+    public void testRandomTimestampsAsReference() {
+        Random random = new Random(42);
+        DateTimeZone[] zones = {UTC, LONDON, DateTimeZone.forID("America/New_York"),
+                DateTimeZone.forID("Australia/Lord_Howe")};
+        String[] offsets = {"", "+00:00", "-00:00", "+05:30", "-11:45", "+14:00", "-23:59"};
+        for (int i = 0; i < 20000; i++) {
+            StringBuilder sb = new StringBuilder(String.format("%04d-%02d-%02dT%02d:%02d:%02d",
+                    1970 + random.nextInt(100), 1 + random.nextInt(13), 1 + random.nextInt(31),
+                    random.nextInt(25), random.nextInt(60), random.nextInt(60)));
+            if (random.nextBoolean()) {
+                sb.append(String.format(".%06d", random.nextInt(1_000_000)));
+            }
+            sb.append(offsets[random.nextInt(offsets.length)]);
+            if (random.nextInt(10) == 0) {
+                sb.setCharAt(random.nextInt(sb.length()), "0:-+.TZx".charAt(random.nextInt(8)));
+            }
+
+            String timestamp = sb.toString();
+            DateTimeZone zone = zones[random.nextInt(zones.length)];
+            Assert.assertEquals(timestamp, referenceParseTimestamp(timestamp, zone), parseTimestamp(timestamp, zone));
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package uk.co.gresearch.siembol.parsers.syslog;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SyslogParserTest {
+    private SyslogParser parser;
+
+    @Before
+    public void setUp() {
+        parser = new SyslogParser("UTC");
+    }
+
+    @Test
+    public void testRfc5424WithSdElements() {
+        SyslogMessage message = parser.parse("<165>1 2003-10-11T22:14:15.003000Z mymachine evntslog - ID47 "
+                + "[exampleSDID@32473 iut=\"3\" eventSource=\"App\\\"]\"][examplePriority@32473] BOMmsg");
+        Assert.assertEquals(165, message.getPriority());
+        Assert.assertEquals(1, message.getHeaderVersion());
+        Assert.assertEquals("2003-10-11T22:14:15.003000Z", message.getTimestampStr().get());
+        Assert.assertEquals("mymachine", message.getHostname().get());
+        Assert.assertEquals("evntslog", message.getAppName().get());
+        Assert.assertFalse(message.getProcId().isPresent());
+        Assert.assertEquals("ID47", message.getMsgId().get());
+        Assert.assertEquals("msg", message.getMsg().get());
+
+        Assert.assertEquals(2, message.getSdElements().size());
+        Assert.assertEquals("exampleSDID@32473", message.getSdElements().get(0).getKey());
+        Assert.assertEquals(2, message.getSdElements().get(0).getValue().size());
+        Assert.assertEquals("iut", message.getSdElements().get(0).getValue().get(0).getKey());
+        Assert.assertEquals("3", message.getSdElements().get(0).getValue().get(0).getValue());
+        Assert.assertEquals("App\\\"]", message.getSdElements().get(0).getValue().get(1).getValue());
+        Assert.assertEquals("examplePriority@32473", message.getSdElements().get(1).getKey());
+        Assert.assertTrue(message.getSdElements().get(1).getValue().isEmpty());
+    }
+
+    @Test
+    public void testRfc5424Timestamp() {
+        SyslogMessage message = parser.parse("<0>1 2003-10-11T22:14:15 - - - - -");
+        Assert.assertEquals(0, message.getPriority());
+        Assert.assertEquals(1065910455000L, message.getTimestamp());
+        Assert.assertFalse(message.getTimestampStr().isPresent());
+        Assert.assertFalse(message.getMsg().isPresent());
+        Assert.assertTrue(message.getSdElements().isEmpty());
+    }
+
+    @Test
+    public void testBsdMessage() {
+        SyslogMessage message = parser.parse("<13>Feb  5 17:32:18 10.0.0.99 Use the BFG!");
+        Assert.assertEquals(13, message.getPriority());
+        Assert.assertEquals(0, message.getHeaderVersion());
+        Assert.assertEquals("10.0.0.99", message.getHostname().get());
+        Assert.assertEquals("Use the BFG!", message.getMsg().get());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testTooManyPriorityDigits() {
+        parser.parse("<0013>1 - - - - - -");
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testPriorityTooLarge() {
+        parser.parse("<256>1 - - - - - -");
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testMissingPriority() {
+        parser.parse("<>1 - - - - - -");
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testUnsupportedVersion() {
+        parser.parse("<13>2 - - - - - -");
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testMissingHeaderFields() {
+        parser.parse("<13>1 - - - - -");
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testMissingRightBracket() {
+        parser.parse("<13>1 - - - - - [a b=\"c\"");
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testWrongSdParam() {
+        parser.parse("<13>1 - - - - - [a b=c]");
+    }
+}
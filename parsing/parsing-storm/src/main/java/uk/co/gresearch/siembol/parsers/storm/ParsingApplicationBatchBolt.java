@@ -0,0 +1,189 @@
+package uk.co.gresearch.siembol.parsers.storm;
+
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.apache.storm.task.OutputCollector;
+import org.apache.storm.task.TopologyContext;
+import org.apache.storm.tuple.Tuple;
+import org.apache.storm.tuple.Values;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.co.gresearch.siembol.common.model.StormParsingApplicationAttributesDto;
+import uk.co.gresearch.siembol.common.storm.KafkaBatchWriterMessages;
+import uk.co.gresearch.siembol.common.storm.TupleBatch;
+import uk.co.gresearch.siembol.common.zookeeper.ZooKeeperConnectorFactory;
+import uk.co.gresearch.siembol.parsers.application.factory.ParsingApplicationFactoryAttributes;
+import uk.co.gresearch.siembol.parsers.application.parsing.ParsingApplicationParser;
+import uk.co.gresearch.siembol.parsers.application.parsing.ParsingApplicationResult;
+
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.apache.storm.Config.TOPOLOGY_TICK_TUPLE_FREQ_SECS;
+
+/**
+ * Parsing application bolt that collects tuples into a batch and parses the batch.
+ * The batch is parsed when it reaches the batch size or when the batch timeout elapses.
+ * The batch is split into parts that are parsed in parallel by a bounded thread pool of the bolt.
+ * If the application contains a stateful parser, e.g. netflow, the batch is split by the source
+ * of the messages so that the messages of a source are parsed in order by one thread.
+ * Messages of the batch are emitted in one tuple anchored to all the tuples of the batch
+ * in the order of the tuples. A batch of an idle stream is parsed on a tick tuple with the interval derived
+ * from the batch timeout.
+ */
+public class ParsingApplicationBatchBolt extends ParsingApplicationBolt {
+    private static final long serialVersionUID = 1L;
+    private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+    private static final String PARSING_BATCH_LOG = "Parsing batch of {} messages";
+    private static final String BATCH_EXCEPTION_LOG = "Exception during parsing a batch: {}";
+
+    private final int numThreads;
+    private final TupleBatch<BatchMessage> batch;
+    private transient ExecutorService executorService;
+
+    private static class BatchMessage {
+        private final String metadata;
+        private final byte[] log;
+
+        BatchMessage(String metadata, byte[] log) {
+            this.metadata = metadata;
+            this.log = log;
+        }
+    }
+
+    ParsingApplicationBatchBolt(StormParsingApplicationAttributesDto attributes,
+                                ParsingApplicationFactoryAttributes parsingAttributes,
+                                ZooKeeperConnectorFactory zooKeeperConnectorFactory) throws Exception {
+        super(attributes, parsingAttributes, zooKeeperConnectorFactory);
+        this.numThreads = attributes.getParsingBatchThreads();
+        this.batch = new TupleBatch<>(attributes.getParsingBatchSize(), attributes.getParsingBatchTimeoutMs());
+    }
+
+    @SuppressWarnings("rawtypes")
+    @Override
+    public void prepare(Map map, TopologyContext topologyContext, OutputCollector outputCollector) {
+        super.prepare(map, topologyContext, outputCollector);
+        if (numThreads > 1) {
+            executorService = Executors.newFixedThreadPool(numThreads);
+        }
+    }
+
+    @Override
+    public void cleanup() {
+        if (executorService != null) {
+            executorService.shutdownNow();
+            executorService = null;
+        }
+        super.cleanup();
+    }
+
+    @Override
+    public Map<String, Object> getComponentConfiguration() {
+        //NOTE: netflow templates snapshot is saved on the batch ticks if they are more frequent
+        Map<String, Object> config = super.getComponentConfiguration();
+        return config == null
+                || batch.getTickIntervalSec() < ((Number) config.get(TOPOLOGY_TICK_TUPLE_FREQ_SECS)).intValue()
+                ? batch.getComponentConfiguration()
+                : config;
+    }
+
+    @Override
+    public void execute(Tuple tuple) {
+        if (batch.isCompletedByTick(tuple)) {
+            parseBatch();
+        }
+        super.execute(tuple);
+    }
+
+    @Override
+    protected void processTuple(Tuple tuple) {
+        if (batch.add(tuple, new BatchMessage(getMetadata(tuple), getLog(tuple)))) {
+            parseBatch();
+        }
+    }
+
+    private List<ParsingApplicationResult> parsePart(ParsingApplicationParser parser, int begin, int end) {
+        List<BatchMessage> messages = batch.getValues();
+        List<ParsingApplicationResult> ret = new ArrayList<>();
+        for (int i = begin; i < end; i++) {
+            ret.addAll(parser.parse(messages.get(i).metadata, messages.get(i).log));
+        }
+        return ret;
+    }
+
+    private void parseMessages(ParsingApplicationParser parser,
+                               List<Integer> indices,
+                               List<List<ParsingApplicationResult>> messageResults) {
+        List<BatchMessage> messages = batch.getValues();
+        for (Integer i : indices) {
+            messageResults.set(i, parser.parse(messages.get(i).metadata, messages.get(i).log));
+        }
+    }
+
+    private List<ParsingApplicationResult> parseInParallel(ParsingApplicationParser parser) throws Exception {
+        List<BatchMessage> messages = batch.getValues();
+        int size = messages.size();
+        int partSize = (size + numThreads - 1) / numThreads;
+        boolean stateful = parser.isStateful();
+        List<List<Integer>> parts = new ArrayList<>();
+        for (int i = 0; i < numThreads; i++) {
+            parts.add(new ArrayList<>());
+        }
+
+        for (int i = 0; i < size; i++) {
+            //NOTE: messages of a source are parsed in order by one thread if the parser keeps a state, e.g. netflow
+            int part = stateful
+                    ? Math.floorMod(Objects.hashCode(messages.get(i).metadata), numThreads)
+                    : i / partSize;
+            parts.get(part).add(i);
+        }
+
+        List<List<ParsingApplicationResult>> messageResults = new ArrayList<>(Collections.nCopies(size, null));
+        List<Future<?>> futures = new ArrayList<>();
+        for (List<Integer> part : parts) {
+            if (!part.isEmpty()) {
+                futures.add(executorService.submit(() -> parseMessages(parser, part, messageResults)));
+            }
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+
+        //NOTE: results are collected in the order of the tuples
+        List<ParsingApplicationResult> ret = new ArrayList<>();
+        messageResults.forEach(ret::addAll);
+        return ret;
+    }
+
+    private void parseBatch() {
+        LOG.debug(PARSING_BATCH_LOG, batch.size());
+        ParsingApplicationParser currentParser = getParsingApplicationParser();
+        List<Tuple> anchors = batch.getAnchors();
+        try {
+            List<ParsingApplicationResult> results = executorService != null && batch.size() > 1
+                    ? parseInParallel(currentParser)
+                    : parsePart(currentParser, 0, batch.size());
+
+            KafkaBatchWriterMessages kafkaBatchWriterMessages = new KafkaBatchWriterMessages();
+            addResults(kafkaBatchWriterMessages, results);
+            if (!kafkaBatchWriterMessages.isEmpty()) {
+                collector.emit(new ArrayList<>(anchors), new Values(kafkaBatchWriterMessages));
+            }
+            anchors.forEach(x -> collector.ack(x));
+        } catch (Exception e) {
+            LOG.error(BATCH_EXCEPTION_LOG, ExceptionUtils.getStackTrace(e));
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            anchors.forEach(x -> collector.fail(x));
+        } finally {
+            batch.clear();
+        }
+    }
+}
@@ -23,11 +23,15 @@ import uk.co.gresearch.siembol.parsers.application.factory.ParsingApplicationFac
 import uk.co.gresearch.siembol.parsers.application.factory.ParsingApplicationFactoryResult;
 import uk.co.gresearch.siembol.parsers.application.parsing.ParsingApplicationParser;
 import uk.co.gresearch.siembol.parsers.application.parsing.ParsingApplicationResult;
+import uk.co.gresearch.siembol.parsers.netflow.NetflowTemplateStore;
 
 import java.lang.invoke.MethodHandles;
 import java.util.*;
 import java.util.concurrent.atomic.AtomicReference;
 
+import static org.apache.storm.utils.TupleUtils.isTick;
+import static org.apache.storm.utils.TupleUtils.putTickFrequencyIntoComponentConfig;
+
 public class ParsingApplicationBolt extends BaseRichBolt {
     private static final long serialVersionUID = 1L;
     private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
@@ -42,12 +46,17 @@ public class ParsingApplicationBolt extends BaseRichBolt {
     private static final String PARSERS_UPDATE_START = "Parser config update start";
     private static final String PARSERS_UPDATE_COMPLETED = "Parser config update completed";
     private static final String INVALID_TYPE_IN_TUPLE = "Invalid type in tuple";
+    private static final String NETFLOW_SNAPSHOT_EXCEPTION_LOG = "Exception during netflow templates snapshot: {}";
+    private static final String NETFLOW_SNAPSHOT_LOAD_EXCEPTION_LOG =
+            "Exception during loading netflow templates snapshot {}, starting without templates: {}";
+    private static final int NETFLOW_SNAPSHOT_INTERVAL_SEC = 60;
 
     private final AtomicReference<ParsingApplicationParser> parsingApplicationParser = new AtomicReference<>();
     private final ZooKeeperAttributesDto zookeperAttributes;
     private final String parsingAppSpecification;
+    private final String netflowTemplatesSnapshotPath;
 
-    private OutputCollector collector;
+    protected OutputCollector collector;
     private ZooKeeperConnector zooKeeperConnector;
     private final ZooKeeperConnectorFactory zooKeeperConnectorFactory;
 
@@ -56,6 +65,7 @@ public class ParsingApplicationBolt extends BaseRichBolt {
                            ZooKeeperConnectorFactory zooKeeperConnectorFactory) throws Exception {
         this.zookeperAttributes = attributes.getZookeeperAttributes();
         this.parsingAppSpecification = parsingAttributes.getApplicationParserSpecification();
+        this.netflowTemplatesSnapshotPath = attributes.getNetflowTemplatesSnapshotPath();
         this.zooKeeperConnectorFactory = zooKeeperConnectorFactory;
     }
 
@@ -71,6 +81,9 @@ public class ParsingApplicationBolt extends BaseRichBolt {
         try {
             LOG.info(INIT_START);
             zooKeeperConnector = zooKeeperConnectorFactory.createZookeeperConnector(zookeperAttributes);
+            if (netflowTemplatesSnapshotPath != null) {
+                loadNetflowTemplates();
+            }
 
             updateParsers();
             if (parsingApplicationParser.get() == null) {
@@ -87,7 +100,9 @@ public class ParsingApplicationBolt extends BaseRichBolt {
 
     private void updateParsers() {
         try {
-            ParsingApplicationFactory factory =  new ParsingApplicationFactoryImpl();
+            //NOTE: templates are shared by all netflow parsers in the worker
+            ParsingApplicationFactory factory =
+                    new ParsingApplicationFactoryImpl(NetflowTemplateStore.getWorkerInstance());
 
             LOG.info(PARSERS_UPDATE_START);
             String parserConfigs = zooKeeperConnector.getData();
@@ -109,28 +124,84 @@ public class ParsingApplicationBolt extends BaseRichBolt {
         }
     }
 
+    private void loadNetflowTemplates() {
+        try {
+            NetflowTemplateStore.getWorkerInstance().loadSnapshot(netflowTemplatesSnapshotPath);
+        } catch (Exception e) {
+            //NOTE: templates are learnt again from the exporters so a corrupted snapshot should not stop the bolt
+            LOG.error(NETFLOW_SNAPSHOT_LOAD_EXCEPTION_LOG, netflowTemplatesSnapshotPath,
+                    ExceptionUtils.getStackTrace(e));
+        }
+    }
+
+    private void saveNetflowTemplates() {
+        try {
+            //NOTE: the snapshot is written only if templates of the worker have changed since the last save
+            NetflowTemplateStore.getWorkerInstance().saveSnapshot(netflowTemplatesSnapshotPath);
+        } catch (Exception e) {
+            LOG.error(NETFLOW_SNAPSHOT_EXCEPTION_LOG, ExceptionUtils.getStackTrace(e));
+        }
+    }
+
     @Override
-    public void execute(Tuple tuple) {
-        ParsingApplicationParser currentParser = parsingApplicationParser.get();
+    public Map<String, Object> getComponentConfiguration() {
+        return netflowTemplatesSnapshotPath == null
+                ? null
+                : putTickFrequencyIntoComponentConfig(null, NETFLOW_SNAPSHOT_INTERVAL_SEC);
+    }
+
+    protected ParsingApplicationParser getParsingApplicationParser() {
+        return parsingApplicationParser.get();
+    }
 
-        String metadata = tuple.getStringByField(ParsingApplicationTuples.METADATA.toString());
+    protected byte[] getLog(Tuple tuple) {
         Object logObj = tuple.getValueByField(ParsingApplicationTuples.LOG.toString());
         if (!(logObj instanceof byte[])) {
             throw new IllegalArgumentException(INVALID_TYPE_IN_TUPLE);
         }
+        return (byte[])logObj;
+    }
+
+    protected String getMetadata(Tuple tuple) {
+        return tuple.getStringByField(ParsingApplicationTuples.METADATA.toString());
+    }
+
+    protected static void addResults(KafkaBatchWriterMessages messages, List<ParsingApplicationResult> results) {
+        results.forEach(x -> x.getMessages().forEach(y ->
+                messages.add(new KafkaBatchWriterMessage(x.getTopic(), y))));
+    }
+
+    protected void processTick() {
+        if (netflowTemplatesSnapshotPath != null) {
+            saveNetflowTemplates();
+        }
+    }
 
-        byte[] log = (byte[])logObj;
+    protected void processTuple(Tuple tuple) {
+        ParsingApplicationParser currentParser = getParsingApplicationParser();
+
+        String metadata = getMetadata(tuple);
+        byte[] log = getLog(tuple);
         ArrayList<ParsingApplicationResult> results = currentParser.parse(metadata, log);
         if (!results.isEmpty()) {
             KafkaBatchWriterMessages kafkaBatchWriterMessages = new KafkaBatchWriterMessages();
-            results.forEach(x -> x.getMessages().forEach(y ->
-                    kafkaBatchWriterMessages.add(new KafkaBatchWriterMessage(x.getTopic(), y))));
+            addResults(kafkaBatchWriterMessages, results);
             collector.emit(tuple, new Values(kafkaBatchWriterMessages));
         }
 
         collector.ack(tuple);
     }
 
+    @Override
+    public void execute(Tuple tuple) {
+        if (isTick(tuple)) {
+            processTick();
+            return;
+        }
+
+        processTuple(tuple);
+    }
+
     @Override
     public void declareOutputFields(OutputFieldsDeclarer declarer) {
         declarer.declare(new Fields(ParsingApplicationTuples.PARSING_MESSAGES.toString()));
@@ -71,8 +71,11 @@ public class StormParsingApplication {
                 new KafkaSpout<>(createKafkaSpoutConfig(stormAppAttributes)),
                 parsingAttributes.getInputParallelism());
 
+        ParsingApplicationBolt parsingApplicationBolt = stormAppAttributes.getParsingBatchSize() > 1
+                ? new ParsingApplicationBatchBolt(stormAppAttributes, parsingAttributes, zooKeeperConnectorFactory)
+                : new ParsingApplicationBolt(stormAppAttributes, parsingAttributes, zooKeeperConnectorFactory);
         builder.setBolt(parsingAttributes.getName(),
-                new ParsingApplicationBolt(stormAppAttributes, parsingAttributes, zooKeeperConnectorFactory),
+                parsingApplicationBolt,
                 parsingAttributes.getParsingParallelism())
                 .localOrShuffleGrouping(KAFKA_SPOUT);
 
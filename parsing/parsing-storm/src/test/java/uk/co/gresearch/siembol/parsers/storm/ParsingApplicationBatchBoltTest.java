@@ -0,0 +1,300 @@
+package uk.co.gresearch.siembol.parsers.storm;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.adrianwalker.multilinestring.Multiline;
+import org.apache.storm.Config;
+import org.apache.storm.Constants;
+import org.apache.storm.task.OutputCollector;
+import org.apache.storm.tuple.Tuple;
+import org.apache.storm.tuple.Values;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import uk.co.gresearch.siembol.common.constants.SiembolMessageFields;
+import uk.co.gresearch.siembol.common.model.StormParsingApplicationAttributesDto;
+import uk.co.gresearch.siembol.common.model.ZooKeeperAttributesDto;
+import uk.co.gresearch.siembol.common.storm.KafkaBatchWriterMessages;
+import uk.co.gresearch.siembol.common.zookeeper.ZooKeeperConnector;
+import uk.co.gresearch.siembol.common.zookeeper.ZooKeeperConnectorFactory;
+import uk.co.gresearch.siembol.parsers.application.factory.ParsingApplicationFactoryAttributes;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ParsingApplicationBatchBoltTest {
+    private static ObjectReader JSON_READER = new ObjectMapper()
+            .readerFor(new TypeReference<Map<String, Object>>() {});
+    /**
+     *{
+     *   "parsing_app_name": "test",
+     *   "parsing_app_version": 1,
+     *   "parsing_app_author": "dummy",
+     *   "parsing_app_description": "Description of parser application",
+     *   "parsing_app_settings": {
+     *     "input_topics": [
+     *       "secret"
+     *     ],
+     *     "parse_metadata" : false,
+     *     "error_topic": "error",
+     *     "input_parallelism": 1,
+     *     "parsing_parallelism": 2,
+     *     "output_parallelism": 3,
+     *     "parsing_app_type": "single_parser"
+     *   },
+     *   "parsing_settings": {
+     *     "single_parser": {
+     *       "parser_name": "single",
+     *       "output_topic": "output"
+     *     }
+     *   }
+     * }
+     **/
+    @Multiline
+    public static String simpleSingleApplicationParser;
+
+    /**
+     * {
+     *   "parsers_version": 1,
+     *   "parsers_configurations": [
+     *     {
+     *       "parser_description": "for testing single app parser",
+     *       "parser_version": 2,
+     *       "parser_name": "single",
+     *       "parser_author": "dummy",
+     *       "parser_attributes": {
+     *         "parser_type": "generic"
+     *       }
+     *     }
+     *   ]
+     * }
+     **/
+    @Multiline
+    public static String testParsersConfigs;
+
+    /**
+     * {
+     *   "parsers_version": 1,
+     *   "parsers_configurations": [
+     *     {
+     *       "parser_description": "for testing netflow app parser",
+     *       "parser_version": 1,
+     *       "parser_name": "single",
+     *       "parser_author": "dummy",
+     *       "parser_attributes": {
+     *         "parser_type": "netflow"
+     *       }
+     *     }
+     *   ]
+     * }
+     **/
+    @Multiline
+    public static String testNetflowParsersConfigs;
+
+    private OutputCollector collector;
+    private ParsingApplicationBatchBolt parsingApplicationBolt;
+    private ParsingApplicationFactoryAttributes parsingAttributes;
+    private ZooKeeperAttributesDto zookeperAttributes;
+    private StormParsingApplicationAttributesDto attributes;
+    private ZooKeeperConnector zooKeeperConnector;
+    private ZooKeeperConnectorFactory zooKeeperConnectorFactory;
+    private ArgumentCaptor<Values> argumentEmitCaptor;
+    private ArgumentCaptor<Collection<Tuple>> anchorsCaptor;
+
+    private Tuple createTuple(String metadata, byte[] log) {
+        Tuple tuple = Mockito.mock(Tuple.class);
+        when(tuple.getStringByField(eq(ParsingApplicationTuples.METADATA.toString()))).thenReturn(metadata);
+        when(tuple.getValueByField(eq(ParsingApplicationTuples.LOG.toString()))).thenReturn(log);
+        return tuple;
+    }
+
+    private Tuple createTuple(String log) {
+        return createTuple("{}", log.getBytes());
+    }
+
+    private byte[] createIpfixMessage(int sequence, boolean template) {
+        ByteBuffer buffer = ByteBuffer.allocate(80);
+        buffer.putShort((short)10).putShort((short)0).putInt(1521721700).putInt(sequence).putInt(19);
+        if (template) {
+            buffer.putShort((short)2).putShort((short)28).putShort((short)256).putShort((short)4);
+            buffer.putShort((short)8).putShort((short)4);
+            buffer.putShort((short)0x8001).putShort((short)2).putInt(12345);
+            buffer.putShort((short)82).putShort((short)65535);
+            buffer.putShort((short)4).putShort((short)1);
+        } else {
+            buffer.putShort((short)256).putShort((short)16);
+            buffer.put(new byte[]{10, 0, 0, 1}).putShort((short)7);
+            buffer.put((byte)3).put("eth".getBytes(StandardCharsets.UTF_8)).put((byte)6);
+            buffer.put((byte)0);
+        }
+
+        int length = buffer.position();
+        buffer.putShort(2, (short)length);
+        return Arrays.copyOf(buffer.array(), length);
+    }
+
+    private Tuple createTickTuple() {
+        Tuple tuple = Mockito.mock(Tuple.class);
+        when(tuple.getSourceComponent()).thenReturn(Constants.SYSTEM_COMPONENT_ID);
+        when(tuple.getSourceStreamId()).thenReturn(Constants.SYSTEM_TICK_STREAM_ID);
+        return tuple;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Before
+    public void setUp() throws Exception {
+        parsingAttributes = new ParsingApplicationFactoryAttributes();
+        parsingAttributes.setApplicationParserSpecification(simpleSingleApplicationParser);
+
+        zookeperAttributes = new ZooKeeperAttributesDto();
+        attributes = new StormParsingApplicationAttributesDto();
+        attributes.setZookeeperAttributes(zookeperAttributes);
+        attributes.setParsingBatchSize(3);
+        attributes.setParsingBatchThreads(2);
+        attributes.setParsingBatchTimeoutMs(1);
+
+        collector = Mockito.mock(OutputCollector.class);
+        argumentEmitCaptor = ArgumentCaptor.forClass(Values.class);
+        anchorsCaptor = ArgumentCaptor.forClass(Collection.class);
+        zooKeeperConnectorFactory = Mockito.mock(ZooKeeperConnectorFactory.class);
+
+        zooKeeperConnector = Mockito.mock(ZooKeeperConnector.class);
+        when(zooKeeperConnectorFactory.createZookeeperConnector(zookeperAttributes)).thenReturn(zooKeeperConnector);
+        when(zooKeeperConnector.getData()).thenReturn(testParsersConfigs);
+        when(collector.emit(anchorsCaptor.capture(), argumentEmitCaptor.capture())).thenReturn(new ArrayList<>());
+    }
+
+    @After
+    public void tearDown() {
+        if (parsingApplicationBolt != null) {
+            parsingApplicationBolt.cleanup();
+        }
+    }
+
+    @Test
+    public void testBatchInOrder() throws Exception {
+        attributes.setParsingBatchTimeoutMs(100000);
+        parsingApplicationBolt = new ParsingApplicationBatchBolt(attributes, parsingAttributes, zooKeeperConnectorFactory);
+        parsingApplicationBolt.prepare(null, null, collector);
+
+        List<Tuple> tuples = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            tuples.add(createTuple("RAW_LOG_" + i));
+            parsingApplicationBolt.execute(tuples.get(i));
+            if (i < 2) {
+                verify(collector, never()).ack(tuples.get(i));
+            }
+        }
+
+        Assert.assertEquals(tuples, new ArrayList<>(anchorsCaptor.getValue()));
+        Values values = argumentEmitCaptor.getValue();
+        Assert.assertEquals(1, values.size());
+        KafkaBatchWriterMessages messages = (KafkaBatchWriterMessages)values.get(0);
+        Assert.assertEquals(3, messages.size());
+        for (int i = 0; i < 3; i++) {
+            Assert.assertEquals("output", messages.get(i).getTopic());
+            Map<String, Object> parsed = JSON_READER.readValue(messages.get(i).getMessage());
+            Assert.assertEquals("RAW_LOG_" + i, parsed.get(SiembolMessageFields.ORIGINAL.toString()));
+            verify(collector, times(1)).ack(tuples.get(i));
+        }
+    }
+
+    @Test
+    public void testBatchTimeout() throws Exception {
+        attributes.setParsingBatchSize(100);
+        parsingApplicationBolt = new ParsingApplicationBatchBolt(attributes, parsingAttributes, zooKeeperConnectorFactory);
+        parsingApplicationBolt.prepare(null, null, collector);
+
+        Tuple tuple = createTuple("RAW_LOG");
+        parsingApplicationBolt.execute(tuple);
+        Thread.sleep(2);
+        parsingApplicationBolt.execute(createTickTuple());
+
+        verify(collector, times(1)).ack(tuple);
+        KafkaBatchWriterMessages messages = (KafkaBatchWriterMessages)argumentEmitCaptor.getValue().get(0);
+        Assert.assertEquals(1, messages.size());
+        Map<String, Object> parsed = JSON_READER.readValue(messages.get(0).getMessage());
+        Assert.assertEquals("RAW_LOG", parsed.get(SiembolMessageFields.ORIGINAL.toString()));
+    }
+
+    @Test
+    public void testTickBeforeTimeout() throws Exception {
+        attributes.setParsingBatchSize(100);
+        attributes.setParsingBatchTimeoutMs(100000);
+        parsingApplicationBolt = new ParsingApplicationBatchBolt(attributes, parsingAttributes, zooKeeperConnectorFactory);
+        parsingApplicationBolt.prepare(null, null, collector);
+
+        Tuple tuple = createTuple("RAW_LOG");
+        parsingApplicationBolt.execute(tuple);
+        parsingApplicationBolt.execute(createTickTuple());
+        verify(collector, never()).ack(tuple);
+    }
+
+    @Test
+    public void testTickFrequencyFromTimeout() throws Exception {
+        attributes.setParsingBatchTimeoutMs(100);
+        parsingApplicationBolt = new ParsingApplicationBatchBolt(attributes, parsingAttributes, zooKeeperConnectorFactory);
+        Assert.assertEquals(1,
+                parsingApplicationBolt.getComponentConfiguration().get(Config.TOPOLOGY_TICK_TUPLE_FREQ_SECS));
+
+        attributes.setParsingBatchTimeoutMs(5500);
+        parsingApplicationBolt = new ParsingApplicationBatchBolt(attributes, parsingAttributes, zooKeeperConnectorFactory);
+        Assert.assertEquals(5,
+                parsingApplicationBolt.getComponentConfiguration().get(Config.TOPOLOGY_TICK_TUPLE_FREQ_SECS));
+
+        attributes.setParsingBatchTimeoutMs(3600 * 1000);
+        attributes.setNetflowTemplatesSnapshotPath("/tmp/templates.snapshot");
+        parsingApplicationBolt = new ParsingApplicationBatchBolt(attributes, parsingAttributes, zooKeeperConnectorFactory);
+        Assert.assertEquals(60,
+                parsingApplicationBolt.getComponentConfiguration().get(Config.TOPOLOGY_TICK_TUPLE_FREQ_SECS));
+    }
+
+    @Test
+    public void testNetflowTemplateAndDataInDifferentParts() throws Exception {
+        attributes.setParsingBatchSize(2);
+        attributes.setParsingBatchTimeoutMs(100000);
+        when(zooKeeperConnector.getData()).thenReturn(testNetflowParsersConfigs);
+        parsingApplicationBolt = new ParsingApplicationBatchBolt(attributes, parsingAttributes, zooKeeperConnectorFactory);
+        parsingApplicationBolt.prepare(null, null, collector);
+
+        Tuple templateTuple = createTuple("10.1.1.19", createIpfixMessage(1, true));
+        Tuple dataTuple = createTuple("10.1.1.19", createIpfixMessage(2, false));
+        parsingApplicationBolt.execute(templateTuple);
+        parsingApplicationBolt.execute(dataTuple);
+
+        verify(collector, times(1)).ack(templateTuple);
+        verify(collector, times(1)).ack(dataTuple);
+        KafkaBatchWriterMessages messages = (KafkaBatchWriterMessages)argumentEmitCaptor.getValue().get(0);
+        Assert.assertEquals(1, messages.size());
+        Assert.assertEquals("output", messages.get(0).getTopic());
+        Map<String, Object> parsed = JSON_READER.readValue(messages.get(0).getMessage());
+        Assert.assertFalse(parsed.containsKey("netflow_unknown_template"));
+        Assert.assertEquals("10.0.0.1", parsed.get("ip_src_addr"));
+        Assert.assertEquals("eth", parsed.get("if_name"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testExceptionNullData() throws Exception {
+        parsingApplicationBolt = new ParsingApplicationBatchBolt(attributes, parsingAttributes, zooKeeperConnectorFactory);
+        parsingApplicationBolt.prepare(null, null, collector);
+
+        Tuple tuple = createTuple("RAW_LOG");
+        when(tuple.getValueByField(eq(ParsingApplicationTuples.LOG.toString()))).thenReturn(null);
+        parsingApplicationBolt.execute(tuple);
+    }
+}
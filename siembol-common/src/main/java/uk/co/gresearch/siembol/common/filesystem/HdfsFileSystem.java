@@ -1,12 +1,14 @@
 package uk.co.gresearch.siembol.common.filesystem;
 
 import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.FileSystem;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.lang.invoke.MethodHandles;
 import java.net.URI;
+import java.util.Optional;
 import org.apache.hadoop.fs.Path;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -15,6 +17,7 @@ public class HdfsFileSystem implements SiembolFileSystem {
     private static final Logger LOG = LoggerFactory
             .getLogger(MethodHandles.lookup().lookupClass());
     private static final String FILE_DOES_NOT_EXIST_MSG = "The file: %s does not exist";
+    private static final String FILE_VERSION_FORMAT = "%d_%d";
     private final FileSystem fs;
 
     public HdfsFileSystem(String uri, Configuration configuration) throws IOException {
@@ -36,6 +39,13 @@ public class HdfsFileSystem implements SiembolFileSystem {
         }
     }
 
+    @Override
+    public Optional<String> getFileVersion(String path) throws IOException {
+        //NOTE: a rewritten file is detected by its modification time and its length
+        FileStatus status = fs.getFileStatus(new Path(path));
+        return Optional.of(String.format(FILE_VERSION_FORMAT, status.getModificationTime(), status.getLen()));
+    }
+
     @Override
     public void close() throws IOException {
         fs.close();
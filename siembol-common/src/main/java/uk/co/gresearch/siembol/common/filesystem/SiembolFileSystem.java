@@ -3,7 +3,18 @@ package uk.co.gresearch.siembol.common.filesystem;
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Optional;
 
 public interface SiembolFileSystem extends Closeable {
     InputStream openInputStream(String path) throws IOException;
+
+    /**
+     * Provides the version of the file that changes when the file is rewritten on the same path
+     * @param path the path of the file
+     * @return the version of the file or empty if the file system does not support versions
+     * @throws IOException if the file status can not be obtained
+     */
+    default Optional<String> getFileVersion(String path) throws IOException {
+        return Optional.empty();
+    }
 }
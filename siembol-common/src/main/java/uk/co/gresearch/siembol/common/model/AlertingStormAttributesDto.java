@@ -19,6 +19,25 @@ public class AlertingStormAttributesDto extends AdminConfigDto implements Serial
     @Attributes(description = "The number of seconds for cleaning correlation context", minimum = 1)
     @JsonProperty("alerts.engine.clean.interval.sec")
     private Integer alertingEngineCleanIntervalSec = 1;
+    @Attributes(description = "The directory for snapshots of correlation context, the context is kept only in memory if not provided")
+    @JsonProperty("alerts.engine.state.snapshot.directory")
+    private String alertingEngineStateSnapshotDirectory;
+    @Attributes(description = "The number of seconds for checkpointing correlation context", minimum = 1)
+    @JsonProperty("alerts.engine.state.checkpoint.interval.sec")
+    private Integer alertingEngineStateCheckpointIntervalSec = 60;
+    @Attributes(description = "The number of events evaluated by the alerting engine in one batch, batching is disabled if 1", minimum = 1)
+    @JsonProperty("alerts.engine.batch.size")
+    private Integer alertingEngineBatchSize = 1;
+    @Attributes(description = "The maximum number of milliseconds for collecting a batch of events, " +
+            "a batch of an idle stream is completed by a storm tick with the granularity of seconds", minimum = 1)
+    @JsonProperty("alerts.engine.batch.timeout.ms")
+    private Integer alertingEngineBatchTimeoutMs = 1000;
+    @Attributes(description = "Enforcing rule protection limits on all matches of a storm worker instead of matches of one kafka writer executor")
+    @JsonProperty("alerts.rule.protection.worker.shared")
+    private Boolean ruleProtectionWorkerShared = false;
+    @Attributes(description = "The maximum number of tuples with records in flight in a kafka writer executor", minimum = 1)
+    @JsonProperty("kafka.writer.max.pending.tuples")
+    private Integer kafkaWriterMaxPendingTuples = 1000;
     @Attributes(required = true, description = "The kafka input topics for reading messages", minItems = 1)
     @JsonProperty("alerts.input.topics")
     private List<String> inputTopics;
@@ -74,6 +93,54 @@ public class AlertingStormAttributesDto extends AdminConfigDto implements Serial
         this.alertingEngineCleanIntervalSec = AlertingEngineCleanIntervalSec;
     }
 
+    public String getAlertingEngineStateSnapshotDirectory() {
+        return alertingEngineStateSnapshotDirectory;
+    }
+
+    public void setAlertingEngineStateSnapshotDirectory(String alertingEngineStateSnapshotDirectory) {
+        this.alertingEngineStateSnapshotDirectory = alertingEngineStateSnapshotDirectory;
+    }
+
+    public Integer getAlertingEngineStateCheckpointIntervalSec() {
+        return alertingEngineStateCheckpointIntervalSec;
+    }
+
+    public void setAlertingEngineStateCheckpointIntervalSec(Integer alertingEngineStateCheckpointIntervalSec) {
+        this.alertingEngineStateCheckpointIntervalSec = alertingEngineStateCheckpointIntervalSec;
+    }
+
+    public Integer getAlertingEngineBatchSize() {
+        return alertingEngineBatchSize;
+    }
+
+    public void setAlertingEngineBatchSize(Integer alertingEngineBatchSize) {
+        this.alertingEngineBatchSize = alertingEngineBatchSize;
+    }
+
+    public Integer getAlertingEngineBatchTimeoutMs() {
+        return alertingEngineBatchTimeoutMs;
+    }
+
+    public void setAlertingEngineBatchTimeoutMs(Integer alertingEngineBatchTimeoutMs) {
+        this.alertingEngineBatchTimeoutMs = alertingEngineBatchTimeoutMs;
+    }
+
+    public Boolean getRuleProtectionWorkerShared() {
+        return ruleProtectionWorkerShared;
+    }
+
+    public void setRuleProtectionWorkerShared(Boolean ruleProtectionWorkerShared) {
+        this.ruleProtectionWorkerShared = ruleProtectionWorkerShared;
+    }
+
+    public Integer getKafkaWriterMaxPendingTuples() {
+        return kafkaWriterMaxPendingTuples;
+    }
+
+    public void setKafkaWriterMaxPendingTuples(Integer kafkaWriterMaxPendingTuples) {
+        this.kafkaWriterMaxPendingTuples = kafkaWriterMaxPendingTuples;
+    }
+
     public List<String> getInputTopics() {
         return inputTopics;
     }
@@ -56,6 +56,10 @@ public class StormEnrichmentAttributesDto extends AdminConfigDto implements Seri
     @Attributes(required = true, description = "the url for hdfs cluster where enriching tables are stored")
     @JsonProperty("enriching.tables.hdfs.uri")
     private String enrichingTablesHdfsUri;
+    @Attributes(description = "The local directory for memory mapped enriching tables shared by workers on the host, " +
+            "tables are loaded on the heap of workers if not provided")
+    @JsonProperty("enriching.tables.local.directory")
+    private String enrichingTablesLocalDirectory;
 
     public String getTopologyName() {
         return topologyName;
@@ -161,6 +165,14 @@ public class StormEnrichmentAttributesDto extends AdminConfigDto implements Seri
         this.enrichingTablesHdfsUri = enrichingTablesHdfsUri;
     }
 
+    public String getEnrichingTablesLocalDirectory() {
+        return enrichingTablesLocalDirectory;
+    }
+
+    public void setEnrichingTablesLocalDirectory(String enrichingTablesLocalDirectory) {
+        this.enrichingTablesLocalDirectory = enrichingTablesLocalDirectory;
+    }
+
     public List<String> getEnrichingInputTopics() {
         return enrichingInputTopics;
     }
@@ -42,6 +42,22 @@ public class StormParsingApplicationAttributesDto extends AdminConfigDto impleme
     @JsonProperty("overridden.applications")
     private List<OverriddenApplicationAttributesDto> overriddenApplications;
 
+    @Attributes(description = "The path to a local file used for persisting netflow templates of a worker, " +
+            "the templates are not persisted if the path is not provided")
+    @JsonProperty("netflow.templates.snapshot.path")
+    private String netflowTemplatesSnapshotPath;
+
+    @Attributes(description = "The number of messages parsed by a parsing bolt in one batch, batching is disabled if 1",
+            minimum = 1)
+    @JsonProperty("parsing.batch.size")
+    private Integer parsingBatchSize = 1;
+    @Attributes(description = "The maximum number of milliseconds for collecting a batch of messages", minimum = 1)
+    @JsonProperty("parsing.batch.timeout.ms")
+    private Integer parsingBatchTimeoutMs = 1000;
+    @Attributes(description = "The number of threads used by a parsing bolt for parsing a batch of messages",
+            minimum = 1)
+    @JsonProperty("parsing.batch.threads")
+    private Integer parsingBatchThreads = 1;
 
     public String getClientIdPrefix() {
         return clientIdPrefix;
@@ -91,6 +107,38 @@ public class StormParsingApplicationAttributesDto extends AdminConfigDto impleme
         this.overriddenApplications = overriddenApplications;
     }
 
+    public String getNetflowTemplatesSnapshotPath() {
+        return netflowTemplatesSnapshotPath;
+    }
+
+    public void setNetflowTemplatesSnapshotPath(String netflowTemplatesSnapshotPath) {
+        this.netflowTemplatesSnapshotPath = netflowTemplatesSnapshotPath;
+    }
+
+    public Integer getParsingBatchSize() {
+        return parsingBatchSize;
+    }
+
+    public void setParsingBatchSize(Integer parsingBatchSize) {
+        this.parsingBatchSize = parsingBatchSize;
+    }
+
+    public Integer getParsingBatchTimeoutMs() {
+        return parsingBatchTimeoutMs;
+    }
+
+    public void setParsingBatchTimeoutMs(Integer parsingBatchTimeoutMs) {
+        this.parsingBatchTimeoutMs = parsingBatchTimeoutMs;
+    }
+
+    public Integer getParsingBatchThreads() {
+        return parsingBatchThreads;
+    }
+
+    public void setParsingBatchThreads(Integer parsingBatchThreads) {
+        this.parsingBatchThreads = parsingBatchThreads;
+    }
+
     public String getTopologyNamePrefix() {
         return topologyNamePrefix;
     }
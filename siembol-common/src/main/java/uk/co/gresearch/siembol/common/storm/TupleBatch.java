@@ -0,0 +1,95 @@
+package uk.co.gresearch.siembol.common.storm;
+
+import org.apache.storm.tuple.Tuple;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.apache.storm.utils.TupleUtils.isTick;
+import static org.apache.storm.utils.TupleUtils.putTickFrequencyIntoComponentConfig;
+
+/**
+ * Batch of tuples collected by a bolt together with the values extracted from the tuples.
+ * The batch is completed when it reaches the batch size or when the batch timeout elapses since its first tuple.
+ * A batch of an idle stream is completed on a tick tuple. Storm ticks have a granularity of seconds,
+ * so the tick interval is derived from the timeout with the minimum of one second.
+ */
+public class TupleBatch<T> implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private static final long MILLIS_PER_SECOND = 1000L;
+    private static final String INVALID_BATCH_ATTRIBUTES = "Batch size and batch timeout should be positive";
+
+    private final int batchSize;
+    private final long batchTimeoutMs;
+    private final ArrayList<Tuple> anchors = new ArrayList<>();
+    private final ArrayList<T> values = new ArrayList<>();
+    private long batchStartTime;
+
+    public TupleBatch(int batchSize, long batchTimeoutMs) {
+        if (batchSize <= 0 || batchTimeoutMs <= 0) {
+            throw new IllegalArgumentException(INVALID_BATCH_ATTRIBUTES);
+        }
+        this.batchSize = batchSize;
+        this.batchTimeoutMs = batchTimeoutMs;
+    }
+
+    /**
+     * Adds the tuple into the batch
+     * @param tuple the tuple used as an anchor of the batch
+     * @param value the value extracted from the tuple
+     * @return true if the batch is completed after adding the tuple
+     */
+    public boolean add(Tuple tuple, T value) {
+        if (anchors.isEmpty()) {
+            batchStartTime = System.currentTimeMillis();
+        }
+
+        anchors.add(tuple);
+        values.add(value);
+        return anchors.size() >= batchSize || isTimeoutElapsed();
+    }
+
+    /**
+     * Checks whether the tuple is a tick tuple
+     * @param tuple the tuple received by the bolt
+     * @return true if the tuple is a tick tuple and it completes a non empty batch after the timeout
+     */
+    public boolean isCompletedByTick(Tuple tuple) {
+        return isTick(tuple) && !anchors.isEmpty() && isTimeoutElapsed();
+    }
+
+    private boolean isTimeoutElapsed() {
+        return System.currentTimeMillis() - batchStartTime >= batchTimeoutMs;
+    }
+
+    public int getTickIntervalSec() {
+        return (int) Math.max(1L, batchTimeoutMs / MILLIS_PER_SECOND);
+    }
+
+    public Map<String, Object> getComponentConfiguration() {
+        return putTickFrequencyIntoComponentConfig(null, getTickIntervalSec());
+    }
+
+    public List<Tuple> getAnchors() {
+        return anchors;
+    }
+
+    public List<T> getValues() {
+        return values;
+    }
+
+    public int size() {
+        return anchors.size();
+    }
+
+    public boolean isEmpty() {
+        return anchors.isEmpty();
+    }
+
+    public void clear() {
+        anchors.clear();
+        values.clear();
+    }
+}